@@ -2,21 +2,22 @@ package org.folio.dataexp.client;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
-import org.folio.dataexp.domain.dto.Holdings;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.service.annotation.GetExchange;
+import org.folio.dataexp.domain.dto.BatchIds;
+import org.folio.dataexp.domain.dto.ConsortiumHoldingCollection;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.service.annotation.HttpExchange;
+import org.springframework.web.service.annotation.PostExchange;
 
 /** Feign client for searching consortium holdings. */
 @HttpExchange(url = "search/consortium")
 public interface ConsortiumSearchClient {
 
   /**
-   * Retrieves holdings by holding ID.
+   * Retrieves the holdings of all tenants of the consortium by a batch of identifiers.
    *
-   * @param holdingId the holding ID
-   * @return the holdings record
+   * @param batchIds the identifiers, holding IDs or instance IDs
+   * @return the consortium holdings found
    */
-  @GetExchange(value = "/holding/{holdingId}", accept = APPLICATION_JSON_VALUE)
-  Holdings getHoldingsById(@PathVariable String holdingId);
+  @PostExchange(value = "/batch/holdings", accept = APPLICATION_JSON_VALUE)
+  ConsortiumHoldingCollection getHoldingsByIds(@RequestBody BatchIds batchIds);
 }
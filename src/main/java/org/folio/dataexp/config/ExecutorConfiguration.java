@@ -6,8 +6,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
-/** Configuration class for setting up the TaskExecutor for export files. */
+/**
+ * Configuration class for setting up the executors for export files, their leases, error logs and
+ * job execution progress.
+ */
 @Configuration
 public class ExecutorConfiguration {
 
@@ -29,4 +33,46 @@ public class ExecutorConfiguration {
     executor.initialize();
     return executor;
   }
+
+  /**
+   * Creates a single-threaded scheduler flushing buffered error logs in the background.
+   *
+   * @return a configured ThreadPoolTaskScheduler
+   */
+  @Bean
+  public ThreadPoolTaskScheduler errorLogFlushScheduler() {
+    var scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(1);
+    scheduler.setThreadNamePrefix("error-log-flush-");
+    scheduler.initialize();
+    return scheduler;
+  }
+
+  /**
+   * Creates a single-threaded scheduler renewing the leases of export files in the background.
+   *
+   * @return a configured ThreadPoolTaskScheduler
+   */
+  @Bean
+  public ThreadPoolTaskScheduler exportFileLeaseScheduler() {
+    var scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(1);
+    scheduler.setThreadNamePrefix("export-file-lease-");
+    scheduler.initialize();
+    return scheduler;
+  }
+
+  /**
+   * Creates a single-threaded scheduler flushing job execution progress in the background.
+   *
+   * @return a configured ThreadPoolTaskScheduler
+   */
+  @Bean
+  public ThreadPoolTaskScheduler progressFlushScheduler() {
+    var scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(1);
+    scheduler.setThreadNamePrefix("progress-flush-");
+    scheduler.initialize();
+    return scheduler;
+  }
 }
@@ -26,7 +26,6 @@ import org.folio.dataexp.client.OkapiClient;
 import org.folio.dataexp.client.OkapiUserPermissionsClient;
 import org.folio.dataexp.client.QueryClient;
 import org.folio.dataexp.client.SearchClient;
-import org.folio.dataexp.client.SearchConsortiumHoldings;
 import org.folio.dataexp.client.SettingsBaseUrlClient;
 import org.folio.dataexp.client.SourceStorageClient;
 import org.folio.dataexp.client.UserClient;
@@ -315,17 +314,6 @@ public class HttpClientConfiguration {
     return factory.createClient(SearchClient.class);
   }
 
-  /**
-   * Creates a {@link SearchConsortiumHoldings} bean.
-   *
-   * @param factory the {@link HttpServiceProxyFactory} used to create the client proxy
-   * @return a proxy instance of {@link SearchConsortiumHoldings}
-   */
-  @Bean
-  public SearchConsortiumHoldings searchConsortiumHoldings(HttpServiceProxyFactory factory) {
-    return factory.createClient(SearchConsortiumHoldings.class);
-  }
-
   /**
    * Creates a {@link SourceStorageClient} bean.
    *
@@ -3,6 +3,7 @@ package org.folio.dataexp.controllers;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.folio.dataexp.rest.resource.ExpireJobsApi;
+import org.folio.dataexp.service.ExportResumeService;
 import org.folio.dataexp.service.JobExecutionService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,14 +17,17 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/data-export")
 public class ExpireJobsController implements ExpireJobsApi {
   private final JobExecutionService jobExecutionService;
+  private final ExportResumeService exportResumeService;
 
   /**
-   * Expires job executions.
+   * Resumes the expired job executions that can be resumed from their checkpoints, and expires the
+   * others.
    *
    * @return response entity with no content status
    */
   @Override
   public ResponseEntity<Void> postExpireJobExecution() {
+    exportResumeService.resumeExpiredJobExecutions();
     jobExecutionService.expireJobExecutions();
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
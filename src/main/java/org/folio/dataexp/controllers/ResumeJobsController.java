@@ -0,0 +1,34 @@
+package org.folio.dataexp.controllers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.folio.dataexp.rest.resource.ResumeJobsApi;
+import org.folio.dataexp.service.ExportFileClaimer;
+import org.folio.dataexp.service.ExportResumeService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Controller for resuming job executions whose instance died. */
+@RestController
+@RequiredArgsConstructor
+@Log4j2
+@RequestMapping("/data-export")
+public class ResumeJobsController implements ResumeJobsApi {
+  private final ExportFileClaimer exportFileClaimer;
+  private final ExportResumeService exportResumeService;
+
+  /**
+   * Claims the export files whose leases expired, and resumes the expired job executions that can
+   * be resumed from their checkpoints.
+   *
+   * @return response entity with no content status
+   */
+  @Override
+  public ResponseEntity<Void> postResumeJobExecutions() {
+    exportFileClaimer.claimExpiredExportFiles();
+    exportResumeService.resumeExpiredJobExecutions();
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
+}
@@ -0,0 +1,33 @@
+package org.folio.dataexp.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO for a batch search of consortium records by a list of identifiers. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchIds {
+
+  /** Type of the identifiers. */
+  private IdentifierType identifierType;
+
+  /** Identifier values to search by. */
+  private List<String> identifierValues = new ArrayList<>();
+
+  /** Supported identifier types. */
+  public enum IdentifierType {
+    /** Record ID. */
+    @JsonProperty("id")
+    ID,
+    /** ID of the instance the record belongs to. */
+    @JsonProperty("instanceId")
+    INSTANCE_ID
+  }
+}
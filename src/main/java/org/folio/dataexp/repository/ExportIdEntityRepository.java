@@ -65,21 +65,6 @@ public interface ExportIdEntityRepository extends JpaRepository<ExportIdEntity,
   @Query("DELETE ExportIdEntity e WHERE e.jobExecutionId = :jobExecutionId")
   int deleteWithJobExecutionId(@Param("jobExecutionId") UUID jobExecutionId);
 
-  /**
-   * Inserts export ID.
-   *
-   * @param jobExecutionId job execution UUID
-   * @param instanceId instance UUID
-   */
-  @Modifying
-  @Query(
-      value =
-          "INSERT INTO job_executions_export_ids (job_execution_id, instance_id)"
-              + " VALUES (?1, ?2)"
-              + " ON CONFLICT DO NOTHING",
-      nativeQuery = true)
-  void insertExportId(UUID jobExecutionId, UUID instanceId);
-
   /**
    * Gets export IDs by job execution ID and instance ID range.
    *
@@ -18,10 +18,10 @@ public interface HoldingsRecordEntityRepository extends JpaRepository<HoldingsRe
   List<HoldingsRecordEntity> findByIdIn(Set<UUID> ids);
 
   /**
-   * Finds holdings by instance ID.
+   * Finds holdings by a set of instance IDs.
    *
-   * @param instanceId instance UUID
+   * @param instanceIds set of instance UUIDs
    * @return list of holdings record entities
    */
-  List<HoldingsRecordEntity> findByInstanceIdIs(UUID instanceId);
+  List<HoldingsRecordEntity> findByInstanceIdIn(Set<UUID> instanceIds);
 }
@@ -1,9 +1,13 @@
 package org.folio.dataexp.repository;
 
+import java.util.Collection;
 import java.util.UUID;
 import org.folio.dataexp.domain.entity.JobExecutionEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /** Repository for {@link JobExecutionEntity}. */
 public interface JobExecutionEntityRepository extends JpaRepository<JobExecutionEntity, UUID> {
@@ -15,4 +19,173 @@ public interface JobExecutionEntityRepository extends JpaRepository<JobExecution
    */
   @Query("SELECT nextval('job_execution_hrId')")
   int getHrid();
+
+  /**
+   * Sets the completion date of the job execution unless it is already set. Of several concurrent
+   * callers, only one sets it.
+   *
+   * @param id job execution UUID
+   * @return number of updated rows, 1 for the caller that completes the job execution
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE job_executions SET completed_date = timezone('UTC', now())"
+              + " WHERE id = :id AND completed_date IS NULL",
+      nativeQuery = true)
+  int claimCompletion(@Param("id") UUID id);
+
+  /**
+   * Stores the export request of the job execution and the tenant and user who started it, so the
+   * job can be resumed after a restart.
+   *
+   * @param id job execution UUID
+   * @param exportRequest the export request serialized to JSON
+   * @param resumeUser the tenant and user serialized to JSON
+   * @return number of updated rows
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE job_executions SET export_request = cast(:exportRequest AS jsonb),"
+              + " resume_user = cast(:resumeUser AS jsonb) WHERE id = :id",
+      nativeQuery = true)
+  int saveExportRequest(
+      @Param("id") UUID id,
+      @Param("exportRequest") String exportRequest,
+      @Param("resumeUser") String resumeUser);
+
+  /**
+   * Gets the stored export request of the job execution.
+   *
+   * @param id job execution UUID
+   * @return the export request serialized to JSON, or null if none is stored
+   */
+  @Query(
+      value = "SELECT cast(export_request AS text) FROM job_executions WHERE id = :id",
+      nativeQuery = true)
+  String getExportRequest(@Param("id") UUID id);
+
+  /**
+   * Gets the stored tenant and user who started the job execution.
+   *
+   * @param id job execution UUID
+   * @return the tenant and user serialized to JSON, or null if none are stored
+   */
+  @Query(
+      value = "SELECT cast(resume_user AS text) FROM job_executions WHERE id = :id",
+      nativeQuery = true)
+  String getResumeUser(@Param("id") UUID id);
+
+  /**
+   * Counts a resume of the job execution unless it has been resumed the maximum number of times,
+   * resets its number of finished export files to the files that are not exported again, and marks
+   * the export files exported again as not counted, so they are counted once more when finished.
+   *
+   * @param id job execution UUID
+   * @param maxResumes the maximum number of resumes
+   * @param finishedExports the number of export files that are not exported again
+   * @param exportIds the UUIDs of the export files exported again
+   * @return number of export files exported again, 0 if the job execution may not be resumed any
+   *     more
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "WITH resumed AS (UPDATE job_executions SET resume_count = resume_count + 1,"
+              + " finished_exports = :finishedExports"
+              + " WHERE id = :id AND resume_count < :maxResumes RETURNING id)"
+              + " UPDATE job_execution_export_files SET counted = false"
+              + " WHERE id IN (:exportIds) AND job_execution_id IN (SELECT id FROM resumed)",
+      nativeQuery = true)
+  int claimResume(
+      @Param("id") UUID id,
+      @Param("maxResumes") int maxResumes,
+      @Param("finishedExports") int finishedExports,
+      @Param("exportIds") Collection<UUID> exportIds);
+
+  /**
+   * Counts a finished export file of the job execution, adds its failed and duplicated SRS records
+   * to the progress, and refreshes the last updated date. The export file is marked as counted and
+   * keeps its failed and duplicated SRS records in the same statement, so an export file that is
+   * finished again is not counted twice and only the difference to its previous records is added.
+   * The row lock of the update orders concurrent callers, so every caller gets a distinct number of
+   * finished export files.
+   *
+   * @param id job execution UUID
+   * @param exportId export file UUID
+   * @param failed number of failed records of the export file
+   * @param duplicatedSrs number of duplicated SRS records of the export file
+   * @return number of finished export files of the job execution, or null if it or the export file
+   *     does not exist
+   */
+  @Transactional
+  @Query(
+      value =
+          "WITH export AS (UPDATE job_execution_export_files e SET counted = true,"
+              + " failed = :failed, duplicated_srs = :duplicatedSrs"
+              + " FROM job_execution_export_files previous"
+              + " WHERE e.id = :exportId AND e.job_execution_id = :id AND previous.id = e.id"
+              + " RETURNING CASE WHEN previous.counted THEN 0 ELSE 1 END AS finished,"
+              + " :failed - previous.failed AS failed,"
+              + " :duplicatedSrs - previous.duplicated_srs AS duplicated_srs)"
+              + " UPDATE job_executions SET finished_exports = finished_exports + export.finished,"
+              + " failed = coalesce(job_executions.failed, 0) + export.failed,"
+              + " jsonb = jsonb_set(jsonb_set(jsonb_set(jsonb, '{progress,failed}',"
+              + " to_jsonb(coalesce(cast(jsonb #>> '{progress,failed}' AS INTEGER), 0)"
+              + " + export.failed)), '{progress,duplicatedSrs}', to_jsonb(coalesce("
+              + "cast(jsonb #>> '{progress,duplicatedSrs}' AS INTEGER), 0)"
+              + " + export.duplicated_srs)),"
+              + " '{lastUpdatedDate}', to_jsonb(cast(extract(epoch FROM now()) * 1000 AS BIGINT)))"
+              + " FROM export WHERE job_executions.id = :id RETURNING finished_exports",
+      nativeQuery = true)
+  Integer finishExport(
+      @Param("id") UUID id,
+      @Param("exportId") UUID exportId,
+      @Param("failed") int failed,
+      @Param("duplicatedSrs") int duplicatedSrs);
+
+  /**
+   * Sets the number of exported records of the job execution and refreshes its last updated date,
+   * without rewriting the rest of the job execution.
+   *
+   * @param id job execution UUID
+   * @param exported number of exported records
+   * @return number of updated rows
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE job_executions SET exported = :exported,"
+              + " jsonb = jsonb_set(jsonb_set(jsonb, '{progress,exported}',"
+              + " to_jsonb(cast(:exported AS INTEGER))),"
+              + " '{lastUpdatedDate}', to_jsonb(cast(extract(epoch FROM now()) * 1000 AS BIGINT)))"
+              + " WHERE id = :id",
+      nativeQuery = true)
+  int updateExported(@Param("id") UUID id, @Param("exported") int exported);
+
+  /**
+   * Sets the number of read IDs of the job execution, raises its total to them if it is lower, and
+   * refreshes its last updated date, without rewriting the rest of the job execution.
+   *
+   * @param id job execution UUID
+   * @param readIds number of read IDs
+   * @return number of updated rows
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE job_executions SET total = greatest(coalesce(total, 0), :readIds),"
+              + " jsonb = jsonb_set(jsonb_set(jsonb_set(jsonb, '{progress,readIds}',"
+              + " to_jsonb(cast(:readIds AS INTEGER))), '{progress,total}', to_jsonb(greatest("
+              + "coalesce(cast(jsonb #>> '{progress,total}' AS INTEGER), 0), :readIds))),"
+              + " '{lastUpdatedDate}', to_jsonb(cast(extract(epoch FROM now()) * 1000 AS BIGINT)))"
+              + " WHERE id = :id",
+      nativeQuery = true)
+  int updateReadIds(@Param("id") UUID id, @Param("readIds") int readIds);
 }
@@ -4,6 +4,10 @@ import java.util.List;
 import java.util.UUID;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /** Repository for {@link JobExecutionExportFilesEntity}. */
 public interface JobExecutionExportFilesEntityRepository
@@ -16,4 +20,110 @@ public interface JobExecutionExportFilesEntityRepository
    * @return list of job execution export files entities
    */
   List<JobExecutionExportFilesEntity> findByJobExecutionId(UUID jobExecutionId);
+
+  /**
+   * Counts export files by job execution ID.
+   *
+   * @param jobExecutionId job execution UUID
+   * @return number of export files of the job execution
+   */
+  long countByJobExecutionId(UUID jobExecutionId);
+
+  /**
+   * Leases the export file to the owner, marks it as active and counts the lease attempt if it is
+   * scheduled or its lease has expired. A row locked by a concurrent lease is skipped instead of
+   * waited for.
+   *
+   * @param id export file UUID
+   * @param owner the instance taking the lease
+   * @param leaseDuration the lease duration in seconds
+   * @return number of leased rows, 0 or 1
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE job_execution_export_files SET status = 'ACTIVE', leased_by = :owner,"
+              + " lease_attempts = lease_attempts + 1, lease_expires_at = now() + :leaseDuration * interval '1 second'"
+              + " WHERE id IN (SELECT id FROM job_execution_export_files WHERE id = :id"
+              + " AND (status = 'SCHEDULED' OR (status = 'ACTIVE' AND lease_expires_at < now()))"
+              + " FOR UPDATE SKIP LOCKED)",
+      nativeQuery = true)
+  int acquireLease(
+      @Param("id") UUID id,
+      @Param("owner") String owner,
+      @Param("leaseDuration") long leaseDuration);
+
+  /**
+   * Extends the lease of an active export file held by the owner.
+   *
+   * @param id export file UUID
+   * @param owner the instance holding the lease
+   * @param leaseDuration the lease duration in seconds
+   * @return number of renewed rows, 0 if the lease is not held by the owner any more
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE job_execution_export_files"
+              + " SET lease_expires_at = now() + :leaseDuration * interval '1 second'"
+              + " WHERE id = :id AND leased_by = :owner AND status = 'ACTIVE'",
+      nativeQuery = true)
+  int renewLease(
+      @Param("id") UUID id,
+      @Param("owner") String owner,
+      @Param("leaseDuration") long leaseDuration);
+
+  /**
+   * Clears the lease of the export file held by the owner once its final status is saved. The
+   * lease of an export file that is still active is kept, so it expires and the file can be
+   * claimed again.
+   *
+   * @param id export file UUID
+   * @param owner the instance holding the lease
+   * @return number of released rows
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE job_execution_export_files SET leased_by = NULL, lease_expires_at = NULL"
+              + " WHERE id = :id AND leased_by = :owner AND status <> 'ACTIVE'",
+      nativeQuery = true)
+  int releaseLease(@Param("id") UUID id, @Param("owner") String owner);
+
+  /**
+   * Finds active export files of running job executions whose leases have expired, because the
+   * instance exporting them died, oldest expired lease first. Export files leased the maximum
+   * number of times are skipped, as their exports keep killing the instances exporting them; their
+   * job executions are expired once they are not updated any more.
+   *
+   * @param maxLeaseAttempts the maximum number of leases of an export file
+   * @param limit the maximum number of export files to find
+   * @return export files that can be claimed
+   */
+  @Query(
+      value =
+          "SELECT * FROM job_execution_export_files WHERE status = 'ACTIVE'"
+              + " AND lease_expires_at < now() AND lease_attempts < :maxLeaseAttempts"
+              + " AND job_execution_id IN"
+              + " (SELECT id FROM job_executions WHERE status = 'IN_PROGRESS')"
+              + " ORDER BY lease_expires_at LIMIT :limit",
+      nativeQuery = true)
+  List<JobExecutionExportFilesEntity> findExpiredLeases(
+      @Param("maxLeaseAttempts") int maxLeaseAttempts, @Param("limit") int limit);
+
+  /**
+   * Counts the active export files of the job execution whose leases have not expired.
+   *
+   * @param jobExecutionId job execution UUID
+   * @return number of export files being exported
+   */
+  @Query(
+      value =
+          "SELECT count(*) FROM job_execution_export_files WHERE job_execution_id = :jobExecutionId"
+              + " AND status = 'ACTIVE' AND lease_expires_at > now()",
+      nativeQuery = true)
+  long countLiveLeases(@Param("jobExecutionId") UUID jobExecutionId);
 }
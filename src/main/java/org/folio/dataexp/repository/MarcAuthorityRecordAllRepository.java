@@ -15,6 +15,7 @@ public interface MarcAuthorityRecordAllRepository extends Repository<MarcRecordE
    *
    * @param fromId start external UUID
    * @param toId end external UUID
+   * @param fromRecordId lowest record UUID to return, used as the keyset pagination cursor
    * @param page pageable
    * @return slice of MarcRecordEntity
    */
@@ -26,15 +27,18 @@ public interface MarcAuthorityRecordAllRepository extends Repository<MarcRecordE
               + " WHERE state = 'ACTUAL'"
               + " AND leader_record_status != 'd'"
               + " AND external_id BETWEEN ?1 AND ?2"
+              + " AND id >= ?3"
               + " ORDER BY id ASC",
       nativeQuery = true)
-  Slice<MarcRecordEntity> findAllWithoutDeleted(UUID fromId, UUID toId, Pageable page);
+  Slice<MarcRecordEntity> findAllWithoutDeleted(
+      UUID fromId, UUID toId, UUID fromRecordId, Pageable page);
 
   /**
    * Finds all authority records including deleted.
    *
    * @param fromId start external UUID
    * @param toId end external UUID
+   * @param fromRecordId lowest record UUID to return, used as the keyset pagination cursor
    * @param page pageable
    * @return slice of MarcRecordEntity
    */
@@ -44,9 +48,11 @@ public interface MarcAuthorityRecordAllRepository extends Repository<MarcRecordE
               + " suppress_discovery, generation"
               + " FROM v_authority_all"
               + " WHERE external_id BETWEEN ?1 AND ?2"
+              + " AND id >= ?3"
               + " ORDER BY id ASC",
       nativeQuery = true)
-  Slice<MarcRecordEntity> findAllWithDeleted(UUID fromId, UUID toId, Pageable page);
+  Slice<MarcRecordEntity> findAllWithDeleted(
+      UUID fromId, UUID toId, UUID fromRecordId, Pageable page);
 
   /**
    * Counts all authority records.
@@ -16,6 +16,7 @@ public interface MarcInstanceAllRepository extends Repository<MarcRecordEntity,
    *
    * @param fromId start external UUID
    * @param toId end external UUID
+   * @param fromRecordId lowest record UUID to return, used as the keyset pagination cursor
    * @param page pageable
    * @return slice of MarcRecordEntity
    */
@@ -23,15 +24,18 @@ public interface MarcInstanceAllRepository extends Repository<MarcRecordEntity,
       value =
           "SELECT * FROM v_marc_instance_all_non_deleted"
               + " WHERE external_id BETWEEN ?1 AND ?2"
+              + " AND id >= ?3"
               + " ORDER BY id ASC",
       nativeQuery = true)
-  Slice<MarcRecordEntity> findMarcInstanceAllNonDeleted(UUID fromId, UUID toId, Pageable page);
+  Slice<MarcRecordEntity> findMarcInstanceAllNonDeleted(
+      UUID fromId, UUID toId, UUID fromRecordId, Pageable page);
 
   /**
    * Finds all non-deleted, non-suppressed MARC instances.
    *
    * @param fromId start external UUID
    * @param toId end external UUID
+   * @param fromRecordId lowest record UUID to return, used as the keyset pagination cursor
    * @param page pageable
    * @return slice of MarcRecordEntity
    */
@@ -39,10 +43,11 @@ public interface MarcInstanceAllRepository extends Repository<MarcRecordEntity,
       value =
           "SELECT * FROM v_marc_instance_all_non_deleted_non_suppressed"
               + " WHERE external_id BETWEEN ?1 AND ?2"
+              + " AND id >= ?3"
               + " ORDER BY id ASC",
       nativeQuery = true)
   Slice<MarcRecordEntity> findMarcInstanceAllNonDeletedNonSuppressed(
-      UUID fromId, UUID toId, Pageable page);
+      UUID fromId, UUID toId, UUID fromRecordId, Pageable page);
 
   /**
    * Finds all deleted MARC instances.
@@ -26,6 +26,7 @@ import org.folio.dataexp.repository.InstanceEntityRepository;
 import org.folio.dataexp.repository.JobProfileEntityRepository;
 import org.folio.dataexp.repository.MappingProfileEntityRepository;
 import org.folio.dataexp.repository.MarcAuthorityRecordAllRepository;
+import org.folio.dataexp.service.export.S3ExportsUploader;
 import org.folio.dataexp.service.validators.DataExportRequestValidator;
 import org.folio.dataexp.util.Constants;
 import org.folio.dataexp.util.S3FilePathUtils;
@@ -52,6 +53,7 @@ public class DataExportService {
   private final InstanceEntityRepository instanceEntityRepository;
   private final MarcAuthorityRecordAllRepository marcAuthorityRecordAllRepository;
   private final MappingProfileEntityRepository mappingProfileEntityRepository;
+  private final S3ExportsUploader s3ExportsUploader;
   private final ExecutorService executor = Executors.newCachedThreadPool();
 
   /**
@@ -60,6 +62,17 @@ public class DataExportService {
    * @param exportRequest The export request.
    */
   public void postDataExport(ExportRequest exportRequest) {
+    postDataExport(exportRequest, new CommonExportStatistic());
+  }
+
+  /**
+   * Initiates a data export operation of export IDs some of which were already counted, such as the
+   * duplicates skipped when the IDs of a quick export were saved.
+   *
+   * @param exportRequest The export request.
+   * @param commonExportFails Export statistics collected before the export.
+   */
+  public void postDataExport(ExportRequest exportRequest, CommonExportStatistic commonExportFails) {
     var fileDefinitionEntity =
         fileDefinitionEntityRepository.getReferenceById(exportRequest.getFileDefinitionId());
     FileDefinition fileDefinition;
@@ -106,7 +119,6 @@ public class DataExportService {
 
     updateJobExecutionForPostDataExport(
         jobExecution, JobExecution.StatusEnum.IN_PROGRESS, exportRequest);
-    var commonExportFails = new CommonExportStatistic();
     executor.execute(
         getRunnableWithCurrentFolioContext(
             () -> {
@@ -119,6 +131,8 @@ public class DataExportService {
               slicerProcessor.sliceInstancesIds(
                   fileDefinition, exportRequest, mappingProfileEntity.getFormat());
               log.info("Instance IDs have been sliced successfully.");
+              s3ExportsUploader.exportSingleFileInPlace(
+                  jobExecution, FilenameUtils.getBaseName(fileDefinition.getFileName()));
 
               updateJobExecutionForPostDataExport(
                   jobExecution, JobExecution.StatusEnum.IN_PROGRESS, exportRequest);
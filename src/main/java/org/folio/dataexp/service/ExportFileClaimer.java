@@ -0,0 +1,91 @@
+package org.folio.dataexp.service;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
+import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.service.export.ExportCheckpointService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Claims the export files of running jobs whose leases expired because the instance exporting them
+ * died, and exports them again on this instance for the tenant and user who started the job. The
+ * lease of a claimed file is acquired with SKIP LOCKED when its export starts, so of several
+ * instances claiming the same file only one exports it.
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class ExportFileClaimer {
+
+  private final JobExecutionService jobExecutionService;
+  private final JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
+  private final ExportCheckpointService exportCheckpointService;
+  private final SingleFileProcessorAsync singleFileProcessorAsync;
+  private int batchSize;
+  private int maxLeaseAttempts;
+
+  @Value("#{T(Integer).parseInt('${application.export-files.claim-batch-size}')}")
+  protected void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  @Value("#{T(Integer).parseInt('${application.export-files.max-lease-attempts}')}")
+  protected void setMaxLeaseAttempts(int maxLeaseAttempts) {
+    this.maxLeaseAttempts = maxLeaseAttempts;
+  }
+
+  /**
+   * Claims and exports again the export files whose leases expired, unless they have been leased
+   * the maximum number of times.
+   */
+  public void claimExpiredExportFiles() {
+    if (!exportCheckpointService.isEnabled()) {
+      return;
+    }
+    for (var export :
+        jobExecutionExportFilesEntityRepository.findExpiredLeases(maxLeaseAttempts, batchSize)) {
+      try {
+        claim(export);
+      } catch (RuntimeException e) {
+        log.error(
+            "claimExpiredExportFiles:: Export {} of job execution {} cannot be claimed: {}",
+            export.getFileLocation(),
+            export.getJobExecutionId(),
+            e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Exports the export file again if the export request and the tenant and user of its job
+   * execution are stored.
+   *
+   * @param export the export file whose lease expired
+   * @return true if the export file is queued for export
+   */
+  boolean claim(JobExecutionExportFilesEntity export) {
+    var jobExecutionId = export.getJobExecutionId();
+    var exportRequest = exportCheckpointService.getExportRequest(jobExecutionId);
+    var resumeUser = exportCheckpointService.getResumeUser(jobExecutionId);
+    if (exportRequest.isEmpty() || resumeUser.isEmpty()) {
+      return false;
+    }
+    var exports =
+        SingleFileProcessor.inExportOrder(
+            jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecutionId));
+    var progress = jobExecutionService.getById(jobExecutionId).getProgress();
+    log.info(
+        "claim:: Claiming export {} of job execution {}", export.getFileLocation(), jobExecutionId);
+    singleFileProcessorAsync.resumeBySingleFile(
+        jobExecutionId,
+        List.of(export),
+        exports.getLast().getId().equals(export.getId()),
+        exportRequest.get(),
+        resumeUser.get(),
+        progress == null || progress.getExported() == null ? 0 : progress.getExported());
+    return true;
+  }
+}
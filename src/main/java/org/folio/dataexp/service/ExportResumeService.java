@@ -0,0 +1,126 @@
+package org.folio.dataexp.service;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.folio.dataexp.domain.dto.JobExecution;
+import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
+import org.folio.dataexp.domain.entity.JobExecutionExportFilesStatus;
+import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.service.export.ExportCheckpointService;
+import org.folio.dataexp.service.export.ExportCompletionTracker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resumes expired export jobs whose instance died. Files that were exported before and have a
+ * checkpoint are kept; all other files of the job are exported again, and the final file is built
+ * from the checkpoints and the new outputs. A job is resumed at most the configured number of
+ * times, after that it expires as before.
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class ExportResumeService {
+
+  private static final Set<JobExecutionExportFilesStatus> FINISHED_STATUSES =
+      EnumSet.of(
+          JobExecutionExportFilesStatus.COMPLETED,
+          JobExecutionExportFilesStatus.COMPLETED_WITH_ERRORS);
+
+  private final JobExecutionService jobExecutionService;
+  private final JobExecutionEntityRepository jobExecutionEntityRepository;
+  private final JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
+  private final ExportCheckpointService exportCheckpointService;
+  private final SingleFileProcessorAsync singleFileProcessorAsync;
+  private final ExportCompletionTracker exportCompletionTracker;
+  private int maxResumes;
+
+  @Value("#{T(Integer).parseInt('${application.export-checkpoints.max-resumes}')}")
+  protected void setMaxResumes(int maxResumes) {
+    this.maxResumes = maxResumes;
+  }
+
+  /** Resumes the expired job executions that can be resumed from their checkpoints. */
+  public void resumeExpiredJobExecutions() {
+    if (!exportCheckpointService.isEnabled()) {
+      return;
+    }
+    for (var jobExecution : jobExecutionService.getExpiredJobExecutions()) {
+      try {
+        resume(jobExecution);
+      } catch (RuntimeException e) {
+        log.error(
+            "resumeExpiredJobExecutions:: Job execution {} cannot be resumed: {}",
+            jobExecution.getId(),
+            e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Resumes the job execution if its export request and tenant and user are stored, none of its
+   * files is being exported, and it has not been resumed the maximum number of times.
+   *
+   * @param jobExecution the expired job execution
+   * @return true if the job execution is resumed
+   */
+  boolean resume(JobExecution jobExecution) {
+    var jobExecutionId = jobExecution.getId();
+    var exportRequest = exportCheckpointService.getExportRequest(jobExecutionId);
+    var resumeUser = exportCheckpointService.getResumeUser(jobExecutionId);
+    if (exportRequest.isEmpty()
+        || resumeUser.isEmpty()
+        || jobExecutionExportFilesEntityRepository.countLiveLeases(jobExecutionId) > 0) {
+      return false;
+    }
+    var exports =
+        SingleFileProcessor.inExportOrder(
+            jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecutionId));
+    var checkpoints = exportCheckpointService.getCheckpoints(jobExecutionId);
+    var exportsToResume =
+        exports.stream().filter(export -> isToResume(export, checkpoints)).toList();
+    var finishedExports = exports.size() - exportsToResume.size();
+    if (exportsToResume.isEmpty()
+        || jobExecutionEntityRepository.claimResume(
+                jobExecutionId,
+                maxResumes,
+                finishedExports,
+                exportsToResume.stream().map(JobExecutionExportFilesEntity::getId).toList())
+            == 0) {
+      return false;
+    }
+    exportCompletionTracker.reset(jobExecutionId);
+    var includesLastExport = exportsToResume.contains(exports.getLast());
+    log.info(
+        "resume:: Resuming job execution {} with {} of {} files",
+        jobExecutionId,
+        exportsToResume.size(),
+        exports.size());
+    exportsToResume.forEach(export -> export.setStatus(JobExecutionExportFilesStatus.SCHEDULED));
+    jobExecutionExportFilesEntityRepository.saveAll(exportsToResume);
+    jobExecution.setLastUpdatedDate(new Date());
+    jobExecutionService.save(jobExecution);
+    var progress = jobExecution.getProgress();
+    singleFileProcessorAsync.resumeBySingleFile(
+        jobExecutionId,
+        exportsToResume,
+        includesLastExport,
+        exportRequest.get(),
+        resumeUser.get(),
+        progress == null || progress.getExported() == null ? 0 : progress.getExported());
+    return true;
+  }
+
+  /** Checks whether the file is exported again: it is not finished or has no checkpoint. */
+  boolean isToResume(JobExecutionExportFilesEntity export, Set<String> checkpoints) {
+    if (export.getStatus() == JobExecutionExportFilesStatus.FAILED) {
+      return false;
+    }
+    return !FINISHED_STATUSES.contains(export.getStatus())
+        || !exportCheckpointService.hasCheckpoint(checkpoints, export);
+  }
+}
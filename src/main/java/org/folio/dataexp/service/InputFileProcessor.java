@@ -14,7 +14,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -31,8 +30,8 @@ import org.folio.dataexp.domain.dto.IdsJob;
 import org.folio.dataexp.domain.dto.IdsJobPayload;
 import org.folio.dataexp.domain.entity.ExportIdEntity;
 import org.folio.dataexp.exception.export.DataExportException;
-import org.folio.dataexp.repository.ExportIdEntityRepository;
 import org.folio.dataexp.service.logs.ErrorLogService;
+import org.folio.dataexp.util.CompactUuidSet;
 import org.folio.dataexp.util.Constants;
 import org.folio.dataexp.util.S3FilePathUtils;
 import org.folio.s3.client.FolioS3Client;
@@ -51,12 +50,12 @@ public class InputFileProcessor {
   @Value("#{ T(Integer).parseInt('${application.wait-search-ids-time}')}")
   private int waitSearchIdsTimeSeconds;
 
-  private final ExportIdEntityRepository exportIdEntityRepository;
   private final FolioS3Client s3Client;
   private final SearchClient searchClient;
   private final ErrorLogService errorLogService;
   private final JobExecutionService jobExecutionService;
   private final InsertExportIdService insertExportIdService;
+  private final JobExecutionProgressPublisher jobExecutionProgressPublisher;
 
   /**
    * Reads the input file and processes IDs or CQL queries for export.
@@ -71,7 +70,7 @@ public class InputFileProcessor {
       ExportRequest.IdTypeEnum idType) {
     try {
       if (fileDefinition.getUploadFormat() == FileDefinition.UploadFormatEnum.CQL) {
-        readCqlFile(fileDefinition, idType);
+        readCqlFile(fileDefinition, commonExportStatistic, idType);
       } else {
         readCsvFile(fileDefinition, commonExportStatistic);
       }
@@ -96,7 +95,8 @@ public class InputFileProcessor {
   }
 
   /**
-   * Reads a CSV file, processes IDs, and updates export statistics.
+   * Reads a CSV file in a single pass, processes IDs, and updates export statistics. The progress
+   * total grows with the read IDs, and already read IDs are tracked in a compact set.
    *
    * @param fileDefinition The file definition.
    * @param commonExportStatistic Export statistics.
@@ -105,20 +105,12 @@ public class InputFileProcessor {
       FileDefinition fileDefinition, CommonExportStatistic commonExportStatistic) {
     var jobExecution = jobExecutionService.getById(fileDefinition.getJobExecutionId());
     var progress = jobExecution.getProgress();
+    var jobProgress = jobExecutionProgressPublisher.open(jobExecution.getId());
     var pathToRead =
         S3FilePathUtils.getPathToUploadedFiles(
             fileDefinition.getId(), fileDefinition.getFileName());
-
-    try (InputStream is = s3Client.read(pathToRead);
-        BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-      progress.setTotal((int) reader.lines().count());
-      jobExecutionService.save(jobExecution);
-    } catch (Exception e) {
-      commonExportStatistic.setFailedToReadInputFile(true);
-      log.error("Failed to read for file definition {}", fileDefinition.getId(), e);
-    }
     var batch = new ArrayList<ExportIdEntity>();
-    var readIds = new HashSet<>();
+    var readIds = new CompactUuidSet();
     var duplicatedIds = new HashMap<UUID, Integer>();
     var countOfRead = new AtomicInteger();
     try (InputStream is = s3Client.read(pathToRead);
@@ -128,7 +120,7 @@ public class InputFileProcessor {
           .forEach(
               id -> {
                 countOfRead.incrementAndGet();
-                commonExportStatistic.setFailedToReadInputFile(false);
+                jobProgress.addReadIds(1);
                 var instanceId = id.replace("\"", StringUtils.EMPTY);
                 instanceId = StringUtils.stripStart(instanceId, "\uFEFF");
                 try {
@@ -137,9 +129,8 @@ public class InputFileProcessor {
                           .jobExecutionId(fileDefinition.getJobExecutionId())
                           .instanceId(UUID.fromString(instanceId))
                           .build();
-                  if (!readIds.contains(entity.getInstanceId())) {
+                  if (readIds.add(entity.getInstanceId())) {
                     batch.add(entity);
-                    readIds.add(entity.getInstanceId());
                   } else {
                     commonExportStatistic.incrementDuplicatedUuid();
                     var countDuplicated = duplicatedIds.getOrDefault(entity.getInstanceId(), 1) + 1;
@@ -150,9 +141,8 @@ public class InputFileProcessor {
                   commonExportStatistic.addToInvalidUuidFormat(instanceId);
                 }
                 if (batch.size() == BATCH_SIZE_TO_SAVE) {
-                  insertExportIdService.saveBatch(batch);
-                  progress.setReadIds(countOfRead.get());
-                  jobExecutionService.save(jobExecution);
+                  commonExportStatistic.incrementDuplicatedUuid(
+                      insertExportIdService.saveBatch(batch));
                   batch.clear();
                 }
               });
@@ -168,40 +158,25 @@ public class InputFileProcessor {
       commonExportStatistic.setFailedToReadInputFile(true);
       log.error("Failed to read for file definition {}", fileDefinition.getId(), e);
     }
-    insertExportIdService.saveBatch(batch);
+    commonExportStatistic.incrementDuplicatedUuid(insertExportIdService.saveBatch(batch));
+    jobExecutionProgressPublisher.close(jobExecution.getId());
+    progress.setTotal(countOfRead.get());
     progress.setReadIds(countOfRead.get());
     jobExecutionService.save(jobExecution);
-
-    int totalExportsIds =
-        (int) exportIdEntityRepository.countByJobExecutionId(jobExecution.getId());
-    int duplicated = getDuplicatedNumber(countOfRead.get(), totalExportsIds, commonExportStatistic);
-    commonExportStatistic.incrementDuplicatedUuid(duplicated);
-  }
-
-  /**
-   * Calculates the number of duplicated IDs.
-   *
-   * @param countOfRead Number of read IDs.
-   * @param totalExportsIds Number of exported IDs.
-   * @param commonExportStatistic Export statistics.
-   * @return Number of duplicated IDs.
-   */
-  private int getDuplicatedNumber(
-      int countOfRead, int totalExportsIds, CommonExportStatistic commonExportStatistic) {
-    return countOfRead
-        - totalExportsIds
-        - commonExportStatistic.getDuplicatedUuidAmount()
-        - commonExportStatistic.getInvalidUuidFormat().size();
   }
 
   /**
    * Reads a CQL file, submits a search job, and processes the results.
    *
    * @param fileDefinition The file definition.
+   * @param commonExportStatistic Export statistics.
    * @param idType The type of ID.
    * @throws IOException if reading fails.
    */
-  private void readCqlFile(FileDefinition fileDefinition, ExportRequest.IdTypeEnum idType)
+  private void readCqlFile(
+      FileDefinition fileDefinition,
+      CommonExportStatistic commonExportStatistic,
+      ExportRequest.IdTypeEnum idType)
       throws IOException {
     var pathToRead =
         S3FilePathUtils.getPathToUploadedFiles(
@@ -242,12 +217,14 @@ public class InputFileProcessor {
           var progress = jobExecution.getProgress();
           progress.setTotal(entities.size());
           jobExecutionService.save(jobExecution);
+          var jobProgress = jobExecutionProgressPublisher.open(jobExecution.getId());
           var partitions = ListUtils.partition(entities, BATCH_SIZE_TO_SAVE);
           for (var partition : partitions) {
-            insertExportIdService.saveBatch(partition);
-            progress.setReadIds(progress.getReadIds() + partition.size());
-            jobExecutionService.save(jobExecution);
+            commonExportStatistic.incrementDuplicatedUuid(
+                insertExportIdService.saveBatch(partition));
+            jobProgress.addReadIds(partition.size());
           }
+          jobExecutionProgressPublisher.close(jobExecution.getId());
         } else if (jobStatus == IdsJob.Status.ERROR) {
           log.error(ERROR_INVALID_CQL_SYNTAX.getDescription(), fileDefinition.getFileName());
           errorLogService.saveGeneralErrorWithMessageValues(
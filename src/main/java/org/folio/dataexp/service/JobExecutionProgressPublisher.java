@@ -0,0 +1,201 @@
+package org.folio.dataexp.service;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static org.folio.dataexp.util.FolioExecutionContextUtil.prepareContextForTenant;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.spring.FolioExecutionContext;
+import org.folio.spring.FolioModuleMetadata;
+import org.folio.spring.scope.FolioExecutionContextSetter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the progress of running job executions. Worker threads only add to the counters of
+ * their job; the counters that changed are written periodically in the background with narrow
+ * updates of the job execution, instead of saving the whole job execution from the worker threads.
+ * Writes run with the FOLIO execution context of the thread that opened the job, so they reach the
+ * tenant of the job.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class JobExecutionProgressPublisher {
+
+  private static final long DEFAULT_FLUSH_INTERVAL = 1000;
+  private static final long IDLE_TIME_BEFORE_EVICTION = HOURS.toMillis(1);
+
+  private final JobExecutionEntityRepository jobExecutionEntityRepository;
+  private final FolioExecutionContext folioExecutionContext;
+  private final FolioModuleMetadata folioModuleMetadata;
+  private final ThreadPoolTaskScheduler progressFlushScheduler;
+
+  private final Map<UUID, JobProgress> progresses = new ConcurrentHashMap<>();
+  private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+  private ScheduledFuture<?> periodicFlush;
+
+  @Value("#{T(Long).parseLong('${application.progress-flush-interval}')}")
+  protected void setFlushInterval(long flushInterval) {
+    this.flushInterval = flushInterval;
+  }
+
+  /**
+   * Starts publishing the progress of the job execution, or returns its progress if it is already
+   * published.
+   *
+   * @param jobExecutionId the job execution UUID
+   * @return the progress counters of the job execution
+   */
+  public JobProgress open(UUID jobExecutionId) {
+    var progress =
+        progresses.computeIfAbsent(
+            jobExecutionId,
+            id ->
+                new JobProgress(
+                    prepareContextForTenant(
+                        folioExecutionContext.getTenantId(),
+                        folioModuleMetadata,
+                        folioExecutionContext)));
+    startPeriodicFlush();
+    return progress;
+  }
+
+  /**
+   * Writes the changed progress counters of the job execution.
+   *
+   * @param jobExecutionId the job execution UUID
+   */
+  public void flush(UUID jobExecutionId) {
+    var progress = progresses.get(jobExecutionId);
+    if (progress != null) {
+      flush(jobExecutionId, progress);
+    }
+  }
+
+  /**
+   * Writes the changed progress counters of the job execution and stops publishing them.
+   *
+   * @param jobExecutionId the job execution UUID
+   */
+  public void close(UUID jobExecutionId) {
+    var progress = progresses.remove(jobExecutionId);
+    if (progress != null) {
+      flush(jobExecutionId, progress);
+    }
+  }
+
+  private synchronized void startPeriodicFlush() {
+    if (periodicFlush == null) {
+      periodicFlush =
+          progressFlushScheduler.scheduleWithFixedDelay(
+              this::flushAll, Duration.ofMillis(flushInterval));
+    }
+  }
+
+  private void flushAll() {
+    var now = System.currentTimeMillis();
+    progresses.forEach(
+        (jobExecutionId, progress) -> {
+          if (flush(jobExecutionId, progress)) {
+            progress.lastChange = now;
+          } else if (now - progress.lastChange > IDLE_TIME_BEFORE_EVICTION) {
+            // The job was not closed, e.g. because its export failed unexpectedly
+            progresses.remove(jobExecutionId);
+          }
+        });
+  }
+
+  private boolean flush(UUID jobExecutionId, JobProgress progress) {
+    synchronized (progress) {
+      var exported = progress.exported.sum();
+      var readIds = progress.readIds.sum();
+      var changed = false;
+      try (var ignored = new FolioExecutionContextSetter(progress.context)) {
+        if (exported != progress.flushedExported) {
+          jobExecutionEntityRepository.updateExported(jobExecutionId, (int) exported);
+          progress.flushedExported = exported;
+          changed = true;
+        }
+        if (readIds != progress.flushedReadIds) {
+          jobExecutionEntityRepository.updateReadIds(jobExecutionId, (int) readIds);
+          progress.flushedReadIds = readIds;
+          changed = true;
+        }
+      } catch (RuntimeException e) {
+        log.error(
+            "flush:: Progress of job execution {} could not be saved: {}",
+            jobExecutionId,
+            e.getMessage());
+      }
+      return changed;
+    }
+  }
+
+  /** Progress counters of a job execution, updated by its worker threads without locking. */
+  public static final class JobProgress {
+
+    private final FolioExecutionContext context;
+    private final LongAdder exported = new LongAdder();
+    private final LongAdder readIds = new LongAdder();
+    private long flushedExported;
+    private long flushedReadIds;
+    private long lastChange = System.currentTimeMillis();
+
+    /**
+     * Constructs progress counters that are not published, e.g. for an export without a job.
+     */
+    public JobProgress() {
+      this(null);
+    }
+
+    private JobProgress(FolioExecutionContext context) {
+      this.context = context;
+    }
+
+    /**
+     * Adds to the number of exported records.
+     *
+     * @param count the number of records, negative to remove exported records
+     */
+    public void addExported(long count) {
+      exported.add(count);
+    }
+
+    /**
+     * Gets the number of exported records.
+     *
+     * @return the number of exported records
+     */
+    public int getExported() {
+      return (int) exported.sum();
+    }
+
+    /**
+     * Sets the number of exported records. Must not be called while records are exported.
+     *
+     * @param count the number of records
+     */
+    public void setExported(int count) {
+      exported.reset();
+      exported.add(count);
+    }
+
+    /**
+     * Adds to the number of read IDs; the total of the job grows with them.
+     *
+     * @param count the number of IDs
+     */
+    public void addReadIds(long count) {
+      readIds.add(count);
+    }
+  }
+}
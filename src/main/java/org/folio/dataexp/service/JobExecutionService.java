@@ -72,15 +72,24 @@ public class JobExecutionService {
     return jobExecutionEntityRepository.getHrid();
   }
 
+  /**
+   * Retrieves the job executions in progress that were not updated within the expiration time.
+   *
+   * @return A list of expired JobExecutions.
+   */
+  public List<JobExecution> getExpiredJobExecutions() {
+    var expirationDate = new Date(new Date().getTime() - HOURS.toMillis(1));
+    return jobExecutionEntityCqlRepository.getExpiredJobs(expirationDate).stream()
+        .map(JobExecutionEntity::getJobExecution)
+        .toList();
+  }
+
   /** Expires job executions that are older than the configured expiration time. */
   public void expireJobExecutions() {
     setCompletedDateForFailedExecutionsIfRequired();
-    var expirationDate = new Date(new Date().getTime() - HOURS.toMillis(1));
-    jobExecutionEntityCqlRepository
-        .getExpiredJobs(expirationDate)
+    getExpiredJobExecutions()
         .forEach(
-            jobExecutionEntity -> {
-              var jobExecution = jobExecutionEntity.getJobExecution();
+            jobExecution -> {
               jobExecution.setStatus(FAIL);
               if (nonNull(jobExecution.getProgress())) {
                 jobExecution.setProgress(new JobExecutionProgress().exported(0).total(0).failed(0));
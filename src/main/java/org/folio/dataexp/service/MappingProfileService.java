@@ -20,6 +20,7 @@ import org.folio.dataexp.exception.mapping.profile.LockMappingProfileException;
 import org.folio.dataexp.exception.mapping.profile.LockMappingProfilePermissionException;
 import org.folio.dataexp.repository.MappingProfileEntityCqlRepository;
 import org.folio.dataexp.repository.MappingProfileEntityRepository;
+import org.folio.dataexp.service.export.strategies.CompiledRulesCache;
 import org.folio.dataexp.service.validators.MappingProfileValidator;
 import org.folio.dataexp.service.validators.PermissionsValidator;
 import org.folio.spring.FolioExecutionContext;
@@ -39,6 +40,7 @@ public class MappingProfileService {
   private final MappingProfileValidator mappingProfileValidator;
   private final PermissionsValidator permissionsValidator;
   private final JobProfileService jobProfileService;
+  private final CompiledRulesCache compiledRulesCache;
 
   /**
    * Deletes a mapping profile by its ID.
@@ -65,6 +67,7 @@ public class MappingProfileService {
                     linkedJobProfiles.getJobProfiles().stream().map(JobProfile::getId).toList()));
       }
       mappingProfileEntityRepository.deleteById(mappingProfileId);
+      compiledRulesCache.invalidate(mappingProfileId);
     } else {
       log.error("Attempt to delete locked mapping profile with id: {}", mappingProfileId);
       throw new LockMappingProfileException(
@@ -180,6 +183,7 @@ public class MappingProfileService {
     mappingProfileValidator.validate(mappingProfile);
 
     mappingProfileEntityRepository.save(MappingProfileEntity.fromMappingProfile(mappingProfile));
+    compiledRulesCache.invalidate(mappingProfileId);
   }
 
   private void updateLock(
@@ -15,7 +15,6 @@ import org.folio.dataexp.domain.dto.QuickExportRequest;
 import org.folio.dataexp.domain.dto.QuickExportResponse;
 import org.folio.dataexp.domain.entity.ExportIdEntity;
 import org.folio.dataexp.exception.export.DataExportRequestValidationException;
-import org.folio.dataexp.repository.ExportIdEntityRepository;
 import org.springframework.stereotype.Service;
 
 /** Service for handling quick export operations. */
@@ -26,7 +25,7 @@ public class QuickExportService {
 
   private final FileDefinitionsService fileDefinitionsService;
   private final DataExportService dataExportService;
-  private final ExportIdEntityRepository exportIdEntityRepository;
+  private final InsertExportIdService insertExportIdService;
   private final JobExecutionService jobExecutionService;
 
   /**
@@ -40,8 +39,11 @@ public class QuickExportService {
         new FileDefinition().id(UUID.randomUUID()).size(0).fileName("quick-export.csv");
     fileDefinitionsService.postFileDefinition(fileDefinition);
     log.info("Post quick export for job profile {}", quickExportRequest.getJobProfileId());
+    var commonExportStatistic = new CommonExportStatistic();
     dataExportService.postDataExport(
-        getExportRequestFromQuickExportRequest(quickExportRequest, fileDefinition));
+        getExportRequestFromQuickExportRequest(
+            quickExportRequest, fileDefinition, commonExportStatistic),
+        commonExportStatistic);
     var jobExecution = jobExecutionService.getById(fileDefinition.getJobExecutionId());
     return new QuickExportResponse()
         .jobExecutionId(fileDefinition.getJobExecutionId())
@@ -53,12 +55,15 @@ public class QuickExportService {
    *
    * @param quickExportRequest The quick export request.
    * @param fileDefinition The file definition.
+   * @param commonExportStatistic Export statistics the duplicated IDs are counted in.
    * @return The constructed ExportRequest.
    */
   private ExportRequest getExportRequestFromQuickExportRequest(
-      QuickExportRequest quickExportRequest, FileDefinition fileDefinition) {
+      QuickExportRequest quickExportRequest,
+      FileDefinition fileDefinition,
+      CommonExportStatistic commonExportStatistic) {
     var exportRequest = new ExportRequest();
-    saveBatch(quickExportRequest, fileDefinition);
+    saveBatch(quickExportRequest, fileDefinition, commonExportStatistic);
     exportRequest.setJobProfileId(getDefaultJobProfileId(quickExportRequest));
     exportRequest.setRecordType(
         ExportRequest.RecordTypeEnum.fromValue(quickExportRequest.getRecordType().getValue()));
@@ -75,8 +80,12 @@ public class QuickExportService {
    *
    * @param quickExportRequest The quick export request.
    * @param fileDefinition The file definition.
+   * @param commonExportStatistic Export statistics the duplicated IDs are counted in.
    */
-  private void saveBatch(QuickExportRequest quickExportRequest, FileDefinition fileDefinition) {
+  private void saveBatch(
+      QuickExportRequest quickExportRequest,
+      FileDefinition fileDefinition,
+      CommonExportStatistic commonExportStatistic) {
     var uuids = quickExportRequest.getUuids();
     if (nonNull(uuids)) {
       var batch = new ArrayList<ExportIdEntity>();
@@ -89,7 +98,7 @@ public class QuickExportService {
                     .build();
             batch.add(entity);
           });
-      exportIdEntityRepository.saveAll(batch);
+      commonExportStatistic.incrementDuplicatedUuid(insertExportIdService.saveBatch(batch));
     } else {
       log.error(
           "Nothing to export for fileDefinitionId {}: no uuids provided.", fileDefinition.getId());
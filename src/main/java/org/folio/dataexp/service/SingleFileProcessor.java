@@ -3,7 +3,9 @@ package org.folio.dataexp.service;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -11,12 +13,15 @@ import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.dto.JobExecution;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 import org.folio.dataexp.exception.export.DataExportException;
-import org.folio.dataexp.repository.JobExecutionEntityRepository;
 import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.service.export.ExportCheckpointService;
 import org.folio.dataexp.service.export.ExportExecutor;
+import org.folio.dataexp.service.export.ResumeUser;
+import org.folio.dataexp.service.export.strategies.ConsortiumAccessSnapshotService;
 import org.folio.dataexp.service.export.strategies.ExportedRecordsListener;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.util.S3FilePathUtils;
+import org.folio.spring.scope.FolioExecutionContextSetter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -26,21 +31,15 @@ import org.springframework.stereotype.Component;
 @Log4j2
 public class SingleFileProcessor {
 
-  private static final int MIN_PROGRESS_EXPORT_STEP = 500;
-  private static final int PROGRESS_EXPORT_ALL_STEP_INCREMENT = 10;
   protected final ExportExecutor exportExecutor;
   private final JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
-  protected final JobExecutionEntityRepository jobExecutionEntityRepository;
+  protected final JobExecutionProgressPublisher jobExecutionProgressPublisher;
   private final JobExecutionService jobExecutionService;
   private final ErrorLogService errorLogService;
-  private int exportIdsBatch;
+  private final ExportCheckpointService exportCheckpointService;
+  private final ConsortiumAccessSnapshotService consortiumAccessSnapshotService;
   private String exportTmpStorage;
 
-  @Value("#{ T(Integer).parseInt('${application.export-ids-batch}')}")
-  protected void setExportIdsBatch(int exportIdsBatch) {
-    this.exportIdsBatch = exportIdsBatch;
-  }
-
   @Value("${application.export-tmp-storage}")
   protected void setExportTmpStorage(String exportTmpStorage) {
     this.exportTmpStorage = exportTmpStorage;
@@ -79,6 +78,62 @@ public class SingleFileProcessor {
       }
       return;
     }
+    exportCheckpointService.saveExportRequest(jobExecutionId, exportRequest);
+    exportFiles(jobExecutionId, exports, true, exportRequest, commonExportStatistic, 0);
+  }
+
+  /**
+   * Resumes the export of a job execution whose instance died, exporting the given files again for
+   * the tenant and user who started the job execution.
+   *
+   * @param jobExecutionId The job execution UUID.
+   * @param exports The files to export.
+   * @param includesLastExport Whether the files include the last file of the job execution.
+   * @param exportRequest The export request of the job execution.
+   * @param resumeUser The stored tenant and user of the job execution.
+   * @param exported The number of records already exported by the job execution.
+   */
+  public void resumeBySingleFile(
+      UUID jobExecutionId,
+      List<JobExecutionExportFilesEntity> exports,
+      boolean includesLastExport,
+      ExportRequest exportRequest,
+      ResumeUser resumeUser,
+      int exported) {
+    try (var ignored =
+        new FolioExecutionContextSetter(
+            exportCheckpointService.createResumeContext(resumeUser))) {
+      exportFiles(
+          jobExecutionId,
+          exports,
+          includesLastExport,
+          exportRequest,
+          new CommonExportStatistic(),
+          exported);
+    }
+  }
+
+  /**
+   * Orders the files of a job execution in the order they are exported. The order does not change
+   * between the runs of a job, so the last file is the same when the job is resumed.
+   *
+   * @param exports The files of the job execution.
+   * @return The files in export order.
+   */
+  public static List<JobExecutionExportFilesEntity> inExportOrder(
+      List<JobExecutionExportFilesEntity> exports) {
+    return exports.stream()
+        .sorted(Comparator.comparing(JobExecutionExportFilesEntity::getId))
+        .toList();
+  }
+
+  private void exportFiles(
+      UUID jobExecutionId,
+      List<JobExecutionExportFilesEntity> exports,
+      boolean includesLastExport,
+      ExportRequest exportRequest,
+      CommonExportStatistic commonExportStatistic,
+      int exported) {
     try {
       Files.createDirectories(
           Path.of(S3FilePathUtils.getTempDirForJobExecutionId(exportTmpStorage, jobExecutionId)));
@@ -86,35 +141,20 @@ public class SingleFileProcessor {
       throw new DataExportException(
           "Can not create temp directory for job execution " + jobExecutionId);
     }
-    var exportIterator = exports.iterator();
+    consortiumAccessSnapshotService.open(jobExecutionId);
+    var exportIterator = inExportOrder(exports).iterator();
 
     var exportStrategyStatisticListener =
-        new ExportedRecordsListener(
-            jobExecutionEntityRepository,
-            getProgressExportUpdateStep(exportRequest),
-            jobExecutionId);
+        new ExportedRecordsListener(jobExecutionProgressPublisher, jobExecutionId);
+    exportStrategyStatisticListener.setExported(exported);
     commonExportStatistic.setExportedRecordsListener(exportStrategyStatisticListener);
     while (exportIterator.hasNext()) {
       var export = exportIterator.next();
-      exportRequest.setLastExport(!exportIterator.hasNext());
+      exportRequest.setLastExport(includesLastExport && !exportIterator.hasNext());
       executeExport(export, exportRequest, commonExportStatistic);
     }
   }
 
-  /**
-   * Gets the step size for updating export progress.
-   *
-   * @param exportRequest The export request.
-   * @return The step size.
-   */
-  private int getProgressExportUpdateStep(ExportRequest exportRequest) {
-    if (exportRequest.getAll()) {
-      return Math.max(
-          exportIdsBatch * PROGRESS_EXPORT_ALL_STEP_INCREMENT, MIN_PROGRESS_EXPORT_STEP);
-    }
-    return Math.max(exportIdsBatch, MIN_PROGRESS_EXPORT_STEP);
-  }
-
   /**
    * Executes the export for a single file.
    *
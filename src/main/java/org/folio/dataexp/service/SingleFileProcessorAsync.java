@@ -2,37 +2,53 @@ package org.folio.dataexp.service;
 
 import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
-import org.folio.dataexp.repository.JobExecutionEntityRepository;
 import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.service.export.ExportCheckpointService;
 import org.folio.dataexp.service.export.ExportExecutor;
+import org.folio.dataexp.service.export.ExportFileScheduler;
+import org.folio.dataexp.service.export.strategies.ConsortiumAccessSnapshotService;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.springframework.stereotype.Component;
 
-/** Asynchronous processor for exporting records by single file. */
+/**
+ * Asynchronous processor for exporting records by single file. The files are exported in the order
+ * decided by the {@link ExportFileScheduler}.
+ */
 @Component
 public class SingleFileProcessorAsync extends SingleFileProcessor {
 
+  private final ExportFileScheduler exportFileScheduler;
+
   /**
    * Constructs an asynchronous single file processor.
    *
    * @param exportExecutor The export executor.
    * @param jobExecutionExportFilesEntityRepository Repository for export files.
-   * @param jobExecutionEntityRepository Repository for job executions.
+   * @param jobExecutionProgressPublisher Publisher of job execution progress.
    * @param jobExecutionService Service for job executions.
    * @param errorLogService Service for error logs.
+   * @param exportCheckpointService Service for checkpoints of export jobs.
+   * @param consortiumAccessSnapshotService Service for consortium access snapshots of jobs.
+   * @param exportFileScheduler Scheduler of the file exports.
    */
   public SingleFileProcessorAsync(
       ExportExecutor exportExecutor,
       JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository,
-      JobExecutionEntityRepository jobExecutionEntityRepository,
+      JobExecutionProgressPublisher jobExecutionProgressPublisher,
       JobExecutionService jobExecutionService,
-      ErrorLogService errorLogService) {
+      ErrorLogService errorLogService,
+      ExportCheckpointService exportCheckpointService,
+      ConsortiumAccessSnapshotService consortiumAccessSnapshotService,
+      ExportFileScheduler exportFileScheduler) {
     super(
         exportExecutor,
         jobExecutionExportFilesEntityRepository,
-        jobExecutionEntityRepository,
+        jobExecutionProgressPublisher,
         jobExecutionService,
-        errorLogService);
+        errorLogService,
+        exportCheckpointService,
+        consortiumAccessSnapshotService);
+    this.exportFileScheduler = exportFileScheduler;
   }
 
   /**
@@ -48,7 +64,9 @@ public class SingleFileProcessorAsync extends SingleFileProcessor {
       ExportRequest exportRequest,
       CommonExportStatistic commonExportStatistic) {
     var exportRequestCopy = getExportRequestCopy(exportRequest);
-    exportExecutor.exportAsynch(export, exportRequestCopy, commonExportStatistic);
+    exportFileScheduler.submit(
+        () -> exportExecutor.export(export, exportRequestCopy, commonExportStatistic),
+        Boolean.TRUE.equals(exportRequest.getQuick()));
   }
 
   /**
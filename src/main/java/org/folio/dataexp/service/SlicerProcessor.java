@@ -6,16 +6,21 @@ import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.SQLException;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.io.FilenameUtils;
 import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.dto.FileDefinition;
 import org.folio.dataexp.exception.export.DataExportException;
 import org.folio.dataexp.util.S3FilePathUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
-/** Processor for slicing export files into batches for export operations. */
+/**
+ * Processor for slicing export files into batches for export operations. The slices of an export
+ * of all records are computed by one of the {@link SliceAlgorithm}s.
+ */
 @Component
 @RequiredArgsConstructor
 @Log4j2
@@ -29,6 +34,12 @@ public class SlicerProcessor {
       "call slice_holdings_all_ids(?, ?, ?)";
   private static final String CALL_SLICE_AUTHORITIES_ALL_IDS_PROCEDURE =
       "call slice_authorities_all_ids(?, ?, ?)";
+  private static final String CALL_STEP_SLICE_INSTANCES_ALL_IDS_PROCEDURE =
+      "call step_slice_instances_all_ids(?, ?, ?)";
+  private static final String CALL_STEP_SLICE_HOLDINGS_ALL_IDS_PROCEDURE =
+      "call step_slice_holdings_all_ids(?, ?, ?)";
+  private static final String CALL_STEP_SLICE_AUTHORITIES_ALL_IDS_PROCEDURE =
+      "call step_slice_authorities_all_ids(?, ?, ?)";
   private static final String FROM_TO_UUID_PART = "_%s_%s";
   public static final int DEFAULT_SLICE_SIZE = 100_000;
   public static final String SLICE_SIZE_KEY = "slice_size";
@@ -36,6 +47,10 @@ public class SlicerProcessor {
   private final JdbcTemplate jdbcTemplate;
   private final ConfigurationService configurationService;
 
+  @Setter
+  @Value("${application.slice-algorithm}")
+  private SliceAlgorithm sliceAlgorithm = SliceAlgorithm.WINDOW;
+
   /**
    * Slices instance IDs for export using the configured slice size.
    *
@@ -100,13 +115,31 @@ public class SlicerProcessor {
    */
   private String selectProcedure(ExportRequest exportRequest) {
     if (Boolean.TRUE.equals(exportRequest.getAll())) {
+      var step = sliceAlgorithm == SliceAlgorithm.STEP;
       if (exportRequest.getIdType() == ExportRequest.IdTypeEnum.INSTANCE) {
-        return CALL_SLICE_INSTANCES_ALL_IDS_PROCEDURE;
+        return step
+            ? CALL_STEP_SLICE_INSTANCES_ALL_IDS_PROCEDURE
+            : CALL_SLICE_INSTANCES_ALL_IDS_PROCEDURE;
       } else if (exportRequest.getIdType() == ExportRequest.IdTypeEnum.HOLDING) {
-        return CALL_SLICE_HOLDINGS_ALL_IDS_PROCEDURE;
+        return step
+            ? CALL_STEP_SLICE_HOLDINGS_ALL_IDS_PROCEDURE
+            : CALL_SLICE_HOLDINGS_ALL_IDS_PROCEDURE;
       }
-      return CALL_SLICE_AUTHORITIES_ALL_IDS_PROCEDURE;
+      return step
+          ? CALL_STEP_SLICE_AUTHORITIES_ALL_IDS_PROCEDURE
+          : CALL_SLICE_AUTHORITIES_ALL_IDS_PROCEDURE;
     }
     return CALL_SLICE_INSTANCES_IDS_PROCEDURE;
   }
+
+  /** Algorithms computing the slices of an export of all records. */
+  public enum SliceAlgorithm {
+    /** Numbers all records with window functions and groups them into slices. */
+    WINDOW,
+    /**
+     * Steps through the index of the record IDs from one slice boundary to the next, without
+     * sorting the whole table.
+     */
+    STEP
+  }
 }
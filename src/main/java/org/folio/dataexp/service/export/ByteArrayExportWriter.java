@@ -0,0 +1,86 @@
+package org.folio.dataexp.service.export;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Writer collecting the output of one page of an export file in memory, so finished pages are
+ * handed over to the writer of the export file without passing through local storage. The writer
+ * is not thread-safe.
+ */
+public class ByteArrayExportWriter implements ExportWriter {
+
+  private byte[] buffer;
+  private int size;
+
+  /**
+   * Constructs a ByteArrayExportWriter with the given initial capacity.
+   *
+   * @param initialCapacity the initial buffer capacity, the buffer grows as needed
+   */
+  public ByteArrayExportWriter(int initialCapacity) {
+    this.buffer = new byte[initialCapacity];
+  }
+
+  /**
+   * Writes data to the buffer.
+   *
+   * @param data the data to write, nothing is written if it is null or empty
+   */
+  @Override
+  public void write(byte[] data) {
+    if (data != null && data.length > 0) {
+      ensureCapacity(data.length);
+      System.arraycopy(data, 0, buffer, size, data.length);
+      size += data.length;
+    }
+  }
+
+  /**
+   * Writes the remaining bytes of the given buffer to the buffer.
+   *
+   * @param data the buffer to write
+   */
+  @Override
+  public void write(ByteBuffer data) {
+    var length = data.remaining();
+    ensureCapacity(length);
+    data.get(buffer, size, length);
+    size += length;
+  }
+
+  /**
+   * Appends the collected bytes to the given writer.
+   *
+   * @param target the writer to append to
+   */
+  public void writeTo(ExportWriter target) {
+    if (size > 0) {
+      target.write(ByteBuffer.wrap(buffer, 0, size));
+    }
+  }
+
+  /** Returns the number of collected bytes. */
+  public int size() {
+    return size;
+  }
+
+  /** Nothing to flush, the collected bytes stay available to {@link #writeTo}. */
+  @Override
+  public void close() {
+    // bytes are kept in memory until the page is written to the export file
+  }
+
+  /** Discards the collected bytes. */
+  @Override
+  public void abort() {
+    size = 0;
+  }
+
+  private void ensureCapacity(int length) {
+    var capacity = size + length;
+    if (capacity > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package org.folio.dataexp.service.export;
+
+import static org.folio.dataexp.util.S3FilePathUtils.getPathToStoredFiles;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.folio.dataexp.domain.dto.ExportRequest;
+import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
+import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.s3.client.FolioS3Client;
+import org.folio.spring.DefaultFolioExecutionContext;
+import org.folio.spring.FolioExecutionContext;
+import org.folio.spring.FolioModuleMetadata;
+import org.folio.spring.integration.XOkapiHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Checkpoints the state of running export jobs, so a job can be resumed after the instance
+ * exporting it died: the export request and the tenant and user who started the job are stored
+ * with the job execution, but none of their Okapi headers. Every export file is streamed to S3 at
+ * its file location while it is exported, so an export file stored in S3 is the checkpoint of its
+ * output and needs no copy of its own.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class ExportCheckpointService {
+
+  private final FolioS3Client s3Client;
+  private final JobExecutionEntityRepository jobExecutionEntityRepository;
+  private final ObjectMapper objectMapper;
+  private final FolioExecutionContext folioExecutionContext;
+  private final FolioModuleMetadata folioModuleMetadata;
+  private boolean enabled;
+
+  @Value("#{T(Boolean).parseBoolean('${application.export-checkpoints.enabled}')}")
+  protected void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Checks whether export jobs are checkpointed.
+   *
+   * @return true if checkpoints are enabled
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Stores the export request of the job execution and the current tenant and user.
+   *
+   * @param jobExecutionId the job execution UUID
+   * @param exportRequest the export request
+   */
+  public void saveExportRequest(UUID jobExecutionId, ExportRequest exportRequest) {
+    if (enabled) {
+      var resumeUser =
+          new ResumeUser(folioExecutionContext.getTenantId(), folioExecutionContext.getUserId());
+      jobExecutionEntityRepository.saveExportRequest(
+          jobExecutionId,
+          objectMapper.writeValueAsString(exportRequest),
+          objectMapper.writeValueAsString(resumeUser));
+    }
+  }
+
+  /**
+   * Gets the stored export request of the job execution.
+   *
+   * @param jobExecutionId the job execution UUID
+   * @return the export request, or empty if none is stored or it cannot be read
+   */
+  public Optional<ExportRequest> getExportRequest(UUID jobExecutionId) {
+    var exportRequest = jobExecutionEntityRepository.getExportRequest(jobExecutionId);
+    if (exportRequest == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(objectMapper.readValue(exportRequest, ExportRequest.class));
+    } catch (JacksonException e) {
+      log.error(
+          "getExportRequest:: Export request of job execution {} cannot be read: {}",
+          jobExecutionId,
+          e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Gets the stored tenant and user who started the job execution.
+   *
+   * @param jobExecutionId the job execution UUID
+   * @return the tenant and user, or empty if none are stored or they cannot be read
+   */
+  public Optional<ResumeUser> getResumeUser(UUID jobExecutionId) {
+    var resumeUser = jobExecutionEntityRepository.getResumeUser(jobExecutionId);
+    if (resumeUser == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(objectMapper.readValue(resumeUser, ResumeUser.class));
+    } catch (JacksonException e) {
+      log.error(
+          "getResumeUser:: Tenant and user of job execution {} cannot be read: {}",
+          jobExecutionId,
+          e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Creates the FOLIO execution context to resume a job execution in. Only the token and URL of
+   * the current request, i.e. of the system call resuming jobs with the module permissions of its
+   * endpoint, are taken; the stored tenant and user are set explicitly, the user only to limit the
+   * export to the records the user who started the job may export.
+   *
+   * @param resumeUser the stored tenant and user of the job execution
+   * @return the FOLIO execution context of the resumed job execution
+   */
+  public FolioExecutionContext createResumeContext(ResumeUser resumeUser) {
+    var headers = new HashMap<String, Collection<String>>();
+    folioExecutionContext
+        .getOkapiHeaders()
+        .forEach(
+            (name, values) -> {
+              if (XOkapiHeaders.TOKEN.equalsIgnoreCase(name)
+                  || XOkapiHeaders.URL.equalsIgnoreCase(name)) {
+                headers.put(name, values);
+              }
+            });
+    headers.put(XOkapiHeaders.TENANT, List.of(resumeUser.tenantId()));
+    if (resumeUser.userId() != null) {
+      headers.put(XOkapiHeaders.USER_ID, List.of(resumeUser.userId().toString()));
+    }
+    return new DefaultFolioExecutionContext(folioModuleMetadata, headers);
+  }
+
+  /**
+   * Gets the paths of the checkpoints of the job execution, i.e. of the export files already stored
+   * in S3.
+   *
+   * @param jobExecutionId the job execution UUID
+   * @return the checkpoint paths
+   */
+  public Set<String> getCheckpoints(UUID jobExecutionId) {
+    return new HashSet<>(s3Client.list(getPathToStoredFiles(jobExecutionId, "")));
+  }
+
+  /**
+   * Checks whether the exported file has a checkpoint.
+   *
+   * @param checkpoints the checkpoint paths of the job execution
+   * @param exportFilesEntity the export file entity
+   * @return true if the checkpoint exists
+   */
+  public boolean hasCheckpoint(
+      Set<String> checkpoints, JobExecutionExportFilesEntity exportFilesEntity) {
+    return checkpoints.contains(exportFilesEntity.getFileLocation());
+  }
+}
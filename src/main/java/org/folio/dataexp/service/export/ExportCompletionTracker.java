@@ -0,0 +1,68 @@
+package org.folio.dataexp.service.export;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.service.export.strategies.ExportStrategyStatistic;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks the finished export files of job executions without holding a lock across them. Every
+ * finished file is counted once by an atomic update of its job execution, which also adds the file
+ * statistic to the job progress; the worker whose count reaches the number of files of the job,
+ * kept in memory after the first lookup until the job is completed or resumed, is told to complete
+ * the job execution.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class ExportCompletionTracker {
+
+  private final JobExecutionEntityRepository jobExecutionEntityRepository;
+  private final JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
+  private final Map<UUID, Long> exportsByJobExecution = new ConcurrentHashMap<>();
+
+  /**
+   * Counts the finished export file of the job execution.
+   *
+   * @param jobExecutionId the job execution UUID
+   * @param exportId the export file UUID
+   * @param exportStatistic the statistic of the export file
+   * @return true if all export files of the job execution are counted as finished
+   */
+  public boolean onExportFinished(
+      UUID jobExecutionId, UUID exportId, ExportStrategyStatistic exportStatistic) {
+    var exports =
+        exportsByJobExecution.computeIfAbsent(
+            jobExecutionId, jobExecutionExportFilesEntityRepository::countByJobExecutionId);
+    var finished =
+        jobExecutionEntityRepository.finishExport(
+            jobExecutionId,
+            exportId,
+            exportStatistic.getFailed(),
+            exportStatistic.getDuplicatedSrs());
+    log.debug(
+        "onExportFinished:: {} of {} exports finished for job execution {}",
+        finished,
+        exports,
+        jobExecutionId);
+    if (finished == null || finished < exports) {
+      return false;
+    }
+    exportsByJobExecution.remove(jobExecutionId);
+    return true;
+  }
+
+  /**
+   * Forgets the number of export files of the job execution, once it is resumed.
+   *
+   * @param jobExecutionId the job execution UUID
+   */
+  public void reset(UUID jobExecutionId) {
+    exportsByJobExecution.remove(jobExecutionId);
+  }
+}
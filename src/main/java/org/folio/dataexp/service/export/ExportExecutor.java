@@ -18,12 +18,14 @@ import org.folio.dataexp.repository.ErrorLogEntityCqlRepository;
 import org.folio.dataexp.repository.FileDefinitionEntityRepository;
 import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
 import org.folio.dataexp.service.CommonExportStatistic;
+import org.folio.dataexp.service.JobExecutionProgressPublisher;
 import org.folio.dataexp.service.JobExecutionService;
 import org.folio.dataexp.service.StorageCleanUpService;
+import org.folio.dataexp.service.export.strategies.ConsortiumAccessSnapshotService;
+import org.folio.dataexp.service.export.strategies.ConsortiumHoldingsTenantResolver;
 import org.folio.dataexp.service.export.strategies.ExportStrategyStatistic;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.util.ErrorCode;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 /** Executes export operations for job executions and handles status/progress updates. */
@@ -32,6 +34,12 @@ import org.springframework.stereotype.Component;
 @Log4j2
 public class ExportExecutor {
 
+  private static final Set<JobExecutionExportFilesStatus> FINISHED_STATUSES =
+      Set.of(
+          JobExecutionExportFilesStatus.COMPLETED,
+          JobExecutionExportFilesStatus.COMPLETED_WITH_ERRORS,
+          JobExecutionExportFilesStatus.FAILED);
+
   private final JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
   private final JobExecutionService jobExecutionService;
   private final ExportStrategyFactory exportStrategyFactory;
@@ -40,24 +48,16 @@ public class ExportExecutor {
   private final S3ExportsUploader s3Uploader;
   private final FileDefinitionEntityRepository fileDefinitionEntityRepository;
   private final StorageCleanUpService storageCleanUpService;
+  private final ExportFileLeaseService exportFileLeaseService;
+  private final ExportCompletionTracker exportCompletionTracker;
+  private final JobExecutionProgressPublisher jobExecutionProgressPublisher;
+  private final ConsortiumAccessSnapshotService consortiumAccessSnapshotService;
+  private final ConsortiumHoldingsTenantResolver consortiumHoldingsTenantResolver;
 
   /**
-   * Executes export asynchronously for a job execution file entity.
-   *
-   * @param exportFilesEntity the export file entity
-   * @param exportRequest the export request
-   * @param commonExportStatistic export statistics
-   */
-  @Async("singleExportFileTaskExecutor")
-  public void exportAsynch(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportRequest exportRequest,
-      CommonExportStatistic commonExportStatistic) {
-    export(exportFilesEntity, exportRequest, commonExportStatistic);
-  }
-
-  /**
-   * Executes export for a job execution file entity.
+   * Executes export for a job execution file entity. The file is exported only if its lease is
+   * acquired; the job execution is completed by the worker finishing its last file. A file whose
+   * export throws is marked as failed, so it is finished instead of being claimed again.
    *
    * @param exportFilesEntity the export file entity
    * @param exportRequest the export request
@@ -67,52 +67,93 @@ public class ExportExecutor {
       JobExecutionExportFilesEntity exportFilesEntity,
       ExportRequest exportRequest,
       CommonExportStatistic commonExportStatistic) {
-    log.info(
-        "export:: Started export {} for job execution {}",
-        exportFilesEntity.getFileLocation(),
-        exportFilesEntity.getJobExecutionId());
-    exportFilesEntity =
-        jobExecutionExportFilesEntityRepository.getReferenceById(exportFilesEntity.getId());
-    exportFilesEntity.setStatus(JobExecutionExportFilesStatus.ACTIVE);
-    jobExecutionExportFilesEntityRepository.save(exportFilesEntity);
-    var exportStrategy = exportStrategyFactory.getExportStrategy(exportRequest);
-    var exportStatistic =
-        exportStrategy.saveOutputToLocalStorage(
-            exportFilesEntity, exportRequest, commonExportStatistic.getExportedRecordsListener());
-    commonExportStatistic.addToNotExistUuidAll(exportStatistic.getNotExistIds());
-    synchronized (this) {
-      exportStrategy.setStatusBaseExportStatistic(exportFilesEntity, exportStatistic);
+    if (!exportFileLeaseService.acquire(exportFilesEntity.getId())) {
+      log.warn(
+          "export:: Skipped export {} for job execution {}, it is leased by another worker",
+          exportFilesEntity.getFileLocation(),
+          exportFilesEntity.getJobExecutionId());
+      return;
+    }
+    try {
+      log.info(
+          "export:: Started export {} for job execution {}",
+          exportFilesEntity.getFileLocation(),
+          exportFilesEntity.getJobExecutionId());
+      exportFilesEntity =
+          jobExecutionExportFilesEntityRepository.getReferenceById(exportFilesEntity.getId());
+      errorLogService.beginBatch(exportFilesEntity.getJobExecutionId());
+      var exportStrategy = exportStrategyFactory.getExportStrategy(exportRequest);
+      ExportStrategyStatistic exportStatistic;
+      try {
+        exportStatistic =
+            exportStrategy.saveOutput(
+                exportFilesEntity,
+                exportRequest,
+                commonExportStatistic.getExportedRecordsListener());
+        commonExportStatistic.addToNotExistUuidAll(exportStatistic.getNotExistIds());
+        exportStrategy.setStatusBaseExportStatistic(exportFilesEntity, exportStatistic);
+      } catch (RuntimeException e) {
+        log.error(
+            "export:: Export {} for job execution {} failed: {}",
+            exportFilesEntity.getFileLocation(),
+            exportFilesEntity.getJobExecutionId(),
+            e.getMessage(),
+            e);
+        exportStatistic =
+            new ExportStrategyStatistic(commonExportStatistic.getExportedRecordsListener());
+        exportFilesEntity.setStatus(JobExecutionExportFilesStatus.FAILED);
+      }
       jobExecutionExportFilesEntityRepository.save(exportFilesEntity);
       log.info(
           "export:: Complete export {} for job execution {}",
           exportFilesEntity.getFileLocation(),
           exportFilesEntity.getJobExecutionId());
-      updateJobExecutionStatusAndProgress(
-          exportFilesEntity.getJobExecutionId(),
-          exportStatistic,
-          commonExportStatistic,
-          exportRequest);
+      if (exportCompletionTracker.onExportFinished(
+          exportFilesEntity.getJobExecutionId(), exportFilesEntity.getId(), exportStatistic)) {
+        completeJobExecution(
+            exportFilesEntity.getJobExecutionId(), commonExportStatistic, exportRequest);
+      }
+    } finally {
+      exportFileLeaseService.release(exportFilesEntity.getId());
     }
   }
 
   /**
-   * Updates job execution status and progress after export.
+   * Completes the job execution once all its export files are finished: sets its status and final
+   * progress, and uploads the exported files. Of several concurrent callers, only one completes it;
+   * if completing fails after its claim, the job execution is failed, so it does not stay in
+   * progress with its completion claimed.
    *
    * @param jobExecutionId the job execution ID
-   * @param exportStatistic export statistics
    * @param commonExportStatistic common export statistics
    * @param exportRequest the export request
    */
-  private void updateJobExecutionStatusAndProgress(
+  private void completeJobExecution(
       UUID jobExecutionId,
-      ExportStrategyStatistic exportStatistic,
       CommonExportStatistic commonExportStatistic,
       ExportRequest exportRequest) {
-    var jobExecution = jobExecutionService.getById(jobExecutionId);
-    var progress = jobExecution.getProgress();
-    progress.setFailed(progress.getFailed() + exportStatistic.getFailed());
-    progress.setDuplicatedSrs(progress.getDuplicatedSrs() + exportStatistic.getDuplicatedSrs());
     var exports = jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecutionId);
+    if (!exports.stream().allMatch(e -> FINISHED_STATUSES.contains(e.getStatus()))
+        || !exportFileLeaseService.claimCompletion(jobExecutionId)) {
+      return;
+    }
+    try {
+      completeClaimedJobExecution(jobExecutionId, exports, commonExportStatistic, exportRequest);
+    } catch (RuntimeException e) {
+      log.error(
+          "completeJobExecution:: Job execution {} cannot be completed: {}",
+          jobExecutionId,
+          e.getMessage(),
+          e);
+      failJobExecution(jobExecutionId);
+    }
+  }
+
+  private void completeClaimedJobExecution(
+      UUID jobExecutionId,
+      List<JobExecutionExportFilesEntity> exports,
+      CommonExportStatistic commonExportStatistic,
+      ExportRequest exportRequest) {
     long exportsCompleted =
         exports.stream()
             .filter(e -> e.getStatus() == JobExecutionExportFilesStatus.COMPLETED)
@@ -123,73 +164,74 @@ public class ExportExecutor {
         exports.stream()
             .filter(e -> e.getStatus() == JobExecutionExportFilesStatus.COMPLETED_WITH_ERRORS)
             .count();
+    jobExecutionProgressPublisher.close(jobExecutionId);
+    consortiumAccessSnapshotService.close(jobExecutionId);
+    consortiumHoldingsTenantResolver.close(jobExecutionId);
+    var jobExecution = jobExecutionService.getById(jobExecutionId);
+    var progress = jobExecution.getProgress();
     var currentDate = new Date();
-    if (exportsCompleted + exportsFailed + exportsCompletedWithErrors == exports.size()) {
-      progress.setExported(
-          commonExportStatistic.getExportedRecordsListener().getExportedCount().get());
-      if (Boolean.TRUE.equals(exportRequest.getAll())) {
-        progress.setTotal(
-            progress.getExported() - progress.getDuplicatedSrs() + progress.getFailed());
-      }
-      progress.setFailed(getFailedNumber(jobExecution.getProgress(), commonExportStatistic));
-      errorLogService.saveCommonExportFailsErrors(
-          commonExportStatistic, progress.getFailed(), jobExecutionId);
+    errorLogService.completeBatch(jobExecutionId);
+    progress.setExported(commonExportStatistic.getExportedRecordsListener().getExported());
+    if (Boolean.TRUE.equals(exportRequest.getAll())) {
+      progress.setTotal(
+          progress.getExported() - progress.getDuplicatedSrs() + progress.getFailed());
+    }
+    progress.setFailed(getFailedNumber(jobExecution.getProgress(), commonExportStatistic));
+    errorLogService.saveCommonExportFailsErrors(
+        commonExportStatistic, progress.getFailed(), jobExecutionId);
 
-      var errorCount = errorLogEntityCqlRepository.countByJobExecutionId(jobExecutionId);
+    var errorCount = errorLogEntityCqlRepository.countByJobExecutionId(jobExecutionId);
 
-      if (exports.size() == exportsCompleted && errorCount == 0) {
-        jobExecution.setStatus(JobExecution.StatusEnum.COMPLETED);
-      } else if (exports.size() == exportsFailed) {
-        jobExecution.setStatus(JobExecution.StatusEnum.FAIL);
-      } else {
-        jobExecution.setStatus(JobExecution.StatusEnum.COMPLETED_WITH_ERRORS);
-        log.error(
-            "export size: {}, errorCount: {}, exportsCompleted: {}, "
-                + "exportsCompletedWithErrors: {}, jobExecution: {}",
-            exports.size(),
-            errorCount,
-            exportsCompleted,
-            exportsCompletedWithErrors,
-            jobExecution);
-      }
-      var filesForExport =
-          exports.stream()
-              .filter(
-                  e ->
-                      e.getStatus() == JobExecutionExportFilesStatus.COMPLETED
-                          || e.getStatus() == JobExecutionExportFilesStatus.COMPLETED_WITH_ERRORS)
-              .toList();
-      var queryResult =
-          fileDefinitionEntityRepository.getFileDefinitionByJobExecutionId(
-              jobExecutionId.toString());
-      var fileDefinition = queryResult.getFirst().getFileDefinition();
-      var initialFileName = FilenameUtils.getBaseName(fileDefinition.getFileName());
-      try {
-        var innerFileName = s3Uploader.upload(jobExecution, filesForExport, initialFileName);
-        var innerFile =
-            new JobExecutionExportedFilesInner()
-                .fileId(UUID.randomUUID())
-                .fileName(FilenameUtils.getName(innerFileName));
-        jobExecution.setExportedFiles(Set.of(innerFile));
-      } catch (S3ExportsUploadException e) {
-        jobExecution.setStatus(JobExecution.StatusEnum.FAIL);
-        errorLogService.saveGeneralErrorWithMessageValues(
-            ErrorCode.INVALID_EXPORT_FILE_DEFINITION_ID.getCode(),
-            List.of(fileDefinition.getId().toString()),
-            jobExecutionId);
-        errorLogService.saveGeneralErrorWithMessageValues(
-            ErrorCode.NO_FILE_GENERATED.getCode(),
-            List.of(ErrorCode.NO_FILE_GENERATED.getDescription()),
-            jobExecutionId);
-        log.error(
-            "updateJobExecutionStatusAndProgress:: error zip exports for jobExecutionId {} "
-                + "with exception {}",
-            jobExecutionId,
-            e.getMessage());
-      }
-      jobExecution.completedDate(currentDate);
-      storageCleanUpService.cleanExportIdEntities(jobExecutionId);
+    if (exports.size() == exportsCompleted && errorCount == 0) {
+      jobExecution.setStatus(JobExecution.StatusEnum.COMPLETED);
+    } else if (exports.size() == exportsFailed) {
+      jobExecution.setStatus(JobExecution.StatusEnum.FAIL);
+    } else {
+      jobExecution.setStatus(JobExecution.StatusEnum.COMPLETED_WITH_ERRORS);
+      log.error(
+          "export size: {}, errorCount: {}, exportsCompleted: {}, "
+              + "exportsCompletedWithErrors: {}, jobExecution: {}",
+          exports.size(),
+          errorCount,
+          exportsCompleted,
+          exportsCompletedWithErrors,
+          jobExecution);
     }
+    var filesForExport =
+        exports.stream()
+            .filter(
+                e ->
+                    e.getStatus() == JobExecutionExportFilesStatus.COMPLETED
+                        || e.getStatus() == JobExecutionExportFilesStatus.COMPLETED_WITH_ERRORS)
+            .toList();
+    var queryResult =
+        fileDefinitionEntityRepository.getFileDefinitionByJobExecutionId(jobExecutionId.toString());
+    var fileDefinition = queryResult.getFirst().getFileDefinition();
+    var initialFileName = FilenameUtils.getBaseName(fileDefinition.getFileName());
+    try {
+      var innerFileName = s3Uploader.upload(jobExecution, filesForExport, initialFileName);
+      var innerFile =
+          new JobExecutionExportedFilesInner()
+              .fileId(UUID.randomUUID())
+              .fileName(FilenameUtils.getName(innerFileName));
+      jobExecution.setExportedFiles(Set.of(innerFile));
+    } catch (S3ExportsUploadException e) {
+      jobExecution.setStatus(JobExecution.StatusEnum.FAIL);
+      errorLogService.saveGeneralErrorWithMessageValues(
+          ErrorCode.INVALID_EXPORT_FILE_DEFINITION_ID.getCode(),
+          List.of(fileDefinition.getId().toString()),
+          jobExecutionId);
+      errorLogService.saveGeneralErrorWithMessageValues(
+          ErrorCode.NO_FILE_GENERATED.getCode(),
+          List.of(ErrorCode.NO_FILE_GENERATED.getDescription()),
+          jobExecutionId);
+      log.error(
+          "completeJobExecution:: error zip exports for jobExecutionId {} with exception {}",
+          jobExecutionId,
+          e.getMessage());
+    }
+    jobExecution.completedDate(currentDate);
+    storageCleanUpService.cleanExportIdEntities(jobExecutionId);
     jobExecution.setLastUpdatedDate(currentDate);
     jobExecutionService.save(jobExecution);
     log.info(
@@ -198,6 +240,27 @@ public class ExportExecutor {
         jobExecution.getStatus());
   }
 
+  /**
+   * Fails the job execution whose completion is claimed but could not be completed.
+   *
+   * @param jobExecutionId the job execution ID
+   */
+  private void failJobExecution(UUID jobExecutionId) {
+    try {
+      var jobExecution = jobExecutionService.getById(jobExecutionId);
+      var currentDate = new Date();
+      jobExecution.setStatus(JobExecution.StatusEnum.FAIL);
+      jobExecution.setCompletedDate(currentDate);
+      jobExecution.setLastUpdatedDate(currentDate);
+      jobExecutionService.save(jobExecution);
+    } catch (RuntimeException e) {
+      log.error(
+          "failJobExecution:: Job execution {} cannot be failed: {}",
+          jobExecutionId,
+          e.getMessage());
+    }
+  }
+
   /**
    * Calculates the number of failed records.
    *
@@ -0,0 +1,125 @@
+package org.folio.dataexp.service.export;
+
+import static org.folio.dataexp.util.FolioExecutionContextUtil.prepareContextForTenant;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.spring.FolioExecutionContext;
+import org.folio.spring.FolioModuleMetadata;
+import org.folio.spring.scope.FolioExecutionContextSetter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Leases export files (slices) of job executions to this module instance. A slice is exported only
+ * by the instance holding its lease. Leases are renewed in the background while their slices are
+ * exported; a lease that is not renewed in time, e.g. because its instance died, expires and the
+ * slice can be leased again. Leasing skips rows locked by other instances instead of waiting for
+ * them.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class ExportFileLeaseService {
+
+  private static final String OWNER =
+      ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+  private static final long DEFAULT_LEASE_DURATION = 60;
+  private static final int RENEWALS_PER_LEASE = 3;
+
+  private final JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
+  private final JobExecutionEntityRepository jobExecutionEntityRepository;
+  private final FolioExecutionContext folioExecutionContext;
+  private final FolioModuleMetadata folioModuleMetadata;
+  private final ThreadPoolTaskScheduler exportFileLeaseScheduler;
+
+  private final Map<UUID, FolioExecutionContext> leases = new ConcurrentHashMap<>();
+  private long leaseDuration = DEFAULT_LEASE_DURATION;
+  private ScheduledFuture<?> renewal;
+
+  @Value("#{T(Long).parseLong('${application.export-files.lease-duration}')}")
+  protected void setLeaseDuration(long leaseDuration) {
+    this.leaseDuration = leaseDuration;
+  }
+
+  /**
+   * Leases the export file to this instance if it is scheduled or its lease has expired, and marks
+   * it as active.
+   *
+   * @param exportFileId the export file UUID
+   * @return true if the export file is leased, false if another worker holds its lease or it is
+   *     already exported
+   */
+  public boolean acquire(UUID exportFileId) {
+    if (jobExecutionExportFilesEntityRepository.acquireLease(exportFileId, OWNER, leaseDuration)
+        == 0) {
+      return false;
+    }
+    leases.put(
+        exportFileId,
+        prepareContextForTenant(
+            folioExecutionContext.getTenantId(), folioModuleMetadata, folioExecutionContext));
+    startRenewal();
+    return true;
+  }
+
+  /**
+   * Stops renewing the lease of the export file and clears the lease if the final status of the
+   * export file is saved. The lease of an export file left active expires, so the file can be
+   * claimed again.
+   *
+   * @param exportFileId the export file UUID
+   */
+  public void release(UUID exportFileId) {
+    leases.remove(exportFileId);
+    jobExecutionExportFilesEntityRepository.releaseLease(exportFileId, OWNER);
+  }
+
+  /**
+   * Claims the completion of the job execution, so that only the worker finishing the last export
+   * file of the job, on any instance, aggregates its result.
+   *
+   * @param jobExecutionId the job execution UUID
+   * @return true if the caller completes the job execution
+   */
+  public boolean claimCompletion(UUID jobExecutionId) {
+    return jobExecutionEntityRepository.claimCompletion(jobExecutionId) > 0;
+  }
+
+  private synchronized void startRenewal() {
+    if (renewal == null) {
+      renewal =
+          exportFileLeaseScheduler.scheduleWithFixedDelay(
+              this::renewAll,
+              Duration.ofSeconds(Math.max(1, leaseDuration / RENEWALS_PER_LEASE)));
+    }
+  }
+
+  private void renewAll() {
+    leases.forEach(
+        (exportFileId, context) -> {
+          try (var ignored = new FolioExecutionContextSetter(context)) {
+            if (jobExecutionExportFilesEntityRepository.renewLease(
+                    exportFileId, OWNER, leaseDuration)
+                == 0) {
+              log.warn("renewAll:: Lease of export file {} was lost", exportFileId);
+              leases.remove(exportFileId);
+            }
+          } catch (RuntimeException e) {
+            log.error(
+                "renewAll:: Lease of export file {} could not be renewed: {}",
+                exportFileId,
+                e.getMessage());
+          }
+        });
+  }
+}
@@ -0,0 +1,209 @@
+package org.folio.dataexp.service.export;
+
+import static org.folio.spring.scope.FolioExecutionScopeExecutionContextManager.getRunnableWithCurrentFolioContext;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.folio.spring.FolioExecutionContext;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Schedules the exports of single files of all tenants on the export file executor. Files wait
+ * in per-tenant queues, and a free slot goes to the tenant with the fewest running files relative
+ * to its weight, so a large export of one tenant does not hold back the exports of the others.
+ * Files of quick exports skip the tenant queues and take the next free slot. At most
+ * {@code application.export-files.max-pool-size} files are exported at once. Queue depths and
+ * running files are published as gauges.
+ */
+@Component
+@Log4j2
+public class ExportFileScheduler {
+
+  static final String QUEUED_METRIC = "data.export.files.queued";
+  static final String QUICK_QUEUED_METRIC = "data.export.files.quick.queued";
+  static final String RUNNING_METRIC = "data.export.files.running";
+  private static final String TENANT_TAG = "tenant";
+  private static final int DEFAULT_WEIGHT = 1;
+
+  private final TaskExecutor singleExportFileTaskExecutor;
+  private final FolioExecutionContext folioExecutionContext;
+  private final MeterRegistry meterRegistry;
+
+  private final Map<String, TenantQueue> tenantQueues = new LinkedHashMap<>();
+  private final Queue<QueuedExport> quickLane = new ArrayDeque<>();
+  private final AtomicInteger quickLaneDepth = new AtomicInteger();
+  private Map<String, Integer> tenantWeights = Map.of();
+  private int maxConcurrentExports;
+  private int runningExports;
+  private long dispatchCount;
+
+  /**
+   * Constructs a scheduler running the exports on the given executor.
+   *
+   * @param singleExportFileTaskExecutor the executor of single file exports
+   * @param folioExecutionContext the FOLIO execution context of the submitting request
+   * @param meterRegistry the registry of the queue gauges
+   */
+  public ExportFileScheduler(
+      @Qualifier("singleExportFileTaskExecutor") TaskExecutor singleExportFileTaskExecutor,
+      FolioExecutionContext folioExecutionContext,
+      MeterRegistry meterRegistry) {
+    this.singleExportFileTaskExecutor = singleExportFileTaskExecutor;
+    this.folioExecutionContext = folioExecutionContext;
+    this.meterRegistry = meterRegistry;
+    Gauge.builder(QUICK_QUEUED_METRIC, quickLaneDepth, AtomicInteger::get).register(meterRegistry);
+  }
+
+  @Value("#{ T(Integer).parseInt('${application.export-files.max-pool-size}')}")
+  protected void setMaxConcurrentExports(int maxConcurrentExports) {
+    this.maxConcurrentExports = maxConcurrentExports;
+  }
+
+  /**
+   * Sets the weights of tenants, given as comma separated {@code tenant:weight} pairs. Tenants
+   * without a weight have the weight 1.
+   */
+  @Value("${application.export-files.tenant-weights:}")
+  protected void setTenantWeights(String tenantWeights) {
+    var weights = new HashMap<String, Integer>();
+    for (var tenantWeight : StringUtils.split(tenantWeights, ',')) {
+      var pair = tenantWeight.split(":");
+      if (pair.length == 2 && StringUtils.isNumeric(pair[1].trim())) {
+        weights.put(pair[0].trim(), Math.max(DEFAULT_WEIGHT, Integer.parseInt(pair[1].trim())));
+      } else {
+        log.warn("setTenantWeights:: Ignoring invalid tenant weight {}", tenantWeight);
+      }
+    }
+    this.tenantWeights = Map.copyOf(weights);
+  }
+
+  /**
+   * Queues the export of a file of the current tenant. The export runs with the FOLIO execution
+   * context of the calling thread.
+   *
+   * @param export the export of the file
+   * @param quick true if the file belongs to a quick export
+   */
+  public void submit(Runnable export, boolean quick) {
+    var tenantId = folioExecutionContext.getTenantId();
+    var queuedExport = new QueuedExport(getRunnableWithCurrentFolioContext(export));
+    synchronized (this) {
+      queuedExport.tenantQueue = tenantQueues.computeIfAbsent(tenantId, this::createTenantQueue);
+      if (quick) {
+        quickLane.add(queuedExport);
+        quickLaneDepth.incrementAndGet();
+      } else {
+        queuedExport.tenantQueue.exports.add(queuedExport);
+        queuedExport.tenantQueue.depth.incrementAndGet();
+      }
+    }
+    dispatch();
+  }
+
+  private void dispatch() {
+    var exportsToStart = new ArrayList<QueuedExport>();
+    synchronized (this) {
+      while (runningExports < maxConcurrentExports) {
+        var next = pollNext();
+        if (next == null) {
+          break;
+        }
+        runningExports++;
+        next.tenantQueue.running.incrementAndGet();
+        exportsToStart.add(next);
+      }
+    }
+    exportsToStart.forEach(export -> singleExportFileTaskExecutor.execute(() -> run(export)));
+  }
+
+  private QueuedExport pollNext() {
+    var quickExport = quickLane.poll();
+    if (quickExport != null) {
+      quickLaneDepth.decrementAndGet();
+      return quickExport;
+    }
+    TenantQueue selected = null;
+    for (var tenantQueue : tenantQueues.values()) {
+      if (!tenantQueue.exports.isEmpty()
+          && (selected == null || tenantQueue.isServedBefore(selected))) {
+        selected = tenantQueue;
+      }
+    }
+    if (selected == null) {
+      return null;
+    }
+    selected.lastDispatch = ++dispatchCount;
+    selected.depth.decrementAndGet();
+    return selected.exports.poll();
+  }
+
+  private void run(QueuedExport export) {
+    try {
+      export.task.run();
+    } catch (RuntimeException e) {
+      log.error("run:: Export of file failed: {}", e.getMessage(), e);
+    } finally {
+      synchronized (this) {
+        runningExports--;
+        export.tenantQueue.running.decrementAndGet();
+      }
+      dispatch();
+    }
+  }
+
+  private TenantQueue createTenantQueue(String tenantId) {
+    var tenantQueue = new TenantQueue(tenantWeights.getOrDefault(tenantId, DEFAULT_WEIGHT));
+    Gauge.builder(QUEUED_METRIC, tenantQueue.depth, AtomicInteger::get)
+        .tag(TENANT_TAG, tenantId)
+        .register(meterRegistry);
+    Gauge.builder(RUNNING_METRIC, tenantQueue.running, AtomicInteger::get)
+        .tag(TENANT_TAG, tenantId)
+        .register(meterRegistry);
+    return tenantQueue;
+  }
+
+  private static class TenantQueue {
+
+    private final int weight;
+    private final Queue<QueuedExport> exports = new ArrayDeque<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private long lastDispatch;
+
+    TenantQueue(int weight) {
+      this.weight = weight;
+    }
+
+    /**
+     * Compares the running exports per weight, i.e. running / weight, and falls back to the
+     * tenant that got a slot longest ago.
+     */
+    boolean isServedBefore(TenantQueue other) {
+      var share = (long) running.get() * other.weight;
+      var otherShare = (long) other.running.get() * weight;
+      return share < otherShare || (share == otherShare && lastDispatch < other.lastDispatch);
+    }
+  }
+
+  private static class QueuedExport {
+
+    private final Runnable task;
+    private TenantQueue tenantQueue;
+
+    QueuedExport(Runnable task) {
+      this.task = task;
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package org.folio.dataexp.service.export;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary output of an export file. Records are handed over as bytes, so MARC produced by the
+ * converters reaches the file without being decoded to and re-encoded from a {@link String}.
+ */
+public interface ExportWriter extends AutoCloseable {
+
+  /**
+   * Writes bytes to the output.
+   *
+   * @param data the bytes to write
+   */
+  void write(byte[] data);
+
+  /**
+   * Writes the remaining bytes of the buffer to the output.
+   *
+   * @param data the buffer to write
+   */
+  void write(ByteBuffer data);
+
+  /**
+   * Writes text to the output encoded as UTF-8.
+   *
+   * @param data the text to write
+   */
+  default void write(String data) {
+    write(data == null ? null : data.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Flushes buffered bytes and closes the output. */
+  @Override
+  void close();
+
+  /** Discards the written bytes and closes the output. */
+  void abort();
+}
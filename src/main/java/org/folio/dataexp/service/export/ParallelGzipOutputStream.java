@@ -0,0 +1,159 @@
+package org.folio.dataexp.service.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip output stream that compresses blocks of the input on several threads. Every block is
+ * compressed into a separate gzip member and the members are written in input order; a sequence
+ * of gzip members is a valid gzip file that decompresses to the concatenated blocks. The number of
+ * blocks being compressed at once is bounded, so memory use does not depend on the input size.
+ * The stream is not thread-safe.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+  private final OutputStream out;
+  private final int level;
+  private final int blockSize;
+  private final int maxPendingBlocks;
+  private final ExecutorService executor;
+  private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+  private byte[] block;
+  private int blockLength;
+  private boolean membersWritten;
+  private boolean finished;
+
+  /**
+   * Constructs a stream writing gzip members to the given output.
+   *
+   * @param out the output for compressed data
+   * @param level the deflate compression level
+   * @param blockSize size of input compressed as one gzip member
+   * @param executor the executor compressing the blocks
+   * @param parallelism number of threads of the executor
+   */
+  public ParallelGzipOutputStream(
+      OutputStream out, int level, int blockSize, ExecutorService executor, int parallelism) {
+    this.out = out;
+    this.level = level;
+    this.blockSize = blockSize;
+    this.executor = executor;
+    this.maxPendingBlocks = parallelism * 2;
+    this.block = new byte[blockSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureNotFinished();
+    block[blockLength++] = (byte) b;
+    if (blockLength == blockSize) {
+      submitBlock();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureNotFinished();
+    while (len > 0) {
+      var chunk = Math.min(len, blockSize - blockLength);
+      System.arraycopy(b, off, block, blockLength, chunk);
+      blockLength += chunk;
+      off += chunk;
+      len -= chunk;
+      if (blockLength == blockSize) {
+        submitBlock();
+      }
+    }
+  }
+
+  /**
+   * Compresses the remaining input and writes all gzip members without closing the underlying
+   * output.
+   *
+   * @throws IOException if a block cannot be compressed or written
+   */
+  public void finish() throws IOException {
+    if (finished) {
+      return;
+    }
+    submitBlock();
+    while (!pendingBlocks.isEmpty()) {
+      writeNextMember();
+    }
+    if (!membersWritten) {
+      // Empty input is still a valid gzip file of one empty member
+      out.write(compress(block, 0, level));
+    }
+    finished = true;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finish();
+    } finally {
+      pendingBlocks.forEach(pending -> pending.cancel(true));
+      out.close();
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    if (blockLength == 0) {
+      return;
+    }
+    var data = block;
+    var length = blockLength;
+    pendingBlocks.add(executor.submit(() -> compress(data, length, level)));
+    block = new byte[blockSize];
+    blockLength = 0;
+    while (pendingBlocks.size() >= maxPendingBlocks) {
+      writeNextMember();
+    }
+  }
+
+  private void writeNextMember() throws IOException {
+    try {
+      out.write(pendingBlocks.poll().get());
+      membersWritten = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while compressing block", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Block cannot be compressed: " + e.getCause().getMessage(), e);
+    }
+  }
+
+  private void ensureNotFinished() throws IOException {
+    if (finished) {
+      throw new IOException("Stream finished");
+    }
+  }
+
+  private static byte[] compress(byte[] data, int length, int level) throws IOException {
+    var bytes = new ByteArrayOutputStream(length / 4 + 64);
+    try (var gzip = new LeveledGzipOutputStream(bytes, level)) {
+      gzip.write(data, 0, length);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static class LeveledGzipOutputStream extends GZIPOutputStream {
+
+    LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+      super(out);
+      def.setLevel(level);
+    }
+  }
+}
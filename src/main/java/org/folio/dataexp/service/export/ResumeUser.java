@@ -0,0 +1,12 @@
+package org.folio.dataexp.service.export;
+
+import java.util.UUID;
+
+/**
+ * The tenant and the user who started a job execution, stored with the job so it can be resumed
+ * for the same tenant and limited to the records the same user may export.
+ *
+ * @param tenantId the tenant of the job execution
+ * @param userId the user who started the job execution, or null if it was started without a user
+ */
+public record ResumeUser(String tenantId, UUID userId) {}
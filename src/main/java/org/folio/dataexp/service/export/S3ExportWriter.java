@@ -0,0 +1,88 @@
+package org.folio.dataexp.service.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.folio.dataexp.exception.export.S3ExportsUploadException;
+
+/**
+ * Writer of an export file stored in S3. Bytes are streamed into a multipart upload while the file
+ * is being exported, so the export file is never written to local storage. Nothing is stored if no
+ * bytes were written, the same as for an export file without records.
+ */
+public class S3ExportWriter implements ExportWriter {
+
+  private final S3MultipartOutputStream outputStream;
+  private final String s3Path;
+  private long written;
+
+  /**
+   * Constructs an S3ExportWriter uploading through the given stream.
+   *
+   * @param outputStream the stream uploading to S3
+   * @param s3Path the S3 path of the export file
+   */
+  public S3ExportWriter(S3MultipartOutputStream outputStream, String s3Path) {
+    this.outputStream = outputStream;
+    this.s3Path = s3Path;
+  }
+
+  /**
+   * Writes data to the export file.
+   *
+   * @param data the data to write, nothing is written if it is null or empty
+   */
+  @Override
+  public void write(byte[] data) {
+    if (data != null && data.length > 0) {
+      write(data, 0, data.length);
+    }
+  }
+
+  /**
+   * Writes the remaining bytes of the buffer to the export file.
+   *
+   * @param data the buffer to write
+   */
+  @Override
+  public void write(ByteBuffer data) {
+    if (data.hasArray()) {
+      write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+      data.position(data.limit());
+    } else {
+      var bytes = new byte[data.remaining()];
+      data.get(bytes);
+      write(bytes);
+    }
+  }
+
+  /** Completes the upload of the export file. */
+  @Override
+  public void close() {
+    if (written == 0) {
+      outputStream.abort();
+      return;
+    }
+    try {
+      outputStream.close();
+    } catch (IOException e) {
+      throw new S3ExportsUploadException(
+          "Export file %s cannot be uploaded: %s".formatted(s3Path, e.getMessage()));
+    }
+  }
+
+  /** Aborts the upload of the export file. */
+  @Override
+  public void abort() {
+    outputStream.abort();
+  }
+
+  private void write(byte[] data, int offset, int length) {
+    try {
+      outputStream.write(data, offset, length);
+      written += length;
+    } catch (IOException e) {
+      throw new S3ExportsUploadException(
+          "Export file %s cannot be uploaded: %s".formatted(s3Path, e.getMessage()));
+    }
+  }
+}
@@ -3,17 +3,17 @@ package org.folio.dataexp.service.export;
 import static org.folio.dataexp.util.S3FilePathUtils.getPathToStoredFiles;
 import static org.folio.dataexp.util.S3FilePathUtils.getPathToStoredRecord;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import lombok.RequiredArgsConstructor;
@@ -21,8 +21,14 @@ import lombok.extern.log4j.Log4j2;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.folio.dataexp.domain.dto.JobExecution;
+import org.folio.dataexp.domain.dto.JobProfile;
+import org.folio.dataexp.domain.dto.OutputCompression;
+import org.folio.dataexp.domain.dto.OutputCompression.FormatEnum;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
+import org.folio.dataexp.domain.entity.JobProfileEntity;
 import org.folio.dataexp.exception.export.S3ExportsUploadException;
+import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.repository.JobProfileEntityRepository;
 import org.folio.dataexp.util.Constants;
 import org.folio.dataexp.util.S3FilePathUtils;
 import org.folio.s3.client.FolioS3Client;
@@ -36,16 +42,69 @@ import org.springframework.stereotype.Component;
 public class S3ExportsUploader {
 
   public static final String EMPTY_FILE_FOR_EXPORT_ERROR_MESSAGE = "File for exports is empty";
+  private static final int DEFAULT_UPLOAD_PART_SIZE = 16 * 1024 * 1024;
+  private static final int DEFAULT_COMPRESSION_BLOCK_SIZE = 1024 * 1024;
+  private static final int DEFAULT_COMPRESSION_THREAD_POOL_SIZE = 4;
+  private static final String GZIP_FILE_SUFFIX = ".gz";
+  private static final String PART_FILE_SUFFIX = ".part";
   private final FolioS3Client s3Client;
+  private final JobProfileEntityRepository jobProfileEntityRepository;
+  private final JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
   private String exportTmpStorage;
+  private int uploadPartSize = DEFAULT_UPLOAD_PART_SIZE;
+  private int compressionBlockSize = DEFAULT_COMPRESSION_BLOCK_SIZE;
+  private int compressionThreadPoolSize = DEFAULT_COMPRESSION_THREAD_POOL_SIZE;
 
   @Value("${application.export-tmp-storage}")
   protected void setExportTmpStorage(String exportTmpStorage) {
     this.exportTmpStorage = exportTmpStorage;
   }
 
+  @Value("#{T(Integer).parseInt('${application.s3-upload-part-size}')}")
+  protected void setUploadPartSize(int uploadPartSize) {
+    this.uploadPartSize = uploadPartSize;
+  }
+
+  @Value("#{T(Integer).parseInt('${application.compression-block-size}')}")
+  protected void setCompressionBlockSize(int compressionBlockSize) {
+    this.compressionBlockSize = compressionBlockSize;
+  }
+
+  @Value("#{T(Integer).parseInt('${application.compression-thread-pool-size}')}")
+  protected void setCompressionThreadPoolSize(int compressionThreadPoolSize) {
+    this.compressionThreadPoolSize = compressionThreadPoolSize;
+  }
+
   /**
-   * Uploads exported files for a job execution to S3.
+   * Points the export file of a job execution that has a single export file and no output
+   * compression at the S3 path of the uploaded file, so the file is exported straight to that path
+   * and is neither read back nor uploaded again once exported.
+   *
+   * @param jobExecution the job execution
+   * @param initialFileName initial file name
+   */
+  public void exportSingleFileInPlace(JobExecution jobExecution, String initialFileName) {
+    var exports =
+        jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecution.getId());
+    if (exports.size() != 1 || getCompressionFormat(jobExecution) != FormatEnum.NONE) {
+      return;
+    }
+    var export = exports.getFirst();
+    export.setFileLocation(
+        getSingleFilePath(jobExecution, export.getFileLocation(), initialFileName));
+    jobExecutionExportFilesEntityRepository.save(export);
+    log.info(
+        "exportSingleFileInPlace:: Job execution {} is exported to {}",
+        jobExecution.getId(),
+        export.getFileLocation());
+  }
+
+  /**
+   * Uploads exported files for a job execution to S3. Several files are uploaded as a ZIP archive,
+   * a single file is compressed as set by the output compression of the job profile, and a single
+   * file exported in place is not uploaded at all. The export files are read from S3, where they
+   * were streamed to while exported, and removed once the upload succeeded; if it fails, they are
+   * kept, so the job can still be resumed from them.
    *
    * @param jobExecution the job execution
    * @param exports list of export file entities
@@ -59,36 +118,25 @@ public class S3ExportsUploader {
     if (exports.isEmpty()) {
       throw new S3ExportsUploadException(EMPTY_FILE_FOR_EXPORT_ERROR_MESSAGE);
     }
+    var storedFiles = new HashSet<>(s3Client.list(getPathToStoredFiles(jobExecution.getId(), "")));
+    var filesToExport =
+        exports.stream()
+            .map(JobExecutionExportFilesEntity::getFileLocation)
+            .filter(storedFiles::contains)
+            .toList();
     try {
-      String uploadedPath;
-      if (exports.size() > 1) {
-        var filesToExport =
-            exports.stream()
-                .map(
-                    e ->
-                        new File(
-                            S3FilePathUtils.getLocalStorageWriterPath(
-                                exportTmpStorage, e.getFileLocation())))
-                .filter(f -> f.length() > 0)
-                .toList();
-        if (filesToExport.size() > 1) {
-          uploadedPath = uploadZip(jobExecution, filesToExport, initialFileName);
-        } else if (filesToExport.size() == 1) {
-          uploadedPath = uploadSingleFile(jobExecution, filesToExport.get(0), initialFileName);
-        } else {
-          removeTempDirForJobExecution(jobExecution.getId());
-          throw new S3ExportsUploadException(EMPTY_FILE_FOR_EXPORT_ERROR_MESSAGE);
-        }
-      } else {
-        var fileToExport =
-            new File(
-                S3FilePathUtils.getLocalStorageWriterPath(
-                    exportTmpStorage, exports.get(0).getFileLocation()));
-        uploadedPath = uploadSingleFile(jobExecution, fileToExport, initialFileName);
+      if (filesToExport.isEmpty()) {
+        throw new S3ExportsUploadException(EMPTY_FILE_FOR_EXPORT_ERROR_MESSAGE);
       }
-      return uploadedPath;
+      var s3Path = uploadExports(jobExecution, filesToExport, initialFileName);
+      removeExportFiles(
+          jobExecution.getId(),
+          filesToExport.stream().filter(exportFile -> !exportFile.equals(s3Path)).toList());
+      return s3Path;
     } catch (IOException e) {
       throw new S3ExportsUploadException(e.getMessage());
+    } finally {
+      removeTempDir(jobExecution.getId());
     }
   }
 
@@ -109,97 +157,233 @@ public class S3ExportsUploader {
     log.info("Marc record uploaded as " + s3FileName);
   }
 
+  private String uploadExports(
+      JobExecution jobExecution, List<String> filesToExport, String initialFileName)
+      throws IOException {
+    var compression = getOutputCompression(jobExecution);
+    var format = Optional.ofNullable(compression.getFormat()).orElse(FormatEnum.NONE);
+    var level = Optional.ofNullable(compression.getLevel()).orElse(Deflater.DEFAULT_COMPRESSION);
+    if (filesToExport.size() > 1 || format == FormatEnum.ZIP) {
+      return uploadZip(jobExecution, filesToExport, initialFileName, level);
+    }
+    if (format == FormatEnum.GZIP) {
+      return uploadGzip(jobExecution, filesToExport.get(0), initialFileName, level);
+    }
+    return uploadSingleFile(jobExecution, filesToExport.get(0), initialFileName);
+  }
+
   /**
-   * Uploads a single file to S3.
+   * Uploads a single file to S3, unless it was exported in place to the S3 path of the uploaded
+   * file already.
    *
    * @param jobExecution the job execution
-   * @param fileToUpload the file to upload
+   * @param fileToUpload S3 path of the export file to upload
    * @param fileName the file name
-   * @param fileSuffix filename suffix
    * @return S3 path of the uploaded file
    * @throws IOException if upload fails
    */
-  private String uploadSingleFile(JobExecution jobExecution, File fileToUpload, String fileName)
+  private String uploadSingleFile(JobExecution jobExecution, String fileToUpload, String fileName)
+      throws IOException {
+    var s3path = getSingleFilePath(jobExecution, fileToUpload, fileName);
+    if (s3path.equals(fileToUpload)) {
+      log.info(fileToUpload + " exported in place");
+      return s3path;
+    }
+    var s3Name = FilenameUtils.getName(s3path);
+    var s3OutputStream = createOutputStream(jobExecution, s3path, s3Name);
+    try (var inputStream = s3Client.read(fileToUpload)) {
+      inputStream.transferTo(s3OutputStream);
+    } catch (IOException | RuntimeException e) {
+      s3OutputStream.abort();
+      throw e;
+    }
+    s3OutputStream.close();
+    log.info(fileToUpload + " uploaded as " + s3Name);
+    return s3path;
+  }
+
+  /**
+   * Uploads multiple files as a ZIP archive to S3. The archive is streamed to S3 in parts while it
+   * is being built from the export files read from S3, so the archive never needs a full copy.
+   *
+   * @param jobExecution the job execution
+   * @param exports S3 paths of the export files
+   * @param fileName the file name
+   * @param level the deflate compression level
+   * @return S3 path of the uploaded ZIP file
+   * @throws IOException if upload fails
+   */
+  private String uploadZip(
+      JobExecution jobExecution, List<String> exports, String fileName, int level)
+      throws IOException {
+    var zipFileName = String.format("%s-%s.zip", fileName, jobExecution.getHrId());
+    var s3ZipPath = getPathToStoredFiles(jobExecution.getId(), zipFileName);
+    var s3OutputStream = createOutputStream(jobExecution, s3ZipPath, zipFileName);
+    try (var zipOutputStream = new ZipOutputStream(s3OutputStream)) {
+      zipOutputStream.setLevel(level);
+      try {
+        addToZip(zipOutputStream, jobExecution, exports, fileName);
+      } catch (IOException | RuntimeException e) {
+        // Closing the archive must not complete the upload of a partial archive
+        s3OutputStream.abort();
+        throw e;
+      }
+    }
+    return s3ZipPath;
+  }
+
+  /**
+   * Uploads a single file compressed with gzip to S3. Blocks of the file are compressed on
+   * several threads and streamed to S3 in parts.
+   *
+   * @param jobExecution the job execution
+   * @param fileToUpload S3 path of the export file to upload
+   * @param fileName the file name
+   * @param level the deflate compression level
+   * @return S3 path of the uploaded gzip file
+   * @throws IOException if upload fails
+   */
+  private String uploadGzip(
+      JobExecution jobExecution, String fileToUpload, String fileName, int level)
       throws IOException {
-    var fileSuffix = FilenameUtils.getExtension(fileToUpload.getName());
+    var fileSuffix = FilenameUtils.getExtension(fileToUpload) + GZIP_FILE_SUFFIX;
     var s3Name =
         String.format(Constants.FILE_NAME_FORMAT, fileName, jobExecution.getHrId(), fileSuffix);
     var s3path = getPathToStoredFiles(jobExecution.getId(), s3Name);
-    if (fileToUpload.length() > 0) {
-      try (var inputStream = new BufferedInputStream(new FileInputStream(fileToUpload))) {
-        s3Client.write(s3path, inputStream, fileToUpload.length());
+    var s3OutputStream = createOutputStream(jobExecution, s3path, s3Name);
+    try (var executor = Executors.newFixedThreadPool(compressionThreadPoolSize)) {
+      var gzipOutputStream =
+          new ParallelGzipOutputStream(
+              s3OutputStream, level, compressionBlockSize, executor, compressionThreadPoolSize);
+      try (var inputStream = s3Client.read(fileToUpload)) {
+        inputStream.transferTo(gzipOutputStream);
+        gzipOutputStream.finish();
+      } catch (IOException | RuntimeException e) {
+        s3OutputStream.abort();
+        throw e;
       }
-      log.info(fileToUpload.getPath() + " uploaded as " + s3Name);
-      removeTempDirForJobExecution(jobExecution.getId());
-    } else {
-      removeTempDirForJobExecution(jobExecution.getId());
-      throw new S3ExportsUploadException(EMPTY_FILE_FOR_EXPORT_ERROR_MESSAGE);
     }
+    s3OutputStream.close();
+    log.info(fileToUpload + " uploaded as " + s3Name);
     return s3path;
   }
 
   /**
-   * Uploads multiple files as a ZIP archive to S3.
+   * Gets the S3 path of the file uploaded for a single export file.
    *
    * @param jobExecution the job execution
-   * @param exports list of files to export
+   * @param fileLocation S3 path of the export file
    * @param fileName the file name
-   * @param fileSuffix member filename suffix
-   * @return S3 path of the uploaded ZIP file
-   * @throws IOException if upload fails
+   * @return S3 path of the uploaded file
+   */
+  private String getSingleFilePath(
+      JobExecution jobExecution, String fileLocation, String fileName) {
+    var fileSuffix = FilenameUtils.getExtension(fileLocation);
+    var s3Name =
+        String.format(Constants.FILE_NAME_FORMAT, fileName, jobExecution.getHrId(), fileSuffix);
+    return getPathToStoredFiles(jobExecution.getId(), s3Name);
+  }
+
+  /**
+   * Creates the stream uploading to the given S3 path, spilling its parts to the temporary
+   * directory of the job execution.
+   */
+  private S3MultipartOutputStream createOutputStream(
+      JobExecution jobExecution, String s3Path, String s3Name) {
+    var partFile =
+        Path.of(
+            S3FilePathUtils.getTempDirForJobExecutionId(exportTmpStorage, jobExecution.getId())
+                + s3Name
+                + PART_FILE_SUFFIX);
+    return new S3MultipartOutputStream(s3Client, s3Path, partFile, uploadPartSize);
+  }
+
+  /**
+   * Gets the output compression format of the job profile used by the job execution.
+   *
+   * @param jobExecution the job execution
+   * @return the output compression format, NONE if the job profile does not define one
+   */
+  private FormatEnum getCompressionFormat(JobExecution jobExecution) {
+    return Optional.ofNullable(getOutputCompression(jobExecution).getFormat())
+        .orElse(FormatEnum.NONE);
+  }
+
+  /**
+   * Gets the output compression of the job profile used by the job execution.
+   *
+   * @param jobExecution the job execution
+   * @return the output compression, empty if the job profile does not define one
    */
-  private String uploadZip(JobExecution jobExecution, List<File> exports, String fileName)
+  private OutputCompression getOutputCompression(JobExecution jobExecution) {
+    return Optional.ofNullable(jobExecution.getJobProfileId())
+        .flatMap(jobProfileEntityRepository::findById)
+        .map(JobProfileEntity::getJobProfile)
+        .map(JobProfile::getOutputCompression)
+        .orElseGet(OutputCompression::new);
+  }
+
+  private void addToZip(
+      ZipOutputStream zipOutputStream,
+      JobExecution jobExecution,
+      List<String> exports,
+      String fileName)
       throws IOException {
-    var zipFileName = String.format("%s-%s.zip", fileName, jobExecution.getHrId());
-    var zipDirPath =
-        S3FilePathUtils.getTempDirForJobExecutionId(exportTmpStorage, jobExecution.getId())
-            + "zip/";
-    Files.createDirectories(Path.of(zipDirPath));
-    var zipFilePath = zipDirPath + zipFileName;
-    var zip = Files.createFile(Path.of(zipFilePath)).toFile();
-    try (var fileOutputStream = new FileOutputStream(zip);
-        var zipOutputStream = new ZipOutputStream(fileOutputStream)) {
-      var countExportsFiles = 0;
-      for (var exportFile : exports) {
-        countExportsFiles++;
-        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(exportFile))) {
-          var fileSuffix = FilenameUtils.getExtension(exportFile.getName());
-          var zipEntryName =
-              String.format(
-                  Constants.ZIP_FILE_MEMBER_NAME_FORMAT,
-                  fileName,
-                  jobExecution.getHrId(),
-                  countExportsFiles,
-                  fileSuffix);
-          log.info(exportFile.getPath() + " add to zip as " + zipEntryName);
-          ZipEntry zipEntry = new ZipEntry(zipEntryName);
-          zipOutputStream.putNextEntry(zipEntry);
-          byte[] bytes = new byte[1024];
-          int length;
-          while ((length = inputStream.read(bytes)) > 0) {
-            zipOutputStream.write(bytes, 0, length);
-          }
-        }
-        Files.delete(exportFile.toPath());
+    var countExportsFiles = 0;
+    for (var exportFile : exports) {
+      countExportsFiles++;
+      try (InputStream inputStream = s3Client.read(exportFile)) {
+        var fileSuffix = FilenameUtils.getExtension(exportFile);
+        var zipEntryName =
+            String.format(
+                Constants.ZIP_FILE_MEMBER_NAME_FORMAT,
+                fileName,
+                jobExecution.getHrId(),
+                countExportsFiles,
+                fileSuffix);
+        log.info(exportFile + " add to zip as " + zipEntryName);
+        ZipEntry zipEntry = new ZipEntry(zipEntryName);
+        zipOutputStream.putNextEntry(zipEntry);
+        inputStream.transferTo(zipOutputStream);
       }
     }
-    var s3ZipPath = getPathToStoredFiles(jobExecution.getId(), zipFileName);
-    try (var inputStream = new BufferedInputStream(new FileInputStream(zip))) {
-      s3Client.write(s3ZipPath, inputStream, zip.length());
+  }
+
+  /**
+   * Removes the export files of a job execution from S3 once they are uploaded.
+   *
+   * @param jobExecutionId the job execution ID
+   * @param exportFiles S3 paths of the export files
+   */
+  private void removeExportFiles(UUID jobExecutionId, List<String> exportFiles) {
+    if (exportFiles.isEmpty()) {
+      return;
+    }
+    try {
+      s3Client.remove(exportFiles.toArray(String[]::new));
+    } catch (RuntimeException e) {
+      log.warn(
+          "removeExportFiles:: Export files of job execution {} cannot be removed: {}",
+          jobExecutionId,
+          e.getMessage());
     }
-    FileUtils.delete(zip);
-    removeTempDirForJobExecution(jobExecution.getId());
-    return s3ZipPath;
   }
 
   /**
-   * Removes the temporary directory for a job execution.
+   * Removes the temporary directory of a job execution, whether its export files are uploaded or
+   * cannot be uploaded.
    *
    * @param jobExecutionId the job execution ID
-   * @throws IOException if removal fails
    */
-  private void removeTempDirForJobExecution(UUID jobExecutionId) throws IOException {
-    FileUtils.deleteDirectory(
-        new File(S3FilePathUtils.getTempDirForJobExecutionId(exportTmpStorage, jobExecutionId)));
+  private void removeTempDir(UUID jobExecutionId) {
+    try {
+      FileUtils.deleteDirectory(
+          new File(S3FilePathUtils.getTempDirForJobExecutionId(exportTmpStorage, jobExecutionId)));
+    } catch (IOException | RuntimeException e) {
+      log.warn(
+          "removeTempDir:: Temporary directory of job execution {} cannot be removed: {}",
+          jobExecutionId,
+          e.getMessage());
+    }
   }
 }
@@ -0,0 +1,175 @@
+package org.folio.dataexp.service.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.folio.s3.client.FolioS3Client;
+
+/**
+ * Output stream that uploads its content to S3 while it is being written. Bytes are collected in an
+ * in-memory part buffer; every time the buffer reaches the part size it is uploaded as the next
+ * part of a multipart upload and reused, so at most one part is kept in memory. The S3 client
+ * uploads parts from files only, so a full part is spilled to the part file just for its upload
+ * and removed right after. Content smaller than one part is uploaded from memory with a single
+ * write on close. The stream is not thread-safe.
+ */
+@Log4j2
+public class S3MultipartOutputStream extends OutputStream {
+
+  private static final int INITIAL_PART_BUFFER_SIZE = 64 * 1024;
+
+  private final FolioS3Client s3Client;
+  private final String s3Path;
+  private final Path partFile;
+  private final int partSize;
+  private final List<String> partETags = new ArrayList<>();
+  private byte[] part;
+  private int partLength;
+  private String uploadId;
+  private boolean closed;
+
+  /**
+   * Constructs a stream uploading to the given S3 path. The part buffer grows with the written
+   * content up to the part size, so small outputs do not hold a whole part in memory.
+   *
+   * @param s3Client the S3 client
+   * @param s3Path the S3 path of the uploaded object
+   * @param partFile local file a full part is spilled to while it is uploaded
+   * @param partSize size of every part except the last one
+   */
+  public S3MultipartOutputStream(
+      FolioS3Client s3Client, String s3Path, Path partFile, int partSize) {
+    this.s3Client = s3Client;
+    this.s3Path = s3Path;
+    this.partFile = partFile;
+    this.partSize = partSize;
+    this.part = new byte[Math.min(partSize, INITIAL_PART_BUFFER_SIZE)];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    ensurePartCapacity(partLength + 1);
+    part[partLength++] = (byte) b;
+    if (partLength == partSize) {
+      uploadPart();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      var chunk = Math.min(len, partSize - partLength);
+      ensurePartCapacity(partLength + chunk);
+      System.arraycopy(b, off, part, partLength, chunk);
+      partLength += chunk;
+      off += chunk;
+      len -= chunk;
+      if (partLength == partSize) {
+        uploadPart();
+      }
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+  }
+
+  /**
+   * Uploads the remaining bytes and completes the upload. Nothing is uploaded if the stream was
+   * aborted.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (uploadId == null) {
+        try (var inputStream = new ByteArrayInputStream(part, 0, partLength)) {
+          s3Client.write(s3Path, inputStream, partLength);
+        }
+      } else {
+        if (partLength > 0) {
+          uploadPartFromBuffer();
+        }
+        s3Client.completeMultipartUpload(s3Path, uploadId, partETags);
+        log.info("{} uploaded in {} parts", s3Path, partETags.size());
+      }
+    } catch (IOException | RuntimeException e) {
+      abortUpload();
+      throw e;
+    } finally {
+      part = null;
+    }
+  }
+
+  /** Discards the written content and aborts the multipart upload if it has been started. */
+  public void abort() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    part = null;
+    abortUpload();
+  }
+
+  private void uploadPart() throws IOException {
+    try {
+      if (uploadId == null) {
+        uploadId = s3Client.initiateMultipartUpload(s3Path);
+      }
+      uploadPartFromBuffer();
+    } catch (IOException | RuntimeException e) {
+      abort();
+      throw e;
+    }
+    partLength = 0;
+  }
+
+  private void uploadPartFromBuffer() throws IOException {
+    var partNumber = partETags.size() + 1;
+    Files.createDirectories(partFile.toAbsolutePath().getParent());
+    try (var outputStream = Files.newOutputStream(partFile)) {
+      outputStream.write(part, 0, partLength);
+    }
+    try {
+      partETags.add(
+          s3Client.uploadMultipartPart(s3Path, uploadId, partNumber, partFile.toString()));
+    } finally {
+      Files.deleteIfExists(partFile);
+    }
+  }
+
+  private void ensurePartCapacity(int capacity) {
+    if (capacity > part.length) {
+      part = Arrays.copyOf(part, Math.min(partSize, Math.max(capacity, part.length * 2)));
+    }
+  }
+
+  private void abortUpload() {
+    if (uploadId != null) {
+      try {
+        s3Client.abortMultipartUpload(s3Path, uploadId);
+      } catch (RuntimeException e) {
+        log.warn("Multipart upload of {} cannot be aborted: {}", s3Path, e.getMessage());
+      }
+      uploadId = null;
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+}
@@ -2,21 +2,40 @@ package org.folio.dataexp.service.export.strategies;
 
 import static org.folio.dataexp.service.export.Constants.OUTPUT_BUFFER_SIZE;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.nio.file.Path;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.dto.MappingProfile;
+import org.folio.dataexp.domain.entity.ExportIdEntity;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesStatus;
 import org.folio.dataexp.repository.ExportIdEntityRepository;
 import org.folio.dataexp.repository.JobProfileEntityRepository;
 import org.folio.dataexp.repository.MappingProfileEntityRepository;
 import org.folio.dataexp.service.JobExecutionService;
-import org.folio.dataexp.service.export.LocalStorageWriter;
+import org.folio.dataexp.service.export.ByteArrayExportWriter;
+import org.folio.dataexp.service.export.ExportWriter;
+import org.folio.dataexp.service.export.S3ExportWriter;
+import org.folio.dataexp.service.export.S3MultipartOutputStream;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.util.S3FilePathUtils;
+import org.folio.s3.client.FolioS3Client;
+import org.folio.spring.scope.FolioExecutionScopeExecutionContextManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
@@ -29,9 +48,25 @@ import org.springframework.beans.factory.annotation.Value;
 public abstract class AbstractExportStrategy implements ExportStrategy {
 
   protected int exportIdsBatch;
+  protected int exportIdsBatchMin = DEFAULT_EXPORT_IDS_BATCH_MIN;
+  protected int exportIdsBatchMax = DEFAULT_EXPORT_IDS_BATCH_MAX;
+  protected long exportIdsBatchTargetTime = DEFAULT_EXPORT_IDS_BATCH_TARGET_TIME;
+  protected int processSlicesThreadPoolSize;
   protected String exportTmpStorage;
+  protected int exportWriterBufferSize = OUTPUT_BUFFER_SIZE;
+  protected int uploadPartSize = DEFAULT_UPLOAD_PART_SIZE;
   protected static final String SAVE_ERROR =
       "{}: Error while saving file {} for job execution ID {}";
+  private static final int DEFAULT_EXPORT_IDS_BATCH_MIN = 100;
+  private static final int DEFAULT_EXPORT_IDS_BATCH_MAX = 10_000;
+  private static final long DEFAULT_EXPORT_IDS_BATCH_TARGET_TIME = 2000;
+  private static final int DEFAULT_UPLOAD_PART_SIZE = 16 * 1024 * 1024;
+  private static final String PART_FILE_SUFFIX = ".part";
+  private static final long WRITER_POLL_INTERVAL_MS = 1000;
+  private static final CompletableFuture<ExportSliceResult> END_OF_PAGES =
+      new CompletableFuture<>();
+  static final String PAGE_SIZE_METRIC = "data.export.page.size";
+  private static final String STRATEGY_TAG = "strategy";
 
   protected ExportIdEntityRepository exportIdEntityRepository;
   protected MappingProfileEntityRepository mappingProfileEntityRepository;
@@ -39,19 +74,53 @@ public abstract class AbstractExportStrategy implements ExportStrategy {
   protected JobExecutionService jobExecutionService;
 
   protected ErrorLogService errorLogService;
+  protected FolioS3Client s3Client;
+  protected MeterRegistry meterRegistry = Metrics.globalRegistry;
 
   @Value("#{ T(Integer).parseInt('${application.export-ids-batch}')}")
   protected void setExportIdsBatch(int exportIdsBatch) {
     this.exportIdsBatch = exportIdsBatch;
   }
 
+  @Value("#{T(Integer).parseInt('${application.export-ids-batch-min}')}")
+  protected void setExportIdsBatchMin(int exportIdsBatchMin) {
+    this.exportIdsBatchMin = exportIdsBatchMin;
+  }
+
+  @Value("#{T(Integer).parseInt('${application.export-ids-batch-max}')}")
+  protected void setExportIdsBatchMax(int exportIdsBatchMax) {
+    this.exportIdsBatchMax = exportIdsBatchMax;
+  }
+
+  @Value("#{T(Long).parseLong('${application.export-ids-batch-target-time}')}")
+  protected void setExportIdsBatchTargetTime(long exportIdsBatchTargetTime) {
+    this.exportIdsBatchTargetTime = exportIdsBatchTargetTime;
+  }
+
+  @Value("#{T(Integer).parseInt('${application.process-slices-thread-pool-size}')}")
+  protected void setProcessSlicesThreadPoolSize(int processSlicesThreadPoolSize) {
+    this.processSlicesThreadPoolSize = processSlicesThreadPoolSize;
+  }
+
   @Value("${application.export-tmp-storage}")
   protected void setExportTmpStorage(String exportTmpStorage) {
     this.exportTmpStorage = exportTmpStorage;
   }
 
+  @Value("#{T(Integer).parseInt('${application.export-writer-buffer-size}')}")
+  protected void setExportWriterBufferSize(int exportWriterBufferSize) {
+    this.exportWriterBufferSize = exportWriterBufferSize;
+  }
+
+  @Value("#{T(Integer).parseInt('${application.s3-upload-part-size}')}")
+  protected void setUploadPartSize(int uploadPartSize) {
+    this.uploadPartSize = uploadPartSize;
+  }
+
   /**
-   * Saves records to local storage for the given export file entity.
+   * Saves records to the export file in S3 for the given export file entity. The records are
+   * streamed into the upload of the export file while they are exported; the upload is aborted if
+   * the export of the file fails.
    *
    * @param exportFilesEntity the export file entity
    * @param exportRequest the export request
@@ -59,24 +128,26 @@ public abstract class AbstractExportStrategy implements ExportStrategy {
    * @return ExportStrategyStatistic containing export statistics
    */
   @Override
-  public ExportStrategyStatistic saveOutputToLocalStorage(
+  public ExportStrategyStatistic saveOutput(
       JobExecutionExportFilesEntity exportFilesEntity,
       ExportRequest exportRequest,
       ExportedRecordsListener exportedRecordsListener) {
     var jobExecutionId = exportFilesEntity.getJobExecutionId();
     var exportStatistic = new ExportStrategyStatistic(exportedRecordsListener);
     var mappingProfile = getMappingProfile(exportFilesEntity.getJobExecutionId());
-    var localStorageWriter = createLocalStorageWriter(exportFilesEntity);
-    processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+    var outputWriter = createOutputWriter(exportFilesEntity);
+    try {
+      processSlices(
+          new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+          outputWriter);
+    } catch (RuntimeException e) {
+      outputWriter.abort();
+      throw e;
+    }
     try {
-      localStorageWriter.close();
+      outputWriter.close();
     } catch (Exception e) {
-      log.error(
-          SAVE_ERROR,
-          "saveOutputToLocalStorage",
-          exportFilesEntity.getFileLocation(),
-          jobExecutionId);
+      log.error(SAVE_ERROR, "saveOutput", exportFilesEntity.getFileLocation(), jobExecutionId);
       exportStatistic.setDuplicatedSrs(0);
       exportStatistic.removeExported();
       long countFailed =
@@ -120,56 +191,275 @@ public abstract class AbstractExportStrategy implements ExportStrategy {
   }
 
   /**
-   * Process slices of export IDs for paged record retrieval and file creation.
+   * Processes the pages of records of the export file entity through the page pipeline, see {@link
+   * #processPages}. The pages are read from {@link #createPageSource}.
    *
-   * @param exportFilesEntity the export file entity
-   * @param exportStatistic the export statistics
-   * @param mappingProfile mapping profile to use
-   * @param exportRequest the export request
-   * @param localStorageWriter writes to local storage
+   * @param context the context of the export file
+   * @param outputWriter writes to the export file
    */
-  protected abstract void processSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
+  protected void processSlices(ExportJobContext context, ExportWriter outputWriter) {
+    processPages(context, createPageSource(context), outputWriter);
+  }
+
+  /**
+   * Creates the source of the pages of the export file. By default the pages are pages of export
+   * IDs read with keyset pagination, i.e. every next page starts right after the last instance ID
+   * of the previous one, so the cost of a page does not depend on its position within the slice.
+   * Strategies that read records through their own queries (e.g. export all) supply their own
+   * pages.
+   *
+   * @param context the context of the export file
+   * @return the source of the pages
+   */
+  protected ExportPageSource createPageSource(ExportJobContext context) {
+    var exportFilesEntity = context.exportFilesEntity();
+    return ExportPageSource.keyset(
+        exportFilesEntity.getFromId(),
+        (fromId, pageable) ->
+            exportIdEntityRepository.getExportIds(
+                context.jobExecutionId(), fromId, exportFilesEntity.getToId(), pageable),
+        ExportIdEntity::getInstanceId,
+        (exportIds, pageContext, writer) ->
+            createAndSaveRecords(
+                exportIds.stream().map(ExportIdEntity::getInstanceId).collect(Collectors.toSet()),
+                pageContext,
+                writer));
+  }
+
+  /**
+   * Processes the pages of the export file in a pipeline of three stages: the calling thread reads
+   * the pages from the source, a fixed-size pool exports the records of every page into its own
+   * in-memory buffer with its own page context, and a single writer thread appends the finished
+   * pages to the final output in page order while the next pages are still exported.
+   *
+   * <p>The page size adapts to the observed time of exporting the pages and to the heap usage, see
+   * {@link AdaptiveBatchSize}, and every chosen size is recorded in the page size metric of the
+   * strategy. At most two pages per thread are read ahead of the writer, so the size of the next
+   * pages follows the pages already processed, and a slow writer holds back the reading of the
+   * pages.
+   *
+   * @param context the context of the export file
+   * @param pages the source of the pages
+   * @param outputWriter writes to the export file
+   */
+  protected void processPages(
+      ExportJobContext context, ExportPageSource pages, ExportWriter outputWriter) {
+    var exportFilesEntity = context.exportFilesEntity();
+    var pageNumber = 0;
+    var batchSize =
+        new AdaptiveBatchSize(
+            exportIdsBatch, exportIdsBatchMin, exportIdsBatchMax, exportIdsBatchTargetTime);
+    var pageSizes =
+        DistributionSummary.builder(PAGE_SIZE_METRIC)
+            .description("Adapted size of the pages of export files")
+            .tag(STRATEGY_TAG, getClass().getSimpleName())
+            .register(meterRegistry);
+    var pagesInProgress = new Semaphore(processSlicesThreadPoolSize * 2);
+    var pagesToWrite = new LinkedBlockingQueue<CompletableFuture<ExportSliceResult>>();
+    // Due to uses of the synchronized keyword in some of the methods called by
+    // the per-thread work, virtual threads must be skipped, because synchronized
+    // blocks cause virtual threads to be pinned to platform threads. This may
+    // lead to resource exhaustion since virtual threads are treated as an
+    // unlimited resource, but platform threads are not. With Java 24+,
+    // synchronized blocks can be used with virtual threads, and this implementation
+    // can be rewritten to use virtual threads without CompleteableFutures.
+    try (var executor = Executors.newFixedThreadPool(processSlicesThreadPoolSize);
+        var writerExecutor = Executors.newSingleThreadExecutor()) {
+      // worker threads need the tenant and user of the current FOLIO context
+      Executor folioContextExecutor =
+          task ->
+              executor.execute(
+                  FolioExecutionScopeExecutionContextManager.getRunnableWithCurrentFolioContext(
+                      task));
+      var writing =
+          CompletableFuture.runAsync(
+              () ->
+                  writePages(
+                      pagesToWrite,
+                      pagesInProgress,
+                      context.statistic(),
+                      outputWriter,
+                      exportFilesEntity),
+              writerExecutor);
+      try {
+        while (true) {
+          acquirePage(pagesInProgress, writing);
+          var pageSize = batchSize.get();
+          var page = pages.next(pageSize);
+          if (page == null) {
+            pagesInProgress.release();
+            break;
+          }
+          pageSizes.record(pageSize);
+          log.debug("Page size: {}", page.size());
+          final var taskId = pageNumber;
+          pagesToWrite.add(
+              CompletableFuture.supplyAsync(
+                  () -> {
+                    var start = System.nanoTime();
+                    try {
+                      return createAndSaveSliceRecords(page, context, taskId);
+                    } finally {
+                      batchSize.onPageProcessed(page.size(), System.nanoTime() - start);
+                    }
+                  },
+                  folioContextExecutor));
+          pageNumber++;
+        }
+      } finally {
+        pagesToWrite.add(END_OF_PAGES);
+      }
+      writing.join();
+    }
+    log.info(
+        "processPages:: {} pages of file {} read with batch size from {} to {}, last {}",
+        pageNumber,
+        exportFilesEntity.getFileLocation(),
+        batchSize.getSmallest(),
+        batchSize.getLargest(),
+        batchSize.get());
+  }
+
+  /**
+   * Waits for a place in the read-ahead of {@link #processPages}. The reader stops as soon as the
+   * writer stage stops, with the failure of the writer if it failed, or when it is interrupted.
+   */
+  private void acquirePage(Semaphore pagesInProgress, CompletableFuture<Void> writing) {
+    try {
+      while (!pagesInProgress.tryAcquire(WRITER_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        if (writing.isDone()) {
+          writing.join();
+          throw new IllegalStateException("Writer stopped before all pages were read");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading pages", e);
+    }
+  }
+
+  /**
+   * Writer stage of {@link #processPages}: appends the pages to the final output in the order
+   * they were read, as soon as each of them is done, and releases their place in the read-ahead.
+   * A failed page does not stop the writer; its failure is rethrown once all pages are drained. A
+   * failure to write a page to the final output stops the writer right away, so the output is
+   * aborted instead of being completed with a truncated record.
+   */
+  private void writePages(
+      BlockingQueue<CompletableFuture<ExportSliceResult>> pagesToWrite,
+      Semaphore pagesInProgress,
       ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter);
+      ExportWriter outputWriter,
+      JobExecutionExportFilesEntity exportFilesEntity) {
+    CompletionException failure = null;
+    var page = takePage(pagesToWrite);
+    while (page != END_OF_PAGES) {
+      try {
+        var sliceResult = page.join();
+        copySliceResultToFinal(sliceResult, outputWriter, exportFilesEntity);
+        exportStatistic.aggregate(sliceResult.getStatistic());
+      } catch (CompletionException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      } finally {
+        pagesInProgress.release();
+      }
+      page = takePage(pagesToWrite);
+    }
+    log.debug("all pages written");
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private CompletableFuture<ExportSliceResult> takePage(
+      BlockingQueue<CompletableFuture<ExportSliceResult>> pagesToWrite) {
+    try {
+      return pagesToWrite.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing pages", e);
+    }
+  }
+
+  /**
+   * Wrap actual create-and-save strategies with boilerplate writer, page context, and return object
+   * setup for one page of records.
+   */
+  protected ExportSliceResult createAndSaveSliceRecords(
+      ExportPageSource.Page page, ExportJobContext context, int pageNumber) {
+    log.debug("begin createAndSaveSliceRecords for {}", pageNumber);
+    var jobExecutionId = context.jobExecutionId();
+    var writer = createPageWriter();
+    var pageContext = context.forPage();
+    var sliceStatistic = pageContext.statistic();
+    page.export().accept(pageContext, writer);
+    try {
+      writer.close();
+    } catch (Exception e) {
+      log.error(
+          SAVE_ERROR,
+          "createAndSaveSliceRecords",
+          context.exportFilesEntity().getFileLocation(),
+          jobExecutionId);
+      sliceStatistic.failAll();
+    }
+    log.debug("complete createAndSaveSliceRecords for {}", pageNumber);
+    return new ExportSliceResult(writer, sliceStatistic);
+  }
 
   /**
-   * Per-strategy implementation of retrieving and writing records to disk within one thread out of
-   * a multithreaded approach. Writes and statistics gathering are done on each thread independently
-   * of the others and returned for later final aggregation.
+   * Per-strategy implementation of retrieving and writing records to the buffer of a page within
+   * one thread out of a multithreaded approach. Writes and statistics gathering are done on each
+   * thread independently of the others and returned for later final aggregation.
    *
    * @param externalIds set of input IDs
-   * @param exportStatistic main job statistics
-   * @param mappingProfile mapping profile to use
-   * @param jobExecutionId job ID
-   * @param exportRequest the export request
-   * @param writer writes to local storage
+   * @param context the context of the page, with the statistic of the page
+   * @param writer writes to the buffer of the page
    */
   protected abstract void createAndSaveRecords(
-      Set<UUID> externalIds,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      UUID jobExecutionId,
-      ExportRequest exportRequest,
-      LocalStorageWriter writer);
+      Set<UUID> externalIds, ExportJobContext context, ExportWriter writer);
 
-  /** Creates a LocalStorageWriter for the given export file entity. */
-  protected LocalStorageWriter createLocalStorageWriter(
+  /**
+   * Consolidate slice results into a final output file. The bytes are appended as is, so binary
+   * MARC records without line breaks and line-based Linked Data output are both preserved. A
+   * failure is rethrown, since part of the page may already be written to the final output.
+   */
+  private void copySliceResultToFinal(
+      ExportSliceResult sliceResult,
+      ExportWriter finalOutput,
       JobExecutionExportFilesEntity exportFilesEntity) {
-    return createLocalStorageWriter(exportFilesEntity, null);
+    try {
+      if (sliceResult.getStatistic().getExported() > 0) {
+        sliceResult.getOutput().writeTo(finalOutput);
+      }
+    } catch (RuntimeException e) {
+      log.error(
+          SAVE_ERROR,
+          "copySliceResultToFinal",
+          exportFilesEntity.getFileLocation(),
+          exportFilesEntity.getJobExecutionId());
+      throw e;
+    }
   }
 
-  /** Creates a LocalStorageWriter for the given export file entity and sliced page number. */
-  protected LocalStorageWriter createLocalStorageWriter(
-      JobExecutionExportFilesEntity exportFilesEntity, Integer pageNumber) {
-    var fileName = exportFilesEntity.getFileLocation();
-    if (pageNumber != null) {
-      fileName = "%s-%d".formatted(exportFilesEntity.getFileLocation(), pageNumber);
-    }
-    return new LocalStorageWriter(
-        S3FilePathUtils.getLocalStorageWriterPath(exportTmpStorage, fileName), OUTPUT_BUFFER_SIZE);
+  /**
+   * Creates the writer of the export file, uploading to S3 at the location of the export file. A
+   * full upload part is spilled to the local temporary storage only while it is uploaded.
+   */
+  protected ExportWriter createOutputWriter(JobExecutionExportFilesEntity exportFilesEntity) {
+    var s3Path = exportFilesEntity.getFileLocation();
+    var partFile =
+        Path.of(
+            S3FilePathUtils.getLocalStorageWriterPath(exportTmpStorage, s3Path + PART_FILE_SUFFIX));
+    return new S3ExportWriter(
+        new S3MultipartOutputStream(s3Client, s3Path, partFile, uploadPartSize), s3Path);
+  }
+
+  /** Creates the in-memory writer of one page of an export file. */
+  protected ByteArrayExportWriter createPageWriter() {
+    return new ByteArrayExportWriter(exportWriterBufferSize);
   }
 
   /** Gets the mapping profile for a job execution. */
@@ -207,4 +497,14 @@ public abstract class AbstractExportStrategy implements ExportStrategy {
   protected void setErrorLogService(ErrorLogService errorLogService) {
     this.errorLogService = errorLogService;
   }
+
+  @Autowired
+  protected void setS3Client(FolioS3Client s3Client) {
+    this.s3Client = s3Client;
+  }
+
+  @Autowired
+  protected void setMeterRegistry(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
 }
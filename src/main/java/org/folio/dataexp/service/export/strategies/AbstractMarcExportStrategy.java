@@ -1,16 +1,18 @@
 package org.folio.dataexp.service.export.strategies;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.stream.Collectors.toMap;
 import static net.minidev.json.parser.JSONParser.DEFAULT_PERMISSIVE_MODE;
 import static org.folio.dataexp.util.ErrorCode.ERROR_CONVERTING_JSON_TO_MARC;
 import static org.folio.dataexp.util.ErrorCode.ERROR_FIELDS_MAPPING_SRS;
 
+import com.jayway.jsonpath.JsonPath;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,17 +27,17 @@ import net.minidev.json.parser.ParseException;
 import org.apache.commons.lang3.StringUtils;
 import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.dto.MappingProfile;
-import org.folio.dataexp.domain.entity.ExportIdEntity;
-import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
+import org.folio.dataexp.domain.entity.InstanceEntity;
 import org.folio.dataexp.domain.entity.MarcRecordEntity;
 import org.folio.dataexp.exception.TransformationRuleException;
 import org.folio.dataexp.repository.InstanceEntityRepository;
 import org.folio.dataexp.repository.MarcAuthorityRecordAllRepository;
-import org.folio.dataexp.service.export.LocalStorageWriter;
+import org.folio.dataexp.service.export.ExportWriter;
 import org.folio.dataexp.util.ErrorCode;
+import org.folio.reader.EntityReader;
+import org.folio.reader.JPathSyntaxEntityReader;
 import org.folio.spring.FolioExecutionContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 
 /**
  * Abstract base class for MARC export strategies, providing common logic for exporting MARC
@@ -45,6 +47,9 @@ import org.springframework.data.domain.PageRequest;
 @Getter
 public abstract class AbstractMarcExportStrategy extends AbstractExportStrategy {
 
+  private static final ThreadLocal<JSONParser> JSON_PARSER =
+      ThreadLocal.withInitial(() -> new JSONParser(DEFAULT_PERMISSIVE_MODE));
+
   private JsonToMarcConverter jsonToMarcConverter;
 
   protected InstanceEntityRepository instanceEntityRepository;
@@ -54,21 +59,32 @@ public abstract class AbstractMarcExportStrategy extends AbstractExportStrategy
   @PersistenceContext protected EntityManager entityManager;
 
   /**
-   * Converts a JSON string to a JSONObject.
+   * Converts a JSON string to a JSONObject. The permissive parser is reused by the calling thread.
    *
    * @param jsonAsString the JSON string
    * @return Optional containing the parsed JSONObject, or empty if parsing fails
    */
   public static Optional<JSONObject> getAsJsonObject(String jsonAsString) {
     try {
-      var jsonParser = new JSONParser(DEFAULT_PERMISSIVE_MODE);
-      return Optional.of((JSONObject) jsonParser.parse(jsonAsString));
+      return Optional.of((JSONObject) JSON_PARSER.get().parse(jsonAsString));
     } catch (ParseException e) {
       log.error("getAsJsonObject:: Error converting string to json {}", e.getMessage());
     }
     return Optional.empty();
   }
 
+  /**
+   * Creates a reader of the already parsed entity for the rule processor. The JSON paths of the
+   * rules are evaluated on the object tree of the entity itself, so the entity is neither
+   * serialized nor parsed again.
+   *
+   * @param entity the parsed entity
+   * @return the entity reader
+   */
+  protected static EntityReader getEntityReader(JSONObject entity) {
+    return new JPathSyntaxEntityReader(JsonPath.parse(entity));
+  }
+
   /** Gets MARC records for the given external IDs and mapping profile. */
   abstract List<MarcRecordEntity> getMarcRecords(
       Set<UUID> externalIds,
@@ -90,8 +106,11 @@ public abstract class AbstractMarcExportStrategy extends AbstractExportStrategy
       UUID jobExecutionId,
       ExportStrategyStatistic exportStatistic);
 
-  /** Gets identifiers for duplicate error reporting. */
-  abstract Optional<ExportIdentifiersForDuplicateError> getIdentifiers(UUID id);
+  /**
+   * Gets identifiers for duplicate error reporting of all given records with a single lookup. IDs
+   * without identifiers are missing from the result.
+   */
+  abstract Map<UUID, ExportIdentifiersForDuplicateError> getIdentifiers(Set<UUID> ids);
 
   /** Gets additional MARC fields by external ID. */
   abstract Map<UUID, MarcFields> getAdditionalMarcFieldsByExternalId(
@@ -100,37 +119,36 @@ public abstract class AbstractMarcExportStrategy extends AbstractExportStrategy
 
   /** Creates and saves MARC records for the given external IDs. */
   protected void createAndSaveMarc(
-      Set<UUID> externalIds,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      UUID jobExecutionId,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
+      Set<UUID> externalIds, ExportJobContext context, ExportWriter localStorageWriter) {
     var externalIdsWithMarcRecord = new HashSet<UUID>();
-    var marcRecords = getMarcRecords(externalIds, mappingProfile, exportRequest, jobExecutionId);
+    var marcRecords =
+        getMarcRecords(
+            externalIds,
+            context.mappingProfile(),
+            context.exportRequest(),
+            context.jobExecutionId());
     createAndSaveMarcFromJsonRecord(
-        externalIds,
-        exportStatistic,
-        mappingProfile,
-        jobExecutionId,
-        externalIdsWithMarcRecord,
-        marcRecords,
-        localStorageWriter);
+        externalIds, context, externalIdsWithMarcRecord, marcRecords, localStorageWriter);
     var result =
         getGeneratedMarc(
-            externalIds, mappingProfile, exportRequest, jobExecutionId, exportStatistic);
-    createAndSaveGeneratedMarc(result, exportStatistic, localStorageWriter);
+            externalIds,
+            context.mappingProfile(),
+            context.exportRequest(),
+            context.jobExecutionId(),
+            context.statistic());
+    createAndSaveGeneratedMarc(result, context.statistic(), localStorageWriter);
   }
 
   /** Creates and saves MARC records from JSON records. */
   protected void createAndSaveMarcFromJsonRecord(
       Set<UUID> externalIds,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      UUID jobExecutionId,
+      ExportJobContext context,
       Set<UUID> externalIdsWithMarcRecord,
       List<MarcRecordEntity> marcRecords,
-      LocalStorageWriter localStorageWriter) {
+      ExportWriter localStorageWriter) {
+    var exportStatistic = context.statistic();
+    var mappingProfile = context.mappingProfile();
+    var jobExecutionId = context.jobExecutionId();
     marcRecords = new ArrayList<>(marcRecords);
     log.info("marcRecords size: {}", marcRecords.size());
     Map<UUID, MarcFields> additionalFieldsPerId;
@@ -142,10 +160,9 @@ public abstract class AbstractMarcExportStrategy extends AbstractExportStrategy
       errorLogService.saveGeneralError(e.getMessage(), jobExecutionId);
       return;
     }
-    var duplicatedUuidWithIdentifiers =
-        new LinkedHashMap<UUID, Optional<ExportIdentifiersForDuplicateError>>();
+    var duplicatedUuids = new LinkedHashSet<UUID>();
     for (var marcRecordEntity : marcRecords) {
-      var marc = StringUtils.EMPTY;
+      byte[] marc;
       try {
         var marcHoldingsItemsFields =
             additionalFieldsPerId.getOrDefault(marcRecordEntity.getExternalId(), new MarcFields());
@@ -168,14 +185,13 @@ public abstract class AbstractMarcExportStrategy extends AbstractExportStrategy
       localStorageWriter.write(marc);
       if (externalIdsWithMarcRecord.contains(marcRecordEntity.getExternalId())) {
         exportStatistic.incrementDuplicatedSrs();
-        var exportIdentifiers = getIdentifiers(marcRecordEntity.getExternalId());
-        duplicatedUuidWithIdentifiers.put(marcRecordEntity.getExternalId(), exportIdentifiers);
+        duplicatedUuids.add(marcRecordEntity.getExternalId());
       } else {
         externalIdsWithMarcRecord.add(marcRecordEntity.getExternalId());
       }
       exportStatistic.incrementExported();
     }
-    saveDuplicateErrors(duplicatedUuidWithIdentifiers, marcRecords, jobExecutionId);
+    saveDuplicateErrors(duplicatedUuids, marcRecords, jobExecutionId);
     marcRecords.clear();
     externalIds.removeAll(externalIdsWithMarcRecord);
   }
@@ -184,7 +200,7 @@ public abstract class AbstractMarcExportStrategy extends AbstractExportStrategy
   protected void createAndSaveGeneratedMarc(
       GeneratedMarcResult result,
       ExportStrategyStatistic exportStatistic,
-      LocalStorageWriter localStorageWriter) {
+      ExportWriter localStorageWriter) {
     log.info("Generated marc size: {}", result.getMarcRecords().size());
     result
         .getMarcRecords()
@@ -199,23 +215,47 @@ public abstract class AbstractMarcExportStrategy extends AbstractExportStrategy
     exportStatistic.addNotExistIdsAll(result.getNotExistIds());
   }
 
+  /**
+   * Detaches the records just read from the persistence context, so that it does not grow with
+   * every page of records read.
+   */
+  protected <T> T clearAfter(T records) {
+    entityManager.clear();
+    return records;
+  }
+
   /** Checks if the job profile is for deleted records. */
   protected boolean isDeletedJobProfile(UUID jobProfileId) {
     return StringUtils.equals(jobProfileId.toString(), "2c9be114-6d35-4408-adac-9ead35f51a27");
   }
 
-  /** Saves duplicate errors for MARC records. */
+  /**
+   * Saves duplicate errors for MARC records. The identifiers of all duplicated records of the page,
+   * and the instances of those without identifiers, are looked up at once.
+   */
   private void saveDuplicateErrors(
-      LinkedHashMap<UUID, Optional<ExportIdentifiersForDuplicateError>>
-          duplicatedUuidIdentifiersMap,
-      List<MarcRecordEntity> marcRecords,
-      UUID jobExecutionId) {
-    var duplicatedUuids = duplicatedUuidIdentifiersMap.keySet();
+      Set<UUID> duplicatedUuids, List<MarcRecordEntity> marcRecords, UUID jobExecutionId) {
+    if (duplicatedUuids.isEmpty()) {
+      return;
+    }
+    var identifiersById = getIdentifiers(duplicatedUuids);
+    var idsWithoutAssociatedJson =
+        duplicatedUuids.stream()
+            .filter(
+                id ->
+                    identifiersById.containsKey(id)
+                        && isNull(identifiersById.get(id).getAssociatedJsonObject()))
+            .collect(Collectors.toSet());
+    var existingInstanceIds =
+        idsWithoutAssociatedJson.isEmpty()
+            ? Set.<UUID>of()
+            : instanceEntityRepository.findByIdIn(idsWithoutAssociatedJson).stream()
+                .map(InstanceEntity::getId)
+                .collect(Collectors.toSet());
     var srsIdByExternalId = getSrsIdByExternalIdMap(marcRecords);
     for (var externalId : duplicatedUuids) {
-      var duplicatedIdentifiersOptional = duplicatedUuidIdentifiersMap.get(externalId);
-      if (duplicatedIdentifiersOptional.isPresent()) {
-        var duplicatedIdentifiers = duplicatedIdentifiersOptional.get();
+      var duplicatedIdentifiers = identifiersById.get(externalId);
+      if (nonNull(duplicatedIdentifiers)) {
         var errorMessage =
             getDuplicatedSrsErrorMessage(externalId, marcRecords, duplicatedIdentifiers);
         log.warn(errorMessage);
@@ -227,7 +267,7 @@ public abstract class AbstractMarcExportStrategy extends AbstractExportStrategy
               ErrorCode.ERROR_DUPLICATE_SRS_RECORD.getCode(),
               jobExecutionId);
         } else {
-          if (instanceEntityRepository.findByIdIn(Set.of(externalId)).isEmpty()) {
+          if (!existingInstanceIds.contains(externalId)) {
             errorLogService.saveGeneralErrorWithMessageValues(
                 ErrorCode.ERROR_NON_EXISTING_INSTANCE.getCode(),
                 List.of(
@@ -281,60 +321,10 @@ public abstract class AbstractMarcExportStrategy extends AbstractExportStrategy
                 (srsId1, srsId2) -> srsId1));
   }
 
-  @Override
-  protected void processSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    var slice =
-        exportIdEntityRepository.getExportIds(
-            exportFilesEntity.getJobExecutionId(),
-            exportFilesEntity.getFromId(),
-            exportFilesEntity.getToId(),
-            PageRequest.of(0, exportIdsBatch));
-    log.info("Slice size: {}", slice.getSize());
-    var exportIds =
-        slice.getContent().stream().map(ExportIdEntity::getInstanceId).collect(Collectors.toSet());
-    createAndSaveRecords(
-        exportIds,
-        exportStatistic,
-        mappingProfile,
-        exportFilesEntity.getJobExecutionId(),
-        exportRequest,
-        localStorageWriter);
-    while (slice.hasNext()) {
-      slice =
-          exportIdEntityRepository.getExportIds(
-              exportFilesEntity.getJobExecutionId(),
-              exportFilesEntity.getFromId(),
-              exportFilesEntity.getToId(),
-              slice.nextPageable());
-      exportIds =
-          slice.getContent().stream()
-              .map(ExportIdEntity::getInstanceId)
-              .collect(Collectors.toSet());
-      createAndSaveRecords(
-          exportIds,
-          exportStatistic,
-          mappingProfile,
-          exportFilesEntity.getJobExecutionId(),
-          exportRequest,
-          localStorageWriter);
-    }
-  }
-
   @Override
   protected void createAndSaveRecords(
-      Set<UUID> externalIds,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      UUID jobExecutionId,
-      ExportRequest exportRequest,
-      LocalStorageWriter writer) {
-    createAndSaveMarc(
-        externalIds, exportStatistic, mappingProfile, jobExecutionId, exportRequest, writer);
+      Set<UUID> externalIds, ExportJobContext context, ExportWriter writer) {
+    createAndSaveMarc(externalIds, context, writer);
   }
 
   @Autowired
@@ -0,0 +1,114 @@
+package org.folio.dataexp.service.export.strategies;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Size of the pages of export IDs, adapted to the observed cost of the pages. After every page the
+ * size moves towards the number of records that can be fetched and converted within the target
+ * time, changing at most by a factor of two per page; it is halved whenever the heap usage after
+ * garbage collection exceeds the threshold. The size always stays within the floor and the
+ * ceiling. The size is thread-safe, so it can be updated by the threads processing the pages.
+ */
+public class AdaptiveBatchSize {
+
+  static final double HEAP_USAGE_THRESHOLD = 0.8;
+  private static final List<MemoryPoolMXBean> HEAP_POOLS =
+      ManagementFactory.getMemoryPoolMXBeans().stream()
+          .filter(pool -> pool.getType() == MemoryType.HEAP)
+          .toList();
+
+  private final int floor;
+  private final int ceiling;
+  private final long targetNanos;
+  private final DoubleSupplier heapUsage;
+  private final AtomicInteger size;
+  private final AtomicInteger smallest;
+  private final AtomicInteger largest;
+
+  /**
+   * Constructs a batch size measuring the heap usage of the JVM.
+   *
+   * @param initial the initial size
+   * @param floor the smallest size
+   * @param ceiling the largest size
+   * @param targetMillis the target time of processing one page, in milliseconds
+   */
+  public AdaptiveBatchSize(int initial, int floor, int ceiling, long targetMillis) {
+    this(initial, floor, ceiling, targetMillis, AdaptiveBatchSize::jvmHeapUsage);
+  }
+
+  AdaptiveBatchSize(
+      int initial, int floor, int ceiling, long targetMillis, DoubleSupplier heapUsage) {
+    // the configured initial size is always allowed, whatever the bounds are
+    this.floor = Math.max(1, Math.min(floor, initial));
+    this.ceiling = Math.max(ceiling, initial);
+    this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+    this.heapUsage = heapUsage;
+    this.size = new AtomicInteger(initial);
+    this.smallest = new AtomicInteger(initial);
+    this.largest = new AtomicInteger(initial);
+  }
+
+  /** Returns the size of the next page. */
+  public int get() {
+    return size.get();
+  }
+
+  /** Returns the smallest size used so far. */
+  public int getSmallest() {
+    return smallest.get();
+  }
+
+  /** Returns the largest size used so far. */
+  public int getLargest() {
+    return largest.get();
+  }
+
+  /**
+   * Adapts the size to a processed page.
+   *
+   * @param records number of records of the page
+   * @param elapsedNanos time of fetching and converting the records of the page
+   */
+  public void onPageProcessed(int records, long elapsedNanos) {
+    if (records == 0) {
+      return;
+    }
+    var heapPressure = heapUsage.getAsDouble() > HEAP_USAGE_THRESHOLD;
+    var next =
+        size.updateAndGet(
+            current -> {
+              double proposed;
+              if (heapPressure) {
+                proposed = current / 2.0;
+              } else {
+                var recordsInTarget = (double) targetNanos * records / Math.max(1, elapsedNanos);
+                proposed = Math.clamp(recordsInTarget, current / 2.0, current * 2.0);
+              }
+              return Math.clamp(Math.round(proposed), floor, ceiling);
+            });
+    smallest.accumulateAndGet(next, Math::min);
+    largest.accumulateAndGet(next, Math::max);
+  }
+
+  /**
+   * Returns the share of the heap still used after the last garbage collection of every heap pool,
+   * i.e. the live objects, so garbage not collected yet does not count as heap pressure.
+   */
+  private static double jvmHeapUsage() {
+    var usedAfterGc = 0L;
+    for (var pool : HEAP_POOLS) {
+      var usage = pool.getCollectionUsage();
+      if (usage != null) {
+        usedAfterGc += usage.getUsed();
+      }
+    }
+    return (double) usedAfterGc / Runtime.getRuntime().maxMemory();
+  }
+}
@@ -7,14 +7,13 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.extern.log4j.Log4j2;
 import org.folio.dataexp.domain.dto.ExportRequest;
-import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 import org.folio.dataexp.domain.entity.MarcRecordEntity;
 import org.folio.dataexp.repository.ErrorLogEntityCqlRepository;
 import org.folio.dataexp.repository.MarcAuthorityRecordRepository;
 import org.folio.dataexp.service.ConsortiaService;
-import org.folio.dataexp.service.export.LocalStorageWriter;
-import org.springframework.data.domain.PageRequest;
+import org.folio.dataexp.service.export.ExportWriter;
+import org.folio.dataexp.util.UuidUtils;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
@@ -39,73 +38,49 @@ public class AuthorityExportAllStrategy extends AuthorityExportStrategy {
         folioExecutionContext.getTenantId(), externalIds);
   }
 
-  /** Processes slices for exporting all authority records. */
+  /** Supplies the pages of all authority records to export. */
   @Override
-  protected void processSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    var slice = chooseSlice(exportFilesEntity, exportRequest, PageRequest.of(0, exportIdsBatch));
-    log.info("Slice size for authorities export all: {}", slice.getContent().size());
-    var exportIds =
-        slice.getContent().stream()
-            .map(MarcRecordEntity::getExternalId)
-            .collect(Collectors.toSet());
-    log.info("Size of exportIds for authorities export all: {}", exportIds.size());
-    createAndSaveMarc(
-        exportIds,
-        slice.getContent(),
-        exportStatistic,
-        mappingProfile,
-        exportFilesEntity.getJobExecutionId(),
-        localStorageWriter);
-    while (slice.hasNext()) {
-      slice = chooseSlice(exportFilesEntity, exportRequest, slice.nextPageable());
-      exportIds =
-          slice.getContent().stream()
-              .map(MarcRecordEntity::getExternalId)
-              .collect(Collectors.toSet());
-      createAndSaveMarc(
-          exportIds,
-          slice.getContent(),
-          exportStatistic,
-          mappingProfile,
-          exportFilesEntity.getJobExecutionId(),
-          localStorageWriter);
-    }
+  protected ExportPageSource createPageSource(ExportJobContext context) {
+    return ExportPageSource.keyset(
+        UuidUtils.MIN_UUID,
+        (fromRecordId, pageable) -> {
+          var slice =
+              chooseSlice(
+                  context.exportFilesEntity(), context.exportRequest(), fromRecordId, pageable);
+          log.info("Slice size for authorities export all: {}", slice.getContent().size());
+          return slice;
+        },
+        MarcRecordEntity::getId,
+        (marcRecords, pageContext, writer) -> {
+          var exportIds =
+              marcRecords.stream().map(MarcRecordEntity::getExternalId).collect(Collectors.toSet());
+          log.info("Size of exportIds for authorities export all: {}", exportIds.size());
+          createAndSaveMarc(exportIds, marcRecords, pageContext, writer);
+        });
   }
 
   /** Chooses the appropriate slice for exporting authorities. */
   private Slice<MarcRecordEntity> chooseSlice(
       JobExecutionExportFilesEntity exportFilesEntity,
       ExportRequest exportRequest,
-      Pageable pageble) {
+      UUID fromRecordId,
+      Pageable pageable) {
     if (Boolean.TRUE.equals(exportRequest.getDeletedRecords())) {
       return marcAuthorityRecordAllRepository.findAllWithDeleted(
-          exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+          exportFilesEntity.getFromId(), exportFilesEntity.getToId(), fromRecordId, pageable);
     }
     return marcAuthorityRecordAllRepository.findAllWithoutDeleted(
-        exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+        exportFilesEntity.getFromId(), exportFilesEntity.getToId(), fromRecordId, pageable);
   }
 
   /** Creates and saves MARC records for the given external IDs and records. */
   protected void createAndSaveMarc(
       Set<UUID> externalIds,
       List<MarcRecordEntity> marcRecords,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      UUID jobExecutionId,
-      LocalStorageWriter localStorageWriter) {
+      ExportJobContext context,
+      ExportWriter localStorageWriter) {
     var externalIdsWithMarcRecord = new HashSet<UUID>();
     createAndSaveMarcFromJsonRecord(
-        externalIds,
-        exportStatistic,
-        mappingProfile,
-        jobExecutionId,
-        externalIdsWithMarcRecord,
-        marcRecords,
-        localStorageWriter);
+        externalIds, context, externalIdsWithMarcRecord, marcRecords, localStorageWriter);
   }
 }
@@ -239,8 +239,8 @@ public class AuthorityExportStrategy extends AbstractMarcExportStrategy {
   }
 
   @Override
-  Optional<ExportIdentifiersForDuplicateError> getIdentifiers(UUID id) {
-    return Optional.empty();
+  Map<UUID, ExportIdentifiersForDuplicateError> getIdentifiers(Set<UUID> ids) {
+    return Map.of();
   }
 
   /**
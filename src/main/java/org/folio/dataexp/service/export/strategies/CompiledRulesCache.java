@@ -0,0 +1,155 @@
+package org.folio.dataexp.service.export.strategies;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import lombok.extern.log4j.Log4j2;
+import org.folio.dataexp.domain.dto.MappingProfile;
+import org.folio.dataexp.exception.TransformationRuleException;
+import org.folio.processor.rule.Rule;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of compiled transformation rules.
+ *
+ * <p>Rules are keyed by tenant, mapping profile id, the profile update date and its suppression
+ * settings, so an updated profile never reuses rules compiled for its previous version, and tenants
+ * sharing the ids of the default profiles never see rules compiled from each other's profiles. Rule
+ * sets built on top of another profile, like the default instance profile, are keyed by the id and
+ * update date of that profile too. Profiles without id or update date are compiled on every call.
+ * Cached rule lists are immutable and shared between export threads.
+ */
+@Log4j2
+@Component
+public class CompiledRulesCache {
+
+  private static final int MAX_SIZE = 100;
+
+  /** Kind of rule set compiled for a mapping profile. */
+  public enum RulesType {
+    /** Rules built from the mapping profile itself. */
+    PROFILE,
+    /** Default instance rules extended by holdings and items transformations of the profile. */
+    DEFAULT_WITH_HOLDINGS_AND_ITEMS
+  }
+
+  /** Compiles rules on a cache miss. */
+  @FunctionalInterface
+  public interface RulesBuilder {
+    List<Rule> build() throws TransformationRuleException;
+  }
+
+  private record Key(
+      String tenantId,
+      UUID mappingProfileId,
+      Date updatedDate,
+      Boolean suppress999ff,
+      String fieldsSuppression,
+      RulesType rulesType,
+      UUID baseMappingProfileId,
+      Date baseUpdatedDate) {}
+
+  private final Cache<Key, List<Rule>> cache = Caffeine.newBuilder().maximumSize(MAX_SIZE).build();
+
+  /**
+   * Returns compiled rules for the given mapping profile version of the tenant, compiling them on a
+   * cache miss.
+   *
+   * @param tenantId tenant the rules are compiled for
+   * @param mappingProfile mapping profile the rules are compiled for
+   * @param rulesType kind of rule set
+   * @param rulesBuilder compiles rules when they are not cached yet
+   * @return immutable list of rules
+   * @throws TransformationRuleException if rules cannot be compiled
+   */
+  public List<Rule> get(
+      String tenantId,
+      MappingProfile mappingProfile,
+      RulesType rulesType,
+      RulesBuilder rulesBuilder)
+      throws TransformationRuleException {
+    return get(tenantId, mappingProfile, null, rulesType, rulesBuilder);
+  }
+
+  /**
+   * Returns compiled rules for the given mapping profile version of the tenant built on top of
+   * another mapping profile, compiling them on a cache miss.
+   *
+   * @param tenantId tenant the rules are compiled for
+   * @param mappingProfile mapping profile the rules are compiled for
+   * @param baseMappingProfile mapping profile the rules are built on top of, or null if none
+   * @param rulesType kind of rule set
+   * @param rulesBuilder compiles rules when they are not cached yet
+   * @return immutable list of rules
+   * @throws TransformationRuleException if rules cannot be compiled
+   */
+  public List<Rule> get(
+      String tenantId,
+      MappingProfile mappingProfile,
+      MappingProfile baseMappingProfile,
+      RulesType rulesType,
+      RulesBuilder rulesBuilder)
+      throws TransformationRuleException {
+    var key = keyOf(tenantId, mappingProfile, baseMappingProfile, rulesType);
+    if (key == null) {
+      return rulesBuilder.build();
+    }
+    var rules = cache.getIfPresent(key);
+    if (rules == null) {
+      rules = List.copyOf(rulesBuilder.build());
+      cache.put(key, rules);
+      log.info(
+          "Compiled {} rules for mapping profile {} of tenant {}",
+          rulesType,
+          key.mappingProfileId(),
+          tenantId);
+    }
+    return rules;
+  }
+
+  /**
+   * Evicts all rules compiled for or on top of the given mapping profile, in all tenants.
+   *
+   * @param mappingProfileId mapping profile id
+   */
+  public void invalidate(UUID mappingProfileId) {
+    cache
+        .asMap()
+        .keySet()
+        .removeIf(
+            key ->
+                key.mappingProfileId().equals(mappingProfileId)
+                    || mappingProfileId.equals(key.baseMappingProfileId()));
+  }
+
+  private Key keyOf(
+      String tenantId,
+      MappingProfile mappingProfile,
+      MappingProfile baseMappingProfile,
+      RulesType rulesType) {
+    if (!isVersioned(mappingProfile)
+        || (Objects.nonNull(baseMappingProfile) && !isVersioned(baseMappingProfile))) {
+      return null;
+    }
+    return new Key(
+        tenantId,
+        mappingProfile.getId(),
+        mappingProfile.getMetadata().getUpdatedDate(),
+        mappingProfile.getSuppress999ff(),
+        mappingProfile.getFieldsSuppression(),
+        rulesType,
+        Objects.isNull(baseMappingProfile) ? null : baseMappingProfile.getId(),
+        Objects.isNull(baseMappingProfile)
+            ? null
+            : baseMappingProfile.getMetadata().getUpdatedDate());
+  }
+
+  private boolean isVersioned(MappingProfile mappingProfile) {
+    return Objects.nonNull(mappingProfile.getId())
+        && Objects.nonNull(mappingProfile.getMetadata())
+        && Objects.nonNull(mappingProfile.getMetadata().getUpdatedDate());
+  }
+}
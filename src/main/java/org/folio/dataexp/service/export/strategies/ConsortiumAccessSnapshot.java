@@ -0,0 +1,59 @@
+package org.folio.dataexp.service.export.strategies;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Consortium access of the user running an export job, taken once when the job starts, so every
+ * page of the job sees the same affiliations and permissions.
+ *
+ * @param tenantId the tenant the job runs on
+ * @param centralTenantId the central tenant of the consortium, or empty if there is none
+ * @param affiliatedTenants the tenants the user is affiliated with
+ * @param instanceViewPermissions whether the user may view instances, per affiliated tenant and
+ *     the central tenant
+ * @param userName the name of the user, empty if the job runs without a user, or null if the job
+ *     does not run on the central tenant
+ */
+public record ConsortiumAccessSnapshot(
+    String tenantId,
+    String centralTenantId,
+    Set<String> affiliatedTenants,
+    Map<String, Boolean> instanceViewPermissions,
+    String userName) {
+
+  /** Creates a snapshot with immutable copies of the given tenants and permissions. */
+  public ConsortiumAccessSnapshot {
+    affiliatedTenants = Set.copyOf(affiliatedTenants);
+    instanceViewPermissions = Map.copyOf(instanceViewPermissions);
+  }
+
+  /**
+   * Checks if the job runs on the central tenant.
+   *
+   * @return true if the job runs on the central tenant, false otherwise
+   */
+  public boolean isCentralTenant() {
+    return tenantId.equals(centralTenantId);
+  }
+
+  /**
+   * Checks if the user is affiliated with the given tenant.
+   *
+   * @param tenant the tenant ID
+   * @return true if the user is affiliated, false otherwise
+   */
+  public boolean isAffiliated(String tenant) {
+    return affiliatedTenants.contains(tenant);
+  }
+
+  /**
+   * Checks if the user may view instances of the given tenant.
+   *
+   * @param tenant the tenant ID
+   * @return true if the permission exists, false otherwise
+   */
+  public boolean canViewInstances(String tenant) {
+    return instanceViewPermissions.getOrDefault(tenant, false);
+  }
+}
@@ -0,0 +1,139 @@
+package org.folio.dataexp.service.export.strategies;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.folio.dataexp.service.ConsortiaService;
+import org.folio.dataexp.service.validators.PermissionsValidator;
+import org.folio.spring.FolioExecutionContext;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the {@link ConsortiumAccessSnapshot} of every running export job. The snapshot is taken
+ * when the job starts and is dropped when the job is completed. Snapshots of jobs that were not
+ * completed on this instance, e.g. because their export failed unexpectedly or was resumed
+ * elsewhere, are evicted once they have not been used for a while.
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class ConsortiumAccessSnapshotService {
+
+  private static final long IDLE_TIME_BEFORE_EVICTION = HOURS.toMillis(1);
+
+  private final ConsortiaService consortiaService;
+  private final PermissionsValidator permissionsValidator;
+  private final UserService userService;
+  private final FolioExecutionContext folioExecutionContext;
+
+  private final Map<UUID, Entry> snapshots = new ConcurrentHashMap<>();
+
+  /**
+   * Takes the snapshot of the job execution for the user of the current context.
+   *
+   * @param jobExecutionId the job execution ID
+   */
+  public void open(UUID jobExecutionId) {
+    evictIdle(System.currentTimeMillis());
+    snapshots.put(jobExecutionId, new Entry(take()));
+  }
+
+  /**
+   * Gets the snapshot of the job execution, taking it for the user of the current context if the
+   * job execution was not opened on this instance.
+   *
+   * @param jobExecutionId the job execution ID
+   * @return the snapshot of the job execution
+   */
+  public ConsortiumAccessSnapshot get(UUID jobExecutionId) {
+    var entry = snapshots.get(jobExecutionId);
+    if (entry == null) {
+      evictIdle(System.currentTimeMillis());
+      entry = snapshots.computeIfAbsent(jobExecutionId, id -> new Entry(take()));
+    }
+    entry.lastAccess = System.currentTimeMillis();
+    return entry.snapshot;
+  }
+
+  /**
+   * Drops the snapshot of the completed job execution.
+   *
+   * @param jobExecutionId the job execution ID
+   */
+  public void close(UUID jobExecutionId) {
+    snapshots.remove(jobExecutionId);
+  }
+
+  /**
+   * Drops the snapshots that have not been used for longer than the idle time, as of the given
+   * time.
+   *
+   * @param now the current time in milliseconds
+   */
+  void evictIdle(long now) {
+    snapshots
+        .entrySet()
+        .removeIf(
+            snapshot -> {
+              var idle = now - snapshot.getValue().lastAccess > IDLE_TIME_BEFORE_EVICTION;
+              if (idle) {
+                log.info("evictIdle:: Evicting snapshot of job execution {}", snapshot.getKey());
+              }
+              return idle;
+            });
+  }
+
+  private ConsortiumAccessSnapshot take() {
+    var tenantId = folioExecutionContext.getTenantId();
+    var centralTenantId = consortiaService.getCentralTenantId(tenantId);
+    if (!tenantId.equals(centralTenantId)) {
+      return new ConsortiumAccessSnapshot(tenantId, centralTenantId, Set.of(), Map.of(), null);
+    }
+    if (folioExecutionContext.getUserId() == null) {
+      // affiliations and permissions belong to a user, so a job without one has none of them
+      log.warn("take:: No user in {} tenant, the job has no access to other tenants", tenantId);
+      return new ConsortiumAccessSnapshot(
+          tenantId, centralTenantId, Set.of(), Map.of(), StringUtils.EMPTY);
+    }
+    var userId = folioExecutionContext.getUserId().toString();
+    var affiliatedTenants = consortiaService.getAffiliatedTenants(tenantId, userId);
+    var tenants = new HashSet<>(affiliatedTenants);
+    tenants.add(centralTenantId);
+    var instanceViewPermissions = new HashMap<String, Boolean>();
+    tenants.forEach(
+        tenant ->
+            instanceViewPermissions.put(
+                tenant, permissionsValidator.isInstanceViewPermissionExists(tenant)));
+    var userName = userService.getUserName(tenantId, userId);
+    log.info(
+        "take:: User {} from {} tenant is affiliated with {}, instance view permissions: {}",
+        userName,
+        tenantId,
+        affiliatedTenants,
+        instanceViewPermissions);
+    return new ConsortiumAccessSnapshot(
+        tenantId,
+        centralTenantId,
+        new HashSet<>(affiliatedTenants),
+        instanceViewPermissions,
+        userName);
+  }
+
+  private static final class Entry {
+
+    private final ConsortiumAccessSnapshot snapshot;
+    private volatile long lastAccess = System.currentTimeMillis();
+
+    private Entry(ConsortiumAccessSnapshot snapshot) {
+      this.snapshot = snapshot;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package org.folio.dataexp.service.export.strategies;
+
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.HOURS;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.folio.dataexp.client.ConsortiumSearchClient;
+import org.folio.dataexp.domain.dto.BatchIds;
+import org.folio.dataexp.domain.dto.BatchIds.IdentifierType;
+import org.folio.dataexp.domain.dto.ConsortiumHolding;
+import org.folio.spring.FolioExecutionContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the tenants of consortium holdings on the central tenant. Holdings are looked up in
+ * mod-search in bulk, for a whole page of holding or instance IDs at once. The tenant of every
+ * holding looked up by ID, or that it was not found, is memoised per job execution and tenant, so
+ * the repeated lookups of the same page are not sent to mod-search again. The memo of a job
+ * execution is dropped when the job is completed, or once it has not been used for a while.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class ConsortiumHoldingsTenantResolver {
+
+  private static final int MAX_IDS_PER_REQUEST = 500;
+  private static final long IDLE_TIME_BEFORE_EVICTION = HOURS.toMillis(1);
+  private static final String NOT_FOUND = StringUtils.EMPTY;
+
+  private record Key(UUID jobExecutionId, String tenantId) {}
+
+  private final ConsortiumSearchClient consortiumSearchClient;
+  private final FolioExecutionContext folioExecutionContext;
+
+  private final Map<Key, Memo> memos = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the tenants of the given holdings. Holdings not found in mod-search or without tenant are
+   * missing from the result.
+   *
+   * @param jobExecutionId the job execution ID
+   * @param holdingIds the holding IDs
+   * @return the tenant ID per holding ID
+   */
+  public Map<UUID, String> getTenants(UUID jobExecutionId, Collection<UUID> holdingIds) {
+    var memo = getMemo(jobExecutionId);
+    var holdingTenants = new HashMap<UUID, String>();
+    var notResolvedIds = new LinkedHashSet<UUID>();
+    for (var holdingId : holdingIds) {
+      var tenantId = memo.tenants.get(holdingId);
+      if (tenantId == null) {
+        notResolvedIds.add(holdingId);
+      } else if (!NOT_FOUND.equals(tenantId)) {
+        holdingTenants.put(holdingId, tenantId);
+      }
+    }
+    var ids = notResolvedIds.stream().map(UUID::toString).toList();
+    for (var holding : search(IdentifierType.ID, ids)) {
+      holdingTenants.put(UUID.fromString(holding.getId()), holding.getTenantId());
+    }
+    for (var holdingId : notResolvedIds) {
+      memo.tenants.put(holdingId, holdingTenants.getOrDefault(holdingId, NOT_FOUND));
+    }
+    log.debug(
+        "getTenants:: {} of {} holdings resolved by mod-search",
+        notResolvedIds.size(),
+        holdingIds.size());
+    return holdingTenants;
+  }
+
+  /**
+   * Gets the holdings of all tenants of the consortium for the given instances.
+   *
+   * @param instanceIds the instance IDs
+   * @return the consortium holdings per instance ID
+   */
+  public Map<UUID, List<ConsortiumHolding>> getHoldingsByInstanceIds(
+      Collection<UUID> instanceIds) {
+    var ids = instanceIds.stream().map(UUID::toString).distinct().toList();
+    return search(IdentifierType.INSTANCE_ID, ids).stream()
+        .filter(holding -> nonNull(holding.getInstanceId()))
+        .collect(Collectors.groupingBy(holding -> UUID.fromString(holding.getInstanceId())));
+  }
+
+  /**
+   * Drops the memo of the completed job execution.
+   *
+   * @param jobExecutionId the job execution ID
+   */
+  public void close(UUID jobExecutionId) {
+    memos.keySet().removeIf(key -> key.jobExecutionId().equals(jobExecutionId));
+  }
+
+  /**
+   * Drops the memos that have not been used for longer than the idle time, as of the given time.
+   *
+   * @param now the current time in milliseconds
+   */
+  void evictIdle(long now) {
+    memos
+        .entrySet()
+        .removeIf(
+            memo -> {
+              var idle = now - memo.getValue().lastAccess > IDLE_TIME_BEFORE_EVICTION;
+              if (idle) {
+                log.info(
+                    "evictIdle:: Evicting holdings tenants of job execution {}",
+                    memo.getKey().jobExecutionId());
+              }
+              return idle;
+            });
+  }
+
+  private Memo getMemo(UUID jobExecutionId) {
+    var key = new Key(jobExecutionId, folioExecutionContext.getTenantId());
+    var memo = memos.get(key);
+    if (memo == null) {
+      evictIdle(System.currentTimeMillis());
+      memo = memos.computeIfAbsent(key, k -> new Memo());
+    }
+    memo.lastAccess = System.currentTimeMillis();
+    return memo;
+  }
+
+  private List<ConsortiumHolding> search(IdentifierType identifierType, List<String> ids) {
+    var holdings = new ArrayList<ConsortiumHolding>();
+    for (var chunk : ListUtils.partition(ids, MAX_IDS_PER_REQUEST)) {
+      var found =
+          consortiumSearchClient
+              .getHoldingsByIds(new BatchIds(identifierType, new ArrayList<>(chunk)))
+              .getHoldings();
+      for (var holding : found) {
+        if (nonNull(holding.getId()) && nonNull(holding.getTenantId())) {
+          holdings.add(holding);
+        }
+      }
+    }
+    return holdings;
+  }
+
+  private static final class Memo {
+
+    private final Map<UUID, String> tenants = new ConcurrentHashMap<>();
+    private volatile long lastAccess = System.currentTimeMillis();
+  }
+}
@@ -0,0 +1,338 @@
+package org.folio.dataexp.service.export.strategies;
+
+import java.util.Arrays;
+import org.marc4j.Constants;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.json.JsonFactory;
+
+/**
+ * Encodes SRS MARC JSON to ISO 2709 without building a marc4j record. The JSON tokens are read
+ * with a streaming parser, and the directory and field data are written into buffers reused
+ * between records, so an encoded record costs a single output array.
+ *
+ * <p>Only records that marc4j encodes the same way are supported: the leader has 24 ASCII
+ * characters with digits in its numeric positions, control fields (001-009, with 001 first)
+ * precede data fields, indicators and subfield codes are single ASCII characters and the record
+ * fits the ISO 2709 length limits. For any other record {@link #encode} returns null and the
+ * record is left to marc4j. Instances are not thread-safe.
+ */
+public class DirectMarcEncoder {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final String LEADER = "leader";
+  private static final String FIELDS = "fields";
+  private static final String IND1 = "ind1";
+  private static final String IND2 = "ind2";
+  private static final String SUBFIELDS = "subfields";
+  private static final String CONTROL_NUMBER_TAG = "001";
+  private static final int LEADER_LENGTH = 24;
+  private static final int MAX_FIELD_LENGTH = 9999;
+  private static final int MAX_RECORD_LENGTH = 99999;
+
+  private final ByteSink directory = new ByteSink();
+  private final ByteSink data = new ByteSink();
+  private final ByteSink subfields = new ByteSink();
+  private String leader;
+  private int controlFields;
+  private boolean dataFieldsStarted;
+
+  /**
+   * Encodes a JSON record to the bytes of a UTF-8 encoded MARC record.
+   *
+   * @param jsonRecord the SRS parsed record content
+   * @param suppressProcessor the suppression of the mapping profile
+   * @return the MARC record, or null if the record is not supported
+   */
+  public byte[] encode(String jsonRecord, MarcSuppressProcessor suppressProcessor) {
+    reset();
+    try (var parser = JSON_FACTORY.createParser(ObjectReadContext.empty(), jsonRecord)) {
+      if (!readRecord(parser, suppressProcessor)) {
+        return null;
+      }
+    } catch (JacksonException e) {
+      // Malformed records are reported by marc4j
+      return null;
+    }
+    return toRecord();
+  }
+
+  private void reset() {
+    directory.reset();
+    data.reset();
+    subfields.reset();
+    leader = null;
+    controlFields = 0;
+    dataFieldsStarted = false;
+  }
+
+  private boolean readRecord(JsonParser parser, MarcSuppressProcessor suppressProcessor) {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      return false;
+    }
+    String name;
+    while ((name = parser.nextName()) != null) {
+      var token = parser.nextToken();
+      if (LEADER.equals(name) && token == JsonToken.VALUE_STRING) {
+        leader = parser.getString();
+      } else if (!FIELDS.equals(name)
+          || token != JsonToken.START_ARRAY
+          || !readFields(parser, suppressProcessor)) {
+        return false;
+      }
+    }
+    return parser.nextToken() == null && isSupportedLeader(leader);
+  }
+
+  private boolean readFields(JsonParser parser, MarcSuppressProcessor suppressProcessor) {
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      var tag = parser.nextName();
+      if (!isSupportedTag(tag)) {
+        return false;
+      }
+      var token = parser.nextToken();
+      var written =
+          token == JsonToken.VALUE_STRING
+              ? writeControlField(parser, tag, suppressProcessor)
+              : token == JsonToken.START_OBJECT && writeDataField(parser, tag, suppressProcessor);
+      if (!written || parser.nextToken() != JsonToken.END_OBJECT) {
+        return false;
+      }
+    }
+    return parser.currentToken() == JsonToken.END_ARRAY;
+  }
+
+  private boolean writeControlField(
+      JsonParser parser, String tag, MarcSuppressProcessor suppressProcessor) {
+    // marc4j moves 001 in front of the other control fields and data fields after them
+    if (!isControlTag(tag)
+        || dataFieldsStarted
+        || (CONTROL_NUMBER_TAG.equals(tag) && controlFields > 0)) {
+      return false;
+    }
+    controlFields++;
+    if (suppressProcessor.isControlFieldSuppressed(tag)) {
+      return true;
+    }
+    var start = data.size();
+    data.writeUtf8(
+        parser.getStringCharacters(), parser.getStringOffset(), parser.getStringLength());
+    data.write(Constants.FT);
+    return addDirectoryEntry(tag, start);
+  }
+
+  private boolean writeDataField(
+      JsonParser parser, String tag, MarcSuppressProcessor suppressProcessor) {
+    if (isControlTag(tag)) {
+      return false;
+    }
+    dataFieldsStarted = true;
+    subfields.reset();
+    var ind1 = -1;
+    var ind2 = -1;
+    String name;
+    while ((name = parser.nextName()) != null) {
+      var token = parser.nextToken();
+      if (IND1.equals(name) && token == JsonToken.VALUE_STRING) {
+        ind1 = readIndicator(parser);
+      } else if (IND2.equals(name) && token == JsonToken.VALUE_STRING) {
+        ind2 = readIndicator(parser);
+      } else if (!SUBFIELDS.equals(name)
+          || token != JsonToken.START_ARRAY
+          || !readSubfields(parser)) {
+        return false;
+      }
+    }
+    if (ind1 < 0 || ind2 < 0) {
+      return false;
+    }
+    if (suppressProcessor.isDataFieldSuppressed(tag, (char) ind1, (char) ind2)) {
+      return true;
+    }
+    var start = data.size();
+    data.write(ind1);
+    data.write(ind2);
+    data.write(subfields);
+    data.write(Constants.FT);
+    return addDirectoryEntry(tag, start);
+  }
+
+  private boolean readSubfields(JsonParser parser) {
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      var code = parser.nextName();
+      if (code == null
+          || code.length() != 1
+          || !isAscii(code.charAt(0))
+          || parser.nextToken() != JsonToken.VALUE_STRING) {
+        return false;
+      }
+      subfields.write(Constants.US);
+      subfields.write(code.charAt(0));
+      subfields.writeUtf8(
+          parser.getStringCharacters(), parser.getStringOffset(), parser.getStringLength());
+      if (parser.nextToken() != JsonToken.END_OBJECT) {
+        return false;
+      }
+    }
+    return parser.currentToken() == JsonToken.END_ARRAY;
+  }
+
+  private int readIndicator(JsonParser parser) {
+    if (parser.getStringLength() != 1) {
+      return -1;
+    }
+    var indicator = parser.getStringCharacters()[parser.getStringOffset()];
+    return isAscii(indicator) ? indicator : -1;
+  }
+
+  private boolean addDirectoryEntry(String tag, int start) {
+    var length = data.size() - start;
+    if (length > MAX_FIELD_LENGTH || start > MAX_RECORD_LENGTH) {
+      return false;
+    }
+    directory.writeAscii(tag);
+    directory.writeNumber(length, 4);
+    directory.writeNumber(start, 5);
+    return true;
+  }
+
+  private byte[] toRecord() {
+    var baseAddress = LEADER_LENGTH + directory.size() + 1;
+    var recordLength = baseAddress + data.size() + 1;
+    if (recordLength > MAX_RECORD_LENGTH) {
+      return null;
+    }
+    var marcRecord = new ByteSink(recordLength);
+    marcRecord.writeNumber(recordLength, 5);
+    marcRecord.writeAscii(leader.substring(5, 12));
+    marcRecord.writeNumber(baseAddress, 5);
+    marcRecord.writeAscii(leader.substring(17));
+    marcRecord.write(directory);
+    marcRecord.write(Constants.FT);
+    marcRecord.write(data);
+    marcRecord.write(Constants.RT);
+    return marcRecord.bytes;
+  }
+
+  private static boolean isSupportedLeader(String leader) {
+    return leader != null
+        && leader.length() == LEADER_LENGTH
+        && leader.chars().allMatch(DirectMarcEncoder::isAscii)
+        && isDigits(leader, 0, 5)
+        && isDigits(leader, 10, 17);
+  }
+
+  private static boolean isSupportedTag(String tag) {
+    return tag != null && tag.length() == 3 && tag.chars().allMatch(DirectMarcEncoder::isAscii);
+  }
+
+  private static boolean isControlTag(String tag) {
+    return tag.startsWith("00") && Character.isDigit(tag.charAt(2));
+  }
+
+  private static boolean isDigits(String value, int from, int to) {
+    for (var i = from; i < to; i++) {
+      if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isAscii(int c) {
+    return c < 0x80;
+  }
+
+  /** Growable byte array encoding text the way {@link String#getBytes} encodes UTF-8. */
+  private static class ByteSink {
+
+    private static final int INITIAL_CAPACITY = 8192;
+
+    private byte[] bytes;
+    private int size;
+
+    ByteSink() {
+      this(INITIAL_CAPACITY);
+    }
+
+    ByteSink(int capacity) {
+      bytes = new byte[capacity];
+    }
+
+    int size() {
+      return size;
+    }
+
+    void reset() {
+      if (bytes.length > MAX_RECORD_LENGTH * 2) {
+        // Do not keep the buffer of an oversized record for the lifetime of the thread
+        bytes = new byte[INITIAL_CAPACITY];
+      }
+      size = 0;
+    }
+
+    void write(int b) {
+      ensureCapacity(1);
+      bytes[size++] = (byte) b;
+    }
+
+    void write(ByteSink other) {
+      ensureCapacity(other.size);
+      System.arraycopy(other.bytes, 0, bytes, size, other.size);
+      size += other.size;
+    }
+
+    void writeAscii(String value) {
+      ensureCapacity(value.length());
+      for (var i = 0; i < value.length(); i++) {
+        bytes[size++] = (byte) value.charAt(i);
+      }
+    }
+
+    void writeNumber(int value, int digits) {
+      ensureCapacity(digits);
+      for (var i = size + digits - 1; i >= size; i--) {
+        bytes[i] = (byte) ('0' + value % 10);
+        value /= 10;
+      }
+      size += digits;
+    }
+
+    void writeUtf8(char[] chars, int offset, int length) {
+      ensureCapacity(length * 3);
+      var end = offset + length;
+      for (var i = offset; i < end; i++) {
+        var c = chars[i];
+        if (c < 0x80) {
+          bytes[size++] = (byte) c;
+        } else if (c < 0x800) {
+          bytes[size++] = (byte) (0xC0 | c >> 6);
+          bytes[size++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c)
+            && i + 1 < end
+            && Character.isLowSurrogate(chars[i + 1])) {
+          var codePoint = Character.toCodePoint(c, chars[++i]);
+          bytes[size++] = (byte) (0xF0 | codePoint >> 18);
+          bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+          bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+          bytes[size++] = (byte) (0x80 | codePoint & 0x3F);
+        } else if (Character.isSurrogate(c)) {
+          // Unpaired surrogates are replaced like String.getBytes does
+          bytes[size++] = '?';
+        } else {
+          bytes[size++] = (byte) (0xE0 | c >> 12);
+          bytes[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+          bytes[size++] = (byte) (0x80 | c & 0x3F);
+        }
+      }
+    }
+
+    private void ensureCapacity(int additional) {
+      if (size + additional > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+      }
+    }
+  }
+}
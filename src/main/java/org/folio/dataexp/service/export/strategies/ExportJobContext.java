@@ -0,0 +1,47 @@
+package org.folio.dataexp.service.export.strategies;
+
+import java.util.UUID;
+import org.folio.dataexp.domain.dto.ExportRequest;
+import org.folio.dataexp.domain.dto.MappingProfile;
+import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
+
+/**
+ * Everything an export strategy needs to know about the export file it is processing. The context
+ * is created once per export file of a job and handed down to every page of it, so the strategies
+ * themselves keep no state of the job, and pages of the same file or of different jobs can be
+ * processed concurrently by the same strategy.
+ *
+ * @param exportFilesEntity the export file entity
+ * @param exportRequest the export request
+ * @param mappingProfile the mapping profile of the job
+ * @param statistic the statistic the records are counted in, of the file or of a single page
+ */
+public record ExportJobContext(
+    JobExecutionExportFilesEntity exportFilesEntity,
+    ExportRequest exportRequest,
+    MappingProfile mappingProfile,
+    ExportStrategyStatistic statistic) {
+
+  /**
+   * Gets the job execution ID of the export file.
+   *
+   * @return the job execution ID
+   */
+  public UUID jobExecutionId() {
+    return exportFilesEntity.getJobExecutionId();
+  }
+
+  /**
+   * Creates the context of a single page of the export file, with its own statistic that is
+   * aggregated into the statistic of the file once the page is written.
+   *
+   * @return the context of the page
+   */
+  public ExportJobContext forPage() {
+    return new ExportJobContext(
+        exportFilesEntity,
+        exportRequest,
+        mappingProfile,
+        new ExportStrategyStatistic(statistic.getExportedRecordsListener()));
+  }
+}
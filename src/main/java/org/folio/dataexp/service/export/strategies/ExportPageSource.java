@@ -0,0 +1,135 @@
+package org.folio.dataexp.service.export.strategies;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.folio.dataexp.service.export.ExportWriter;
+import org.folio.dataexp.util.UuidUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Reads the pages of records of an export file one after another for the page pipeline of {@link
+ * AbstractExportStrategy}. The pages are read on the thread running the pipeline, in the order they
+ * are written to the export file, so a source needs no synchronization; every page is exported by
+ * a worker thread of the pipeline.
+ */
+@FunctionalInterface
+public interface ExportPageSource {
+
+  /**
+   * Reads the next page.
+   *
+   * @param pageSize the number of records the page should have at most
+   * @return the next page, or null if all pages are read
+   */
+  Page next(int pageSize);
+
+  /**
+   * A page read from the source.
+   *
+   * @param size the number of records of the page
+   * @param export exports the records of the page with the context of the page to its writer
+   */
+  record Page(int size, BiConsumer<ExportJobContext, ExportWriter> export) {}
+
+  /**
+   * Exports a page of records.
+   *
+   * @param <T> the type of the records
+   */
+  @FunctionalInterface
+  interface RecordsExport<T> {
+
+    /**
+     * Exports the records of a page.
+     *
+     * @param records the records of the page
+     * @param context the context of the page, with the statistic of the page
+     * @param writer writes to the buffer of the page
+     */
+    void export(List<T> records, ExportJobContext context, ExportWriter writer);
+  }
+
+  /**
+   * Creates a source of keyset-paged records: every next page starts right after the key of the
+   * last record of the previous page, so the cost of a page does not depend on its position.
+   *
+   * @param fromKey the key of the first record
+   * @param query reads the first page of the records starting at the given key
+   * @param keyOf gets the key of a record
+   * @param export exports the records of a page
+   * @param <T> the type of the records
+   * @return the source of the pages
+   */
+  static <T> ExportPageSource keyset(
+      UUID fromKey,
+      BiFunction<UUID, Pageable, Slice<T>> query,
+      Function<T, UUID> keyOf,
+      RecordsExport<T> export) {
+    return new ExportPageSource() {
+      private UUID nextKey = fromKey;
+
+      @Override
+      public Page next(int pageSize) {
+        if (nextKey == null) {
+          return null;
+        }
+        var slice = query.apply(nextKey, PageRequest.of(0, pageSize));
+        var records = slice.getContent();
+        nextKey = slice.hasNext() ? UuidUtils.next(keyOf.apply(records.getLast())) : null;
+        return new Page(
+            records.size(), (context, writer) -> export.export(records, context, writer));
+      }
+    };
+  }
+
+  /**
+   * Creates a source of a single page with all the records read at once.
+   *
+   * @param records reads the records when the page is read
+   * @param export exports the records of the page
+   * @param <T> the type of the records
+   * @return the source of the page
+   */
+  static <T> ExportPageSource single(Supplier<List<T>> records, RecordsExport<T> export) {
+    return new ExportPageSource() {
+      private boolean read;
+
+      @Override
+      public Page next(int pageSize) {
+        if (read) {
+          return null;
+        }
+        read = true;
+        var page = records.get();
+        return new Page(page.size(), (context, writer) -> export.export(page, context, writer));
+      }
+    };
+  }
+
+  /**
+   * Creates a source reading all pages of the given sources, one source after another.
+   *
+   * @param sources the sources
+   * @return the source of the pages of all sources
+   */
+  static ExportPageSource concat(List<ExportPageSource> sources) {
+    var remaining = new ArrayDeque<>(sources);
+    return pageSize -> {
+      while (!remaining.isEmpty()) {
+        var page = remaining.peek().next(pageSize);
+        if (page != null) {
+          return page;
+        }
+        remaining.poll();
+      }
+      return null;
+    };
+  }
+}
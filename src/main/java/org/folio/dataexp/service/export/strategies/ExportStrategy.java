@@ -7,14 +7,14 @@ import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 public interface ExportStrategy {
 
   /**
-   * Saves MARC records to local storage for the given export file entity.
+   * Saves MARC records to the export file in S3 for the given export file entity.
    *
    * @param exportFilesEntity the export file entity
    * @param exportRequest the export request
    * @param exportedRecordsListener the listener for exported records
    * @return ExportStrategyStatistic containing export statistics
    */
-  ExportStrategyStatistic saveOutputToLocalStorage(
+  ExportStrategyStatistic saveOutput(
       JobExecutionExportFilesEntity exportFilesEntity,
       ExportRequest exportRequest,
       ExportedRecordsListener exportedRecordsListener);
@@ -1,43 +1,36 @@
 package org.folio.dataexp.service.export.strategies;
 
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
-import lombok.Getter;
-import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.dataexp.service.JobExecutionProgressPublisher;
+import org.folio.dataexp.service.JobExecutionProgressPublisher.JobProgress;
 
-/** Listener for tracking the number of exported records and updating job execution progress. */
+/**
+ * Listener for tracking the number of exported records. The count is published as the progress of
+ * the job execution by the {@link JobExecutionProgressPublisher}.
+ */
 public class ExportedRecordsListener {
 
-  private JobExecutionEntityRepository jobExecutionEntityRepository;
-  @Getter private final AtomicInteger exportedCount = new AtomicInteger();
-  private int progressExportedUpdateStep;
-  private UUID jobExecutionId;
+  private final JobProgress progress;
+
+  /** Constructs an ExportedRecordsListener that does not publish the exported count. */
+  public ExportedRecordsListener() {
+    this.progress = new JobProgress();
+  }
 
   /**
    * Constructs an ExportedRecordsListener.
    *
-   * @param jobExecutionEntityRepository repository for job execution entities
-   * @param progressExportedUpdateStep step size for progress updates
+   * @param jobExecutionProgressPublisher publisher of job execution progress
    * @param jobExecutionId job execution ID
    */
   public ExportedRecordsListener(
-      JobExecutionEntityRepository jobExecutionEntityRepository,
-      int progressExportedUpdateStep,
-      UUID jobExecutionId) {
-    this.jobExecutionEntityRepository = jobExecutionEntityRepository;
-    this.progressExportedUpdateStep = progressExportedUpdateStep;
-    this.jobExecutionId = jobExecutionId;
+      JobExecutionProgressPublisher jobExecutionProgressPublisher, UUID jobExecutionId) {
+    this.progress = jobExecutionProgressPublisher.open(jobExecutionId);
   }
 
-  /** Increments the exported count and updates job execution progress if needed. */
-  public synchronized void incrementExported() {
-    var exported = exportedCount.incrementAndGet();
-    if (exported % progressExportedUpdateStep == 0) {
-      var jobExecutionEntity = jobExecutionEntityRepository.getReferenceById(jobExecutionId);
-      var progress = jobExecutionEntity.getJobExecution().getProgress();
-      progress.setExported(exported);
-      jobExecutionEntityRepository.save(jobExecutionEntity);
-    }
+  /** Increments the exported count. */
+  public void incrementExported() {
+    progress.addExported(1);
   }
 
   /**
@@ -46,6 +39,24 @@ public class ExportedRecordsListener {
    * @param exported number to remove
    */
   public void removeExported(int exported) {
-    exportedCount.getAndAdd(-1 * exported);
+    progress.addExported(-exported);
+  }
+
+  /**
+   * Gets the exported count.
+   *
+   * @return number of exported records
+   */
+  public int getExported() {
+    return progress.getExported();
+  }
+
+  /**
+   * Sets the exported count, e.g. when a job execution is resumed.
+   *
+   * @param exported number of exported records
+   */
+  public void setExported(int exported) {
+    progress.setExported(exported);
   }
 }
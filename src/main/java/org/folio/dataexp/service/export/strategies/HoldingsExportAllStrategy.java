@@ -1,11 +1,11 @@
 package org.folio.dataexp.service.export.strategies;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.extern.log4j.Log4j2;
-import org.folio.dataexp.client.ConsortiumSearchClient;
 import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.entity.HoldingsRecordEntity;
@@ -19,14 +19,12 @@ import org.folio.dataexp.repository.ItemEntityRepository;
 import org.folio.dataexp.repository.MarcHoldingsAllRepository;
 import org.folio.dataexp.repository.MarcInstanceRecordRepository;
 import org.folio.dataexp.repository.MarcRecordEntityRepository;
-import org.folio.dataexp.service.ConsortiaService;
-import org.folio.dataexp.service.export.LocalStorageWriter;
+import org.folio.dataexp.service.export.ExportWriter;
 import org.folio.dataexp.service.export.strategies.handlers.RuleHandler;
 import org.folio.dataexp.service.transformationfields.ReferenceDataProvider;
-import org.folio.dataexp.service.validators.PermissionsValidator;
+import org.folio.dataexp.util.UuidUtils;
 import org.folio.processor.RuleProcessor;
 import org.folio.spring.FolioModuleMetadata;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
@@ -44,11 +42,12 @@ public class HoldingsExportAllStrategy extends HoldingsExportStrategy {
    *
    * @param itemEntityRepository Repository for item entities.
    * @param ruleFactory Factory for creating rules.
+   * @param compiledRulesCache Cache of compiled rules.
    * @param ruleProcessor Processor for applying rules.
    * @param ruleHandler Handler for rule processing.
    * @param referenceDataProvider Provider for reference data.
-   * @param consortiaService Service for consortia operations.
-   * @param consortiumSearchClient Client for consortium search.
+   * @param consortiumAccessSnapshotService Service for consortium access snapshots of jobs.
+   * @param consortiumHoldingsTenantResolver Resolver of consortium holdings tenants.
    * @param holdingsRecordEntityTenantRepository Repository for tenant-specific holdings records.
    * @param marcInstanceRecordRepository Repository for MARC instance records.
    * @param instanceCentralTenantRepository Repository for central tenant instances.
@@ -57,17 +56,16 @@ public class HoldingsExportAllStrategy extends HoldingsExportStrategy {
    * @param marcRecordEntityRepository Repository for MARC record entities.
    * @param folioHoldingsAllRepository Repository for all Folio holdings.
    * @param marcHoldingsAllRepository Repository for all MARC holdings.
-   * @param userService Service for user operations.
-   * @param permissionsValidator Validator for permissions.
    */
   public HoldingsExportAllStrategy(
       ItemEntityRepository itemEntityRepository,
       RuleFactory ruleFactory,
+      CompiledRulesCache compiledRulesCache,
       RuleProcessor ruleProcessor,
       RuleHandler ruleHandler,
       ReferenceDataProvider referenceDataProvider,
-      ConsortiaService consortiaService,
-      ConsortiumSearchClient consortiumSearchClient,
+      ConsortiumAccessSnapshotService consortiumAccessSnapshotService,
+      ConsortiumHoldingsTenantResolver consortiumHoldingsTenantResolver,
       HoldingsRecordEntityTenantRepository holdingsRecordEntityTenantRepository,
       MarcInstanceRecordRepository marcInstanceRecordRepository,
       InstanceCentralTenantRepository instanceCentralTenantRepository,
@@ -75,239 +73,161 @@ public class HoldingsExportAllStrategy extends HoldingsExportStrategy {
       HoldingsRecordEntityRepository holdingsRecordEntityRepository,
       MarcRecordEntityRepository marcRecordEntityRepository,
       FolioHoldingsAllRepository folioHoldingsAllRepository,
-      MarcHoldingsAllRepository marcHoldingsAllRepository,
-      UserService userService,
-      PermissionsValidator permissionsValidator) {
+      MarcHoldingsAllRepository marcHoldingsAllRepository) {
     super(
         itemEntityRepository,
         ruleFactory,
+        compiledRulesCache,
         ruleProcessor,
         ruleHandler,
         referenceDataProvider,
-        consortiaService,
-        consortiumSearchClient,
+        consortiumAccessSnapshotService,
+        consortiumHoldingsTenantResolver,
         holdingsRecordEntityTenantRepository,
         marcInstanceRecordRepository,
         instanceCentralTenantRepository,
         folioModuleMetadata,
-        userService,
         holdingsRecordEntityRepository,
-        marcRecordEntityRepository,
-        permissionsValidator);
+        marcRecordEntityRepository);
     this.folioHoldingsAllRepository = folioHoldingsAllRepository;
     this.marcHoldingsAllRepository = marcHoldingsAllRepository;
   }
 
-  /** Processes slices for Holdings export. */
+  /** Supplies the pages of all Holdings records to export. */
   @Override
-  protected void processSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    processFolioSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
-    if (Boolean.TRUE.equals(mappingProfile.getDefault())) {
-      processMarcSlices(
-          exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+  protected ExportPageSource createPageSource(ExportJobContext context) {
+    var exportRequest = context.exportRequest();
+    var pages = new ArrayList<ExportPageSource>();
+    pages.add(folioPages(context));
+    if (Boolean.TRUE.equals(context.mappingProfile().getDefault())) {
+      pages.add(marcPages(context));
     } else {
-      processMarcHoldingsSlices(
-          exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+      pages.add(marcHoldingsPages(context));
     }
     if (Boolean.TRUE.equals(exportRequest.getDeletedRecords())
         && Boolean.TRUE.equals(exportRequest.getLastExport())) {
-      handleDeleted(
-          exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+      pages.addAll(deletedPages(context));
     }
+    return ExportPageSource.concat(pages);
   }
 
-  private void handleDeleted(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    var deletedFolioHoldings = getFolioDeleted(exportRequest);
-    entityManager.clear();
-    processFolioHoldings(
-        exportFilesEntity,
-        exportStatistic,
-        mappingProfile,
-        deletedFolioHoldings,
-        localStorageWriter);
-    if (Boolean.TRUE.equals(mappingProfile.getDefault())) {
-      var deletedMarcHoldings = getMarcDeleted(exportRequest);
-      entityManager.clear();
-      processMarcHoldings(
-          exportFilesEntity,
-          exportStatistic,
-          mappingProfile,
-          deletedMarcHoldings,
-          localStorageWriter);
-    } else {
-      var deletedFolioMarcHoldings = getMarcHoldingsDeleted(exportRequest);
-      entityManager.clear();
-      processFolioHoldings(
-          exportFilesEntity,
-          exportStatistic,
-          mappingProfile,
-          deletedFolioMarcHoldings,
-          localStorageWriter);
+  private List<ExportPageSource> deletedPages(ExportJobContext context) {
+    var exportRequest = context.exportRequest();
+    var deletedFolioHoldings =
+        ExportPageSource.single(
+            () -> clearAfter(getFolioDeleted(exportRequest)), this::processFolioHoldings);
+    if (Boolean.TRUE.equals(context.mappingProfile().getDefault())) {
+      return List.of(
+          deletedFolioHoldings,
+          ExportPageSource.single(
+              () -> clearAfter(getMarcDeleted(exportRequest)), this::processMarcHoldings));
     }
+    return List.of(
+        deletedFolioHoldings,
+        ExportPageSource.single(
+            () -> clearAfter(getMarcHoldingsDeleted(exportRequest)), this::processFolioHoldings));
   }
 
-  private void processFolioSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    var folioSlice =
-        nextFolioSlice(exportFilesEntity, exportRequest, PageRequest.of(0, exportIdsBatch));
-    entityManager.clear();
-    processFolioHoldings(
-        exportFilesEntity,
-        exportStatistic,
-        mappingProfile,
-        folioSlice.getContent(),
-        localStorageWriter);
-    log.info("Slice size for holdings export all folio: {}", folioSlice.getContent().size());
-    while (folioSlice.hasNext()) {
-      folioSlice = nextFolioSlice(exportFilesEntity, exportRequest, folioSlice.nextPageable());
-      entityManager.clear();
-      processFolioHoldings(
-          exportFilesEntity,
-          exportStatistic,
-          mappingProfile,
-          folioSlice.getContent(),
-          localStorageWriter);
-    }
+  private ExportPageSource folioPages(ExportJobContext context) {
+    var exportFilesEntity = context.exportFilesEntity();
+    return ExportPageSource.keyset(
+        exportFilesEntity.getFromId(),
+        (fromId, pageable) -> {
+          var folioSlice =
+              clearAfter(
+                  nextFolioSlice(
+                      fromId, exportFilesEntity.getToId(), context.exportRequest(), pageable));
+          log.info("Slice size for holdings export all folio: {}", folioSlice.getContent().size());
+          return folioSlice;
+        },
+        HoldingsRecordEntity::getId,
+        this::processFolioHoldings);
   }
 
-  private void processMarcSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    if (Boolean.TRUE.equals(mappingProfile.getDefault())) {
-      var marcSlice =
-          nextMarcSlice(exportFilesEntity, exportRequest, PageRequest.of(0, exportIdsBatch));
-      entityManager.clear();
-      processMarcHoldings(
-          exportFilesEntity,
-          exportStatistic,
-          mappingProfile,
-          marcSlice.getContent(),
-          localStorageWriter);
-      log.info("Slice size for holdings export all marc: {}", marcSlice.getContent().size());
-      while (marcSlice.hasNext()) {
-        marcSlice = nextMarcSlice(exportFilesEntity, exportRequest, marcSlice.nextPageable());
-        entityManager.clear();
-        processMarcHoldings(
-            exportFilesEntity,
-            exportStatistic,
-            mappingProfile,
-            marcSlice.getContent(),
-            localStorageWriter);
-      }
-    }
+  private ExportPageSource marcPages(ExportJobContext context) {
+    return ExportPageSource.keyset(
+        UuidUtils.MIN_UUID,
+        (fromRecordId, pageable) -> {
+          var marcSlice =
+              clearAfter(
+                  nextMarcSlice(
+                      context.exportFilesEntity(),
+                      context.exportRequest(),
+                      fromRecordId,
+                      pageable));
+          log.info("Slice size for holdings export all marc: {}", marcSlice.getContent().size());
+          return marcSlice;
+        },
+        MarcRecordEntity::getId,
+        this::processMarcHoldings);
   }
 
-  private void processMarcHoldingsSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    var marcHoldingsSlice =
-        nextMarcHoldingsSlice(exportFilesEntity, exportRequest, PageRequest.of(0, exportIdsBatch));
-    entityManager.clear();
-    processFolioHoldings(
-        exportFilesEntity,
-        exportStatistic,
-        mappingProfile,
-        marcHoldingsSlice.getContent(),
-        localStorageWriter);
-    log.info("Slice size for holdings export all marc: {}", marcHoldingsSlice.getContent().size());
-    while (marcHoldingsSlice.hasNext()) {
-      marcHoldingsSlice =
-          nextMarcHoldingsSlice(exportFilesEntity, exportRequest, marcHoldingsSlice.nextPageable());
-      entityManager.clear();
-      processFolioHoldings(
-          exportFilesEntity,
-          exportStatistic,
-          mappingProfile,
-          marcHoldingsSlice.getContent(),
-          localStorageWriter);
-    }
+  private ExportPageSource marcHoldingsPages(ExportJobContext context) {
+    var exportFilesEntity = context.exportFilesEntity();
+    return ExportPageSource.keyset(
+        exportFilesEntity.getFromId(),
+        (fromId, pageable) -> {
+          var marcHoldingsSlice =
+              clearAfter(
+                  nextMarcHoldingsSlice(
+                      fromId, exportFilesEntity.getToId(), context.exportRequest(), pageable));
+          log.info(
+              "Slice size for holdings export all marc: {}", marcHoldingsSlice.getContent().size());
+          return marcHoldingsSlice;
+        },
+        HoldingsRecordEntity::getId,
+        this::processFolioHoldings);
   }
 
   private void processMarcHoldings(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
       List<MarcRecordEntity> marcRecords,
-      LocalStorageWriter localStorageWriter) {
+      ExportJobContext context,
+      ExportWriter localStorageWriter) {
     var externalIds =
         marcRecords.stream().map(MarcRecordEntity::getExternalId).collect(Collectors.toSet());
     createAndSaveMarcFromJsonRecord(
-        externalIds,
-        exportStatistic,
-        mappingProfile,
-        exportFilesEntity.getJobExecutionId(),
-        new HashSet<>(),
-        marcRecords,
-        localStorageWriter);
+        externalIds, context, new HashSet<>(), marcRecords, localStorageWriter);
   }
 
   private void processFolioHoldings(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
       List<HoldingsRecordEntity> folioHoldings,
-      LocalStorageWriter localStorageWriter) {
+      ExportJobContext context,
+      ExportWriter localStorageWriter) {
     var result =
-        getGeneratedMarc(folioHoldings, mappingProfile, exportFilesEntity.getJobExecutionId());
-    createAndSaveGeneratedMarc(result, exportStatistic, localStorageWriter);
+        getGeneratedMarc(folioHoldings, context.mappingProfile(), context.jobExecutionId());
+    createAndSaveGeneratedMarc(result, context.statistic(), localStorageWriter);
   }
 
   private Slice<HoldingsRecordEntity> nextFolioSlice(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportRequest exportRequest,
-      Pageable pageble) {
+      UUID fromId, UUID toId, ExportRequest exportRequest, Pageable pageable) {
     if (Boolean.TRUE.equals(exportRequest.getSuppressedFromDiscovery())) {
-      return folioHoldingsAllRepository.findFolioHoldingsAllNonDeleted(
-          exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+      return folioHoldingsAllRepository.findFolioHoldingsAllNonDeleted(fromId, toId, pageable);
     }
     return folioHoldingsAllRepository.findFolioHoldingsAllNonDeletedNonSuppressed(
-        exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+        fromId, toId, pageable);
   }
 
   private Slice<MarcRecordEntity> nextMarcSlice(
       JobExecutionExportFilesEntity exportFilesEntity,
       ExportRequest exportRequest,
-      Pageable pageble) {
+      UUID fromRecordId,
+      Pageable pageable) {
     if (Boolean.TRUE.equals(exportRequest.getSuppressedFromDiscovery())) {
       return marcHoldingsAllRepository.findMarcHoldingsAllNonDeleted(
-          exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+          exportFilesEntity.getFromId(), exportFilesEntity.getToId(), fromRecordId, pageable);
     }
     return marcHoldingsAllRepository.findMarcHoldingsAllNonDeletedNonSuppressed(
-        exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+        exportFilesEntity.getFromId(), exportFilesEntity.getToId(), fromRecordId, pageable);
   }
 
   private Slice<HoldingsRecordEntity> nextMarcHoldingsSlice(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportRequest exportRequest,
-      Pageable pageble) {
+      UUID fromId, UUID toId, ExportRequest exportRequest, Pageable pageable) {
     if (Boolean.TRUE.equals(exportRequest.getSuppressedFromDiscovery())) {
       return folioHoldingsAllRepository.findMarcHoldingsAllNonDeletedCustomHoldingsProfile(
-          exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+          fromId, toId, pageable);
     }
     return folioHoldingsAllRepository
-        .findMarcHoldingsAllNonDeletedNonSuppressedCustomHoldingsProfile(
-            exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+        .findMarcHoldingsAllNonDeletedNonSuppressedCustomHoldingsProfile(fromId, toId, pageable);
   }
 
   private List<HoldingsRecordEntity> getFolioDeleted(ExportRequest exportRequest) {
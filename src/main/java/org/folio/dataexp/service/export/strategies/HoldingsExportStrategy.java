@@ -21,7 +21,6 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -29,12 +28,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
-import org.folio.dataexp.client.ConsortiumSearchClient;
+import org.apache.commons.collections4.ListUtils;
 import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.dto.RecordTypes;
 import org.folio.dataexp.domain.entity.HoldingsRecordEntity;
 import org.folio.dataexp.domain.entity.InstanceEntity;
+import org.folio.dataexp.domain.entity.ItemEntity;
 import org.folio.dataexp.domain.entity.MarcRecordEntity;
 import org.folio.dataexp.exception.TransformationRuleException;
 import org.folio.dataexp.repository.HoldingsRecordEntityRepository;
@@ -43,15 +43,13 @@ import org.folio.dataexp.repository.InstanceCentralTenantRepository;
 import org.folio.dataexp.repository.ItemEntityRepository;
 import org.folio.dataexp.repository.MarcInstanceRecordRepository;
 import org.folio.dataexp.repository.MarcRecordEntityRepository;
-import org.folio.dataexp.service.ConsortiaService;
+import org.folio.dataexp.service.export.strategies.CompiledRulesCache.RulesType;
 import org.folio.dataexp.service.export.strategies.handlers.RuleHandler;
 import org.folio.dataexp.service.transformationfields.ReferenceDataProvider;
-import org.folio.dataexp.service.validators.PermissionsValidator;
 import org.folio.processor.RuleProcessor;
 import org.folio.processor.referencedata.ReferenceDataWrapper;
 import org.folio.processor.rule.Rule;
 import org.folio.reader.EntityReader;
-import org.folio.reader.JPathSyntaxEntityReader;
 import org.folio.spring.FolioModuleMetadata;
 import org.folio.spring.scope.FolioExecutionContextSetter;
 import org.folio.writer.RecordWriter;
@@ -66,25 +64,23 @@ import org.springframework.stereotype.Component;
 public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
 
   protected static final String HOLDING_MARC_TYPE = "MARC_HOLDING";
+  private static final int MAX_IDS_PER_QUERY = 5000;
 
   private final ItemEntityRepository itemEntityRepository;
   private final RuleFactory ruleFactory;
+  private final CompiledRulesCache compiledRulesCache;
   private final RuleProcessor ruleProcessor;
   private final RuleHandler ruleHandler;
   private final ReferenceDataProvider referenceDataProvider;
-  private final ConsortiaService consortiaService;
-  private final ConsortiumSearchClient consortiumSearchClient;
+  private final ConsortiumAccessSnapshotService consortiumAccessSnapshotService;
+  private final ConsortiumHoldingsTenantResolver consortiumHoldingsTenantResolver;
   private final HoldingsRecordEntityTenantRepository holdingsRecordEntityTenantRepository;
   private final MarcInstanceRecordRepository marcInstanceRecordRepository;
   private final InstanceCentralTenantRepository instanceCentralTenantRepository;
   private final FolioModuleMetadata folioModuleMetadata;
-  private final UserService userService;
 
   protected final HoldingsRecordEntityRepository holdingsRecordEntityRepository;
   protected final MarcRecordEntityRepository marcRecordEntityRepository;
-  protected final PermissionsValidator permissionsValidator;
-
-  private Map<String, Set<UUID>> tenantIdsMap;
 
   /** Gets MARC records for Holdings. */
   @Override
@@ -94,10 +90,9 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
       ExportRequest exportRequest,
       UUID jobExecutionId) {
     if (Boolean.TRUE.equals(mappingProfile.getDefault())) {
-      var centralTenantId =
-          consortiaService.getCentralTenantId(folioExecutionContext.getTenantId());
-      if (centralTenantId.equals(folioExecutionContext.getTenantId())) {
-        tenantIdsMap = getTenantIds(externalIds, centralTenantId, jobExecutionId);
+      var consortiumAccess = consortiumAccessSnapshotService.get(jobExecutionId);
+      if (consortiumAccess.isCentralTenant()) {
+        var tenantIdsMap = getTenantIds(externalIds, consortiumAccess, jobExecutionId);
         List<MarcRecordEntity> entities = new ArrayList<>();
         tenantIdsMap.forEach(
             (k, v) -> entities.addAll(marcInstanceRecordRepository.findByExternalIdIn(k, v)));
@@ -142,7 +137,12 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
       GeneratedMarcResult result) {
     List<Rule> rules;
     try {
-      rules = ruleFactory.getRules(mappingProfile);
+      rules =
+          compiledRulesCache.get(
+              folioExecutionContext.getTenantId(),
+              mappingProfile,
+              RulesType.PROFILE,
+              () -> ruleFactory.getRules(mappingProfile));
     } catch (TransformationRuleException e) {
       log.error(e);
       errorLogService.saveGeneralError(e.getMessage(), jobExecutionId);
@@ -154,21 +154,20 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
     return result;
   }
 
-  /** Gets identifiers for duplicate error. */
+  /** Gets identifiers for duplicate error, looking up all given holdings at once. */
   @Override
-  Optional<ExportIdentifiersForDuplicateError> getIdentifiers(UUID id) {
-    var holdings = holdingsRecordEntityRepository.findByIdIn(Set.of(id));
-    if (holdings.isEmpty()) {
-      return Optional.empty();
-    }
-    var jsonObject = getAsJsonObject(holdings.get(0).getJsonb());
-    if (jsonObject.isPresent()) {
-      var hrid = jsonObject.get().getAsString(HRID_KEY);
-      var exportIdentifiers = new ExportIdentifiersForDuplicateError();
-      exportIdentifiers.setIdentifierHridMessage(hrid);
-      return Optional.of(exportIdentifiers);
+  Map<UUID, ExportIdentifiersForDuplicateError> getIdentifiers(Set<UUID> ids) {
+    var identifiersById = new HashMap<UUID, ExportIdentifiersForDuplicateError>();
+    for (var holding : holdingsRecordEntityRepository.findByIdIn(ids)) {
+      getAsJsonObject(holding.getJsonb())
+          .ifPresent(
+              jsonObject -> {
+                var exportIdentifiers = new ExportIdentifiersForDuplicateError();
+                exportIdentifiers.setIdentifierHridMessage(jsonObject.getAsString(HRID_KEY));
+                identifiersById.put(holding.getId(), exportIdentifiers);
+              });
     }
-    return Optional.empty();
+    return identifiersById;
   }
 
   /** Gets additional MARC fields by external ID. */
@@ -214,7 +213,9 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
 
   /**
    * Retrieves a map of holding IDs to JSONObjects containing the holding, its associated instance,
-   * and optionally its items, using already-fetched holdings and instance IDs.
+   * and optionally its items, using already-fetched holdings and instance IDs. The instances are
+   * indexed by ID and the items of all holdings are loaded at once, so the work per page is linear
+   * in the number of holdings.
    *
    * @param holdingsIds Set of holding UUIDs to retrieve.
    * @param generatedMarcResult The result object to record failures and non-existent holdings.
@@ -229,8 +230,13 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
       MappingProfile mappingProfile,
       List<HoldingsRecordEntity> holdings,
       Set<UUID> instancesIds) {
-    var instances = getInstances(instancesIds, holdings);
+    var jobExecutionId = generatedMarcResult.getJobExecutionId();
+    var consortiumAccess = consortiumAccessSnapshotService.get(jobExecutionId);
+    var instancesById =
+        getInstances(instancesIds, holdings, consortiumAccess, jobExecutionId).stream()
+            .collect(Collectors.groupingBy(InstanceEntity::getId));
     entityManager.clear();
+    var itemsByHoldingId = getItemsByHoldingId(holdings, mappingProfile);
     Map<UUID, JSONObject> holdingsWithInstanceAndItems = new LinkedHashMap<>();
     var existHoldingsIds = new HashSet<UUID>();
     for (var holding : holdings) {
@@ -241,28 +247,26 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
             String.format(ERROR_CONVERTING_TO_JSON_HOLDING.getDescription(), holding.getId());
         log.error("getHoldingsWithInstanceAndItems:: {}", errorMessage);
         generatedMarcResult.addIdToFailed(holding.getId());
-        errorLogService.saveGeneralError(errorMessage, generatedMarcResult.getJobExecutionId());
+        errorLogService.saveGeneralError(errorMessage, jobExecutionId);
         continue;
       }
       var holdingJson = holdingJsonOpt.get();
       var holdingWithInstanceAndItems = new JSONObject();
-      for (var instance : instances) {
-        if (instance.getId().equals(holding.getInstanceId())) {
-          var instanceJsonOpt = getAsJsonObject(instance.getJsonb());
-          if (instanceJsonOpt.isEmpty()) {
-            log.error(
-                "getHoldingsWithInstanceAndItems:: Error converting to json instance by id {}",
-                instance.getId());
-          } else {
-            var instanceJson = instanceJsonOpt.get();
-            holdingWithInstanceAndItems.appendField(INSTANCE_KEY, instanceJson);
-            holdingJson.put(INSTANCE_HRID_KEY, instanceJson.getAsString(HRID_KEY));
-            break;
-          }
+      for (var instance : instancesById.getOrDefault(holding.getInstanceId(), List.of())) {
+        var instanceJsonOpt = getAsJsonObject(instance.getJsonb());
+        if (instanceJsonOpt.isEmpty()) {
+          log.error(
+              "getHoldingsWithInstanceAndItems:: Error converting to json instance by id {}",
+              instance.getId());
+        } else {
+          var instanceJson = instanceJsonOpt.get();
+          holdingWithInstanceAndItems.appendField(INSTANCE_KEY, instanceJson);
+          holdingJson.put(INSTANCE_HRID_KEY, instanceJson.getAsString(HRID_KEY));
+          break;
         }
       }
       if (mappingProfile.getRecordTypes().contains(RecordTypes.ITEM)) {
-        addItemsToHolding(holdingJson, holding.getId());
+        addItemsToHolding(holdingJson, itemsByHoldingId.getOrDefault(holding.getId(), List.of()));
       }
       var holdingJsonArray = new JSONArray();
       holdingJsonArray.add(holdingJson);
@@ -281,23 +285,25 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
   }
 
   private List<HoldingsRecordEntity> getHoldings(Set<UUID> holdingsIds, UUID jobExecutionId) {
-    var centralTenantId = consortiaService.getCentralTenantId(folioExecutionContext.getTenantId());
-    if (nonNull(centralTenantId) && centralTenantId.equals(folioExecutionContext.getTenantId())) {
+    var consortiumAccess = consortiumAccessSnapshotService.get(jobExecutionId);
+    if (consortiumAccess.isCentralTenant()) {
       List<HoldingsRecordEntity> entities = new ArrayList<>();
-      tenantIdsMap = getTenantIds(holdingsIds, centralTenantId, jobExecutionId);
+      var tenantIdsMap = getTenantIds(holdingsIds, consortiumAccess, jobExecutionId);
       tenantIdsMap.forEach(
           (k, v) -> entities.addAll(holdingsRecordEntityTenantRepository.findByIdIn(k, v)));
-      tenantIdsMap = null;
       return entities;
     }
     return holdingsRecordEntityRepository.findByIdIn(holdingsIds);
   }
 
   private List<InstanceEntity> getInstances(
-      Set<UUID> instanceIds, List<HoldingsRecordEntity> holdings) {
-    var centralTenantId = consortiaService.getCentralTenantId(folioExecutionContext.getTenantId());
-    if (nonNull(centralTenantId) && centralTenantId.equals(folioExecutionContext.getTenantId())) {
-      Map<UUID, String> instIdTenantMap = getInstanceIdsTenant(holdings, centralTenantId);
+      Set<UUID> instanceIds,
+      List<HoldingsRecordEntity> holdings,
+      ConsortiumAccessSnapshot consortiumAccess,
+      UUID jobExecutionId) {
+    if (consortiumAccess.isCentralTenant()) {
+      Map<UUID, String> instIdTenantMap =
+          getInstanceIdsTenant(holdings, consortiumAccess, jobExecutionId);
       log.debug("instIdTenantMap: {}", instIdTenantMap);
       List<InstanceEntity> entities = new ArrayList<>();
       instIdTenantMap.forEach(
@@ -310,37 +316,25 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
   }
 
   private Map<String, Set<UUID>> getTenantIds(
-      Set<UUID> ids, String centralTenantId, UUID jobExecutionId) {
+      Set<UUID> ids, ConsortiumAccessSnapshot consortiumAccess, UUID jobExecutionId) {
     log.info("getTenantIds ids: {}", ids);
     Map<String, Set<UUID>> idsMap = new HashMap<>();
-    var availableTenants =
-        consortiaService.getAffiliatedTenants(
-            folioExecutionContext.getTenantId(), folioExecutionContext.getUserId().toString());
-    log.info(
-        "Affiliated tenants for user {} from {} tenant: {}",
-        folioExecutionContext.getUserId(),
-        folioExecutionContext.getTenantId(),
-        availableTenants);
+    var holdingTenants = consortiumHoldingsTenantResolver.getTenants(jobExecutionId, ids);
     ids.forEach(
         id -> {
-          var curTenant = consortiumSearchClient.getHoldingsById(id.toString()).getTenantId();
+          var curTenant = holdingTenants.get(id);
           log.info(
               "ID: {}, tenant: {}, actualTenant: {}",
               id,
               curTenant,
               folioExecutionContext.getTenantId());
           if (nonNull(curTenant)) {
-            if (availableTenants.contains(curTenant) || curTenant.equals(centralTenantId)) {
-              if (permissionsValidator.checkInstanceViewPermissions(curTenant)) {
+            if (isAccessible(curTenant, consortiumAccess)) {
+              if (consortiumAccess.canViewInstances(curTenant)) {
                 idsMap.computeIfAbsent(curTenant, k -> new HashSet<>()).add(id);
               } else {
                 var msgValues =
-                    List.of(
-                        id.toString(),
-                        userService.getUserName(
-                            folioExecutionContext.getTenantId(),
-                            folioExecutionContext.getUserId().toString()),
-                        curTenant);
+                    List.of(id.toString(), consortiumAccess.userName(), curTenant);
                 errorLogService.saveGeneralErrorWithMessageValues(
                     ERROR_HOLDINGS_NO_PERMISSION.getCode(), msgValues, jobExecutionId);
                 log.error(
@@ -351,13 +345,7 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
                         curTenant));
               }
             } else {
-              var msgValues =
-                  List.of(
-                      id.toString(),
-                      userService.getUserName(
-                          folioExecutionContext.getTenantId(),
-                          folioExecutionContext.getUserId().toString()),
-                      curTenant);
+              var msgValues = List.of(id.toString(), consortiumAccess.userName(), curTenant);
               errorLogService.saveGeneralErrorWithMessageValues(
                   ERROR_MESSAGE_HOLDINGS_NO_AFFILIATION.getCode(), msgValues, jobExecutionId);
               log.error(
@@ -378,17 +366,15 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
     return idsMap;
   }
 
-  private Map<UUID, String> getHoldingIdsTenant(Set<UUID> ids, String centralTenantId) {
+  private Map<UUID, String> getHoldingIdsTenant(
+      Set<UUID> ids, ConsortiumAccessSnapshot consortiumAccess, UUID jobExecutionId) {
     log.debug("getHoldingIdsTenant ids: {}", ids);
     Map<UUID, String> idsMap = new HashMap<>();
-    var availableTenants =
-        consortiaService.getAffiliatedTenants(
-            folioExecutionContext.getTenantId(), folioExecutionContext.getUserId().toString());
+    var holdingTenants = consortiumHoldingsTenantResolver.getTenants(jobExecutionId, ids);
     ids.forEach(
         id -> {
-          var curTenant = consortiumSearchClient.getHoldingsById(id.toString()).getTenantId();
-          if (nonNull(curTenant)
-              && (availableTenants.contains(curTenant) || curTenant.equals(centralTenantId))) {
+          var curTenant = holdingTenants.get(id);
+          if (nonNull(curTenant) && isAccessible(curTenant, consortiumAccess)) {
             idsMap.put(id, curTenant);
           }
         });
@@ -396,36 +382,41 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
   }
 
   private Map<UUID, String> getInstanceIdsTenant(
-      List<HoldingsRecordEntity> holdings, String centralTenantId) {
+      List<HoldingsRecordEntity> holdings,
+      ConsortiumAccessSnapshot consortiumAccess,
+      UUID jobExecutionId) {
     log.debug("getInstanceIdsTenant ids: {}", holdings);
     Map<UUID, String> idsMap = new HashMap<>();
-    var availableTenants =
-        consortiaService.getAffiliatedTenants(
-            folioExecutionContext.getTenantId(), folioExecutionContext.getUserId().toString());
+    var holdingTenants =
+        consortiumHoldingsTenantResolver.getTenants(
+            jobExecutionId, holdings.stream().map(HoldingsRecordEntity::getId).toList());
     holdings.forEach(
         hold -> {
-          var curTenant =
-              consortiumSearchClient.getHoldingsById(hold.getId().toString()).getTenantId();
-          if (nonNull(curTenant)
-              && (availableTenants.contains(curTenant) || curTenant.equals(centralTenantId))) {
+          var curTenant = holdingTenants.get(hold.getId());
+          if (nonNull(curTenant) && isAccessible(curTenant, consortiumAccess)) {
             idsMap.put(hold.getInstanceId(), curTenant);
           }
         });
     return idsMap;
   }
 
+  private boolean isAccessible(String tenant, ConsortiumAccessSnapshot consortiumAccess) {
+    return consortiumAccess.isAffiliated(tenant)
+        || tenant.equals(consortiumAccess.centralTenantId());
+  }
+
   private void fillOutMarcRecords(
       Map<UUID, JSONObject> holdingsWithInstanceAndItems,
       UUID jobExecutionId,
       List<String> marcRecords,
       GeneratedMarcResult result,
       List<Rule> rules) {
-    var centralTenantId = consortiaService.getCentralTenantId(folioExecutionContext.getTenantId());
-    if (nonNull(centralTenantId) && centralTenantId.equals(folioExecutionContext.getTenantId())) {
+    var consortiumAccess = consortiumAccessSnapshotService.get(jobExecutionId);
+    if (consortiumAccess.isCentralTenant()) {
       fillOutFromCentralTenant(
           holdingsWithInstanceAndItems,
           jobExecutionId,
-          centralTenantId,
+          consortiumAccess,
           marcRecords,
           result,
           rules);
@@ -446,11 +437,13 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
   private void fillOutFromCentralTenant(
       Map<UUID, JSONObject> holdingsWithInstanceAndItems,
       UUID jobExecutionId,
-      String centralTenantId,
+      ConsortiumAccessSnapshot consortiumAccess,
       List<String> marcRecords,
       GeneratedMarcResult result,
       List<Rule> rules) {
-    var idsTenant = getHoldingIdsTenant(holdingsWithInstanceAndItems.keySet(), centralTenantId);
+    var idsTenant =
+        getHoldingIdsTenant(
+            holdingsWithInstanceAndItems.keySet(), consortiumAccess, jobExecutionId);
     log.info("idsTenant: {}", idsTenant);
     for (Map.Entry<UUID, JSONObject> uuidJson : holdingsWithInstanceAndItems.entrySet()) {
       var tenantId = idsTenant.get(uuidJson.getKey());
@@ -485,7 +478,7 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
   private String mapToMarc(
       JSONObject jsonObject, List<Rule> rules, ReferenceDataWrapper referenceDataWrapper) {
     rules = ruleHandler.preHandle(jsonObject, rules);
-    EntityReader entityReader = new JPathSyntaxEntityReader(jsonObject.toJSONString());
+    EntityReader entityReader = getEntityReader(jsonObject);
     RecordWriter recordWriter = new MarcRecordWriter();
     return ruleProcessor.process(
         entityReader,
@@ -502,8 +495,20 @@ public class HoldingsExportStrategy extends AbstractMarcExportStrategy {
         }));
   }
 
-  private void addItemsToHolding(JSONObject holdingJson, UUID holdingId) {
-    var items = itemEntityRepository.findByHoldingsRecordIdIs(holdingId);
+  private Map<UUID, List<ItemEntity>> getItemsByHoldingId(
+      List<HoldingsRecordEntity> holdings, MappingProfile mappingProfile) {
+    if (holdings.isEmpty() || !mappingProfile.getRecordTypes().contains(RecordTypes.ITEM)) {
+      return Map.of();
+    }
+    var holdingsIds = holdings.stream().map(HoldingsRecordEntity::getId).distinct().toList();
+    var items = new ArrayList<ItemEntity>();
+    for (var ids : ListUtils.partition(holdingsIds, MAX_IDS_PER_QUERY)) {
+      items.addAll(itemEntityRepository.findByHoldingsRecordIdIn(new HashSet<>(ids)));
+    }
+    return items.stream().collect(Collectors.groupingBy(ItemEntity::getHoldingsRecordId));
+  }
+
+  private void addItemsToHolding(JSONObject holdingJson, List<ItemEntity> items) {
     var itemJsonArray = new JSONArray();
     items.forEach(
         itemEntity -> {
@@ -12,15 +12,20 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
-import org.folio.dataexp.client.SearchConsortiumHoldings;
+import org.apache.commons.collections4.ListUtils;
 import org.folio.dataexp.domain.dto.ConsortiumHolding;
 import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.dto.RecordTypes;
@@ -29,9 +34,7 @@ import org.folio.dataexp.domain.entity.ItemEntity;
 import org.folio.dataexp.repository.HoldingsRecordEntityRepository;
 import org.folio.dataexp.repository.HoldingsRecordEntityTenantRepository;
 import org.folio.dataexp.repository.ItemEntityTenantRepository;
-import org.folio.dataexp.service.ConsortiaService;
 import org.folio.dataexp.service.logs.ErrorLogService;
-import org.folio.dataexp.service.validators.PermissionsValidator;
 import org.folio.spring.FolioExecutionContext;
 import org.springframework.stereotype.Service;
 
@@ -40,43 +43,71 @@ import org.springframework.stereotype.Service;
 @Service
 @AllArgsConstructor
 public class HoldingsItemsResolverService {
+
+  private static final int MAX_IDS_PER_QUERY = 5000;
+
   private final HoldingsRecordEntityRepository holdingsRecordEntityRepository;
   private final HoldingsRecordEntityTenantRepository holdingsRecordEntityTenantRepository;
   private final ItemEntityTenantRepository itemEntityTenantRepository;
-  private final SearchConsortiumHoldings searchConsortiumHoldings;
+  private final ConsortiumHoldingsTenantResolver consortiumHoldingsTenantResolver;
   private final FolioExecutionContext folioExecutionContext;
-  private final ConsortiaService consortiaService;
-  private final UserService userService;
+  private final ConsortiumAccessSnapshotService consortiumAccessSnapshotService;
   private final ErrorLogService errorLogService;
-  private final PermissionsValidator permissionsValidator;
 
   @PersistenceContext protected EntityManager entityManager;
 
   /**
-   * Retrieves holdings and items by instance ID.
+   * Instance JSON object to update with holdings and items.
    *
-   * @param instance the instance JSON object
+   * @param json the JSON object holdings are added to
    * @param instanceId the instance ID
    * @param instanceHrid the instance HRID
+   */
+  public record InstanceJson(JSONObject json, UUID instanceId, String instanceHrid) {}
+
+  private record InstanceHoldingsIds(
+      InstanceJson instance, Map<String, Set<UUID>> holdingsIdsPerTenant) {}
+
+  /**
+   * Retrieves holdings and items for a page of instances. For the local tenant all holdings of the
+   * page are loaded by one query, all their items by another one, and then grouped per instance.
+   * For the central tenant the consortium holdings of the whole page are searched by one bulk
+   * request, and the holdings of every member tenant are loaded by one query per tenant.
+   *
+   * @param instances the instances to update with holdings and items
    * @param mappingProfile the mapping profile
    * @param jobExecutionId the job execution ID
    */
-  public void retrieveHoldingsAndItemsByInstanceId(
-      JSONObject instance,
-      UUID instanceId,
-      String instanceHrid,
-      MappingProfile mappingProfile,
-      UUID jobExecutionId) {
-    log.info("retrieveHoldingsAndItemsByInstanceId");
-    if (!isNeedUpdateWithHoldingsOrItems(mappingProfile)) {
+  public void retrieveHoldingsAndItemsByInstanceIds(
+      List<InstanceJson> instances, MappingProfile mappingProfile, UUID jobExecutionId) {
+    log.info("retrieveHoldingsAndItemsByInstanceIds:: {} instances", instances.size());
+    if (instances.isEmpty() || !isNeedUpdateWithHoldingsOrItems(mappingProfile)) {
       return;
     }
-    if (consortiaService.isCurrentTenantCentralTenant(folioExecutionContext.getTenantId())) {
-      retrieveHoldingsAndItemsByInstanceIdForCentralTenant(
-          instance, instanceId, instanceHrid, mappingProfile, jobExecutionId);
-    } else {
-      retrieveHoldingsAndItemsByInstanceIdForLocalTenant(
-          instance, instanceId, instanceHrid, mappingProfile);
+    var consortiumAccess = consortiumAccessSnapshotService.get(jobExecutionId);
+    if (consortiumAccess.isCentralTenant()) {
+      retrieveHoldingsAndItemsForCentralTenant(
+          instances, mappingProfile, jobExecutionId, consortiumAccess);
+      return;
+    }
+    var instanceIds = instances.stream().map(InstanceJson::instanceId).distinct().toList();
+    var holdingsEntities = new ArrayList<HoldingsRecordEntity>();
+    for (var ids : ListUtils.partition(instanceIds, MAX_IDS_PER_QUERY)) {
+      holdingsEntities.addAll(
+          holdingsRecordEntityRepository.findByInstanceIdIn(new HashSet<>(ids)));
+    }
+    entityManager.clear();
+    var holdingsByInstanceId =
+        holdingsEntities.stream()
+            .collect(Collectors.groupingBy(HoldingsRecordEntity::getInstanceId));
+    var itemsByHoldingId =
+        getItemsByHoldingId(holdingsEntities, mappingProfile, folioExecutionContext.getTenantId());
+    for (var instance : instances) {
+      addHoldingsAndItems(
+          instance.json(),
+          holdingsByInstanceId.getOrDefault(instance.instanceId(), List.of()),
+          itemsByHoldingId,
+          instance.instanceHrid());
     }
   }
 
@@ -91,62 +122,104 @@ public class HoldingsItemsResolverService {
     return recordTypes.contains(RecordTypes.HOLDINGS) || recordTypes.contains(RecordTypes.ITEM);
   }
 
-  private void retrieveHoldingsAndItemsByInstanceIdForLocalTenant(
-      JSONObject instance, UUID instanceId, String instanceHrid, MappingProfile mappingProfile) {
-    var holdingsEntities = holdingsRecordEntityRepository.findByInstanceIdIs(instanceId);
-    entityManager.clear();
-    addHoldingsAndItems(
-        instance,
-        holdingsEntities,
-        instanceHrid,
-        mappingProfile,
-        folioExecutionContext.getTenantId());
+  private void retrieveHoldingsAndItemsForCentralTenant(
+      List<InstanceJson> instances,
+      MappingProfile mappingProfile,
+      UUID jobExecutionId,
+      ConsortiumAccessSnapshot consortiumAccess) {
+    var consortiumHoldingsByInstanceId =
+        consortiumHoldingsTenantResolver.getHoldingsByInstanceIds(
+            instances.stream().map(InstanceJson::instanceId).toList());
+    var instancesHoldingsIds = new ArrayList<InstanceHoldingsIds>();
+    var holdingsIdsPerTenant = new HashMap<String, Set<UUID>>();
+    for (var instance : instances) {
+      var consortiaHoldingsIdsPerTenant =
+          getConsortiaHoldingsIdsPerTenant(
+              instance.instanceId(),
+              consortiumHoldingsByInstanceId.getOrDefault(instance.instanceId(), List.of()),
+              jobExecutionId,
+              consortiumAccess);
+      consortiaHoldingsIdsPerTenant.forEach(
+          (tenant, holdingsIds) ->
+              holdingsIdsPerTenant
+                  .computeIfAbsent(tenant, k -> new HashSet<>())
+                  .addAll(holdingsIds));
+      instancesHoldingsIds.add(new InstanceHoldingsIds(instance, consortiaHoldingsIdsPerTenant));
+    }
+    var holdingsByIdPerTenant = new HashMap<String, Map<UUID, HoldingsRecordEntity>>();
+    var itemsByHoldingIdPerTenant = new HashMap<String, Map<UUID, List<ItemEntity>>>();
+    for (var entry : holdingsIdsPerTenant.entrySet()) {
+      var localTenant = entry.getKey();
+      log.info(
+          "retrieveHoldingsAndItemsForCentralTenant:: {} holdings of tenant {}",
+          entry.getValue().size(),
+          localTenant);
+      var holdingsEntities = new ArrayList<HoldingsRecordEntity>();
+      for (var ids : ListUtils.partition(new ArrayList<>(entry.getValue()), MAX_IDS_PER_QUERY)) {
+        holdingsEntities.addAll(
+            holdingsRecordEntityTenantRepository.findByIdIn(localTenant, new HashSet<>(ids)));
+      }
+      entityManager.clear();
+      holdingsByIdPerTenant.put(
+          localTenant,
+          holdingsEntities.stream()
+              .collect(
+                  Collectors.toMap(
+                      HoldingsRecordEntity::getId, Function.identity(), (first, last) -> first)));
+      itemsByHoldingIdPerTenant.put(
+          localTenant, getItemsByHoldingId(holdingsEntities, mappingProfile, localTenant));
+    }
+    for (var instanceHoldingsIds : instancesHoldingsIds) {
+      var instance = instanceHoldingsIds.instance();
+      instanceHoldingsIds
+          .holdingsIdsPerTenant()
+          .forEach(
+              (localTenant, holdingsIds) ->
+                  addHoldingsAndItems(
+                      instance.json(),
+                      holdingsIds.stream()
+                          .map(holdingsByIdPerTenant.get(localTenant)::get)
+                          .filter(Objects::nonNull)
+                          .toList(),
+                      itemsByHoldingIdPerTenant.get(localTenant),
+                      instance.instanceHrid()));
+    }
   }
 
-  private void retrieveHoldingsAndItemsByInstanceIdForCentralTenant(
-      JSONObject instance,
+  private Map<String, Set<UUID>> getConsortiaHoldingsIdsPerTenant(
       UUID instanceId,
-      String instanceHrid,
-      MappingProfile mappingProfile,
-      UUID jobExecutionId) {
-    var consortiumHoldings = searchConsortiumHoldings.getHoldingsById(instanceId).getHoldings();
-    Map<String, List<String>> consortiaHoldingsIdsPerTenant =
+      List<ConsortiumHolding> consortiumHoldings,
+      UUID jobExecutionId,
+      ConsortiumAccessSnapshot consortiumAccess) {
+    Map<String, Set<UUID>> consortiaHoldingsIdsPerTenant =
         consortiumHoldings.stream()
             .filter(h -> !folioExecutionContext.getTenantId().equals(h.getTenantId()))
             .collect(
                 Collectors.groupingBy(
                     ConsortiumHolding::getTenantId,
-                    Collectors.mapping(ConsortiumHolding::getId, Collectors.toList())));
-    removeNotAffiliatedTenants(consortiaHoldingsIdsPerTenant, instanceId, jobExecutionId);
-    removeNotPermittedTenants(consortiaHoldingsIdsPerTenant, instanceId, jobExecutionId);
-    for (var entry : consortiaHoldingsIdsPerTenant.entrySet()) {
-      log.info("entry: {}", entry);
-      var localTenant = entry.getKey();
-      var holdingsIds = entry.getValue().stream().map(UUID::fromString).collect(Collectors.toSet());
-      var holdingsEntities =
-          holdingsRecordEntityTenantRepository.findByIdIn(localTenant, holdingsIds);
-      entityManager.clear();
-      addHoldingsAndItems(instance, holdingsEntities, instanceHrid, mappingProfile, localTenant);
-    }
+                    Collectors.mapping(
+                        h -> UUID.fromString(h.getId()),
+                        Collectors.toCollection(LinkedHashSet::new))));
+    removeNotAffiliatedTenants(
+        consortiaHoldingsIdsPerTenant, instanceId, jobExecutionId, consortiumAccess);
+    removeNotPermittedTenants(
+        consortiaHoldingsIdsPerTenant, instanceId, jobExecutionId, consortiumAccess);
+    return consortiaHoldingsIdsPerTenant;
   }
 
   private void removeNotAffiliatedTenants(
-      Map<String, List<String>> consortiaHoldingsIdsPerTenant,
+      Map<String, Set<UUID>> consortiaHoldingsIdsPerTenant,
       UUID instanceId,
-      UUID jobExecutionId) {
-    var userTenants =
-        consortiaService.getAffiliatedTenants(
-            folioExecutionContext.getTenantId(), folioExecutionContext.getUserId().toString());
+      UUID jobExecutionId,
+      ConsortiumAccessSnapshot consortiumAccess) {
     var notAffiliatedTenants =
         consortiaHoldingsIdsPerTenant.keySet().stream()
-            .filter(tenant -> !userTenants.contains(tenant))
+            .filter(tenant -> !consortiumAccess.isAffiliated(tenant))
             .sorted()
             .toList();
     if (!notAffiliatedTenants.isEmpty()) {
       var notAffiliatedTenantsAsStr = String.join(COMMA, notAffiliatedTenants);
-      var userName =
-          userService.getUserName(
-              folioExecutionContext.getTenantId(), folioExecutionContext.getUserId().toString());
+      var userName = consortiumAccess.userName();
       var errorMessageValues = List.of(instanceId.toString(), userName, notAffiliatedTenantsAsStr);
       errorLogService.saveGeneralErrorWithMessageValues(
           ERROR_MESSAGE_INSTANCE_NO_AFFILIATION.getCode(), errorMessageValues, jobExecutionId);
@@ -162,19 +235,18 @@ public class HoldingsItemsResolverService {
   }
 
   private void removeNotPermittedTenants(
-      Map<String, List<String>> consortiaHoldingsIdsPerTenant,
+      Map<String, Set<UUID>> consortiaHoldingsIdsPerTenant,
       UUID instanceId,
-      UUID jobExecutionId) {
+      UUID jobExecutionId,
+      ConsortiumAccessSnapshot consortiumAccess) {
     var notPermittedTenants =
         consortiaHoldingsIdsPerTenant.keySet().stream()
-            .filter(tenant -> !permissionsValidator.isInstanceViewPermissionExists(tenant))
+            .filter(tenant -> !consortiumAccess.canViewInstances(tenant))
             .sorted()
             .toList();
     if (!notPermittedTenants.isEmpty()) {
       var notPermittedTenantsAsStr = String.join(COMMA, notPermittedTenants);
-      var userName =
-          userService.getUserName(
-              folioExecutionContext.getTenantId(), folioExecutionContext.getUserId().toString());
+      var userName = consortiumAccess.userName();
       var errorMessageValues = List.of(instanceId.toString(), userName, notPermittedTenantsAsStr);
       errorLogService.saveGeneralErrorWithMessageValues(
           ERROR_INSTANCE_NO_PERMISSION.getCode(), errorMessageValues, jobExecutionId);
@@ -189,28 +261,29 @@ public class HoldingsItemsResolverService {
     }
   }
 
+  private Map<UUID, List<ItemEntity>> getItemsByHoldingId(
+      List<HoldingsRecordEntity> holdingsEntities, MappingProfile mappingProfile, String tenant) {
+    if (holdingsEntities.isEmpty() || !mappingProfile.getRecordTypes().contains(RecordTypes.ITEM)) {
+      return Map.of();
+    }
+    var holdingsIds = holdingsEntities.stream().map(HoldingsRecordEntity::getId).toList();
+    var itemEntities = new ArrayList<ItemEntity>();
+    for (var ids : ListUtils.partition(holdingsIds, MAX_IDS_PER_QUERY)) {
+      itemEntities.addAll(
+          itemEntityTenantRepository.findByHoldingsRecordIdIn(tenant, new HashSet<>(ids)));
+    }
+    entityManager.clear();
+    return itemEntities.stream().collect(Collectors.groupingBy(ItemEntity::getHoldingsRecordId));
+  }
+
   private void addHoldingsAndItems(
       JSONObject jsonToUpdateWithHoldingsAndItems,
       List<HoldingsRecordEntity> holdingsEntities,
-      String instanceHrid,
-      MappingProfile mappingProfile,
-      String tenant) {
+      Map<UUID, List<ItemEntity>> itemsByHoldingId,
+      String instanceHrid) {
     if (holdingsEntities.isEmpty()) {
       return;
     }
-    HashMap<UUID, List<ItemEntity>> itemsByHoldingId = new HashMap<>();
-    if (mappingProfile.getRecordTypes().contains(RecordTypes.ITEM)) {
-      var ids =
-          holdingsEntities.stream().map(HoldingsRecordEntity::getId).collect(Collectors.toSet());
-      itemsByHoldingId =
-          itemEntityTenantRepository.findByHoldingsRecordIdIn(tenant, ids).stream()
-              .collect(
-                  Collectors.groupingBy(
-                      ItemEntity::getHoldingsRecordId,
-                      HashMap::new,
-                      Collectors.mapping(itemEntity -> itemEntity, Collectors.toList())));
-      entityManager.clear();
-    }
     var holdingsJsonArray = new JSONArray();
     for (var holdingsEntity : holdingsEntities) {
       var itemJsonArray = new JSONArray();
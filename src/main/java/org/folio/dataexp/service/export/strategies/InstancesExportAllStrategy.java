@@ -8,15 +8,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.log4j.Log4j2;
 import net.minidev.json.JSONObject;
 import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.dto.RecordTypes;
+import org.folio.dataexp.domain.entity.AuditInstanceEntity;
 import org.folio.dataexp.domain.entity.InstanceEntity;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 import org.folio.dataexp.domain.entity.MarcRecordEntity;
@@ -28,14 +29,14 @@ import org.folio.dataexp.repository.MarcInstanceAllRepository;
 import org.folio.dataexp.repository.MarcInstanceRecordRepository;
 import org.folio.dataexp.repository.MarcRecordEntityRepository;
 import org.folio.dataexp.service.ConsortiaService;
-import org.folio.dataexp.service.export.LocalStorageWriter;
+import org.folio.dataexp.service.export.ExportWriter;
 import org.folio.dataexp.service.export.strategies.handlers.RuleHandler;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.service.transformationfields.ReferenceDataProvider;
 import org.folio.dataexp.util.ErrorCode;
+import org.folio.dataexp.util.UuidUtils;
 import org.folio.processor.RuleProcessor;
 import org.folio.spring.FolioModuleMetadata;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
@@ -56,6 +57,7 @@ public class InstancesExportAllStrategy extends InstancesExportStrategy {
    * @param instanceCentralTenantRepository repository for central tenant instances
    * @param marcInstanceRecordRepository repository for MARC instance records
    * @param ruleFactory factory for transformation rules
+   * @param compiledRulesCache cache of compiled transformation rules
    * @param ruleHandler handler for rule processing
    * @param ruleProcessor processor for rules
    * @param referenceDataProvider provider for reference data
@@ -71,6 +73,7 @@ public class InstancesExportAllStrategy extends InstancesExportStrategy {
       InstanceCentralTenantRepository instanceCentralTenantRepository,
       MarcInstanceRecordRepository marcInstanceRecordRepository,
       RuleFactory ruleFactory,
+      CompiledRulesCache compiledRulesCache,
       RuleHandler ruleHandler,
       RuleProcessor ruleProcessor,
       ReferenceDataProvider referenceDataProvider,
@@ -86,6 +89,7 @@ public class InstancesExportAllStrategy extends InstancesExportStrategy {
         instanceCentralTenantRepository,
         marcInstanceRecordRepository,
         ruleFactory,
+        compiledRulesCache,
         ruleHandler,
         ruleProcessor,
         referenceDataProvider,
@@ -98,42 +102,52 @@ public class InstancesExportAllStrategy extends InstancesExportStrategy {
     this.auditInstanceEntityRepository = auditInstanceEntityRepository;
   }
 
-  /** Processes slices for Instance export. */
+  /** Supplies the pages of all Instance records to export. */
   @Override
-  protected void processSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    processFolioSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+  protected ExportPageSource createPageSource(ExportJobContext context) {
+    var mappingProfile = context.mappingProfile();
+    var exportRequest = context.exportRequest();
+    var pages = new ArrayList<ExportPageSource>();
+    pages.add(folioPages(context));
     if (Boolean.TRUE.equals(mappingProfile.getDefault())
         || mappingProfile.getRecordTypes().contains(RecordTypes.SRS)) {
-      processMarcSlices(
-          exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+      pages.add(marcPages(context));
     } else {
-      processMarcInstanceSlices(
-          exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+      pages.add(marcInstancePages(context));
     }
     if (Boolean.TRUE.equals(exportRequest.getDeletedRecords())
         && Boolean.TRUE.equals(exportRequest.getLastExport())) {
-      handleDeleted(
-          exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+      pages.add(deletedPages(context));
     }
+    return ExportPageSource.concat(pages);
   }
 
-  /** Gets identifiers for duplicate error. */
+  /**
+   * Gets identifiers for duplicate error, looking up the deleted instances among the given ones in
+   * the audit at once.
+   */
   @Override
-  public Optional<ExportIdentifiersForDuplicateError> getIdentifiers(UUID id) {
-    var identifiers = super.getIdentifiers(id);
-    if (identifiers.isPresent() && Objects.isNull(identifiers.get().getAssociatedJsonObject())) {
-      var auditInstances = auditInstanceEntityRepository.findByIdIn(Set.of(id));
-      if (auditInstances.isEmpty()) {
+  public Map<UUID, ExportIdentifiersForDuplicateError> getIdentifiers(Set<UUID> ids) {
+    var identifiersById = super.getIdentifiers(ids);
+    var notFoundIds =
+        identifiersById.entrySet().stream()
+            .filter(entry -> Objects.isNull(entry.getValue().getAssociatedJsonObject()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+    if (notFoundIds.isEmpty()) {
+      return identifiersById;
+    }
+    var auditInstancesById =
+        auditInstanceEntityRepository.findByIdIn(notFoundIds).stream()
+            .collect(
+                Collectors.toMap(
+                    AuditInstanceEntity::getId, Function.identity(), (first, second) -> first));
+    for (var id : notFoundIds) {
+      var auditInstance = auditInstancesById.get(id);
+      if (Objects.isNull(auditInstance)) {
         log.info("getIdentifiers:: not found for instance by id {}", id);
-        return getDefaultIdentifiers(id);
+        continue;
       }
-      var auditInstance = auditInstances.get(0);
       var exportIdentifiers = new ExportIdentifiersForDuplicateError();
       exportIdentifiers.setIdentifierHridMessage("Instance with HRID : " + auditInstance.getHrid());
       var instanceAssociatedJsonObject = new JSONObject();
@@ -141,9 +155,9 @@ public class InstancesExportAllStrategy extends InstancesExportStrategy {
       instanceAssociatedJsonObject.put(ErrorLogService.HRID, auditInstance.getHrid());
       instanceAssociatedJsonObject.put(ErrorLogService.TITLE, auditInstance.getTitle());
       exportIdentifiers.setAssociatedJsonObject(instanceAssociatedJsonObject);
-      return Optional.of(exportIdentifiers);
+      identifiersById.put(id, exportIdentifiers);
     }
-    return identifiers;
+    return identifiersById;
   }
 
   /** Saves error when converting JSON record to MARC record. */
@@ -188,39 +202,27 @@ public class InstancesExportAllStrategy extends InstancesExportStrategy {
     }
   }
 
-  private void handleDeleted(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
+  private ExportPageSource deletedPages(ExportJobContext context) {
+    var mappingProfile = context.mappingProfile();
+    var exportRequest = context.exportRequest();
     if (Boolean.TRUE.equals(mappingProfile.getDefault())
         || mappingProfile.getRecordTypes().contains(RecordTypes.SRS)) {
-      var deletedMarcRecords = new ArrayList<>(getMarcDeleted(exportRequest));
-      var sharedRecordIds = getSharedRecordIds(deletedMarcRecords.stream()
-          .map(MarcRecordEntity::getExternalId)
-          .collect(Collectors.toSet()));
-      if (!sharedRecordIds.isEmpty()) {
-        deletedMarcRecords.removeIf(marcRecordEntity ->
-            sharedRecordIds.contains(marcRecordEntity.getExternalId()));
-      }
-      entityManager.clear();
-      processMarcInstances(
-          exportFilesEntity,
-          exportStatistic,
-          mappingProfile,
-          deletedMarcRecords,
-          localStorageWriter);
-    } else {
-      var deletedMarcInstances = getMarcInstanceDeleted(exportRequest);
-      entityManager.clear();
-      processFolioInstances(
-          exportFilesEntity,
-          exportStatistic,
-          mappingProfile,
-          deletedMarcInstances,
-          localStorageWriter);
+      return ExportPageSource.single(
+          () -> {
+            var deletedMarcRecords = new ArrayList<>(getMarcDeleted(exportRequest));
+            var sharedRecordIds = getSharedRecordIds(deletedMarcRecords.stream()
+                .map(MarcRecordEntity::getExternalId)
+                .collect(Collectors.toSet()));
+            if (!sharedRecordIds.isEmpty()) {
+              deletedMarcRecords.removeIf(marcRecordEntity ->
+                  sharedRecordIds.contains(marcRecordEntity.getExternalId()));
+            }
+            return clearAfter(deletedMarcRecords);
+          },
+          this::processMarcInstances);
     }
+    return ExportPageSource.single(
+        () -> clearAfter(getMarcInstanceDeleted(exportRequest)), this::processFolioInstances);
   }
 
   private Set<UUID> getSharedRecordIds(Set<UUID> ids) {
@@ -236,160 +238,106 @@ public class InstancesExportAllStrategy extends InstancesExportStrategy {
     return result;
   }
 
-  private void processFolioSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    var folioSlice =
-        nextFolioSlice(exportFilesEntity, exportRequest, PageRequest.of(0, exportIdsBatch));
-    entityManager.clear();
-    processFolioInstances(
-        exportFilesEntity,
-        exportStatistic,
-        mappingProfile,
-        folioSlice.getContent(),
-        localStorageWriter);
-    log.info("Slice size for instances export all folio: {}", folioSlice.getContent().size());
-    while (folioSlice.hasNext()) {
-      folioSlice = nextFolioSlice(exportFilesEntity, exportRequest, folioSlice.nextPageable());
-      entityManager.clear();
-      processFolioInstances(
-          exportFilesEntity,
-          exportStatistic,
-          mappingProfile,
-          folioSlice.getContent(),
-          localStorageWriter);
-    }
+  private ExportPageSource folioPages(ExportJobContext context) {
+    var exportFilesEntity = context.exportFilesEntity();
+    return ExportPageSource.keyset(
+        exportFilesEntity.getFromId(),
+        (fromId, pageable) -> {
+          var folioSlice =
+              clearAfter(
+                  nextFolioSlice(
+                      fromId, exportFilesEntity.getToId(), context.exportRequest(), pageable));
+          log.info(
+              "Slice size for instances export all folio: {}", folioSlice.getContent().size());
+          return folioSlice;
+        },
+        InstanceEntity::getId,
+        this::processFolioInstances);
   }
 
-  private void processMarcSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    var marcSlice =
-        nextMarcSlice(exportFilesEntity, exportRequest, PageRequest.of(0, exportIdsBatch));
-    entityManager.clear();
-    processMarcInstances(
-        exportFilesEntity,
-        exportStatistic,
-        mappingProfile,
-        marcSlice.getContent(),
-        localStorageWriter);
-    while (marcSlice.hasNext()) {
-      marcSlice = nextMarcSlice(exportFilesEntity, exportRequest, marcSlice.nextPageable());
-      entityManager.clear();
-      processMarcInstances(
-          exportFilesEntity,
-          exportStatistic,
-          mappingProfile,
-          marcSlice.getContent(),
-          localStorageWriter);
-    }
+  private ExportPageSource marcPages(ExportJobContext context) {
+    return ExportPageSource.keyset(
+        UuidUtils.MIN_UUID,
+        (fromRecordId, pageable) ->
+            clearAfter(
+                nextMarcSlice(
+                    context.exportFilesEntity(), context.exportRequest(), fromRecordId, pageable)),
+        MarcRecordEntity::getId,
+        this::processMarcInstances);
   }
 
-  private void processMarcInstanceSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    var marcInstanceSlice =
-        nextMarcInstanceSlice(exportFilesEntity, exportRequest, PageRequest.of(0, exportIdsBatch));
-    entityManager.clear();
-    processFolioInstances(
-        exportFilesEntity,
-        exportStatistic,
-        mappingProfile,
-        marcInstanceSlice.getContent(),
-        localStorageWriter);
-    log.info(
-        "Slice size for marc instances export all marc: {}", marcInstanceSlice.getContent().size());
-    while (marcInstanceSlice.hasNext()) {
-      marcInstanceSlice =
-          nextMarcInstanceSlice(exportFilesEntity, exportRequest, marcInstanceSlice.nextPageable());
-      entityManager.clear();
-      processFolioInstances(
-          exportFilesEntity,
-          exportStatistic,
-          mappingProfile,
-          marcInstanceSlice.getContent(),
-          localStorageWriter);
-    }
+  private ExportPageSource marcInstancePages(ExportJobContext context) {
+    var exportFilesEntity = context.exportFilesEntity();
+    return ExportPageSource.keyset(
+        exportFilesEntity.getFromId(),
+        (fromId, pageable) -> {
+          var marcInstanceSlice =
+              clearAfter(
+                  nextMarcInstanceSlice(
+                      fromId, exportFilesEntity.getToId(), context.exportRequest(), pageable));
+          log.info(
+              "Slice size for marc instances export all marc: {}",
+              marcInstanceSlice.getContent().size());
+          return marcInstanceSlice;
+        },
+        InstanceEntity::getId,
+        this::processFolioInstances);
   }
 
   private void processMarcInstances(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
       List<MarcRecordEntity> marcRecords,
-      LocalStorageWriter localStorageWriter) {
+      ExportJobContext context,
+      ExportWriter localStorageWriter) {
     var externalIds =
         marcRecords.stream().map(MarcRecordEntity::getExternalId).collect(Collectors.toSet());
     log.info("processMarcInstances instances all externalIds: {}", externalIds.size());
     createAndSaveMarcFromJsonRecord(
-        externalIds,
-        exportStatistic,
-        mappingProfile,
-        exportFilesEntity.getJobExecutionId(),
-        new HashSet<>(),
-        marcRecords,
-        localStorageWriter);
+        externalIds, context, new HashSet<>(), marcRecords, localStorageWriter);
   }
 
   private void processFolioInstances(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
       List<InstanceEntity> folioInstances,
-      LocalStorageWriter localStorageWriter) {
+      ExportJobContext context,
+      ExportWriter localStorageWriter) {
     var result =
-        getGeneratedMarc(folioInstances, mappingProfile, exportFilesEntity.getJobExecutionId());
-    createAndSaveGeneratedMarc(result, exportStatistic, localStorageWriter);
+        getGeneratedMarc(folioInstances, context.mappingProfile(), context.jobExecutionId());
+    createAndSaveGeneratedMarc(result, context.statistic(), localStorageWriter);
   }
 
   private Slice<InstanceEntity> nextFolioSlice(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportRequest exportRequest,
-      Pageable pageble) {
+      UUID fromId, UUID toId, ExportRequest exportRequest, Pageable pageable) {
     if (Boolean.TRUE.equals(exportRequest.getSuppressedFromDiscovery())) {
       if (Boolean.TRUE.equals(exportRequest.getDeletedRecords())) {
-        return folioInstanceAllRepository.findFolioInstanceAll(
-            exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+        return folioInstanceAllRepository.findFolioInstanceAll(fromId, toId, pageable);
       }
       return folioInstanceAllRepository.findFolioInstanceAllNonDeletedSuppressed(
-          exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+          fromId, toId, pageable);
     }
     return folioInstanceAllRepository.findFolioInstanceAllNonDeletedNonSuppressed(
-        exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+        fromId, toId, pageable);
   }
 
   private Slice<MarcRecordEntity> nextMarcSlice(
       JobExecutionExportFilesEntity exportFilesEntity,
       ExportRequest exportRequest,
-      Pageable pageble) {
+      UUID fromRecordId,
+      Pageable pageable) {
     if (Boolean.TRUE.equals(exportRequest.getSuppressedFromDiscovery())) {
       return marcInstanceAllRepository.findMarcInstanceAllNonDeleted(
-          exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+          exportFilesEntity.getFromId(), exportFilesEntity.getToId(), fromRecordId, pageable);
     }
     return marcInstanceAllRepository.findMarcInstanceAllNonDeletedNonSuppressed(
-        exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+        exportFilesEntity.getFromId(), exportFilesEntity.getToId(), fromRecordId, pageable);
   }
 
   private Slice<InstanceEntity> nextMarcInstanceSlice(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportRequest exportRequest,
-      Pageable pageble) {
+      UUID fromId, UUID toId, ExportRequest exportRequest, Pageable pageable) {
     if (Boolean.TRUE.equals(exportRequest.getSuppressedFromDiscovery())) {
       return folioInstanceAllRepository.findMarcInstanceAllNonDeletedCustomInstanceProfile(
-          exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+          fromId, toId, pageable);
     }
     return folioInstanceAllRepository
-        .findMarcInstanceAllNonDeletedNonSuppressedForCustomInstanceProfile(
-            exportFilesEntity.getFromId(), exportFilesEntity.getToId(), pageble);
+        .findMarcInstanceAllNonDeletedNonSuppressedForCustomInstanceProfile(fromId, toId, pageable);
   }
 
   private List<MarcRecordEntity> getMarcDeleted(ExportRequest exportRequest) {
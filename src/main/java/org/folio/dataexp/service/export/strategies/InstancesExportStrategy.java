@@ -20,7 +20,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -40,6 +39,8 @@ import org.folio.dataexp.repository.InstanceWithHridEntityRepository;
 import org.folio.dataexp.repository.MarcInstanceRecordRepository;
 import org.folio.dataexp.repository.MarcRecordEntityRepository;
 import org.folio.dataexp.service.ConsortiaService;
+import org.folio.dataexp.service.export.strategies.CompiledRulesCache.RulesType;
+import org.folio.dataexp.service.export.strategies.HoldingsItemsResolverService.InstanceJson;
 import org.folio.dataexp.service.export.strategies.handlers.RuleHandler;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.service.transformationfields.ReferenceDataProvider;
@@ -48,7 +49,6 @@ import org.folio.processor.RuleProcessor;
 import org.folio.processor.referencedata.ReferenceDataWrapper;
 import org.folio.processor.rule.Rule;
 import org.folio.reader.EntityReader;
-import org.folio.reader.JPathSyntaxEntityReader;
 import org.folio.spring.FolioModuleMetadata;
 import org.folio.spring.scope.FolioExecutionContextSetter;
 import org.folio.writer.RecordWriter;
@@ -72,6 +72,7 @@ public class InstancesExportStrategy extends AbstractMarcExportStrategy {
   private final InstanceCentralTenantRepository instanceCentralTenantRepository;
   protected final MarcInstanceRecordRepository marcInstanceRecordRepository;
   private final RuleFactory ruleFactory;
+  private final CompiledRulesCache compiledRulesCache;
   private final RuleHandler ruleHandler;
   private final RuleProcessor ruleProcessor;
   private final ReferenceDataProvider referenceDataProvider;
@@ -241,33 +242,38 @@ public class InstancesExportStrategy extends AbstractMarcExportStrategy {
   }
 
   /**
-   * Retrieves identifiers for duplicate error reporting.
+   * Retrieves identifiers for duplicate error reporting, looking up all given instances at once.
    *
-   * @param id The UUID of the instance.
-   * @return Optional containing ExportIdentifiersForDuplicateError if found.
+   * @param ids The UUIDs of the instances.
+   * @return ExportIdentifiersForDuplicateError per instance ID, the default ones if not found.
    */
   @Override
-  public Optional<ExportIdentifiersForDuplicateError> getIdentifiers(UUID id) {
-    var instances = instanceEntityRepository.findByIdIn(Set.of(id));
-    if (instances.isEmpty()) {
-      log.info("getIdentifiers:: not found for instance by id {}", id);
-      return getDefaultIdentifiers(id);
+  public Map<UUID, ExportIdentifiersForDuplicateError> getIdentifiers(Set<UUID> ids) {
+    var identifiersById = new HashMap<UUID, ExportIdentifiersForDuplicateError>();
+    for (var instance : instanceEntityRepository.findByIdIn(ids)) {
+      getAsJsonObject(instance.getJsonb())
+          .ifPresent(
+              jsonObject -> {
+                var uuid = jsonObject.getAsString(ID_KEY);
+                var exportIdentifiers = new ExportIdentifiersForDuplicateError();
+                var hrid = jsonObject.getAsString(HRID_KEY);
+                exportIdentifiers.setIdentifierHridMessage("Instance with HRID: " + hrid);
+                var instanceAssociatedJsonObject = new JSONObject();
+                instanceAssociatedJsonObject.put(ErrorLogService.ID, uuid);
+                instanceAssociatedJsonObject.put(ErrorLogService.HRID, hrid);
+                var title = jsonObject.getAsString(TITLE_KEY);
+                instanceAssociatedJsonObject.put(ErrorLogService.TITLE, title);
+                exportIdentifiers.setAssociatedJsonObject(instanceAssociatedJsonObject);
+                identifiersById.put(instance.getId(), exportIdentifiers);
+              });
     }
-    var jsonObject = getAsJsonObject(instances.get(0).getJsonb());
-    if (jsonObject.isPresent()) {
-      var uuid = jsonObject.get().getAsString(ID_KEY);
-      var exportIdentifiers = new ExportIdentifiersForDuplicateError();
-      var hrid = jsonObject.get().getAsString(HRID_KEY);
-      exportIdentifiers.setIdentifierHridMessage("Instance with HRID: " + hrid);
-      var instanceAssociatedJsonObject = new JSONObject();
-      instanceAssociatedJsonObject.put(ErrorLogService.ID, uuid);
-      instanceAssociatedJsonObject.put(ErrorLogService.HRID, hrid);
-      var title = jsonObject.get().getAsString(TITLE_KEY);
-      instanceAssociatedJsonObject.put(ErrorLogService.TITLE, title);
-      exportIdentifiers.setAssociatedJsonObject(instanceAssociatedJsonObject);
-      return Optional.of(exportIdentifiers);
+    for (var id : ids) {
+      if (!identifiersById.containsKey(id)) {
+        log.info("getIdentifiers:: not found for instance by id {}", id);
+        identifiersById.put(id, getDefaultIdentifiers(id));
+      }
     }
-    return getDefaultIdentifiers(id);
+    return identifiersById;
   }
 
   /**
@@ -325,16 +331,18 @@ public class InstancesExportStrategy extends AbstractMarcExportStrategy {
     var instanceHridEntities = instanceWithHridEntityRepository.findByIdIn(externalIds);
     entityManager.clear();
     ReferenceDataWrapper referenceData = getReferenceData();
-    for (var instanceHridEntity : instanceHridEntities) {
-      var holdingsAndItems = new JSONObject();
-      holdingsItemsResolver.retrieveHoldingsAndItemsByInstanceId(
-          holdingsAndItems,
-          instanceHridEntity.getId(),
-          instanceHridEntity.getHrid(),
-          mappingProfile,
-          jobExecutionId);
-      var marcFields = mapFields(holdingsAndItems, mappingProfile, referenceData);
-      marcFieldsByExternalId.put(instanceHridEntity.getId(), marcFields);
+    var instances =
+        instanceHridEntities.stream()
+            .map(
+                instanceHridEntity ->
+                    new InstanceJson(
+                        new JSONObject(), instanceHridEntity.getId(), instanceHridEntity.getHrid()))
+            .toList();
+    holdingsItemsResolver.retrieveHoldingsAndItemsByInstanceIds(
+        instances, mappingProfile, jobExecutionId);
+    for (var instance : instances) {
+      var marcFields = mapFields(instance.json(), mappingProfile, referenceData);
+      marcFieldsByExternalId.put(instance.instanceId(), marcFields);
     }
     return marcFieldsByExternalId;
   }
@@ -386,44 +394,63 @@ public class InstancesExportStrategy extends AbstractMarcExportStrategy {
    * @throws TransformationRuleException if transformation fails.
    */
   private List<Rule> getRules(MappingProfile mappingProfile) throws TransformationRuleException {
-    List<Rule> rules;
+    var tenantId = folioExecutionContext.getTenantId();
     if (mappingProfile.getRecordTypes().contains(RecordTypes.SRS)) {
       var defaultMappingProfile =
           mappingProfileEntityRepository
               .getReferenceById(UUID.fromString(DEFAULT_INSTANCE_MAPPING_PROFILE_ID))
               .getMappingProfile();
-      var copyDefaultMappingProfile = new MappingProfile();
-      copyDefaultMappingProfile.setId(defaultMappingProfile.getId());
-      copyDefaultMappingProfile.setDefault(defaultMappingProfile.getDefault());
-      copyDefaultMappingProfile.setName(defaultMappingProfile.getName());
-      copyDefaultMappingProfile.setRecordTypes(
-          new ArrayList<>(defaultMappingProfile.getRecordTypes()));
-      if (defaultMappingProfile.getTransformations() != null) {
-        copyDefaultMappingProfile.setTransformations(
-            new ArrayList<>(defaultMappingProfile.getTransformations()));
-      }
-      copyDefaultMappingProfile.setDescription(defaultMappingProfile.getDescription());
-      copyDefaultMappingProfile.setFieldsSuppression(mappingProfile.getFieldsSuppression());
-      copyDefaultMappingProfile.setSuppress999ff(mappingProfile.getSuppress999ff());
-      var mappingProfileWithHoldingsAndItems =
-          appendHoldingsAndItemTransformations(mappingProfile, copyDefaultMappingProfile);
-      rules = ruleFactory.getRules(mappingProfileWithHoldingsAndItems);
-    } else {
-      rules = ruleFactory.getRules(mappingProfile);
+      return compiledRulesCache.get(
+          tenantId,
+          mappingProfile,
+          defaultMappingProfile,
+          RulesType.DEFAULT_WITH_HOLDINGS_AND_ITEMS,
+          () -> getDefaultRulesWithHoldingsAndItems(mappingProfile, defaultMappingProfile));
     }
-    return rules;
+    return compiledRulesCache.get(
+        tenantId, mappingProfile, RulesType.PROFILE, () -> ruleFactory.getRules(mappingProfile));
+  }
+
+  /**
+   * Builds rules of the default instance mapping profile extended by holdings and items
+   * transformations of the given mapping profile.
+   *
+   * @param mappingProfile The mapping profile.
+   * @param defaultMappingProfile The default instance mapping profile of the tenant.
+   * @return List of Rule.
+   * @throws TransformationRuleException if transformation fails.
+   */
+  private List<Rule> getDefaultRulesWithHoldingsAndItems(
+      MappingProfile mappingProfile, MappingProfile defaultMappingProfile)
+      throws TransformationRuleException {
+    var copyDefaultMappingProfile = new MappingProfile();
+    copyDefaultMappingProfile.setId(defaultMappingProfile.getId());
+    copyDefaultMappingProfile.setDefault(defaultMappingProfile.getDefault());
+    copyDefaultMappingProfile.setName(defaultMappingProfile.getName());
+    copyDefaultMappingProfile.setRecordTypes(
+        new ArrayList<>(defaultMappingProfile.getRecordTypes()));
+    if (defaultMappingProfile.getTransformations() != null) {
+      copyDefaultMappingProfile.setTransformations(
+          new ArrayList<>(defaultMappingProfile.getTransformations()));
+    }
+    copyDefaultMappingProfile.setDescription(defaultMappingProfile.getDescription());
+    copyDefaultMappingProfile.setFieldsSuppression(mappingProfile.getFieldsSuppression());
+    copyDefaultMappingProfile.setSuppress999ff(mappingProfile.getSuppress999ff());
+    var mappingProfileWithHoldingsAndItems =
+        appendHoldingsAndItemTransformations(mappingProfile, copyDefaultMappingProfile);
+    return ruleFactory.getRules(mappingProfileWithHoldingsAndItems);
   }
 
   /**
    * Returns default export identifiers for duplicate error reporting for the given instance ID.
    *
    * @param id The UUID of the instance.
-   * @return Optional containing ExportIdentifiersForDuplicateError with default identifier message.
+   * @return ExportIdentifiersForDuplicateError with default identifier message.
    */
-  protected Optional<ExportIdentifiersForDuplicateError> getDefaultIdentifiers(UUID id) {
+  protected ExportIdentifiersForDuplicateError getDefaultIdentifiers(UUID id) {
     var exportIdentifiers = new ExportIdentifiersForDuplicateError();
     exportIdentifiers.setIdentifierHridMessage("Instance with ID : " + id);
-    return Optional.of(exportIdentifiers);
+    return exportIdentifiers;
   }
 
   /**
@@ -438,9 +465,14 @@ public class InstancesExportStrategy extends AbstractMarcExportStrategy {
   private MarcFields mapFields(
       JSONObject marcRecord, MappingProfile mappingProfile, ReferenceDataWrapper referenceData)
       throws TransformationRuleException {
-    var rules = ruleFactory.getRules(mappingProfile);
+    var rules =
+        compiledRulesCache.get(
+            folioExecutionContext.getTenantId(),
+            mappingProfile,
+            RulesType.PROFILE,
+            () -> ruleFactory.getRules(mappingProfile));
     var finalRules = ruleHandler.preHandle(marcRecord, rules);
-    EntityReader entityReader = new JPathSyntaxEntityReader(marcRecord.toJSONString());
+    EntityReader entityReader = getEntityReader(marcRecord);
     RecordWriter recordWriter = new MarcRecordWriter();
     var marcHoldingsItemsFieldsResult = new MarcFields();
     List<VariableField> mappedRecord =
@@ -515,6 +547,7 @@ public class InstancesExportStrategy extends AbstractMarcExportStrategy {
       }
     }
     var existInstanceIds = new HashSet<UUID>();
+    var instancesToResolve = new ArrayList<InstanceJson>();
     for (var instance : copyInstances) {
       existInstanceIds.add(instance.getId());
       var instanceJsonOpt = getAsJsonObject(instance.getJsonb());
@@ -532,16 +565,17 @@ public class InstancesExportStrategy extends AbstractMarcExportStrategy {
       log.debug("getInstancesWithHoldingsAndItems instanceJson: {}", instanceJson);
 
       if (!instancesIdsFromCentral.contains(instance.getId())) {
-        holdingsItemsResolver.retrieveHoldingsAndItemsByInstanceId(
-            instanceWithHoldingsAndItems,
-            instance.getId(),
-            instanceJson.getAsString(HRID_KEY),
-            mappingProfile,
-            generatedMarcResult.getJobExecutionId());
+        instancesToResolve.add(
+            new InstanceJson(
+                instanceWithHoldingsAndItems,
+                instance.getId(),
+                instanceJson.getAsString(HRID_KEY)));
       }
 
       instancesWithHoldingsAndItems.add(instanceWithHoldingsAndItems);
     }
+    holdingsItemsResolver.retrieveHoldingsAndItemsByInstanceIds(
+        instancesToResolve, mappingProfile, generatedMarcResult.getJobExecutionId());
     instancesIds.removeAll(existInstanceIds);
     instancesIds.forEach(
         instanceId -> {
@@ -564,7 +598,7 @@ public class InstancesExportStrategy extends AbstractMarcExportStrategy {
   protected String mapToMarc(
       JSONObject jsonObject, List<Rule> rules, ReferenceDataWrapper referenceDataWrapper) {
     rules = ruleHandler.preHandle(jsonObject, rules);
-    EntityReader entityReader = new JPathSyntaxEntityReader(jsonObject.toJSONString());
+    EntityReader entityReader = getEntityReader(jsonObject);
     RecordWriter recordWriter = new MarcRecordWriter();
     return ruleProcessor.process(
         entityReader,
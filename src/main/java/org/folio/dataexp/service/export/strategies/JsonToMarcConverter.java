@@ -22,12 +22,25 @@ import org.springframework.stereotype.Component;
 @Component
 public class JsonToMarcConverter {
 
-  /** Converts a JSON record to a MARC record string. */
-  public String convertJsonRecordToMarcRecord(
+  private static final ThreadLocal<DirectMarcEncoder> DIRECT_MARC_ENCODER =
+      ThreadLocal.withInitial(DirectMarcEncoder::new);
+
+  /**
+   * Converts a JSON record to the bytes of a UTF-8 encoded MARC record. Records without additional
+   * fields are encoded directly from the JSON when possible; the others go through marc4j.
+   */
+  public byte[] convertJsonRecordToMarcRecord(
       String jsonRecord, List<VariableField> additionalFields, MappingProfile mappingProfile)
       throws IOException {
+    if (CollectionUtils.isEmpty(additionalFields)) {
+      var marc =
+          DIRECT_MARC_ENCODER.get().encode(jsonRecord, new MarcSuppressProcessor(mappingProfile));
+      if (marc != null) {
+        return marc;
+      }
+    }
     return convertJsonRecordToMarcRecord(jsonRecord, additionalFields, mappingProfile, true)
-        .toString();
+        .toByteArray();
   }
 
   /** Converts a JSON record to a MARC record as a ByteArrayOutputStream. */
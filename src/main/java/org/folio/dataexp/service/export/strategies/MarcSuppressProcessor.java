@@ -46,9 +46,21 @@ public class MarcSuppressProcessor {
     return rec;
   }
 
+  /** Checks if a control field with the given tag is suppressed. */
+  public boolean isControlFieldSuppressed(String tag) {
+    return fieldsToSuppress.contains(tag);
+  }
+
+  /** Checks if a data field with the given tag and indicators is suppressed. */
+  public boolean isDataFieldSuppressed(String tag, char ind1, char ind2) {
+    return (suppress999ff && is999ff(tag, ind1, ind2)) || fieldsToSuppress.contains(tag);
+  }
+
   private boolean shouldSuppress999ff(DataField dataField) {
-    return "999".equals(dataField.getTag())
-        && 'f' == dataField.getIndicator1()
-        && 'f' == dataField.getIndicator2();
+    return is999ff(dataField.getTag(), dataField.getIndicator1(), dataField.getIndicator2());
+  }
+
+  private boolean is999ff(String tag, char ind1, char ind2) {
+    return "999".equals(tag) && 'f' == ind1 && 'f' == ind2;
   }
 }
@@ -2,30 +2,20 @@ package org.folio.dataexp.service.export.strategies.ld;
 
 import static org.folio.dataexp.util.ErrorCode.ERROR_CONVERTING_LD_TO_BIBFRAME;
 
-import java.nio.file.Files;
-import java.util.ArrayList;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
-import org.apache.commons.lang3.StringUtils;
-import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.dto.LinkedDataResource;
-import org.folio.dataexp.domain.dto.MappingProfile;
-import org.folio.dataexp.domain.entity.ExportIdEntity;
-import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
-import org.folio.dataexp.service.export.LocalStorageWriter;
+import org.folio.dataexp.service.export.ExportWriter;
 import org.folio.dataexp.service.export.strategies.AbstractExportStrategy;
-import org.folio.dataexp.service.export.strategies.ExportSliceResult;
+import org.folio.dataexp.service.export.strategies.ExportJobContext;
 import org.folio.dataexp.service.export.strategies.ExportStrategyStatistic;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Slice;
 
 /**
  * Abstract base class for Linked Data export strategies, providing common logic that all
@@ -35,134 +25,13 @@ import org.springframework.data.domain.Slice;
 @Getter
 public abstract class AbstractLinkedDataExportStrategy extends AbstractExportStrategy {
 
-  protected int processSlicesThreadPoolSize;
+  private static final byte[] LINE_SEPARATOR =
+      System.lineSeparator().getBytes(StandardCharsets.UTF_8);
 
   private LinkedDataConverter linkedDataConverter;
 
   abstract List<LinkedDataResource> getLinkedDataResources(Set<UUID> externalIds);
 
-  @Value("#{T(Integer).parseInt('${application.process-slices-thread-pool-size}')}")
-  protected void setProcessSlicesThreadPoolSize(int processSlicesThreadPoolSize) {
-    this.processSlicesThreadPoolSize = processSlicesThreadPoolSize;
-  }
-
-  /**
-   * Processes slices of export IDs for the export file entity. This implementation takes a
-   * multithreaded approach. It is generic enough that it can be moved to the superclass along with
-   * createAndSaveSliceRecords, replacing similar single-threaded implementations in other
-   * strategies when determined to be appropriate.
-   */
-  @Override
-  protected void processSlices(
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      ExportRequest exportRequest,
-      LocalStorageWriter localStorageWriter) {
-    var jobExecutionId = exportFilesEntity.getJobExecutionId();
-    var tasks = new ArrayList<CompletableFuture<ExportSliceResult>>();
-    var page = 0;
-    Slice<ExportIdEntity> slice;
-    // Due to uses of the synchronized keyword in some of the methods called by
-    // the per-thread work, virtual threads must be skipped, because synchronized
-    // blocks cause virtual threads to be pinned to platform threads. This may
-    // lead to resource exhaustion since virtual threads are treated as an
-    // unlimited resource, but platform threads are not. With Java 24+,
-    // synchronized blocks can be used with virtual threads, and this implementation
-    // can be rewritten to use virtual threads without CompleteableFutures.
-    try (var executor = Executors.newFixedThreadPool(processSlicesThreadPoolSize)) {
-      do {
-        final var taskId = page;
-        slice =
-            exportIdEntityRepository.getExportIds(
-                jobExecutionId,
-                exportFilesEntity.getFromId(),
-                exportFilesEntity.getToId(),
-                PageRequest.of(taskId, exportIdsBatch));
-        log.debug("Slice size: {}", slice.getSize());
-        var exportIds =
-            slice.getContent().stream()
-                .map(ExportIdEntity::getInstanceId)
-                .collect(Collectors.toSet());
-        tasks.add(
-            CompletableFuture.supplyAsync(
-                () ->
-                    createAndSaveSliceRecords(
-                        exportIds,
-                        exportStatistic,
-                        mappingProfile,
-                        exportFilesEntity,
-                        exportRequest,
-                        taskId),
-                executor));
-        page++;
-      } while (slice.hasNext());
-    }
-
-    CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
-
-    log.debug("all tasks complete");
-
-    tasks.stream()
-        .map(CompletableFuture::join)
-        .forEach(
-            sliceResult -> {
-              copySliceResultToFinal(sliceResult, localStorageWriter, jobExecutionId);
-              exportStatistic.aggregate(sliceResult.getStatistic());
-            });
-  }
-
-  /**
-   * Wrap actual create-and-save strategies with boilerplate writer, statistic, and return object
-   * setup. This is generic enough to be part of the abstract export strategy once multithreading is
-   * considered to be mature enough for general use.
-   */
-  protected ExportSliceResult createAndSaveSliceRecords(
-      Set<UUID> externalIds,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      JobExecutionExportFilesEntity exportFilesEntity,
-      ExportRequest exportRequest,
-      int pageNumber) {
-    log.debug("begin createAndSaveSliceRecords for {}", pageNumber);
-    var jobExecutionId = exportFilesEntity.getJobExecutionId();
-    var writer = createLocalStorageWriter(exportFilesEntity, Integer.valueOf(pageNumber));
-    var sliceStatistic = new ExportStrategyStatistic(exportStatistic.getExportedRecordsListener());
-    createAndSaveRecords(
-        externalIds, sliceStatistic, mappingProfile, jobExecutionId, exportRequest, writer);
-    try {
-      writer.close();
-    } catch (Exception e) {
-      log.error(SAVE_ERROR, "createAndSaveSliceRecords", writer.getPath(), jobExecutionId);
-      sliceStatistic.failAll();
-    }
-    log.debug("complete createAndSaveSliceRecords for {}", pageNumber);
-    return new ExportSliceResult(writer.getPath(), writer.getReader(), sliceStatistic);
-  }
-
-  /** Consolidate slice results into a final output file. */
-  private void copySliceResultToFinal(
-      ExportSliceResult sliceResult, LocalStorageWriter finalOutput, UUID jobExecutionId) {
-    try {
-      if (sliceResult.getStatistic().getExported() > 0) {
-        var readerOpt = sliceResult.getReader();
-        if (readerOpt.isPresent()) {
-          var reader = readerOpt.get();
-          String line;
-          while ((line = reader.readLine()) != null) {
-            finalOutput.write(line + System.lineSeparator());
-          }
-          Files.deleteIfExists(sliceResult.getOutputFile());
-        } else {
-          sliceResult.getStatistic().failAll();
-        }
-      }
-    } catch (Exception e) {
-      log.error(SAVE_ERROR, "copySliceResultToFinal", sliceResult.getOutputFile(), jobExecutionId);
-      sliceResult.getStatistic().failAll();
-    }
-  }
-
   /**
    * Process the whole set of export IDs in slices, where each slice is turned into a set and the
    * real work of retrieving, converting, and writing is done for each set. Note that the analogous
@@ -173,13 +42,8 @@ public abstract class AbstractLinkedDataExportStrategy extends AbstractExportStr
    */
   @Override
   protected void createAndSaveRecords(
-      Set<UUID> externalIds,
-      ExportStrategyStatistic exportStatistic,
-      MappingProfile mappingProfile,
-      UUID jobExecutionId,
-      ExportRequest exportRequest,
-      LocalStorageWriter writer) {
-    createAndSaveLinkedData(externalIds, exportStatistic, jobExecutionId, writer);
+      Set<UUID> externalIds, ExportJobContext context, ExportWriter writer) {
+    createAndSaveLinkedData(externalIds, context.statistic(), context.jobExecutionId(), writer);
   }
 
   /**
@@ -194,20 +58,21 @@ public abstract class AbstractLinkedDataExportStrategy extends AbstractExportStr
       Set<UUID> externalIds,
       ExportStrategyStatistic exportStatistic,
       UUID jobExecutionId,
-      LocalStorageWriter localStorageWriter) {
+      ExportWriter localStorageWriter) {
     log.debug("getting linked data");
     var resources = getLinkedDataResources(externalIds);
     log.debug("received {} resources", resources.size());
     for (var resource : resources) {
-      var os = StringUtils.EMPTY;
+      ByteArrayOutputStream os;
       try {
-        os = linkedDataConverter.convertLdJsonToBibframe2Rdf(resource.getResource()).toString();
+        os = linkedDataConverter.convertLdJsonToBibframe2Rdf(resource.getResource());
+        os.write(LINE_SEPARATOR);
       } catch (Exception e) {
         exportStatistic.incrementFailed();
         saveConvertLinkedDataResourceError(resource, jobExecutionId, e);
         continue;
       }
-      localStorageWriter.write(os + System.lineSeparator());
+      localStorageWriter.write(os.toByteArray());
       exportStatistic.incrementExported();
     }
     if (resources.size() < externalIds.size()) {
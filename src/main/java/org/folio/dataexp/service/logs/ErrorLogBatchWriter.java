@@ -0,0 +1,223 @@
+package org.folio.dataexp.service.logs;
+
+import static org.folio.dataexp.util.FolioExecutionContextUtil.prepareContextForTenant;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.folio.spring.FolioExecutionContext;
+import org.folio.spring.FolioModuleMetadata;
+import org.folio.spring.scope.FolioExecutionContextSetter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffers error logs of running export jobs and inserts them with JDBC batch inserts. Rows of a
+ * job are buffered only between {@link #open} and {@link #close}; they are flushed when the batch
+ * size is reached, periodically in the background and when the job is closed. Flushes run with the
+ * FOLIO execution context of the thread that opened the job, so rows reach the tenant of the job.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class ErrorLogBatchWriter {
+
+  private static final String INSERT_ERROR_LOG_SQL =
+      "INSERT INTO error_logs (id, jsonb, creation_date, created_by, job_execution_id,"
+          + " jobprofileid) VALUES (?, ?::jsonb, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+  private static final int DEFAULT_BATCH_SIZE = 500;
+  private static final long DEFAULT_FLUSH_INTERVAL = 2000;
+  private static final int MAX_BATCHES_IN_BUFFER = 4;
+  private static final int IDLE_FLUSHES_BEFORE_EVICTION = 900;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final FolioExecutionContext folioExecutionContext;
+  private final FolioModuleMetadata folioModuleMetadata;
+  private final ThreadPoolTaskScheduler errorLogFlushScheduler;
+
+  private final Map<UUID, JobErrorLogs> buffers = new ConcurrentHashMap<>();
+  private int batchSize = DEFAULT_BATCH_SIZE;
+  private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+  private ScheduledFuture<?> periodicFlush;
+
+  @Value("#{T(Integer).parseInt('${application.error-log-batch-size}')}")
+  protected void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  @Value("#{T(Long).parseLong('${application.error-log-flush-interval}')}")
+  protected void setFlushInterval(long flushInterval) {
+    this.flushInterval = flushInterval;
+  }
+
+  /**
+   * Starts buffering error logs of the job execution. Does nothing if the job is already open.
+   *
+   * @param jobExecutionId the job execution UUID
+   * @param jobProfileId the job profile UUID stored with every error log of the job, or null
+   */
+  public void open(UUID jobExecutionId, UUID jobProfileId) {
+    buffers.computeIfAbsent(
+        jobExecutionId,
+        id ->
+            new JobErrorLogs(
+                prepareContextForTenant(
+                    folioExecutionContext.getTenantId(),
+                    folioModuleMetadata,
+                    folioExecutionContext),
+                jobProfileId));
+    startPeriodicFlush();
+  }
+
+  /**
+   * Checks whether error logs of the job execution are buffered.
+   *
+   * @param jobExecutionId the job execution UUID
+   * @return true if the job is open
+   */
+  public boolean isOpen(UUID jobExecutionId) {
+    return buffers.containsKey(jobExecutionId);
+  }
+
+  /**
+   * Adds an error log to the buffer of its job execution.
+   *
+   * @param id the error log UUID
+   * @param jsonb the error log serialized to JSON
+   * @param creationDate the creation date
+   * @param createdBy the user who created the error log
+   * @param jobExecutionId the job execution UUID
+   * @return true if the error log was buffered, false if the job is not open
+   */
+  public boolean write(
+      UUID id, String jsonb, Date creationDate, String createdBy, UUID jobExecutionId) {
+    var jobErrorLogs = buffers.get(jobExecutionId);
+    if (jobErrorLogs == null) {
+      return false;
+    }
+    jobErrorLogs.rows.add(
+        new Object[] {
+          id,
+          jsonb,
+          new Timestamp(creationDate.getTime()),
+          createdBy,
+          jobExecutionId,
+          jobErrorLogs.jobProfileId
+        });
+    jobErrorLogs.idleFlushes.set(0);
+    var size = jobErrorLogs.size.incrementAndGet();
+    if (jobErrorLogs.closed || size >= batchSize * MAX_BATCHES_IN_BUFFER) {
+      // The job was closed concurrently or the background flush does not keep up
+      flush(jobExecutionId, jobErrorLogs);
+    } else if (size % batchSize == 0) {
+      errorLogFlushScheduler.execute(() -> flush(jobExecutionId, jobErrorLogs));
+    }
+    return true;
+  }
+
+  /**
+   * Inserts all buffered error logs of the job execution.
+   *
+   * @param jobExecutionId the job execution UUID
+   */
+  public void flush(UUID jobExecutionId) {
+    var jobErrorLogs = buffers.get(jobExecutionId);
+    if (jobErrorLogs != null) {
+      flush(jobExecutionId, jobErrorLogs);
+    }
+  }
+
+  /**
+   * Inserts all buffered error logs of the job execution and stops buffering them.
+   *
+   * @param jobExecutionId the job execution UUID
+   */
+  public void close(UUID jobExecutionId) {
+    var jobErrorLogs = buffers.remove(jobExecutionId);
+    if (jobErrorLogs != null) {
+      jobErrorLogs.closed = true;
+      flush(jobExecutionId, jobErrorLogs);
+      if (jobErrorLogs.failed.get() > 0) {
+        log.error(
+            "close:: {} error logs of job execution {} could not be saved",
+            jobErrorLogs.failed.get(),
+            jobExecutionId);
+      }
+    }
+  }
+
+  private synchronized void startPeriodicFlush() {
+    if (periodicFlush == null) {
+      periodicFlush =
+          errorLogFlushScheduler.scheduleWithFixedDelay(
+              this::flushAll, Duration.ofMillis(flushInterval));
+    }
+  }
+
+  private void flushAll() {
+    buffers.forEach(
+        (jobExecutionId, jobErrorLogs) -> {
+          if (jobErrorLogs.size.get() > 0) {
+            flush(jobExecutionId, jobErrorLogs);
+          } else if (jobErrorLogs.idleFlushes.incrementAndGet() > IDLE_FLUSHES_BEFORE_EVICTION) {
+            // The job was not closed, e.g. because its export failed unexpectedly
+            close(jobExecutionId);
+          }
+        });
+  }
+
+  private void flush(UUID jobExecutionId, JobErrorLogs jobErrorLogs) {
+    synchronized (jobErrorLogs) {
+      List<Object[]> batch = new ArrayList<>();
+      Object[] row;
+      while ((row = jobErrorLogs.rows.poll()) != null) {
+        batch.add(row);
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+      jobErrorLogs.size.addAndGet(-batch.size());
+      try (var ignored = new FolioExecutionContextSetter(jobErrorLogs.context)) {
+        jdbcTemplate.batchUpdate(INSERT_ERROR_LOG_SQL, batch);
+        log.debug("flush:: {} error logs saved for job execution {}", batch.size(), jobExecutionId);
+      } catch (RuntimeException e) {
+        jobErrorLogs.failed.addAndGet(batch.size());
+        log.error(
+            "flush:: {} error logs of job execution {} could not be saved: {}",
+            batch.size(),
+            jobExecutionId,
+            e.getMessage());
+      }
+    }
+  }
+
+  private static class JobErrorLogs {
+
+    private final FolioExecutionContext context;
+    private final UUID jobProfileId;
+    private final Queue<Object[]> rows = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger idleFlushes = new AtomicInteger();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean closed;
+
+    JobErrorLogs(FolioExecutionContext context, UUID jobProfileId) {
+      this.context = context;
+      this.jobProfileId = jobProfileId;
+    }
+  }
+}
@@ -53,6 +53,7 @@ public class ErrorLogService {
   private final ObjectMapper objectMapper;
   private final JobExecutionService jobExecutionService;
   private final JobProfileService jobProfileService;
+  private final ErrorLogBatchWriter errorLogBatchWriter;
 
   /**
    * Retrieves error logs by CQL query, offset, and limit.
@@ -86,7 +87,8 @@ public class ErrorLogService {
   }
 
   /**
-   * Saves an error log.
+   * Saves an error log. Error logs of a job execution between {@link #beginBatch} and {@link
+   * #completeBatch} are buffered and inserted in batches.
    *
    * @param errorLog the error log to save
    * @return the saved ErrorLog
@@ -96,27 +98,52 @@ public class ErrorLogService {
       errorLog.setId(UUID.randomUUID());
     }
     errorLog.setCreatedDate(new Date());
-    UUID jobProfileId = null;
-    if (nonNull(errorLog.getJobExecutionId())) {
-      jobProfileId = jobExecutionService.getById(errorLog.getJobExecutionId()).getJobProfileId();
-      if (!jobProfileService.jobProfileExists(jobProfileId)) {
-        jobProfileId = null;
-      }
-    }
     try {
+      var jsonb = objectMapper.writeValueAsString(errorLog);
+      var createdBy = folioExecutionContext.getUserId().toString();
+      if (nonNull(errorLog.getJobExecutionId())
+          && errorLogBatchWriter.write(
+              errorLog.getId(),
+              jsonb,
+              errorLog.getCreatedDate(),
+              createdBy,
+              errorLog.getJobExecutionId())) {
+        return errorLog;
+      }
       errorLogEntityCqlRepository.insertIfNotExists(
           errorLog.getId(),
-          objectMapper.writeValueAsString(errorLog),
+          jsonb,
           errorLog.getCreatedDate(),
-          folioExecutionContext.getUserId().toString(),
+          createdBy,
           errorLog.getJobExecutionId(),
-          jobProfileId);
+          getJobProfileId(errorLog.getJobExecutionId()));
     } catch (JacksonException e) {
       log.error("Error log was not inserted: {}", e.getMessage());
     }
     return errorLog;
   }
 
+  /**
+   * Starts buffering error logs of the job execution, resolving its job profile once for all of
+   * them.
+   *
+   * @param jobExecutionId the job execution UUID
+   */
+  public void beginBatch(UUID jobExecutionId) {
+    if (!errorLogBatchWriter.isOpen(jobExecutionId)) {
+      errorLogBatchWriter.open(jobExecutionId, getJobProfileId(jobExecutionId));
+    }
+  }
+
+  /**
+   * Inserts the buffered error logs of the job execution and stops buffering them.
+   *
+   * @param jobExecutionId the job execution UUID
+   */
+  public void completeBatch(UUID jobExecutionId) {
+    errorLogBatchWriter.close(jobExecutionId);
+  }
+
   /**
    * Updates an error log.
    *
@@ -327,6 +354,7 @@ public class ErrorLogService {
    * @param notFoundUuids collection of not found UUIDs
    */
   public void populateUuidsNotFoundErrorLog(UUID jobExecutionId, Collection<String> notFoundUuids) {
+    errorLogBatchWriter.flush(jobExecutionId);
     var errorLogs =
         errorLogEntityCqlRepository.getByJobExecutionIdAndErrorCode(
             jobExecutionId, SOME_UUIDS_NOT_FOUND.getCode());
@@ -351,6 +379,7 @@ public class ErrorLogService {
    * @param numberOfNotFoundUuids number of not found UUIDs
    */
   public void populateUuidsNotFoundNumberErrorLog(UUID jobExecutionId, int numberOfNotFoundUuids) {
+    errorLogBatchWriter.flush(jobExecutionId);
     var errorLogs =
         errorLogEntityCqlRepository.getByJobExecutionIdAndErrorCode(
             jobExecutionId, SOME_UUIDS_NOT_FOUND.getCode());
@@ -379,6 +408,7 @@ public class ErrorLogService {
    * @return true if errors are present, false otherwise
    */
   public Boolean isErrorsByErrorCodePresent(List<String> errorCodes, UUID jobExecutionId) {
+    errorLogBatchWriter.flush(jobExecutionId);
     var errorCodesString =
         errorCodes.size() > 1
             ? "%(" + String.join("|", errorCodes) + ")%"
@@ -388,6 +418,22 @@ public class ErrorLogService {
             jobExecutionId, errorCodesString));
   }
 
+  /**
+   * Gets the job profile of the job execution.
+   *
+   * @param jobExecutionId the job execution UUID, may be null
+   * @return the job profile UUID, or null if the job profile does not exist
+   */
+  private UUID getJobProfileId(UUID jobExecutionId) {
+    if (nonNull(jobExecutionId)) {
+      var jobProfileId = jobExecutionService.getById(jobExecutionId).getJobProfileId();
+      if (jobProfileService.jobProfileExists(jobProfileId)) {
+        return jobProfileId;
+      }
+    }
+    return null;
+  }
+
   /**
    * Builds a general error log.
    *
@@ -0,0 +1,40 @@
+package org.folio.dataexp.util;
+
+import java.util.UUID;
+
+/**
+ * Utility class for UUID arithmetic used by keyset pagination. PostgreSQL orders {@code uuid}
+ * values byte by byte, i.e. as unsigned 128-bit numbers, so the successor of a UUID is the
+ * smallest value that sorts strictly after it.
+ */
+public class UuidUtils {
+
+  /** The smallest UUID in PostgreSQL ordering. */
+  public static final UUID MIN_UUID = new UUID(0L, 0L);
+
+  /** The largest UUID in PostgreSQL ordering. */
+  public static final UUID MAX_UUID = new UUID(-1L, -1L);
+
+  /** Private constructor to prevent instantiation. */
+  private UuidUtils() {}
+
+  /**
+   * Returns the UUID that directly follows the given one, so that {@code id >= next(lastId)} is
+   * equivalent to {@code id > lastId}.
+   *
+   * @param id the UUID to increment
+   * @return the next UUID in PostgreSQL ordering
+   * @throws IllegalArgumentException if the given UUID is {@link #MAX_UUID}
+   */
+  public static UUID next(UUID id) {
+    if (MAX_UUID.equals(id)) {
+      throw new IllegalArgumentException("There is no UUID after " + id);
+    }
+    var leastSigBits = id.getLeastSignificantBits() + 1;
+    var mostSigBits = id.getMostSignificantBits();
+    if (leastSigBits == 0L) {
+      mostSigBits++;
+    }
+    return new UUID(mostSigBits, leastSigBits);
+  }
+}
@@ -0,0 +1,3 @@
+ALTER TABLE job_execution_export_files ADD COLUMN IF NOT EXISTS counted BOOLEAN NOT NULL DEFAULT false;
+ALTER TABLE job_execution_export_files ADD COLUMN IF NOT EXISTS failed INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE job_execution_export_files ADD COLUMN IF NOT EXISTS duplicated_srs INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1 @@
+ALTER TABLE job_executions ADD COLUMN IF NOT EXISTS finished_exports INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1 @@
+ALTER TABLE job_execution_export_files ADD COLUMN IF NOT EXISTS lease_attempts INTEGER NOT NULL DEFAULT 0;
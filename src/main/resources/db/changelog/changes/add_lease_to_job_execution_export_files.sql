@@ -0,0 +1,2 @@
+ALTER TABLE job_execution_export_files ADD COLUMN IF NOT EXISTS leased_by TEXT;
+ALTER TABLE job_execution_export_files ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMPTZ;
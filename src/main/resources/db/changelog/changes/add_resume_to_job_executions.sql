@@ -0,0 +1,3 @@
+ALTER TABLE job_executions ADD COLUMN IF NOT EXISTS export_request JSONB;
+ALTER TABLE job_executions ADD COLUMN IF NOT EXISTS okapi_headers JSONB;
+ALTER TABLE job_executions ADD COLUMN IF NOT EXISTS resume_count INTEGER NOT NULL DEFAULT 0;
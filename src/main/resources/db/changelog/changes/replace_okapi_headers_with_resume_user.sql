@@ -0,0 +1,2 @@
+ALTER TABLE job_executions ADD COLUMN IF NOT EXISTS resume_user JSONB;
+ALTER TABLE job_executions DROP COLUMN IF EXISTS okapi_headers;
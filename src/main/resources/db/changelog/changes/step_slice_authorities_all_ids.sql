@@ -0,0 +1,38 @@
+CREATE EXTENSION IF NOT EXISTS pgcrypto;
+CREATE OR REPLACE PROCEDURE step_slice_authorities_all_ids(jobExecutionId text, fileLocation text, sliceSize int)
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    slice_from_id uuid;
+    slice_to_id uuid;
+BEGIN
+    IF sliceSize IS NULL OR sliceSize <= 0 THEN
+        RAISE EXCEPTION 'sliceSize must be a positive integer. Provided: %', sliceSize;
+    END IF;
+
+    -- Each slice boundary is found by stepping sliceSize entries along the index of the ids,
+    -- so no window function sorts or numbers the whole table
+    SELECT min(rec.external_id) INTO slice_from_id FROM ${myuniversity}_mod_data_export.v_authority_all rec;
+    WHILE slice_from_id IS NOT NULL LOOP
+        SELECT rec.external_id INTO slice_to_id
+        FROM ${myuniversity}_mod_data_export.v_authority_all rec
+        WHERE rec.external_id >= slice_from_id
+        ORDER BY rec.external_id
+        OFFSET sliceSize - 1 LIMIT 1;
+
+        IF slice_to_id IS NULL THEN
+            SELECT max(rec.external_id) INTO slice_to_id FROM ${myuniversity}_mod_data_export.v_authority_all rec;
+        END IF;
+
+        INSERT INTO job_execution_export_files(id, job_execution_id, file_location, from_id, to_id, status)
+        VALUES (gen_random_uuid(), jobExecutionId::uuid, format(fileLocation, slice_from_id, slice_to_id),
+                slice_from_id, slice_to_id, 'SCHEDULED');
+
+        SELECT rec.external_id INTO slice_from_id
+        FROM ${myuniversity}_mod_data_export.v_authority_all rec
+        WHERE rec.external_id > slice_to_id
+        ORDER BY rec.external_id
+        LIMIT 1;
+    END LOOP;
+END;
+$$;
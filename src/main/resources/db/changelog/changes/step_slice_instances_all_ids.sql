@@ -0,0 +1,38 @@
+CREATE EXTENSION IF NOT EXISTS pgcrypto;
+CREATE OR REPLACE PROCEDURE step_slice_instances_all_ids(jobExecutionId text, fileLocation text, sliceSize int)
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    slice_from_id uuid;
+    slice_to_id uuid;
+BEGIN
+    IF sliceSize IS NULL OR sliceSize <= 0 THEN
+        RAISE EXCEPTION 'sliceSize must be a positive integer. Provided: %', sliceSize;
+    END IF;
+
+    -- Each slice boundary is found by stepping sliceSize entries along the index of the ids,
+    -- so no window function sorts or numbers the whole table
+    SELECT min(rec.id) INTO slice_from_id FROM ${myuniversity}_mod_inventory_storage.instance rec;
+    WHILE slice_from_id IS NOT NULL LOOP
+        SELECT rec.id INTO slice_to_id
+        FROM ${myuniversity}_mod_inventory_storage.instance rec
+        WHERE rec.id >= slice_from_id
+        ORDER BY rec.id
+        OFFSET sliceSize - 1 LIMIT 1;
+
+        IF slice_to_id IS NULL THEN
+            SELECT max(rec.id) INTO slice_to_id FROM ${myuniversity}_mod_inventory_storage.instance rec;
+        END IF;
+
+        INSERT INTO job_execution_export_files(id, job_execution_id, file_location, from_id, to_id, status)
+        VALUES (gen_random_uuid(), jobExecutionId::uuid, format(fileLocation, slice_from_id, slice_to_id),
+                slice_from_id, slice_to_id, 'SCHEDULED');
+
+        SELECT rec.id INTO slice_from_id
+        FROM ${myuniversity}_mod_inventory_storage.instance rec
+        WHERE rec.id > slice_to_id
+        ORDER BY rec.id
+        LIMIT 1;
+    END LOOP;
+END;
+$$;
@@ -0,0 +1,18 @@
+package org.folio.dataexp.controllers;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import lombok.SneakyThrows;
+import org.folio.dataexp.BaseDataExportInitializerIT;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+class ResumeJobsControllerIT extends BaseDataExportInitializerIT {
+  @Test
+  @SneakyThrows
+  void postResumeJobs() {
+    mockMvc
+        .perform(MockMvcRequestBuilders.post("/data-export/resume-jobs").headers(defaultHeaders()))
+        .andExpect(status().isNoContent());
+  }
+}
@@ -60,6 +60,7 @@ import org.folio.dataexp.repository.InstanceEntityRepository;
 import org.folio.dataexp.repository.JobProfileEntityRepository;
 import org.folio.dataexp.repository.MappingProfileEntityRepository;
 import org.folio.dataexp.repository.MarcAuthorityRecordAllRepository;
+import org.folio.dataexp.service.export.S3ExportsUploader;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.service.validators.DataExportRequestValidator;
 import org.folio.s3.client.FolioS3Client;
@@ -119,6 +120,8 @@ class DefaultJobProfileIdTest {
 
   @Mock private FolioS3Client s3Client;
 
+  @Mock private S3ExportsUploader s3ExportsUploader;
+
   @ParameterizedTest
   @EnumSource(value = ExportAllRequest.IdTypeEnum.class)
   void getDefaultJobProfileIdTest(ExportAllRequest.IdTypeEnum idType) {
@@ -167,6 +170,7 @@ class DefaultJobProfileIdTest {
             eq(ExportRequest.IdTypeEnum.INSTANCE));
     verify(slicerProcessor)
         .sliceInstancesIds(any(FileDefinition.class), eq(exportRequest), eq("MARC"));
+    verify(s3ExportsUploader).exportSingleFileInPlace(scenario.jobExecution, "test_upload");
     verify(singleFileProcessorAsync)
         .exportBySingleFile(
             eq(JOB_EXECUTION_ID), eq(exportRequest), isA(CommonExportStatistic.class));
@@ -326,9 +330,8 @@ class DefaultJobProfileIdTest {
     uuids.set(1, "\uFEFF" + expectedUuid1); // Starts with BOM
     var csvContent = String.join(System.lineSeparator(), uuids);
     when(jobExecutionService.getById(jobExecutionId)).thenReturn(jobExecution);
-    // Two passes: one for counting lines, one for processing
+    // Single pass: the file is read once for counting and processing
     when(s3Client.read(anyString()))
-        .thenReturn(new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8)))
         .thenReturn(new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8)));
     when(exportIdEntityRepository.countByJobExecutionId(jobExecutionId)).thenReturn(1005L);
     // Instantiate the real processor using existing mocks to execute the actual logic
@@ -379,8 +382,9 @@ class DefaultJobProfileIdTest {
     assertThat(firstBatch.get(0).getInstanceId().toString()).hasToString(expectedUuid0);
     assertThat(firstBatch.get(1).getInstanceId().toString()).hasToString(expectedUuid1);
 
-    // 1 (initial total) + 1 (first batch of 1000) + 1 (final remainder)
-    verify(jobExecutionService, times(3)).save(isA(JobExecution.class));
+    // 1 (first batch of 1000) + 1 (final remainder)
+    verify(jobExecutionService, times(2)).save(isA(JobExecution.class));
+    verify(s3Client).read(anyString());
     verify(errorLogService, times(0)).saveGeneralErrorWithMessageValues(any(), any(), any());
   }
 
@@ -398,9 +402,8 @@ class DefaultJobProfileIdTest {
             .progress(new JobExecutionProgress().total(0).readIds(0).exported(0).failed(0));
     var csvContent = String.format("%s%n%s%n%s", instanceIdA, instanceIdA, instanceIdB);
     when(jobExecutionService.getById(jobExecutionId)).thenReturn(jobExecution);
-    // Two passes: one for counting lines, one for processing
+    // Single pass: the file is read once for counting and processing
     when(s3Client.read(anyString()))
-        .thenReturn(new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8)))
         .thenReturn(new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8)));
     // Stub the repository to return 2 unique IDs found in the DB after processing
     when(exportIdEntityRepository.countByJobExecutionId(jobExecutionId)).thenReturn(2L);
@@ -0,0 +1,123 @@
+package org.folio.dataexp.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.folio.dataexp.domain.dto.ExportRequest;
+import org.folio.dataexp.domain.dto.JobExecution;
+import org.folio.dataexp.domain.dto.JobExecutionProgress;
+import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
+import org.folio.dataexp.domain.entity.JobExecutionExportFilesStatus;
+import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.service.export.ExportCheckpointService;
+import org.folio.dataexp.service.export.ResumeUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ExportFileClaimerTest {
+
+  @Mock private JobExecutionService jobExecutionService;
+  @Mock private JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
+  @Mock private ExportCheckpointService exportCheckpointService;
+  @Mock private SingleFileProcessorAsync singleFileProcessorAsync;
+  @InjectMocks private ExportFileClaimer exportFileClaimer;
+
+  private final UUID jobExecutionId = UUID.fromString("0b9ef8d5-5b3b-4a0b-a9a7-d6d1b1f4e6a1");
+  private final ExportRequest exportRequest = new ExportRequest();
+  private final ResumeUser resumeUser =
+      new ResumeUser("diku", UUID.fromString("c4b5b2a5-7a46-4d1e-9d11-7f2c3a6b8e90"));
+
+  @BeforeEach
+  void setUp() {
+    exportFileClaimer.setBatchSize(10);
+    exportFileClaimer.setMaxLeaseAttempts(3);
+  }
+
+  @Test
+  void claimExpiredExportFilesShouldExportExpiredFilesAgain() {
+    var first = export("00000000-0000-0000-0000-000000000001");
+    var last = export("00000000-0000-0000-0000-000000000002");
+    when(exportCheckpointService.isEnabled()).thenReturn(true);
+    when(jobExecutionExportFilesEntityRepository.findExpiredLeases(3, 10))
+        .thenReturn(List.of(first, last));
+    when(exportCheckpointService.getExportRequest(jobExecutionId))
+        .thenReturn(Optional.of(exportRequest));
+    when(exportCheckpointService.getResumeUser(jobExecutionId))
+        .thenReturn(Optional.of(resumeUser));
+    when(jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecutionId))
+        .thenReturn(List.of(last, first));
+    when(jobExecutionService.getById(jobExecutionId))
+        .thenReturn(
+            new JobExecution().id(jobExecutionId).progress(new JobExecutionProgress().exported(7)));
+
+    exportFileClaimer.claimExpiredExportFiles();
+
+    verify(singleFileProcessorAsync)
+        .resumeBySingleFile(jobExecutionId, List.of(first), false, exportRequest, resumeUser, 7);
+    verify(singleFileProcessorAsync)
+        .resumeBySingleFile(jobExecutionId, List.of(last), true, exportRequest, resumeUser, 7);
+  }
+
+  @Test
+  void claimShouldSkipExportFileWithoutStoredResumeUser() {
+    when(exportCheckpointService.getExportRequest(jobExecutionId))
+        .thenReturn(Optional.of(exportRequest));
+    when(exportCheckpointService.getResumeUser(jobExecutionId)).thenReturn(Optional.empty());
+
+    assertFalse(exportFileClaimer.claim(export("00000000-0000-0000-0000-000000000001")));
+
+    verify(singleFileProcessorAsync, never())
+        .resumeBySingleFile(any(), anyList(), anyBoolean(), any(), any(), anyInt());
+  }
+
+  @Test
+  void claimShouldStartExportedCountFromZeroWithoutProgress() {
+    var export = export("00000000-0000-0000-0000-000000000001");
+    when(exportCheckpointService.getExportRequest(jobExecutionId))
+        .thenReturn(Optional.of(exportRequest));
+    when(exportCheckpointService.getResumeUser(jobExecutionId))
+        .thenReturn(Optional.of(resumeUser));
+    when(jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecutionId))
+        .thenReturn(List.of(export));
+    when(jobExecutionService.getById(jobExecutionId))
+        .thenReturn(new JobExecution().id(jobExecutionId));
+
+    assertTrue(exportFileClaimer.claim(export));
+
+    verify(singleFileProcessorAsync)
+        .resumeBySingleFile(jobExecutionId, List.of(export), true, exportRequest, resumeUser, 0);
+  }
+
+  @Test
+  void claimExpiredExportFilesShouldDoNothingIfCheckpointsAreDisabled() {
+    when(exportCheckpointService.isEnabled()).thenReturn(false);
+
+    exportFileClaimer.claimExpiredExportFiles();
+
+    verify(jobExecutionExportFilesEntityRepository, never()).findExpiredLeases(anyInt(), anyInt());
+  }
+
+  private JobExecutionExportFilesEntity export(String id) {
+    return JobExecutionExportFilesEntity.builder()
+        .id(UUID.fromString(id))
+        .jobExecutionId(jobExecutionId)
+        .fileLocation("mod-data-export/download/" + jobExecutionId + "/" + id + ".mrc")
+        .status(JobExecutionExportFilesStatus.ACTIVE)
+        .build();
+  }
+}
@@ -0,0 +1,198 @@
+package org.folio.dataexp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.folio.dataexp.domain.dto.ExportRequest;
+import org.folio.dataexp.domain.dto.JobExecution;
+import org.folio.dataexp.domain.dto.JobExecutionProgress;
+import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
+import org.folio.dataexp.domain.entity.JobExecutionExportFilesStatus;
+import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.service.export.ExportCheckpointService;
+import org.folio.dataexp.service.export.ExportCompletionTracker;
+import org.folio.dataexp.service.export.ResumeUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ExportResumeServiceTest {
+
+  @Mock private JobExecutionService jobExecutionService;
+  @Mock private JobExecutionEntityRepository jobExecutionEntityRepository;
+  @Mock private JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
+  @Mock private ExportCheckpointService exportCheckpointService;
+  @Mock private SingleFileProcessorAsync singleFileProcessorAsync;
+  @Mock private ExportCompletionTracker exportCompletionTracker;
+  @InjectMocks private ExportResumeService exportResumeService;
+
+  @Captor private ArgumentCaptor<List<JobExecutionExportFilesEntity>> exportsCaptor;
+
+  private final UUID jobExecutionId = UUID.fromString("0b9ef8d5-5b3b-4a0b-a9a7-d6d1b1f4e6a1");
+  private final ExportRequest exportRequest = new ExportRequest();
+  private final ResumeUser resumeUser =
+      new ResumeUser("diku", UUID.fromString("c4b5b2a5-7a46-4d1e-9d11-7f2c3a6b8e90"));
+
+  @BeforeEach
+  void setUp() {
+    exportResumeService.setMaxResumes(3);
+  }
+
+  @Test
+  void resumeShouldExportFilesWithoutCheckpointAgain() {
+    var checkpointed = export("00000000-0000-0000-0000-000000000001", "COMPLETED");
+    var notCheckpointed = export("00000000-0000-0000-0000-000000000002", "COMPLETED");
+    var active = export("00000000-0000-0000-0000-000000000003", "ACTIVE");
+    var failed = export("00000000-0000-0000-0000-000000000004", "FAILED");
+    var jobExecution =
+        new JobExecution().id(jobExecutionId).progress(new JobExecutionProgress().exported(5));
+    var checkpoints = Set.of("checkpoint");
+    when(exportCheckpointService.getExportRequest(jobExecutionId))
+        .thenReturn(Optional.of(exportRequest));
+    when(exportCheckpointService.getResumeUser(jobExecutionId))
+        .thenReturn(Optional.of(resumeUser));
+    when(jobExecutionExportFilesEntityRepository.countLiveLeases(jobExecutionId)).thenReturn(0L);
+    when(jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecutionId))
+        .thenReturn(List.of(active, failed, notCheckpointed, checkpointed));
+    when(exportCheckpointService.getCheckpoints(jobExecutionId)).thenReturn(checkpoints);
+    when(exportCheckpointService.hasCheckpoint(checkpoints, checkpointed)).thenReturn(true);
+    when(exportCheckpointService.hasCheckpoint(checkpoints, notCheckpointed)).thenReturn(false);
+    when(jobExecutionEntityRepository.claimResume(
+            jobExecutionId, 3, 2, List.of(notCheckpointed.getId(), active.getId())))
+        .thenReturn(2);
+
+    assertTrue(exportResumeService.resume(jobExecution));
+
+    verify(singleFileProcessorAsync)
+        .resumeBySingleFile(
+            eq(jobExecutionId),
+            exportsCaptor.capture(),
+            eq(false),
+            eq(exportRequest),
+            eq(resumeUser),
+            eq(5));
+    assertThat(exportsCaptor.getValue()).containsExactly(notCheckpointed, active);
+    assertThat(exportsCaptor.getValue())
+        .allMatch(export -> export.getStatus() == JobExecutionExportFilesStatus.SCHEDULED);
+    verify(jobExecutionExportFilesEntityRepository).saveAll(exportsCaptor.getValue());
+    verify(exportCompletionTracker).reset(jobExecutionId);
+    verify(jobExecutionService).save(jobExecution);
+  }
+
+  @Test
+  void resumeShouldSkipJobExecutionWithLiveLeases() {
+    when(exportCheckpointService.getExportRequest(jobExecutionId))
+        .thenReturn(Optional.of(exportRequest));
+    when(exportCheckpointService.getResumeUser(jobExecutionId))
+        .thenReturn(Optional.of(resumeUser));
+    when(jobExecutionExportFilesEntityRepository.countLiveLeases(jobExecutionId)).thenReturn(1L);
+
+    assertFalse(exportResumeService.resume(new JobExecution().id(jobExecutionId)));
+
+    verify(jobExecutionEntityRepository, never()).claimResume(any(), anyInt(), anyInt(), anyList());
+    verify(singleFileProcessorAsync, never())
+        .resumeBySingleFile(any(), anyList(), anyBoolean(), any(), any(), anyInt());
+  }
+
+  @Test
+  void resumeShouldSkipJobExecutionResumedTooOften() {
+    var active = export("00000000-0000-0000-0000-000000000001", "ACTIVE");
+    when(exportCheckpointService.getExportRequest(jobExecutionId))
+        .thenReturn(Optional.of(exportRequest));
+    when(exportCheckpointService.getResumeUser(jobExecutionId))
+        .thenReturn(Optional.of(resumeUser));
+    when(jobExecutionExportFilesEntityRepository.countLiveLeases(jobExecutionId)).thenReturn(0L);
+    when(jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecutionId))
+        .thenReturn(List.of(active));
+    when(jobExecutionEntityRepository.claimResume(jobExecutionId, 3, 0, List.of(active.getId())))
+        .thenReturn(0);
+
+    assertFalse(exportResumeService.resume(new JobExecution().id(jobExecutionId)));
+
+    assertThat(active.getStatus()).isEqualTo(JobExecutionExportFilesStatus.ACTIVE);
+    verify(exportCompletionTracker, never()).reset(any());
+    verify(singleFileProcessorAsync, never())
+        .resumeBySingleFile(any(), anyList(), anyBoolean(), any(), any(), anyInt());
+  }
+
+  @Test
+  void resumeShouldSkipJobExecutionWithoutResumeUser() {
+    when(exportCheckpointService.getExportRequest(jobExecutionId))
+        .thenReturn(Optional.of(exportRequest));
+    when(exportCheckpointService.getResumeUser(jobExecutionId)).thenReturn(Optional.empty());
+
+    assertFalse(exportResumeService.resume(new JobExecution().id(jobExecutionId)));
+
+    verify(jobExecutionEntityRepository, never()).claimResume(any(), anyInt(), anyInt(), anyList());
+    verify(singleFileProcessorAsync, never())
+        .resumeBySingleFile(any(), anyList(), anyBoolean(), any(), any(), anyInt());
+  }
+
+  @Test
+  void isToResumeShouldResumeUnfinishedExports() {
+    var active = export("00000000-0000-0000-0000-000000000001", "ACTIVE");
+    var scheduled = export("00000000-0000-0000-0000-000000000002", "SCHEDULED");
+
+    assertTrue(exportResumeService.isToResume(active, Set.of()));
+    assertTrue(exportResumeService.isToResume(scheduled, Set.of()));
+    verify(exportCheckpointService, never()).hasCheckpoint(any(), any());
+  }
+
+  @Test
+  void isToResumeShouldNotResumeFailedExports() {
+    var failed = export("00000000-0000-0000-0000-000000000001", "FAILED");
+
+    assertFalse(exportResumeService.isToResume(failed, Set.of()));
+  }
+
+  @Test
+  void isToResumeShouldResumeFinishedExportsOnlyWithoutCheckpoint() {
+    var checkpoints = Set.of("checkpoint");
+    var completed = export("00000000-0000-0000-0000-000000000001", "COMPLETED");
+    var completedWithErrors =
+        export("00000000-0000-0000-0000-000000000002", "COMPLETED_WITH_ERRORS");
+    when(exportCheckpointService.hasCheckpoint(checkpoints, completed)).thenReturn(false);
+    when(exportCheckpointService.hasCheckpoint(checkpoints, completedWithErrors)).thenReturn(true);
+
+    assertTrue(exportResumeService.isToResume(completed, checkpoints));
+    assertFalse(exportResumeService.isToResume(completedWithErrors, checkpoints));
+  }
+
+  @Test
+  void resumeExpiredJobExecutionsShouldDoNothingIfCheckpointsAreDisabled() {
+    when(exportCheckpointService.isEnabled()).thenReturn(false);
+
+    exportResumeService.resumeExpiredJobExecutions();
+
+    verify(jobExecutionService, never()).getExpiredJobExecutions();
+  }
+
+  private JobExecutionExportFilesEntity export(String id, String status) {
+    return JobExecutionExportFilesEntity.builder()
+        .id(UUID.fromString(id))
+        .jobExecutionId(jobExecutionId)
+        .fileLocation("mod-data-export/download/" + jobExecutionId + "/" + id + ".mrc")
+        .status(JobExecutionExportFilesStatus.valueOf(status))
+        .build();
+  }
+}
@@ -11,7 +11,6 @@ import java.util.Collections;
 import java.util.List;
 import org.folio.dataexp.TestMate;
 import org.folio.dataexp.client.SearchClient;
-import org.folio.dataexp.repository.ExportIdEntityRepository;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.util.Constants;
 import org.folio.dataexp.util.S3FilePathUtils;
@@ -25,12 +24,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class InputFileProcessorTest {
 
-  @Mock private ExportIdEntityRepository exportIdEntityRepository;
   @Mock private FolioS3Client s3Client;
   @Mock private SearchClient searchClient;
   @Mock private ErrorLogService errorLogService;
   @Mock private JobExecutionService jobExecutionService;
   @Mock private InsertExportIdService insertExportIdService;
+  @Mock private JobExecutionProgressPublisher jobExecutionProgressPublisher;
 
   @InjectMocks private InputFileProcessor inputFileProcessor;
 
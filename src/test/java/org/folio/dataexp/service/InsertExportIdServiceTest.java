@@ -1,26 +1,45 @@
 package org.folio.dataexp.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Statement;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import lombok.SneakyThrows;
+import org.apache.commons.io.IOUtils;
 import org.folio.dataexp.TestMate;
 import org.folio.dataexp.domain.entity.ExportIdEntity;
-import org.folio.dataexp.repository.ExportIdEntityRepository;
+import org.folio.dataexp.exception.export.DataExportException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 @ExtendWith(MockitoExtension.class)
 class InsertExportIdServiceTest {
 
-  @Mock private ExportIdEntityRepository exportIdEntityRepository;
+  @Mock private JdbcTemplate jdbcTemplate;
+  @Mock private Connection connection;
+  @Mock private PGConnection pgConnection;
+  @Mock private CopyManager copyManager;
+  @Mock private Statement statement;
   @InjectMocks private InsertExportIdService insertExportIdService;
 
   @Test
@@ -31,12 +50,13 @@ class InsertExportIdServiceTest {
     // When
     insertExportIdService.saveBatch(emptyList);
     // Then
-    verify(exportIdEntityRepository, never()).insertExportId(any(UUID.class), any(UUID.class));
+    verifyNoInteractions(jdbcTemplate);
   }
 
   @Test
+  @SneakyThrows
   @TestMate(name = "TestMate-6eff45e9658ac662f28c81613fc61e9c")
-  void saveBatchShouldCallInsertForEachEntityInList() {
+  void saveBatchShouldCopyAllEntitiesAndInsertThemWithOneStatement() {
     // Given
     var jobExecutionId1 = UUID.fromString("a1b2c3d4-1111-2222-3333-a1b2c3d4e5f6");
     var instanceId1 = UUID.fromString("f6e5d4c3-2222-1111-a1b2-f6e5d4c3b2a1");
@@ -47,11 +67,74 @@ class InsertExportIdServiceTest {
     var entity2 =
         ExportIdEntity.builder().jobExecutionId(jobExecutionId2).instanceId(instanceId2).build();
     var exportIds = List.of(entity1, entity2);
+    var copied = new StringBuilder();
+    mockConnection();
+    when(copyManager.copyIn(anyString(), any(Reader.class)))
+        .thenAnswer(
+            invocation -> {
+              copied.append(IOUtils.toString(invocation.<Reader>getArgument(1)));
+              return 2L;
+            });
+    when(statement.executeUpdate(anyString())).thenReturn(2);
     // When
     insertExportIdService.saveBatch(exportIds);
     // Then
-    verify(exportIdEntityRepository, times(2)).insertExportId(any(UUID.class), any(UUID.class));
-    verify(exportIdEntityRepository).insertExportId(jobExecutionId1, instanceId1);
-    verify(exportIdEntityRepository).insertExportId(jobExecutionId2, instanceId2);
+    assertThat(copied)
+        .hasToString(
+            "%s\t%s\n%s\t%s\n"
+                .formatted(jobExecutionId1, instanceId1, jobExecutionId2, instanceId2));
+    var sqlCaptor = ArgumentCaptor.forClass(String.class);
+    verify(statement).execute(sqlCaptor.capture());
+    assertThat(sqlCaptor.getValue()).startsWith("CREATE TEMPORARY TABLE IF NOT EXISTS");
+    verify(copyManager)
+        .copyIn(
+            eq("COPY export_ids_staging (job_execution_id, instance_id) FROM STDIN"),
+            any(Reader.class));
+    verify(statement).executeUpdate(sqlCaptor.capture());
+    assertThat(sqlCaptor.getValue()).contains("SELECT DISTINCT").endsWith("ON CONFLICT DO NOTHING");
+  }
+
+  @Test
+  @SneakyThrows
+  void saveBatchShouldReturnNumberOfSkippedExportIds() {
+    // Given
+    var jobExecutionId = UUID.fromString("a1b2c3d4-1111-2222-3333-a1b2c3d4e5f6");
+    var instanceId = UUID.fromString("f6e5d4c3-2222-1111-a1b2-f6e5d4c3b2a1");
+    var entity =
+        ExportIdEntity.builder().jobExecutionId(jobExecutionId).instanceId(instanceId).build();
+    mockConnection();
+    when(statement.executeUpdate(anyString())).thenReturn(1);
+    // When
+    var skipped = insertExportIdService.saveBatch(List.of(entity, entity, entity));
+    // Then
+    assertThat(skipped).isEqualTo(2);
+  }
+
+  @Test
+  @SneakyThrows
+  void saveBatchShouldThrowDataExportExceptionIfCopyFails() {
+    // Given
+    var exportIds =
+        List.of(
+            ExportIdEntity.builder()
+                .jobExecutionId(UUID.randomUUID())
+                .instanceId(UUID.randomUUID())
+                .build());
+    mockConnection();
+    when(copyManager.copyIn(anyString(), any(Reader.class)))
+        .thenThrow(new IOException("broken stream"));
+    // When & Then
+    assertThrows(DataExportException.class, () -> insertExportIdService.saveBatch(exportIds));
+  }
+
+  @SneakyThrows
+  private void mockConnection() {
+    when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+        .thenAnswer(
+            invocation ->
+                invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+    when(connection.createStatement()).thenReturn(statement);
+    when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+    when(pgConnection.getCopyAPI()).thenReturn(copyManager);
   }
 }
@@ -0,0 +1,94 @@
+package org.folio.dataexp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.dataexp.service.JobExecutionProgressPublisher.JobProgress;
+import org.folio.spring.FolioExecutionContext;
+import org.folio.spring.FolioModuleMetadata;
+import org.folio.spring.integration.XOkapiHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@ExtendWith(MockitoExtension.class)
+class JobExecutionProgressPublisherTest {
+
+  @Mock private JobExecutionEntityRepository jobExecutionEntityRepository;
+  @Mock private FolioExecutionContext folioExecutionContext;
+  @Mock private FolioModuleMetadata folioModuleMetadata;
+  @Mock private ThreadPoolTaskScheduler progressFlushScheduler;
+  @InjectMocks private JobExecutionProgressPublisher jobExecutionProgressPublisher;
+
+  @Captor private ArgumentCaptor<Runnable> flushCaptor;
+
+  private final UUID jobExecutionId = UUID.fromString("3c1f8e7a-2d4b-4f6e-9a0c-5b7d9e1f3a2c");
+
+  @Test
+  void periodicFlushShouldWriteOnlyChangedCounters() {
+    var progress = open();
+    progress.addExported(3);
+    progress.addExported(2);
+
+    flushCaptor.getValue().run();
+    flushCaptor.getValue().run();
+
+    verify(jobExecutionEntityRepository, times(1)).updateExported(jobExecutionId, 5);
+    verify(jobExecutionEntityRepository, never()).updateReadIds(any(), anyInt());
+  }
+
+  @Test
+  void closeShouldWriteProgressAndStopPublishingIt() {
+    var progress = open();
+    progress.addReadIds(1000);
+
+    jobExecutionProgressPublisher.close(jobExecutionId);
+    progress.addReadIds(1000);
+    flushCaptor.getValue().run();
+
+    verify(jobExecutionEntityRepository, times(1)).updateReadIds(jobExecutionId, 1000);
+    verify(jobExecutionEntityRepository, never()).updateExported(any(), anyInt());
+  }
+
+  @Test
+  void setExportedShouldReplaceExportedCount() {
+    var progress = new JobProgress();
+    progress.addExported(7);
+
+    progress.setExported(2);
+    progress.addExported(1);
+
+    assertEquals(3, progress.getExported());
+  }
+
+  private JobProgress open() {
+    var headers = new HashMap<String, Collection<String>>();
+    headers.put(XOkapiHeaders.TENANT, List.of("diku"));
+    when(folioExecutionContext.getTenantId()).thenReturn("diku");
+    when(folioExecutionContext.getOkapiHeaders()).thenReturn(headers);
+    when(folioExecutionContext.getAllHeaders()).thenReturn(headers);
+
+    var progress = jobExecutionProgressPublisher.open(jobExecutionId);
+
+    verify(progressFlushScheduler)
+        .scheduleWithFixedDelay(flushCaptor.capture(), eq(Duration.ofSeconds(1)));
+    return progress;
+  }
+}
@@ -33,6 +33,7 @@ import org.folio.dataexp.exception.mapping.profile.LockMappingProfileException;
 import org.folio.dataexp.exception.mapping.profile.LockMappingProfilePermissionException;
 import org.folio.dataexp.repository.MappingProfileEntityCqlRepository;
 import org.folio.dataexp.repository.MappingProfileEntityRepository;
+import org.folio.dataexp.service.export.strategies.CompiledRulesCache;
 import org.folio.dataexp.service.validators.MappingProfileValidator;
 import org.folio.dataexp.service.validators.PermissionsValidator;
 import org.folio.spring.FolioExecutionContext;
@@ -57,6 +58,7 @@ class MappingProfileServiceTest {
   @Mock private UserClient userClient;
   @Mock private PermissionsValidator permissionsValidator;
   @Mock private JobProfileService jobProfileService;
+  @Mock private CompiledRulesCache compiledRulesCache;
 
   @InjectMocks private MappingProfileService mappingProfileService;
 
@@ -128,6 +130,7 @@ class MappingProfileServiceTest {
 
     // Then
     verify(mappingProfileEntityRepository).getReferenceById(profile.getId());
+    verify(compiledRulesCache).invalidate(profile.getId());
     verify(jobProfileService)
         .getJobProfiles(
             null,
@@ -384,6 +387,7 @@ class MappingProfileServiceTest {
 
     verify(mappingProfileEntityRepository).save(isA(MappingProfileEntity.class));
     verify(mappingProfileValidator).validate(isA(MappingProfile.class));
+    verify(compiledRulesCache).invalidate(profile.getId());
   }
 
   // ========== Tests for putMappingProfile with updateLock, lockProfile, and unlockProfile
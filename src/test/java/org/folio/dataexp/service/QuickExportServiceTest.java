@@ -5,6 +5,7 @@ import static org.folio.dataexp.util.Constants.DEFAULT_AUTHORITY_JOB_PROFILE_ID;
 import static org.folio.dataexp.util.Constants.DEFAULT_INSTANCE_JOB_PROFILE_ID;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -20,7 +21,6 @@ import org.folio.dataexp.domain.dto.JobExecution;
 import org.folio.dataexp.domain.dto.QuickExportRequest;
 import org.folio.dataexp.domain.entity.ExportIdEntity;
 import org.folio.dataexp.exception.export.DataExportRequestValidationException;
-import org.folio.dataexp.repository.ExportIdEntityRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -35,7 +35,7 @@ class QuickExportServiceTest {
 
   @Mock private FileDefinitionsService fileDefinitionsService;
   @Mock private DataExportService dataExportService;
-  @Mock private ExportIdEntityRepository exportIdEntityRepository;
+  @Mock private InsertExportIdService insertExportIdService;
   @Mock private JobExecutionService jobExecutionService;
 
   @InjectMocks private QuickExportService quickExportService;
@@ -75,13 +75,13 @@ class QuickExportServiceTest {
     verify(fileDefinitionsService).postFileDefinition(fileDefCaptor.capture());
     assertThat(fileDefCaptor.getValue().getFileName()).isEqualTo("quick-export.csv");
     var exportRequestCaptor = ArgumentCaptor.forClass(ExportRequest.class);
-    verify(dataExportService).postDataExport(exportRequestCaptor.capture());
+    verify(dataExportService).postDataExport(exportRequestCaptor.capture(), any());
     var capturedRequest = exportRequestCaptor.getValue();
     assertThat(capturedRequest.getJobProfileId()).isEqualTo(UUID.fromString(expectedProfileId));
     assertThat(capturedRequest.getQuick()).isTrue();
     assertThat(capturedRequest.getIdType().getValue()).isEqualTo(expectedIdType);
     var batchCaptor = ArgumentCaptor.forClass(List.class);
-    verify(exportIdEntityRepository).saveAll(batchCaptor.capture());
+    verify(insertExportIdService).saveBatch(batchCaptor.capture());
     List<ExportIdEntity> savedBatch = batchCaptor.getValue();
     assertThat(savedBatch).hasSize(1);
     assertThat(savedBatch.get(0).getJobExecutionId()).isEqualTo(jobExecutionId);
@@ -116,14 +116,14 @@ class QuickExportServiceTest {
     assertThat(response.getJobExecutionId()).isEqualTo(jobExecutionId);
     assertThat(response.getJobExecutionHrId()).isEqualTo(expectedHrId);
     var exportRequestCaptor = ArgumentCaptor.forClass(ExportRequest.class);
-    verify(dataExportService).postDataExport(exportRequestCaptor.capture());
+    verify(dataExportService).postDataExport(exportRequestCaptor.capture(), any());
     var capturedRequest = exportRequestCaptor.getValue();
     assertThat(capturedRequest.getJobProfileId()).isEqualTo(customJobProfileId);
     assertThat(capturedRequest.getQuick()).isTrue();
     assertThat(capturedRequest.getRecordType()).isEqualTo(ExportRequest.RecordTypeEnum.INSTANCE);
     assertThat(capturedRequest.getIdType()).isEqualTo(ExportRequest.IdTypeEnum.INSTANCE);
     var batchCaptor = ArgumentCaptor.forClass(List.class);
-    verify(exportIdEntityRepository).saveAll(batchCaptor.capture());
+    verify(insertExportIdService).saveBatch(batchCaptor.capture());
     List<ExportIdEntity> savedBatch = batchCaptor.getValue();
     assertThat(savedBatch).hasSize(1);
     assertThat(savedBatch.get(0).getJobExecutionId()).isEqualTo(jobExecutionId);
@@ -156,9 +156,36 @@ class QuickExportServiceTest {
     // Then
     assertThat(response.getJobExecutionId()).isEqualTo(jobExecutionId);
     assertThat(response.getJobExecutionHrId()).isEqualTo(expectedHrId);
-    verify(exportIdEntityRepository, never()).saveAll(any(List.class));
+    verify(insertExportIdService, never()).saveBatch(any());
     verify(fileDefinitionsService).postFileDefinition(any(FileDefinition.class));
-    verify(dataExportService).postDataExport(any(ExportRequest.class));
+    verify(dataExportService).postDataExport(any(ExportRequest.class), any());
+  }
+
+  @Test
+  void postQuickExportShouldCountDuplicatedUuidsSkippedWhenSaved() {
+    // Given
+    var instanceId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    var jobExecutionId = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    var quickExportRequest = new QuickExportRequest();
+    quickExportRequest.setUuids(List.of(instanceId, instanceId, instanceId));
+    quickExportRequest.setRecordType(QuickExportRequest.RecordTypeEnum.INSTANCE);
+    doAnswer(
+            invocation -> {
+              FileDefinition fileDef = invocation.getArgument(0);
+              fileDef.setJobExecutionId(jobExecutionId);
+              return null;
+            })
+        .when(fileDefinitionsService)
+        .postFileDefinition(any(FileDefinition.class));
+    when(insertExportIdService.saveBatch(anyList())).thenReturn(2);
+    when(jobExecutionService.getById(jobExecutionId))
+        .thenReturn(new JobExecution().id(jobExecutionId));
+    // When
+    quickExportService.postQuickExport(quickExportRequest);
+    // Then
+    var statisticCaptor = ArgumentCaptor.forClass(CommonExportStatistic.class);
+    verify(dataExportService).postDataExport(any(ExportRequest.class), statisticCaptor.capture());
+    assertThat(statisticCaptor.getValue().getDuplicatedUuidAmount()).isEqualTo(2);
   }
 
   @Test
@@ -24,13 +24,16 @@ import org.folio.dataexp.domain.dto.JobExecution;
 import org.folio.dataexp.domain.dto.JobExecutionProgress;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 import org.folio.dataexp.exception.export.DataExportException;
-import org.folio.dataexp.repository.JobExecutionEntityRepository;
 import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.service.export.ExportCheckpointService;
 import org.folio.dataexp.service.export.ExportExecutor;
+import org.folio.dataexp.service.export.ExportFileScheduler;
+import org.folio.dataexp.service.export.strategies.ConsortiumAccessSnapshotService;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.spring.FolioExecutionContext;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -41,16 +44,21 @@ class SingleFileProcessorAsyncTest {
 
   @Mock private FolioExecutionContext folioExecutionContext;
   @Mock private ExportExecutor exportExecutor;
+  @Mock private ExportFileScheduler exportFileScheduler;
   @InjectMocks private SingleFileProcessorAsync singleFileProcessorAsync;
 
   @Mock private JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
 
-  @Mock private JobExecutionEntityRepository jobExecutionEntityRepository;
+  @Mock private JobExecutionProgressPublisher jobExecutionProgressPublisher;
 
   @Mock private JobExecutionService jobExecutionService;
 
   @Mock private ErrorLogService errorLogService;
 
+  @Mock private ExportCheckpointService exportCheckpointService;
+
+  @Mock private ConsortiumAccessSnapshotService consortiumAccessSnapshotService;
+
   @InjectMocks private SingleFileProcessor singleFileProcessor;
 
   @Test
@@ -63,10 +71,13 @@ class SingleFileProcessorAsyncTest {
             .build();
     var commonFails = new CommonExportStatistic();
 
-    singleFileProcessorAsync.executeExport(exportEntity, new ExportRequest(), commonFails);
+    singleFileProcessorAsync.executeExport(
+        exportEntity, new ExportRequest().quick(true), commonFails);
 
-    verify(exportExecutor)
-        .exportAsynch(eq(exportEntity), isA(ExportRequest.class), eq(commonFails));
+    var exportCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(exportFileScheduler).submit(exportCaptor.capture(), eq(true));
+    exportCaptor.getValue().run();
+    verify(exportExecutor).export(eq(exportEntity), isA(ExportRequest.class), eq(commonFails));
   }
 
   @Test
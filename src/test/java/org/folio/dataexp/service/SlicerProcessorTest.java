@@ -0,0 +1,71 @@
+package org.folio.dataexp.service;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.util.UUID;
+import javax.sql.DataSource;
+import lombok.SneakyThrows;
+import org.folio.dataexp.domain.dto.ExportRequest;
+import org.folio.dataexp.domain.dto.FileDefinition;
+import org.folio.dataexp.service.SlicerProcessor.SliceAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class SlicerProcessorTest {
+
+  @Mock private JdbcTemplate jdbcTemplate;
+  @Mock private ConfigurationService configurationService;
+  @Mock private DataSource dataSource;
+  @Mock private Connection connection;
+  @Mock private CallableStatement callableStatement;
+  @InjectMocks private SlicerProcessor slicerProcessor;
+
+  private final FileDefinition fileDefinition =
+      new FileDefinition()
+          .id(UUID.randomUUID())
+          .jobExecutionId(UUID.randomUUID())
+          .fileName("instances.csv");
+
+  @BeforeEach
+  @SneakyThrows
+  void setUp() {
+    when(jdbcTemplate.getDataSource()).thenReturn(dataSource);
+    when(dataSource.getConnection()).thenReturn(connection);
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "WINDOW, INSTANCE, true, call slice_instances_all_ids(?, ?, ?)",
+    "WINDOW, HOLDING, true, call slice_holdings_all_ids(?, ?, ?)",
+    "WINDOW, AUTHORITY, true, call slice_authorities_all_ids(?, ?, ?)",
+    "STEP, INSTANCE, true, call step_slice_instances_all_ids(?, ?, ?)",
+    "STEP, HOLDING, true, call step_slice_holdings_all_ids(?, ?, ?)",
+    "STEP, AUTHORITY, true, call step_slice_authorities_all_ids(?, ?, ?)",
+    "STEP, INSTANCE, false, call slice_instances_ids(?, ?, ?)"
+  })
+  @SneakyThrows
+  void sliceInstancesIdsShouldCallProcedureOfSliceAlgorithm(
+      SliceAlgorithm sliceAlgorithm,
+      ExportRequest.IdTypeEnum idType,
+      boolean all,
+      String procedure) {
+    when(connection.prepareCall(procedure)).thenReturn(callableStatement);
+    slicerProcessor.setSliceAlgorithm(sliceAlgorithm);
+
+    slicerProcessor.sliceInstancesIds(
+        fileDefinition, 1000, new ExportRequest().idType(idType).all(all), "MARC");
+
+    verify(callableStatement).setInt(3, 1000);
+    verify(callableStatement).executeUpdate();
+  }
+}
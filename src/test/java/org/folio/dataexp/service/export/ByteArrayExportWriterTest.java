@@ -0,0 +1,71 @@
+package org.folio.dataexp.service.export;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+class ByteArrayExportWriterTest {
+
+  @Test
+  void writeToShouldAppendCollectedBytesBeyondInitialCapacity() {
+    var writer = new ByteArrayExportWriter(2);
+    writer.write("marc".getBytes(UTF_8));
+    writer.write(ByteBuffer.wrap("-record".getBytes(UTF_8)));
+    writer.write("".getBytes(UTF_8));
+    writer.write((byte[]) null);
+    writer.close();
+    var target = new CollectingExportWriter();
+
+    writer.writeTo(target);
+
+    assertEquals(11, writer.size());
+    assertEquals("marc-record", target.output.toString(UTF_8));
+  }
+
+  @Test
+  void writeToShouldNotWriteAbortedBytes() {
+    var writer = new ByteArrayExportWriter(8);
+    writer.write("marc".getBytes(UTF_8));
+    var target = mock(ExportWriter.class);
+
+    writer.abort();
+    writer.writeTo(target);
+
+    assertEquals(0, writer.size());
+    verify(target, never()).write(any(ByteBuffer.class));
+  }
+
+  private static class CollectingExportWriter implements ExportWriter {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Override
+    public void write(byte[] data) {
+      output.writeBytes(data);
+    }
+
+    @Override
+    public void write(ByteBuffer data) {
+      var bytes = new byte[data.remaining()];
+      data.get(bytes);
+      output.writeBytes(bytes);
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+
+    @Override
+    public void abort() {
+      output.reset();
+    }
+  }
+}
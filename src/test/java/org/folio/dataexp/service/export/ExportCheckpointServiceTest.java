@@ -0,0 +1,146 @@
+package org.folio.dataexp.service.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.folio.dataexp.domain.dto.ExportRequest;
+import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
+import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.s3.client.FolioS3Client;
+import org.folio.spring.FolioExecutionContext;
+import org.folio.spring.FolioModuleMetadata;
+import org.folio.spring.integration.XOkapiHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class ExportCheckpointServiceTest {
+
+  private static final String USER_ID = "c4b5b2a5-7a46-4d1e-9d11-7f2c3a6b8e90";
+
+  @Mock private FolioS3Client s3Client;
+  @Mock private JobExecutionEntityRepository jobExecutionEntityRepository;
+  @Spy private ObjectMapper objectMapper = new ObjectMapper();
+  @Mock private FolioExecutionContext folioExecutionContext;
+  @Mock private FolioModuleMetadata folioModuleMetadata;
+  @InjectMocks private ExportCheckpointService exportCheckpointService;
+
+  private final UUID jobExecutionId = UUID.fromString("0b9ef8d5-5b3b-4a0b-a9a7-d6d1b1f4e6a1");
+
+  @Test
+  void saveExportRequestShouldStoreOnlyTenantAndUser() {
+    exportCheckpointService.setEnabled(true);
+    when(folioExecutionContext.getTenantId()).thenReturn("diku");
+    when(folioExecutionContext.getUserId()).thenReturn(UUID.fromString(USER_ID));
+    var resumeUser = ArgumentCaptor.forClass(String.class);
+
+    exportCheckpointService.saveExportRequest(jobExecutionId, new ExportRequest());
+
+    verify(jobExecutionEntityRepository)
+        .saveExportRequest(eq(jobExecutionId), anyString(), resumeUser.capture());
+    assertEquals(
+        new ResumeUser("diku", UUID.fromString(USER_ID)),
+        new ObjectMapper().readValue(resumeUser.getValue(), ResumeUser.class));
+  }
+
+  @Test
+  void saveExportRequestShouldDoNothingIfCheckpointsAreDisabled() {
+    exportCheckpointService.saveExportRequest(jobExecutionId, new ExportRequest());
+
+    verify(jobExecutionEntityRepository, never()).saveExportRequest(any(), any(), any());
+  }
+
+  @Test
+  void getResumeUserShouldReadStoredTenantAndUser() {
+    when(jobExecutionEntityRepository.getResumeUser(jobExecutionId))
+        .thenReturn("{\"tenantId\":\"diku\",\"userId\":\"" + USER_ID + "\"}");
+
+    var resumeUser = exportCheckpointService.getResumeUser(jobExecutionId);
+
+    assertThat(resumeUser).contains(new ResumeUser("diku", UUID.fromString(USER_ID)));
+  }
+
+  @Test
+  void getResumeUserShouldBeEmptyIfNoneIsStored() {
+    assertThat(exportCheckpointService.getResumeUser(jobExecutionId)).isEmpty();
+  }
+
+  @Test
+  void createResumeContextShouldUseStoredTenantAndUserWithCurrentToken() {
+    when(folioExecutionContext.getOkapiHeaders())
+        .thenReturn(
+            Map.of(
+                XOkapiHeaders.TENANT, List.of("diku"),
+                XOkapiHeaders.TOKEN, List.of("timer-token"),
+                XOkapiHeaders.URL, List.of("http://okapi:9130"),
+                XOkapiHeaders.REQUEST_ID, List.of("timer-request")));
+
+    var context =
+        exportCheckpointService.createResumeContext(
+            new ResumeUser("college", UUID.fromString(USER_ID)));
+
+    assertEquals(UUID.fromString(USER_ID), context.getUserId());
+    assertEquals("college", context.getTenantId());
+    assertEquals("timer-token", context.getToken());
+    assertEquals("http://okapi:9130", context.getOkapiUrl());
+    assertThat(context.getOkapiHeaders())
+        .containsOnlyKeys(
+            XOkapiHeaders.TENANT, XOkapiHeaders.TOKEN, XOkapiHeaders.URL, XOkapiHeaders.USER_ID);
+  }
+
+  @Test
+  void createResumeContextShouldNotSetUserOfJobStartedWithoutUser() {
+    when(folioExecutionContext.getOkapiHeaders())
+        .thenReturn(Map.of(XOkapiHeaders.TOKEN, List.of("timer-token")));
+
+    var context = exportCheckpointService.createResumeContext(new ResumeUser("diku", null));
+
+    assertEquals("diku", context.getTenantId());
+    assertThat(context.getOkapiHeaders()).doesNotContainKey(XOkapiHeaders.USER_ID);
+  }
+
+  @Test
+  void getCheckpointsShouldListExportFilesStoredForJobExecution() {
+    var stored = "mod-data-export/download/" + jobExecutionId + "/file.mrc";
+    when(s3Client.list("mod-data-export/download/" + jobExecutionId + "/"))
+        .thenReturn(List.of(stored));
+
+    var checkpoints = exportCheckpointService.getCheckpoints(jobExecutionId);
+
+    assertThat(checkpoints).containsExactly(stored);
+  }
+
+  @Test
+  void hasCheckpointShouldCheckFileLocationOfExport() {
+    var stored = "mod-data-export/download/" + jobExecutionId + "/stored.mrc";
+    var checkpoints = Set.of(stored);
+
+    assertTrue(
+        exportCheckpointService.hasCheckpoint(
+            checkpoints, JobExecutionExportFilesEntity.builder().fileLocation(stored).build()));
+    assertFalse(
+        exportCheckpointService.hasCheckpoint(
+            checkpoints,
+            JobExecutionExportFilesEntity.builder()
+                .fileLocation("mod-data-export/download/" + jobExecutionId + "/missing.mrc")
+                .build()));
+  }
+}
@@ -0,0 +1,77 @@
+package org.folio.dataexp.service.export;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.service.export.strategies.ExportStrategyStatistic;
+import org.folio.dataexp.service.export.strategies.ExportedRecordsListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ExportCompletionTrackerTest {
+
+  @Mock private JobExecutionEntityRepository jobExecutionEntityRepository;
+  @Mock private JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
+  @InjectMocks private ExportCompletionTracker exportCompletionTracker;
+
+  private final UUID jobExecutionId = UUID.fromString("5b4bd6a2-8fd1-4f4e-b2f0-3a3d0b3c8a51");
+  private final UUID exportId = UUID.fromString("9d3c2e71-4b5a-4f0e-8c6d-2a1b0e9f8d7c");
+
+  @Test
+  void onExportFinishedShouldBeTrueOnlyForLastFinishedExport() {
+    var exportStatistic = new ExportStrategyStatistic(new ExportedRecordsListener());
+    exportStatistic.setFailed(2);
+    exportStatistic.setDuplicatedSrs(1);
+    when(jobExecutionExportFilesEntityRepository.countByJobExecutionId(jobExecutionId))
+        .thenReturn(3L);
+    when(jobExecutionEntityRepository.finishExport(jobExecutionId, exportId, 2, 1))
+        .thenReturn(1, 2, 3);
+
+    assertFalse(
+        exportCompletionTracker.onExportFinished(jobExecutionId, exportId, exportStatistic));
+    assertFalse(
+        exportCompletionTracker.onExportFinished(jobExecutionId, exportId, exportStatistic));
+    assertTrue(
+        exportCompletionTracker.onExportFinished(jobExecutionId, exportId, exportStatistic));
+
+    verify(jobExecutionExportFilesEntityRepository, times(1)).countByJobExecutionId(jobExecutionId);
+  }
+
+  @Test
+  void onExportFinishedShouldBeFalseForRemovedJobExecution() {
+    var exportStatistic = new ExportStrategyStatistic(new ExportedRecordsListener());
+    when(jobExecutionExportFilesEntityRepository.countByJobExecutionId(jobExecutionId))
+        .thenReturn(1L);
+    when(jobExecutionEntityRepository.finishExport(jobExecutionId, exportId, 0, 0))
+        .thenReturn(null);
+
+    assertFalse(
+        exportCompletionTracker.onExportFinished(jobExecutionId, exportId, exportStatistic));
+  }
+
+  @Test
+  void resetShouldLookUpNumberOfExportsAgain() {
+    var exportStatistic = new ExportStrategyStatistic(new ExportedRecordsListener());
+    when(jobExecutionExportFilesEntityRepository.countByJobExecutionId(jobExecutionId))
+        .thenReturn(2L, 1L);
+    when(jobExecutionEntityRepository.finishExport(jobExecutionId, exportId, 0, 0)).thenReturn(1);
+
+    assertFalse(
+        exportCompletionTracker.onExportFinished(jobExecutionId, exportId, exportStatistic));
+    exportCompletionTracker.reset(jobExecutionId);
+    assertTrue(
+        exportCompletionTracker.onExportFinished(jobExecutionId, exportId, exportStatistic));
+
+    verify(jobExecutionExportFilesEntityRepository, times(2)).countByJobExecutionId(jobExecutionId);
+  }
+}
@@ -3,10 +3,10 @@ package org.folio.dataexp.service.export;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -27,8 +27,11 @@ import org.folio.dataexp.repository.ErrorLogEntityCqlRepository;
 import org.folio.dataexp.repository.FileDefinitionEntityRepository;
 import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
 import org.folio.dataexp.service.CommonExportStatistic;
+import org.folio.dataexp.service.JobExecutionProgressPublisher;
 import org.folio.dataexp.service.JobExecutionService;
 import org.folio.dataexp.service.StorageCleanUpService;
+import org.folio.dataexp.service.export.strategies.ConsortiumAccessSnapshotService;
+import org.folio.dataexp.service.export.strategies.ConsortiumHoldingsTenantResolver;
 import org.folio.dataexp.service.export.strategies.ExportStrategyStatistic;
 import org.folio.dataexp.service.export.strategies.ExportedRecordsListener;
 import org.folio.dataexp.service.export.strategies.InstancesExportStrategy;
@@ -51,6 +54,11 @@ class ExportExecutorTest {
   @Mock private FileDefinitionEntityRepository fileDefinitionEntityRepository;
   @Mock private S3ExportsUploader s3ExportsUploader;
   @Mock private StorageCleanUpService storageCleanUpService;
+  @Mock private ExportFileLeaseService exportFileLeaseService;
+  @Mock private ExportCompletionTracker exportCompletionTracker;
+  @Mock private JobExecutionProgressPublisher jobExecutionProgressPublisher;
+  @Mock private ConsortiumAccessSnapshotService consortiumAccessSnapshotService;
+  @Mock private ConsortiumHoldingsTenantResolver consortiumHoldingsTenantResolver;
 
   @InjectMocks private ExportExecutor exportExecutor;
 
@@ -75,7 +83,7 @@ class ExportExecutorTest {
             .build();
 
     var commonExportStatistic = new CommonExportStatistic();
-    commonExportStatistic.setExportedRecordsListener(new ExportedRecordsListener(null, 1000, null));
+    commonExportStatistic.setExportedRecordsListener(new ExportedRecordsListener());
 
     when(jobExecutionService.getById(jobExecutionId)).thenReturn(jobExecution);
     when(jobExecutionExportFilesEntityRepository.getReferenceById(exportEntity.getId()))
@@ -101,18 +109,24 @@ class ExportExecutorTest {
     when(exportStrategyFactory.getExportStrategy(
             new ExportRequest().idType(ExportRequest.IdTypeEnum.INSTANCE)))
         .thenReturn(instancesExportStrategy);
-    when(instancesExportStrategy.saveOutputToLocalStorage(
+    when(instancesExportStrategy.saveOutput(
             isA(JobExecutionExportFilesEntity.class),
             isA(ExportRequest.class),
             isA(ExportedRecordsListener.class)))
-        .thenReturn(new ExportStrategyStatistic(new ExportedRecordsListener(null, 1000, null)));
+        .thenReturn(new ExportStrategyStatistic(new ExportedRecordsListener()));
+    when(exportFileLeaseService.acquire(exportEntity.getId())).thenReturn(true);
+    when(exportCompletionTracker.onExportFinished(eq(jobExecutionId), any(), any()))
+        .thenReturn(true);
+    when(exportFileLeaseService.claimCompletion(jobExecutionId)).thenReturn(true);
 
     exportExecutor.export(exportEntity, new ExportRequest(), commonExportStatistic);
 
-    assertEquals(JobExecutionExportFilesStatus.ACTIVE, exportEntity.getStatus());
+    verify(exportFileLeaseService).release(exportEntity.getId());
     assertEquals(JobExecution.StatusEnum.COMPLETED, jobExecution.getStatus());
     verify(s3ExportsUploader).upload(jobExecution, List.of(completedExportEntity), "file_name");
     verify(storageCleanUpService).cleanExportIdEntities(jobExecution.getId());
+    verify(errorLogService).beginBatch(jobExecution.getId());
+    verify(errorLogService).completeBatch(jobExecution.getId());
   }
 
   @Test
@@ -129,7 +143,7 @@ class ExportExecutorTest {
     var commonExportStatistic = new CommonExportStatistic();
     commonExportStatistic.incrementDuplicatedUuid();
     commonExportStatistic.addToInvalidUuidFormat("abs");
-    commonExportStatistic.setExportedRecordsListener(new ExportedRecordsListener(null, 1000, null));
+    commonExportStatistic.setExportedRecordsListener(new ExportedRecordsListener());
 
     when(jobExecutionService.getById(jobExecutionId)).thenReturn(jobExecution);
 
@@ -154,11 +168,11 @@ class ExportExecutorTest {
     when(exportStrategyFactory.getExportStrategy(
             new ExportRequest().idType(ExportRequest.IdTypeEnum.INSTANCE)))
         .thenReturn(instancesExportStrategy);
-    when(instancesExportStrategy.saveOutputToLocalStorage(
+    when(instancesExportStrategy.saveOutput(
             isA(JobExecutionExportFilesEntity.class),
             isA(ExportRequest.class),
             isA(ExportedRecordsListener.class)))
-        .thenReturn(new ExportStrategyStatistic(new ExportedRecordsListener(null, 1000, null)));
+        .thenReturn(new ExportStrategyStatistic(new ExportedRecordsListener()));
     when(errorLogEntityCqlRepository.countByJobExecutionId(isA(UUID.class))).thenReturn(2L);
     var fileDefinitionEntity =
         FileDefinitionEntity.builder()
@@ -168,10 +182,14 @@ class ExportExecutorTest {
     when(fileDefinitionEntityRepository.getFileDefinitionByJobExecutionId(
             jobExecutionId.toString()))
         .thenReturn(List.of(fileDefinitionEntity));
+    when(exportFileLeaseService.acquire(exportEntity.getId())).thenReturn(true);
+    when(exportCompletionTracker.onExportFinished(eq(jobExecutionId), any(), any()))
+        .thenReturn(true);
+    when(exportFileLeaseService.claimCompletion(jobExecutionId)).thenReturn(true);
 
     exportExecutor.export(exportEntity, new ExportRequest(), commonExportStatistic);
 
-    assertEquals(JobExecutionExportFilesStatus.ACTIVE, exportEntity.getStatus());
+    verify(exportFileLeaseService).release(exportEntity.getId());
     assertEquals(JobExecution.StatusEnum.COMPLETED_WITH_ERRORS, jobExecution.getStatus());
     verify(errorLogService).saveCommonExportFailsErrors(commonExportStatistic, 2, jobExecutionId);
     verify(s3ExportsUploader).upload(jobExecution, List.of(completedExportEntity), "file_name");
@@ -200,7 +218,7 @@ class ExportExecutorTest {
             .status(JobExecutionExportFilesStatus.SCHEDULED)
             .build();
     var commonExportStatistic = new CommonExportStatistic();
-    commonExportStatistic.setExportedRecordsListener(new ExportedRecordsListener(null, 1000, null));
+    commonExportStatistic.setExportedRecordsListener(new ExportedRecordsListener());
     var exportRequest = new ExportRequest();
     var completedExportEntity = exportEntity.withStatus(JobExecutionExportFilesStatus.COMPLETED);
     var fileDefinitionEntity =
@@ -209,8 +227,7 @@ class ExportExecutorTest {
         .thenReturn(exportEntity);
     when(exportStrategyFactory.getExportStrategy(exportRequest))
         .thenReturn(instancesExportStrategy);
-    when(instancesExportStrategy.saveOutputToLocalStorage(
-            eq(exportEntity), eq(exportRequest), any()))
+    when(instancesExportStrategy.saveOutput(eq(exportEntity), eq(exportRequest), any()))
         .thenReturn(
             new ExportStrategyStatistic(commonExportStatistic.getExportedRecordsListener()));
     when(jobExecutionService.getById(jobExecutionId)).thenReturn(jobExecution);
@@ -221,8 +238,12 @@ class ExportExecutorTest {
         .thenReturn(List.of(fileDefinitionEntity));
     when(s3ExportsUploader.upload(jobExecution, List.of(completedExportEntity), "test_export"))
         .thenThrow(new S3ExportsUploadException("S3 Upload Failed"));
+    when(exportFileLeaseService.acquire(exportEntityId)).thenReturn(true);
+    when(exportCompletionTracker.onExportFinished(eq(jobExecutionId), any(), any()))
+        .thenReturn(true);
+    when(exportFileLeaseService.claimCompletion(jobExecutionId)).thenReturn(true);
     // When
-    exportExecutor.exportAsynch(exportEntity, exportRequest, commonExportStatistic);
+    exportExecutor.export(exportEntity, exportRequest, commonExportStatistic);
     // Then
     assertEquals(JobExecution.StatusEnum.FAIL, jobExecution.getStatus());
     assertNotNull(jobExecution.getCompletedDate());
@@ -262,7 +283,7 @@ class ExportExecutorTest {
             .status(JobExecutionExportFilesStatus.SCHEDULED)
             .build();
     var commonExportStatistic = new CommonExportStatistic();
-    commonExportStatistic.setExportedRecordsListener(new ExportedRecordsListener(null, 1000, null));
+    commonExportStatistic.setExportedRecordsListener(new ExportedRecordsListener());
     var exportRequest = new ExportRequest();
     var failedExportEntity1 = exportEntity.withStatus(JobExecutionExportFilesStatus.FAILED);
     var failedExportEntity2 =
@@ -277,8 +298,7 @@ class ExportExecutorTest {
         .thenReturn(exportEntity);
     when(exportStrategyFactory.getExportStrategy(exportRequest))
         .thenReturn(instancesExportStrategy);
-    when(instancesExportStrategy.saveOutputToLocalStorage(
-            eq(exportEntity), eq(exportRequest), any()))
+    when(instancesExportStrategy.saveOutput(eq(exportEntity), eq(exportRequest), any()))
         .thenReturn(
             new ExportStrategyStatistic(commonExportStatistic.getExportedRecordsListener()));
     when(jobExecutionService.getById(jobExecutionId)).thenReturn(jobExecution);
@@ -287,8 +307,12 @@ class ExportExecutorTest {
     when(fileDefinitionEntityRepository.getFileDefinitionByJobExecutionId(
             jobExecutionId.toString()))
         .thenReturn(List.of(fileDefinitionEntity));
+    when(exportFileLeaseService.acquire(exportEntityId)).thenReturn(true);
+    when(exportCompletionTracker.onExportFinished(eq(jobExecutionId), any(), any()))
+        .thenReturn(true);
+    when(exportFileLeaseService.claimCompletion(jobExecutionId)).thenReturn(true);
     // When
-    exportExecutor.exportAsynch(exportEntity, exportRequest, commonExportStatistic);
+    exportExecutor.export(exportEntity, exportRequest, commonExportStatistic);
     // Then
     assertEquals(JobExecution.StatusEnum.FAIL, jobExecution.getStatus());
     assertNotNull(jobExecution.getCompletedDate());
@@ -310,25 +334,18 @@ class ExportExecutorTest {
             .status(JobExecutionExportFilesStatus.SCHEDULED)
             .build();
     var commonExportStatistic = new CommonExportStatistic();
-    var listener = new ExportedRecordsListener(null, 100, jobExecutionId);
+    var listener = new ExportedRecordsListener();
     commonExportStatistic.setExportedRecordsListener(listener);
     var exportRequest = new ExportRequest();
     var exportStatistic = new ExportStrategyStatistic(listener);
-    var jobExecution =
-        new JobExecution()
-            .id(jobExecutionId)
-            .status(JobExecution.StatusEnum.IN_PROGRESS)
-            .progress(new JobExecutionProgress().failed(0).duplicatedSrs(0).exported(0));
     var exportEntityIdB = UUID.fromString("00000000-0000-0000-0000-000000000003");
     // Mocking behavior
     when(jobExecutionExportFilesEntityRepository.getReferenceById(exportEntityIdA))
         .thenReturn(exportEntityA);
     when(exportStrategyFactory.getExportStrategy(exportRequest))
         .thenReturn(instancesExportStrategy);
-    when(instancesExportStrategy.saveOutputToLocalStorage(
-            eq(exportEntityA), eq(exportRequest), any()))
+    when(instancesExportStrategy.saveOutput(eq(exportEntityA), eq(exportRequest), any()))
         .thenReturn(exportStatistic);
-    when(jobExecutionService.getById(jobExecutionId)).thenReturn(jobExecution);
     // Simulate that Entity A is now COMPLETED but Entity B is still ACTIVE
     var updatedEntityA = exportEntityA.withStatus(JobExecutionExportFilesStatus.COMPLETED);
     var exportEntityB =
@@ -339,19 +356,26 @@ class ExportExecutorTest {
             .build();
     when(jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecutionId))
         .thenReturn(List.of(updatedEntityA, exportEntityB));
+    when(exportFileLeaseService.acquire(exportEntityIdA)).thenReturn(true);
+    // The counter of finished files reached the number of files, e.g. after a file was exported
+    // twice, but the statuses of the files show Entity B is still being exported
+    when(exportCompletionTracker.onExportFinished(
+            jobExecutionId, exportEntityIdA, exportStatistic))
+        .thenReturn(true);
     // When
     exportExecutor.export(exportEntityA, exportRequest, commonExportStatistic);
     // Then
-    // The status of Entity A is set to ACTIVE at the beginning of the export method
-    assertEquals(JobExecutionExportFilesStatus.ACTIVE, exportEntityA.getStatus());
-    // Job status should remain IN_PROGRESS because Entity B is still ACTIVE
-    assertEquals(JobExecution.StatusEnum.IN_PROGRESS, jobExecution.getStatus());
-    assertNull(jobExecution.getCompletedDate());
+    // Entity A is leased and set to ACTIVE at the beginning of the export method
+    verify(exportFileLeaseService).acquire(exportEntityIdA);
+    verify(exportFileLeaseService, never()).claimCompletion(any());
+    // Job execution should not be completed because Entity B is still ACTIVE
+    verify(jobExecutionService, never()).getById(any());
     // Verify that finalization steps were NOT called
     verify(s3ExportsUploader, never()).upload(any(), any(), any());
     verify(storageCleanUpService, never()).cleanExportIdEntities(any());
-    // Progress update and lastUpdatedDate are still saved at the end of the method
-    verify(jobExecutionService).save(jobExecution);
+    verify(errorLogService, never()).completeBatch(any());
+    // Progress and lastUpdatedDate are updated by the tracker
+    verify(jobExecutionService, never()).save(any());
   }
 
   @Test
@@ -361,9 +385,10 @@ class ExportExecutorTest {
     var jobExecutionId = UUID.fromString("00000000-0000-0000-0000-000000000001");
     var jobExecution = new JobExecution();
     jobExecution.setId(jobExecutionId);
+    // The failed and duplicated SRS records of the file are added to the progress by the tracker
     var progress = new JobExecutionProgress();
-    progress.setFailed(0);
-    progress.setDuplicatedSrs(0);
+    progress.setFailed(10);
+    progress.setDuplicatedSrs(5);
     jobExecution.setProgress(progress);
     var fileDefinition = new FileDefinition();
     fileDefinition.setJobExecutionId(jobExecutionId);
@@ -372,8 +397,8 @@ class ExportExecutorTest {
     var exportRequest = new ExportRequest();
     exportRequest.setAll(true);
     var commonExportStatistic = new CommonExportStatistic();
-    var listener = new ExportedRecordsListener(null, 1000, jobExecutionId);
-    listener.getExportedCount().set(100);
+    var listener = new ExportedRecordsListener();
+    listener.setExported(100);
     commonExportStatistic.setExportedRecordsListener(listener);
     var exportStatistic = new ExportStrategyStatistic(listener);
     exportStatistic.setFailed(10);
@@ -396,8 +421,7 @@ class ExportExecutorTest {
         .thenReturn(exportEntity);
     when(exportStrategyFactory.getExportStrategy(exportRequest))
         .thenReturn(instancesExportStrategy);
-    when(instancesExportStrategy.saveOutputToLocalStorage(
-            eq(exportEntity), eq(exportRequest), any()))
+    when(instancesExportStrategy.saveOutput(eq(exportEntity), eq(exportRequest), any()))
         .thenReturn(exportStatistic);
     when(jobExecutionService.getById(jobExecutionId)).thenReturn(jobExecution);
     when(jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecutionId))
@@ -408,6 +432,10 @@ class ExportExecutorTest {
     when(errorLogEntityCqlRepository.countByJobExecutionId(jobExecutionId)).thenReturn(0L);
     when(s3ExportsUploader.upload(jobExecution, List.of(completedExportEntity), "test_all"))
         .thenReturn("s3/path/test_all.mrc");
+    when(exportFileLeaseService.acquire(exportEntityId)).thenReturn(true);
+    when(exportCompletionTracker.onExportFinished(eq(jobExecutionId), any(), any()))
+        .thenReturn(true);
+    when(exportFileLeaseService.claimCompletion(jobExecutionId)).thenReturn(true);
     // When
     exportExecutor.export(exportEntity, exportRequest, commonExportStatistic);
     // Then
@@ -417,8 +445,131 @@ class ExportExecutorTest {
     assertThat(jobExecution.getStatus()).isEqualTo(JobExecution.StatusEnum.COMPLETED);
     assertThat(jobExecution.getCompletedDate()).isNotNull();
 
+    verify(exportCompletionTracker)
+        .onExportFinished(jobExecutionId, exportEntityId, exportStatistic);
     verify(jobExecutionService).save(jobExecution);
     verify(storageCleanUpService).cleanExportIdEntities(jobExecutionId);
+    verify(consortiumHoldingsTenantResolver).close(jobExecutionId);
     verify(s3ExportsUploader).upload(jobExecution, List.of(completedExportEntity), "test_all");
   }
+
+  @Test
+  void exportShouldNotCompleteJobExecutionBeforeLastFileIsFinished() {
+    var jobExecutionId = UUID.randomUUID();
+    var exportEntity =
+        JobExecutionExportFilesEntity.builder()
+            .id(UUID.randomUUID())
+            .jobExecutionId(jobExecutionId)
+            .status(JobExecutionExportFilesStatus.SCHEDULED)
+            .build();
+    var commonExportStatistic = new CommonExportStatistic();
+    var listener = new ExportedRecordsListener();
+    commonExportStatistic.setExportedRecordsListener(listener);
+    var exportRequest = new ExportRequest();
+    var exportStatistic = new ExportStrategyStatistic(listener);
+    when(exportFileLeaseService.acquire(exportEntity.getId())).thenReturn(true);
+    when(jobExecutionExportFilesEntityRepository.getReferenceById(exportEntity.getId()))
+        .thenReturn(exportEntity);
+    when(exportStrategyFactory.getExportStrategy(exportRequest))
+        .thenReturn(instancesExportStrategy);
+    when(instancesExportStrategy.saveOutput(eq(exportEntity), eq(exportRequest), any()))
+        .thenReturn(exportStatistic);
+    when(exportCompletionTracker.onExportFinished(
+            jobExecutionId, exportEntity.getId(), exportStatistic))
+        .thenReturn(false);
+
+    exportExecutor.export(exportEntity, exportRequest, commonExportStatistic);
+
+    verify(jobExecutionExportFilesEntityRepository).save(exportEntity);
+    verify(jobExecutionExportFilesEntityRepository, never()).findByJobExecutionId(any());
+    verify(exportFileLeaseService, never()).claimCompletion(any());
+    verify(jobExecutionService, never()).save(any());
+    verify(exportFileLeaseService).release(exportEntity.getId());
+  }
+
+  @Test
+  void exportShouldMarkFileAsFailedIfExportThrows() {
+    var jobExecutionId = UUID.randomUUID();
+    var exportEntity =
+        JobExecutionExportFilesEntity.builder()
+            .id(UUID.randomUUID())
+            .jobExecutionId(jobExecutionId)
+            .status(JobExecutionExportFilesStatus.ACTIVE)
+            .build();
+    var commonExportStatistic = new CommonExportStatistic();
+    commonExportStatistic.setExportedRecordsListener(new ExportedRecordsListener());
+    var exportRequest = new ExportRequest();
+    when(exportFileLeaseService.acquire(exportEntity.getId())).thenReturn(true);
+    when(jobExecutionExportFilesEntityRepository.getReferenceById(exportEntity.getId()))
+        .thenReturn(exportEntity);
+    when(exportStrategyFactory.getExportStrategy(exportRequest))
+        .thenReturn(instancesExportStrategy);
+    when(instancesExportStrategy.saveOutput(eq(exportEntity), eq(exportRequest), any()))
+        .thenThrow(new IllegalStateException("Connection reset"));
+    when(exportCompletionTracker.onExportFinished(eq(jobExecutionId), any(), any()))
+        .thenReturn(false);
+
+    exportExecutor.export(exportEntity, exportRequest, commonExportStatistic);
+
+    assertEquals(JobExecutionExportFilesStatus.FAILED, exportEntity.getStatus());
+    verify(jobExecutionExportFilesEntityRepository).save(exportEntity);
+    verify(exportFileLeaseService).release(exportEntity.getId());
+  }
+
+  @Test
+  void exportShouldFailJobExecutionIfCompletionThrowsAfterClaim() {
+    var jobExecutionId = UUID.randomUUID();
+    var jobExecution = new JobExecution().id(jobExecutionId).progress(new JobExecutionProgress());
+    var exportEntity =
+        JobExecutionExportFilesEntity.builder()
+            .id(UUID.randomUUID())
+            .jobExecutionId(jobExecutionId)
+            .status(JobExecutionExportFilesStatus.COMPLETED)
+            .build();
+    var commonExportStatistic = new CommonExportStatistic();
+    var listener = new ExportedRecordsListener();
+    commonExportStatistic.setExportedRecordsListener(listener);
+    var exportRequest = new ExportRequest();
+    when(exportFileLeaseService.acquire(exportEntity.getId())).thenReturn(true);
+    when(jobExecutionExportFilesEntityRepository.getReferenceById(exportEntity.getId()))
+        .thenReturn(exportEntity);
+    when(exportStrategyFactory.getExportStrategy(exportRequest))
+        .thenReturn(instancesExportStrategy);
+    when(instancesExportStrategy.saveOutput(eq(exportEntity), eq(exportRequest), any()))
+        .thenReturn(new ExportStrategyStatistic(listener));
+    when(exportCompletionTracker.onExportFinished(eq(jobExecutionId), any(), any()))
+        .thenReturn(true);
+    when(jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecutionId))
+        .thenReturn(List.of(exportEntity));
+    when(exportFileLeaseService.claimCompletion(jobExecutionId)).thenReturn(true);
+    when(jobExecutionService.getById(jobExecutionId)).thenReturn(jobExecution);
+    doThrow(new IllegalStateException("Connection refused"))
+        .when(errorLogService)
+        .completeBatch(jobExecutionId);
+
+    exportExecutor.export(exportEntity, exportRequest, commonExportStatistic);
+
+    assertEquals(JobExecution.StatusEnum.FAIL, jobExecution.getStatus());
+    assertNotNull(jobExecution.getCompletedDate());
+    verify(jobExecutionService).save(jobExecution);
+    verify(s3ExportsUploader, never()).upload(any(), any(), any());
+    verify(exportFileLeaseService).release(exportEntity.getId());
+  }
+
+  @Test
+  void exportShouldSkipFileLeasedByAnotherWorker() {
+    var exportEntity =
+        JobExecutionExportFilesEntity.builder()
+            .id(UUID.randomUUID())
+            .jobExecutionId(UUID.randomUUID())
+            .status(JobExecutionExportFilesStatus.ACTIVE)
+            .build();
+    when(exportFileLeaseService.acquire(exportEntity.getId())).thenReturn(false);
+
+    exportExecutor.export(exportEntity, new ExportRequest(), new CommonExportStatistic());
+
+    verify(exportStrategyFactory, never()).getExportStrategy(any());
+    verify(jobExecutionService, never()).save(any());
+    verify(exportFileLeaseService, never()).release(any());
+  }
 }
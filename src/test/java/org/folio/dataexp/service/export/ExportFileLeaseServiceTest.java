@@ -0,0 +1,110 @@
+package org.folio.dataexp.service.export;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import org.folio.dataexp.repository.JobExecutionEntityRepository;
+import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.spring.FolioExecutionContext;
+import org.folio.spring.FolioModuleMetadata;
+import org.folio.spring.integration.XOkapiHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@ExtendWith(MockitoExtension.class)
+class ExportFileLeaseServiceTest {
+
+  @Mock private JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
+  @Mock private JobExecutionEntityRepository jobExecutionEntityRepository;
+  @Mock private FolioExecutionContext folioExecutionContext;
+  @Mock private FolioModuleMetadata folioModuleMetadata;
+  @Mock private ThreadPoolTaskScheduler exportFileLeaseScheduler;
+  @InjectMocks private ExportFileLeaseService exportFileLeaseService;
+
+  @Captor private ArgumentCaptor<Runnable> renewalCaptor;
+
+  private final UUID exportFileId = UUID.fromString("a890b134-736f-4e5a-8351-9c608f3a3a58");
+
+  @Test
+  void acquireShouldReturnFalseIfFileIsLeasedByAnotherWorker() {
+    when(jobExecutionExportFilesEntityRepository.acquireLease(
+            eq(exportFileId), anyString(), eq(60L)))
+        .thenReturn(0);
+
+    assertFalse(exportFileLeaseService.acquire(exportFileId));
+
+    verify(exportFileLeaseScheduler, never()).scheduleWithFixedDelay(any(Runnable.class), any());
+  }
+
+  @Test
+  void leaseShouldBeRenewedUntilReleased() {
+    acquire();
+    when(jobExecutionExportFilesEntityRepository.renewLease(eq(exportFileId), anyString(), eq(60L)))
+        .thenReturn(1);
+
+    renewalCaptor.getValue().run();
+    exportFileLeaseService.release(exportFileId);
+    renewalCaptor.getValue().run();
+
+    verify(jobExecutionExportFilesEntityRepository, times(1))
+        .renewLease(eq(exportFileId), anyString(), anyLong());
+    verify(jobExecutionExportFilesEntityRepository).releaseLease(eq(exportFileId), anyString());
+  }
+
+  @Test
+  void lostLeaseShouldNotBeRenewedAgain() {
+    acquire();
+    when(jobExecutionExportFilesEntityRepository.renewLease(eq(exportFileId), anyString(), eq(60L)))
+        .thenReturn(0);
+
+    renewalCaptor.getValue().run();
+    renewalCaptor.getValue().run();
+
+    verify(jobExecutionExportFilesEntityRepository, times(1))
+        .renewLease(eq(exportFileId), anyString(), anyLong());
+  }
+
+  @Test
+  void claimCompletionShouldSucceedOnlyForUpdatedJobExecution() {
+    var jobExecutionId = UUID.randomUUID();
+    when(jobExecutionEntityRepository.claimCompletion(jobExecutionId)).thenReturn(1, 0);
+
+    assertTrue(exportFileLeaseService.claimCompletion(jobExecutionId));
+    assertFalse(exportFileLeaseService.claimCompletion(jobExecutionId));
+  }
+
+  private void acquire() {
+    var headers = new HashMap<String, Collection<String>>();
+    headers.put(XOkapiHeaders.TENANT, List.of("diku"));
+    when(folioExecutionContext.getTenantId()).thenReturn("diku");
+    when(folioExecutionContext.getOkapiHeaders()).thenReturn(headers);
+    when(folioExecutionContext.getAllHeaders()).thenReturn(headers);
+    when(jobExecutionExportFilesEntityRepository.acquireLease(
+            eq(exportFileId), anyString(), eq(60L)))
+        .thenReturn(1);
+
+    assertTrue(exportFileLeaseService.acquire(exportFileId));
+
+    verify(exportFileLeaseScheduler)
+        .scheduleWithFixedDelay(renewalCaptor.capture(), eq(Duration.ofSeconds(20)));
+  }
+}
@@ -0,0 +1,138 @@
+package org.folio.dataexp.service.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.folio.spring.FolioExecutionContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ExportFileSchedulerTest {
+
+  private static final String TENANT_A = "tenant_a";
+  private static final String TENANT_B = "tenant_b";
+
+  @Mock private FolioExecutionContext folioExecutionContext;
+
+  private final List<Runnable> started = new ArrayList<>();
+  private final List<String> exported = new ArrayList<>();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private ExportFileScheduler scheduler;
+
+  @BeforeEach
+  void setUp() {
+    scheduler = new ExportFileScheduler(started::add, folioExecutionContext, meterRegistry);
+    scheduler.setMaxConcurrentExports(1);
+  }
+
+  @Test
+  void shouldNotExceedMaxConcurrentExports() {
+    when(folioExecutionContext.getTenantId()).thenReturn(TENANT_A);
+
+    scheduler.submit(() -> exported.add("a1"), false);
+    scheduler.submit(() -> exported.add("a2"), false);
+
+    assertThat(started).hasSize(1);
+    runStarted(0);
+    assertThat(started).hasSize(2);
+    runStarted(1);
+    assertThat(exported).containsExactly("a1", "a2");
+  }
+
+  @Test
+  void shouldGiveFreeSlotToTenantWithFewerRunningExports() {
+    when(folioExecutionContext.getTenantId())
+        .thenReturn(TENANT_A, TENANT_A, TENANT_A, TENANT_B);
+
+    scheduler.submit(() -> exported.add("a1"), false);
+    scheduler.submit(() -> exported.add("a2"), false);
+    scheduler.submit(() -> exported.add("a3"), false);
+    scheduler.submit(() -> exported.add("b1"), false);
+    for (var i = 0; i < 4; i++) {
+      runStarted(i);
+    }
+
+    assertThat(exported).containsExactly("a1", "b1", "a2", "a3");
+  }
+
+  @Test
+  void shouldShareSlotsByTenantWeights() {
+    scheduler.setMaxConcurrentExports(0);
+    scheduler.setTenantWeights("tenant_b:2, invalid");
+    when(folioExecutionContext.getTenantId())
+        .thenReturn(TENANT_A, TENANT_A, TENANT_A, TENANT_B, TENANT_B, TENANT_B);
+    scheduler.submit(() -> exported.add("a1"), false);
+    scheduler.submit(() -> exported.add("a2"), false);
+    scheduler.submit(() -> exported.add("a3"), false);
+    scheduler.submit(() -> exported.add("b1"), false);
+    scheduler.submit(() -> exported.add("b2"), false);
+    scheduler.setMaxConcurrentExports(3);
+
+    scheduler.submit(() -> exported.add("b3"), false);
+    for (var i = 0; i < 3; i++) {
+      runStarted(i);
+    }
+
+    // tenant_b has twice the weight of tenant_a, so it gets two of the three slots
+    assertThat(exported).containsExactly("a1", "b1", "b2");
+  }
+
+  @Test
+  void shouldStartQuickExportFirst() {
+    when(folioExecutionContext.getTenantId()).thenReturn(TENANT_A, TENANT_A, TENANT_B);
+
+    scheduler.submit(() -> exported.add("a1"), false);
+    scheduler.submit(() -> exported.add("a2"), false);
+    scheduler.submit(() -> exported.add("quick"), true);
+    for (var i = 0; i < 3; i++) {
+      runStarted(i);
+    }
+
+    assertThat(exported).containsExactly("a1", "quick", "a2");
+  }
+
+  @Test
+  void shouldPublishQueueDepths() {
+    when(folioExecutionContext.getTenantId()).thenReturn(TENANT_A);
+
+    scheduler.submit(() -> exported.add("a1"), false);
+    scheduler.submit(() -> exported.add("a2"), false);
+    scheduler.submit(() -> exported.add("quick"), true);
+
+    assertThat(gauge(ExportFileScheduler.QUEUED_METRIC)).isEqualTo(1);
+    assertThat(gauge(ExportFileScheduler.RUNNING_METRIC)).isEqualTo(1);
+    assertThat(meterRegistry.get(ExportFileScheduler.QUICK_QUEUED_METRIC).gauge().value())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void shouldStartNextExportWhenExportFails() {
+    when(folioExecutionContext.getTenantId()).thenReturn(TENANT_A);
+
+    scheduler.submit(
+        () -> {
+          throw new IllegalStateException("export failed");
+        },
+        false);
+    scheduler.submit(() -> exported.add("a2"), false);
+    runStarted(0);
+    runStarted(1);
+
+    assertThat(exported).containsExactly("a2");
+  }
+
+  private void runStarted(int index) {
+    started.get(index).run();
+  }
+
+  private double gauge(String name) {
+    return meterRegistry.get(name).tag("tenant", TENANT_A).gauge().value();
+  }
+}
@@ -0,0 +1,76 @@
+package org.folio.dataexp.service.export;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+class ParallelGzipOutputStreamTest {
+
+  private static final int THREADS = 3;
+
+  @Test
+  @SneakyThrows
+  void shouldCompressBlocksInParallelPreservingOrder() {
+    var input = new ByteArrayOutputStream();
+    for (int i = 0; i < 2_000; i++) {
+      input.write("00714cam a2200205 a 4500 record %d\u001e".formatted(i).getBytes(UTF_8));
+    }
+    var expected = input.toByteArray();
+    var compressed = new ByteArrayOutputStream();
+
+    try (var executor = Executors.newFixedThreadPool(THREADS);
+        var gzip =
+            new ParallelGzipOutputStream(
+                compressed, Deflater.BEST_COMPRESSION, 1_000, executor, THREADS)) {
+      gzip.write(expected, 0, 10);
+      gzip.write(expected[10]);
+      gzip.write(expected, 11, expected.length - 11);
+    }
+
+    assertArrayEquals(expected, decompress(compressed.toByteArray()));
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldWriteValidGzipForEmptyInput() {
+    var compressed = new ByteArrayOutputStream();
+
+    try (var executor = Executors.newFixedThreadPool(THREADS);
+        var gzip =
+            new ParallelGzipOutputStream(
+                compressed, Deflater.DEFAULT_COMPRESSION, 1_000, executor, THREADS)) {
+      gzip.finish();
+    }
+
+    assertEquals(0, decompress(compressed.toByteArray()).length);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldNotAcceptWritesAfterFinish() {
+    try (var executor = Executors.newFixedThreadPool(THREADS)) {
+      var gzip =
+          new ParallelGzipOutputStream(
+              new ByteArrayOutputStream(), Deflater.BEST_SPEED, 1_000, executor, THREADS);
+      gzip.finish();
+
+      assertThrows(IOException.class, () -> gzip.write(1));
+    }
+  }
+
+  private static byte[] decompress(byte[] compressed) throws IOException {
+    try (var gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return gzip.readAllBytes();
+    }
+  }
+}
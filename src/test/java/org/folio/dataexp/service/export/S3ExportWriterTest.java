@@ -0,0 +1,75 @@
+package org.folio.dataexp.service.export;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import lombok.SneakyThrows;
+import org.folio.dataexp.exception.export.S3ExportsUploadException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class S3ExportWriterTest {
+
+  private static final String S3_PATH = "mod-data-export/download/job/export.mrc";
+
+  @Mock private S3MultipartOutputStream outputStream;
+
+  @Test
+  @SneakyThrows
+  void shouldStreamWrittenBytesAndCompleteUploadOnClose() {
+    var writer = new S3ExportWriter(outputStream, S3_PATH);
+    var marc = "marc".getBytes(UTF_8);
+    var page = ByteBuffer.wrap("-marc-record".getBytes(UTF_8), 1, 4);
+
+    writer.write(marc);
+    writer.write(page);
+    writer.close();
+
+    verify(outputStream).write(marc, 0, 4);
+    verify(outputStream).write(page.array(), 1, 4);
+    assertEquals(0, page.remaining());
+    verify(outputStream).close();
+    verify(outputStream, never()).abort();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldNotStoreExportFileWithoutBytes() {
+    var writer = new S3ExportWriter(outputStream, S3_PATH);
+
+    writer.write(new byte[0]);
+    writer.close();
+
+    verify(outputStream, never()).write(any(byte[].class), anyInt(), anyInt());
+    verify(outputStream).abort();
+    verify(outputStream, never()).close();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldFailIfUploadFails() {
+    doThrow(new IOException("S3 is unavailable"))
+        .when(outputStream)
+        .write(any(byte[].class), eq(0), eq(4));
+    var writer = new S3ExportWriter(outputStream, S3_PATH);
+    var marc = "marc".getBytes(UTF_8);
+
+    var exception = assertThrows(S3ExportsUploadException.class, () -> writer.write(marc));
+
+    assertEquals(
+        "Export file %s cannot be uploaded: S3 is unavailable".formatted(S3_PATH),
+        exception.getMessage());
+  }
+}
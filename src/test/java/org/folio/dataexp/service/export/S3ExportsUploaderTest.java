@@ -1,41 +1,53 @@
 package org.folio.dataexp.service.export;
 
-import static org.folio.dataexp.service.export.Constants.OUTPUT_BUFFER_SIZE;
 import static org.folio.dataexp.service.export.S3ExportsUploader.EMPTY_FILE_FOR_EXPORT_ERROR_MESSAGE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import lombok.SneakyThrows;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.folio.dataexp.TestMate;
 import org.folio.dataexp.domain.dto.JobExecution;
+import org.folio.dataexp.domain.dto.JobProfile;
+import org.folio.dataexp.domain.dto.OutputCompression;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
+import org.folio.dataexp.domain.entity.JobProfileEntity;
 import org.folio.dataexp.exception.export.S3ExportsUploadException;
+import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
+import org.folio.dataexp.repository.JobProfileEntityRepository;
 import org.folio.dataexp.util.Constants;
 import org.folio.dataexp.util.S3FilePathUtils;
 import org.folio.s3.client.FolioS3Client;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
@@ -46,11 +58,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class S3ExportsUploaderTest {
 
-  private static final String EXPORT_TEMP_STORAGE = "temp";
   @Mock private FolioS3Client s3Client;
+  @Mock private JobProfileEntityRepository jobProfileEntityRepository;
+  @Mock private JobExecutionExportFilesEntityRepository jobExecutionExportFilesEntityRepository;
+  @TempDir private Path tempDir;
 
   @InjectMocks private S3ExportsUploader s3ExportsUploader;
 
+  private final Map<String, byte[]> storedFiles = new LinkedHashMap<>();
+
+  @BeforeEach
+  void setUp() {
+    s3ExportsUploader.setExportTmpStorage(tempDir.toString());
+  }
+
   @Test
   @SneakyThrows
   void uploadExportsIfExportsEmptyTest() {
@@ -71,199 +92,203 @@ class S3ExportsUploaderTest {
   @Test
   @SneakyThrows
   void uploadSingleExportsTest() {
-    var jobExecution = new JobExecution();
-    jobExecution.setId(UUID.randomUUID());
-    jobExecution.setHrId(200);
-    var temDirLocation =
-        S3FilePathUtils.getTempDirForJobExecutionId(StringUtils.EMPTY, jobExecution.getId());
-    Files.createDirectories(Path.of(temDirLocation));
+    var jobExecution = jobExecution();
+    var export = storeExport(jobExecution, "marc_export.mrc", "marc");
+    mockStorage(jobExecution);
+    var uploadedFile = captureUpload();
+
+    var expectedS3Path =
+        S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "marc_export-200.mrc");
+    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export), "marc_export");
+    assertEquals(expectedS3Path, s3Path);
+
+    verify(s3Client).write(eq(expectedS3Path), isA(InputStream.class), eq(4L));
+    assertEquals("marc", uploadedFile.toString(StandardCharsets.UTF_8));
+    verify(s3Client).remove(export.getFileLocation());
+    assertFalse(Files.exists(tempDirOf(jobExecution)));
+  }
 
-    var initialFileName = "marc_export";
-    var fileLocation = temDirLocation + initialFileName + ".mrc";
-    var writer = new LocalStorageWriter(fileLocation, OUTPUT_BUFFER_SIZE);
+  @Test
+  @SneakyThrows
+  void uploadSingleExportsTestLinkedData() {
+    var jobExecution = jobExecution();
+    var export = storeExport(jobExecution, "linked_data_export.json", "[{}]");
+    mockStorage(jobExecution);
+
+    var expectedS3Path =
+        S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "linked_data_export-200.json");
+    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export), "linked_data_export");
+    assertEquals(expectedS3Path, s3Path);
+
+    verify(s3Client).write(eq(expectedS3Path), isA(InputStream.class), eq(4L));
+    verify(s3Client).remove(export.getFileLocation());
+  }
+
+  @Test
+  @SneakyThrows
+  void uploadSingleExportsWithGzipCompressionTest() {
+    var uploadedFile = captureUpload();
+    var jobExecution = jobExecutionWithCompression(OutputCompression.FormatEnum.GZIP);
     var marc = "marc";
-    writer.write(marc);
-    writer.close();
-    var export = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation).build();
+    var export = storeExport(jobExecution, "marc_export.mrc", marc);
+    mockStorage(jobExecution);
 
-    var expectedS3Path = temDirLocation + "marc_export-200.mrc";
-    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export), initialFileName);
+    var expectedS3Path =
+        S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "marc_export-200.mrc.gz");
+    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export), "marc_export");
     assertEquals(expectedS3Path, s3Path);
 
     verify(s3Client).write(eq(expectedS3Path), isA(InputStream.class), isA(Long.class));
-
-    var temDir = new File(temDirLocation);
-    assertFalse(temDir.exists());
+    try (var gzip = new GZIPInputStream(new ByteArrayInputStream(uploadedFile.toByteArray()))) {
+      assertEquals(marc, new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    verify(s3Client).remove(export.getFileLocation());
+    assertFalse(Files.exists(tempDirOf(jobExecution)));
   }
 
   @Test
   @SneakyThrows
-  void uploadSingleExportsTestLinkedData() {
-    var jobExecution = new JobExecution();
-    jobExecution.setId(UUID.randomUUID());
-    jobExecution.setHrId(200);
-    var temDirLocation =
-        S3FilePathUtils.getTempDirForJobExecutionId(StringUtils.EMPTY, jobExecution.getId());
-    Files.createDirectories(Path.of(temDirLocation));
-
-    var initialFileName = "linked_data_export";
-    var fileLocation = temDirLocation + initialFileName + ".json";
-    var writer = new LocalStorageWriter(fileLocation, OUTPUT_BUFFER_SIZE);
-    var ldjson = "[{}]";
-    writer.write(ldjson);
-    writer.close();
-    var export = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation).build();
-
-    var expectedS3Path = temDirLocation + "linked_data_export-200.json";
-    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export), initialFileName);
+  void uploadSingleExportsWithZipCompressionTest() {
+    var jobExecution = jobExecutionWithCompression(OutputCompression.FormatEnum.ZIP);
+    var export = storeExport(jobExecution, "marc_export.mrc", "marc");
+    mockStorage(jobExecution);
+
+    var expectedS3Path =
+        S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "marc_export-200.zip");
+    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export), "marc_export");
     assertEquals(expectedS3Path, s3Path);
 
     verify(s3Client).write(eq(expectedS3Path), isA(InputStream.class), isA(Long.class));
-
-    var temDir = new File(temDirLocation);
-    assertFalse(temDir.exists());
+    verify(s3Client).remove(export.getFileLocation());
   }
 
   @Test
   @SneakyThrows
-  void uploadSingleExportsIfTempStorageExistsTest() {
-    s3ExportsUploader.setExportTmpStorage(EXPORT_TEMP_STORAGE);
-    var jobExecution = new JobExecution();
-    jobExecution.setId(UUID.randomUUID());
-    jobExecution.setHrId(200);
-    var temDirLocation =
-        S3FilePathUtils.getTempDirForJobExecutionId(EXPORT_TEMP_STORAGE, jobExecution.getId());
-    Files.createDirectories(Path.of(temDirLocation));
-
-    var initialFileName = "marc_export";
-    var fileLocation =
-        String.format("mod-data-export/download/%s/%s.mrc", jobExecution.getId(), initialFileName);
-    var writer =
-        new LocalStorageWriter(
-            S3FilePathUtils.getLocalStorageWriterPath(EXPORT_TEMP_STORAGE, fileLocation),
-            OUTPUT_BUFFER_SIZE);
-    var marc = "marc";
-    writer.write(marc);
-    writer.close();
-
-    var export = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation).build();
+  void uploadSingleExportsShouldRemoveTempDirTest() {
+    var jobExecution = jobExecution();
+    Files.createDirectories(tempDirOf(jobExecution));
+    var export = storeExport(jobExecution, "marc_export.mrc", "marc");
+    mockStorage(jobExecution);
 
     var expectedS3Path =
         "mod-data-export/download/" + jobExecution.getId().toString() + "/marc_export-200.mrc";
-    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export), initialFileName);
+    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export), "marc_export");
     assertEquals(expectedS3Path, s3Path);
 
     verify(s3Client).write(eq(expectedS3Path), isA(InputStream.class), isA(Long.class));
+    assertFalse(Files.exists(tempDirOf(jobExecution)));
+  }
+
+  @Test
+  @SneakyThrows
+  void uploadSingleExportsExportedInPlaceShouldNotBeUploadedAgain() {
+    var jobExecution = jobExecution();
+    Files.createDirectories(tempDirOf(jobExecution));
+    var export = exportFile(jobExecution, "marc_export-200.mrc");
+    when(s3Client.list(S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "")))
+        .thenReturn(List.of(export.getFileLocation()));
+
+    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export), "marc_export");
+    assertEquals(export.getFileLocation(), s3Path);
+
+    verify(s3Client, never()).read(anyString());
+    verify(s3Client, never()).write(anyString(), any(InputStream.class), anyLong());
+    verify(s3Client, never()).remove(any(String[].class));
+    assertFalse(Files.exists(tempDirOf(jobExecution)));
+  }
+
+  @Test
+  void exportSingleFileInPlaceShouldPointSingleExportAtUploadedFile() {
+    var jobExecution = jobExecution();
+    var export = exportFile(jobExecution, "marc_export_1_2.mrc");
+    when(jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecution.getId()))
+        .thenReturn(List.of(export));
+
+    s3ExportsUploader.exportSingleFileInPlace(jobExecution, "marc_export");
+
+    assertEquals(
+        S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "marc_export-200.mrc"),
+        export.getFileLocation());
+    verify(jobExecutionExportFilesEntityRepository).save(export);
+  }
+
+  @Test
+  void exportSingleFileInPlaceShouldKeepExportsToCompress() {
+    var jobExecution = jobExecutionWithCompression(OutputCompression.FormatEnum.GZIP);
+    var export = exportFile(jobExecution, "marc_export_1_2.mrc");
+    var location = export.getFileLocation();
+    when(jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecution.getId()))
+        .thenReturn(List.of(export));
+
+    s3ExportsUploader.exportSingleFileInPlace(jobExecution, "marc_export");
+
+    assertEquals(location, export.getFileLocation());
+    verify(jobExecutionExportFilesEntityRepository, never()).save(any());
+  }
+
+  @Test
+  void exportSingleFileInPlaceShouldKeepMultipleExports() {
+    var jobExecution = jobExecution();
+    var export1 = exportFile(jobExecution, "marc_export_1_2.mrc");
+    var export2 = exportFile(jobExecution, "marc_export_3_4.mrc");
+    when(jobExecutionExportFilesEntityRepository.findByJobExecutionId(jobExecution.getId()))
+        .thenReturn(List.of(export1, export2));
+
+    s3ExportsUploader.exportSingleFileInPlace(jobExecution, "marc_export");
 
-    var temDir = new File(temDirLocation);
-    assertFalse(temDir.exists());
+    verify(jobExecutionExportFilesEntityRepository, never()).save(any());
   }
 
   @Test
   @SneakyThrows
   void uploadSingleExportsIfEmptyTest() {
-    var jobExecution = new JobExecution();
-    jobExecution.setId(UUID.randomUUID());
-    jobExecution.setHrId(200);
-    var temDirLocation =
-        S3FilePathUtils.getTempDirForJobExecutionId(StringUtils.EMPTY, jobExecution.getId());
-    Files.createDirectories(Path.of(temDirLocation));
-
-    var initialFileName = "marc_export";
-    var fileLocation = temDirLocation + initialFileName;
-    var writer = new LocalStorageWriter(fileLocation, OUTPUT_BUFFER_SIZE);
-    writer.close();
-    var export = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation).build();
+    var jobExecution = jobExecution();
+    Files.createDirectories(tempDirOf(jobExecution));
+    var export = exportFile(jobExecution, "marc_export.mrc");
+    mockStorage(jobExecution);
     var exportList = Collections.singletonList(export);
 
     S3ExportsUploadException s3Exception =
         assertThrows(
             S3ExportsUploadException.class,
-            () -> s3ExportsUploader.upload(jobExecution, exportList, initialFileName));
+            () -> s3ExportsUploader.upload(jobExecution, exportList, "marc_export"));
     assertEquals(EMPTY_FILE_FOR_EXPORT_ERROR_MESSAGE, s3Exception.getMessage());
 
-    var temDir = new File(temDirLocation);
-    assertFalse(temDir.exists());
+    verify(s3Client, never()).read(anyString());
+    assertFalse(Files.exists(tempDirOf(jobExecution)));
   }
 
   @Test
   @SneakyThrows
   void uploadMultipleExportsTest() {
-    var jobExecution = new JobExecution();
-    jobExecution.setId(UUID.randomUUID());
-    jobExecution.setHrId(200);
-    var temDirLocation =
-        S3FilePathUtils.getTempDirForJobExecutionId(StringUtils.EMPTY, jobExecution.getId());
-    Files.createDirectories(Path.of(temDirLocation));
-
-    var exportFileName1 = "marc_export_sliced_1.mrc";
-    var exportFileName2 = "marc_export_sliced_2.mrc";
-    var fileLocation1 = temDirLocation + exportFileName1;
-    var writer = new LocalStorageWriter(fileLocation1, OUTPUT_BUFFER_SIZE);
-    var marc = "marc";
-    writer.write(marc);
-    writer.close();
+    var jobExecution = jobExecution();
+    var export1 = storeExport(jobExecution, "marc_export_sliced_1.mrc", "marc");
+    var export2 = storeExport(jobExecution, "marc_export_sliced_2.mrc", "marc");
+    mockStorage(jobExecution);
 
-    var fileLocation2 = temDirLocation + exportFileName2;
-    writer = new LocalStorageWriter(fileLocation2, OUTPUT_BUFFER_SIZE);
-    writer.write(marc);
-    writer.close();
-
-    var export1 = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation1).build();
-    var export2 = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation2).build();
-
-    var expectedS3Path = temDirLocation + "marc_export-200.zip";
-    var initialFileName = "marc_export";
-    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export1, export2), initialFileName);
+    var expectedS3Path =
+        S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "marc_export-200.zip");
+    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export1, export2), "marc_export");
     assertEquals(expectedS3Path, s3Path);
 
     verify(s3Client).write(eq(expectedS3Path), isA(InputStream.class), isA(Long.class));
-
-    var temDir = new File(temDirLocation);
-    assertFalse(temDir.exists());
+    verify(s3Client).remove(export1.getFileLocation(), export2.getFileLocation());
+    assertFalse(Files.exists(tempDirOf(jobExecution)));
   }
 
   @Test
   @SneakyThrows
   void uploadMultipleExportsCheckMemberFileNames() {
-    // Capture the zip file before it's deleted from local storage to check its contents
-    var uploadedZipFile = new ByteArrayOutputStream();
-    when(s3Client.write(anyString(), any(InputStream.class), anyLong()))
-        .thenAnswer(
-            invocation -> {
-              try (InputStream is = invocation.getArgument(1)) {
-                is.transferTo(uploadedZipFile);
-              }
-              return "some-path";
-            });
-
-    var jobExecution = new JobExecution();
-    jobExecution.setId(UUID.randomUUID());
-    jobExecution.setHrId(200);
-    var tempDirLocation =
-        S3FilePathUtils.getTempDirForJobExecutionId(StringUtils.EMPTY, jobExecution.getId());
-    Files.createDirectories(Path.of(tempDirLocation));
-
-    var exportFileName1 = "marc_export_sliced_1.mrc";
-    var exportFileName2 = "marc_export_sliced_2.mrc";
-    var fileLocation1 = tempDirLocation + exportFileName1;
-    var writer = new LocalStorageWriter(fileLocation1, OUTPUT_BUFFER_SIZE);
-    var marc = "marc";
-    writer.write(marc);
-    writer.close();
-
-    var fileLocation2 = tempDirLocation + exportFileName2;
-    writer = new LocalStorageWriter(fileLocation2, OUTPUT_BUFFER_SIZE);
-    writer.write(marc);
-    writer.close();
+    var uploadedZipFile = captureUpload();
+    var jobExecution = jobExecution();
+    var export1 = storeExport(jobExecution, "marc_export_sliced_1.mrc", "marc");
+    var export2 = storeExport(jobExecution, "marc_export_sliced_2.mrc", "marc");
+    mockStorage(jobExecution);
 
-    var export1 = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation1).build();
-    var export2 = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation2).build();
-
-    var expectedS3Path = tempDirLocation + "marc_export-200.zip";
-    var initialFileName = "marc_export";
+    var expectedS3Path =
+        S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "marc_export-200.zip");
     var s3PathName =
-        s3ExportsUploader.upload(jobExecution, List.of(export1, export2), initialFileName);
+        s3ExportsUploader.upload(jobExecution, List.of(export1, export2), "marc_export");
     assertEquals(expectedS3Path, s3PathName);
 
     try (ZipInputStream zis =
@@ -278,156 +303,104 @@ class S3ExportsUploaderTest {
 
   @Test
   @SneakyThrows
-  void uploadMultipleExportsIfTempStorageExistsTest() {
-    s3ExportsUploader.setExportTmpStorage(EXPORT_TEMP_STORAGE);
-    var jobExecution = new JobExecution();
-    jobExecution.setId(UUID.randomUUID());
-    jobExecution.setHrId(200);
-    var temDirLocation =
-        S3FilePathUtils.getTempDirForJobExecutionId(EXPORT_TEMP_STORAGE, jobExecution.getId());
-    Files.createDirectories(Path.of(temDirLocation));
-
-    var exportFileName1 = "marc_export_sliced_1.mrc";
-    var exportFileName2 = "marc_export_sliced_2.mrc";
-    var fileLocation1 =
-        String.format("mod-data-export/download/%s/%s", jobExecution.getId(), exportFileName1);
-    var writer =
-        new LocalStorageWriter(
-            S3FilePathUtils.getLocalStorageWriterPath(EXPORT_TEMP_STORAGE, fileLocation1),
-            OUTPUT_BUFFER_SIZE);
-    var marc = "marc";
-    writer.write(marc);
-    writer.close();
-
-    var fileLocation2 =
-        String.format("mod-data-export/download/%s/%s", jobExecution.getId(), exportFileName2);
-    writer =
-        new LocalStorageWriter(
-            S3FilePathUtils.getLocalStorageWriterPath(EXPORT_TEMP_STORAGE, fileLocation2),
-            OUTPUT_BUFFER_SIZE);
-    writer.write(marc);
-    writer.close();
+  void uploadMultipleExportsShouldStreamZipInParts() {
+    var uploadedZipFile = new ByteArrayOutputStream();
+    when(s3Client.initiateMultipartUpload(anyString())).thenReturn("upload-id");
+    when(s3Client.uploadMultipartPart(anyString(), eq("upload-id"), anyInt(), anyString()))
+        .thenAnswer(
+            invocation -> {
+              uploadedZipFile.write(Files.readAllBytes(Path.of(invocation.<String>getArgument(3))));
+              return "etag-" + invocation.getArgument(2);
+            });
+    s3ExportsUploader.setUploadPartSize(64);
 
-    var export1 = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation1).build();
-    var export2 = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation2).build();
+    var jobExecution = jobExecution();
+    var export1 = storeExport(jobExecution, "marc_export_sliced_1.mrc", "marc1");
+    var export2 = storeExport(jobExecution, "marc_export_sliced_2.mrc", "marc2");
+    mockStorage(jobExecution);
 
     var expectedS3Path =
-        "mod-data-export/download/" + jobExecution.getId().toString() + "/marc_export-200.zip";
-    var initialFileName = "marc_export";
-    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export1, export2), initialFileName);
+        S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "marc_export-200.zip");
+    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export1, export2), "marc_export");
     assertEquals(expectedS3Path, s3Path);
 
-    verify(s3Client).write(eq(expectedS3Path), isA(InputStream.class), isA(Long.class));
-
-    var temDir = new File(temDirLocation);
-    assertFalse(temDir.exists());
+    verify(s3Client).completeMultipartUpload(eq(expectedS3Path), eq("upload-id"), anyList());
+    verify(s3Client, never()).write(anyString(), any(InputStream.class), anyLong());
+    var contents = new ArrayList<String>();
+    try (ZipInputStream zis =
+        new ZipInputStream(new ByteArrayInputStream(uploadedZipFile.toByteArray()))) {
+      while (zis.getNextEntry() != null) {
+        contents.add(new String(zis.readAllBytes(), StandardCharsets.UTF_8));
+      }
+    }
+    assertEquals(List.of("marc1", "marc2"), contents);
+    assertFalse(Files.exists(tempDirOf(jobExecution)));
   }
 
   @Test
   @SneakyThrows
   void uploadMultipleExportsIfOnlyOneFileWithDataTest() {
-    var jobExecution = new JobExecution();
-    jobExecution.setId(UUID.randomUUID());
-    jobExecution.setHrId(200);
-    var temDirLocation =
-        S3FilePathUtils.getTempDirForJobExecutionId(StringUtils.EMPTY, jobExecution.getId());
-    Files.createDirectories(Path.of(temDirLocation));
-
-    var exportFileName1 = "marc_export_sliced_1.mrc";
-    var exportFileName2 = "marc_export_sliced_2.mrc";
-    var fileLocation1 = temDirLocation + exportFileName1;
-    var writer = new LocalStorageWriter(fileLocation1, OUTPUT_BUFFER_SIZE);
-    var marc = "marc";
-    writer.write(marc);
-    writer.close();
+    var jobExecution = jobExecution();
+    var export1 = storeExport(jobExecution, "marc_export_sliced_1.mrc", "marc");
+    var export2 = exportFile(jobExecution, "marc_export_sliced_2.mrc");
+    mockStorage(jobExecution);
 
-    var fileLocation2 = temDirLocation + exportFileName2;
-    writer = new LocalStorageWriter(fileLocation2, OUTPUT_BUFFER_SIZE);
-    writer.close();
-
-    var export1 = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation1).build();
-    var export2 = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation2).build();
-
-    var expectedS3Path = temDirLocation + "marc_export-200.mrc";
-    var initialFileName = "marc_export";
-    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export1, export2), initialFileName);
+    var expectedS3Path =
+        S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "marc_export-200.mrc");
+    var s3Path = s3ExportsUploader.upload(jobExecution, List.of(export1, export2), "marc_export");
     assertEquals(expectedS3Path, s3Path);
 
     verify(s3Client).write(eq(expectedS3Path), isA(InputStream.class), isA(Long.class));
-
-    var temDir = new File(temDirLocation);
-    assertFalse(temDir.exists());
+    verify(s3Client).remove(export1.getFileLocation());
   }
 
   @Test
   @SneakyThrows
   void uploadMultipleExportsIfAllFilesEmptyTest() {
-    var jobExecution = new JobExecution();
-    jobExecution.setId(UUID.randomUUID());
-    jobExecution.setHrId(200);
-    var temDirLocation =
-        S3FilePathUtils.getTempDirForJobExecutionId(StringUtils.EMPTY, jobExecution.getId());
-    Files.createDirectories(Path.of(temDirLocation));
-
-    var exportFileName1 = "marc_export_sliced_1.mrc";
-    var fileLocation1 = temDirLocation + exportFileName1;
-    var writer = new LocalStorageWriter(fileLocation1, OUTPUT_BUFFER_SIZE);
-    writer.close();
-
-    var exportFileName2 = "marc_export_sliced_2.mrc";
-    var fileLocation2 = temDirLocation + exportFileName2;
-    writer = new LocalStorageWriter(fileLocation2, OUTPUT_BUFFER_SIZE);
-    writer.close();
+    var jobExecution = jobExecution();
+    Files.createDirectories(tempDirOf(jobExecution));
+    var export1 = exportFile(jobExecution, "marc_export_sliced_1.mrc");
+    var export2 = exportFile(jobExecution, "marc_export_sliced_2.mrc");
+    mockStorage(jobExecution);
 
-    var export1 = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation1).build();
-    var export2 = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation2).build();
-
-    var initialFileName = "marc_export";
     var list = List.of(export1, export2);
     S3ExportsUploadException s3Exception =
         assertThrows(
             S3ExportsUploadException.class,
-            () -> s3ExportsUploader.upload(jobExecution, list, initialFileName));
+            () -> s3ExportsUploader.upload(jobExecution, list, "marc_export"));
     assertEquals(EMPTY_FILE_FOR_EXPORT_ERROR_MESSAGE, s3Exception.getMessage());
 
-    var temDir = new File(temDirLocation);
-    assertFalse(temDir.exists());
+    verify(s3Client, never()).remove(any(String[].class));
+    assertFalse(Files.exists(tempDirOf(jobExecution)));
   }
 
   @Test
   @TestMate(name = "TestMate-74dd7dd1ec3da45673b268277e467358")
   @SneakyThrows
-  void upload_whenIOExceptionOccurs_shouldThrowS3ExportsUploadException(@TempDir Path tempDir) {
+  void upload_whenIOExceptionOccurs_shouldThrowS3ExportsUploadException() {
     // Given
-    s3ExportsUploader.setExportTmpStorage(tempDir.toString());
-    var jobExecution = new JobExecution();
-    jobExecution.setId(UUID.fromString("a0146319-9786-4632-91c8-a249929828ec"));
-    jobExecution.setHrId(200);
-    var initialFileName = "io-error-test";
-    var relativePath =
-        S3FilePathUtils.getTempDirForJobExecutionId(StringUtils.EMPTY, jobExecution.getId());
-    var fileLocation = relativePath + initialFileName + ".mrc";
-    var fullPath =
-        Path.of(S3FilePathUtils.getLocalStorageWriterPath(tempDir.toString(), fileLocation));
-    Files.createDirectories(fullPath.getParent());
-    Files.writeString(fullPath, "some content");
-    var exportEntity = JobExecutionExportFilesEntity.builder().fileLocation(fileLocation).build();
-    // Simulate IOException by making the file unreadable
-    assertTrue(fullPath.toFile().setReadable(false), "Failed to make file unreadable");
+    var jobExecution = jobExecution();
+    var exportEntity = exportFile(jobExecution, "io-error-test.mrc");
+    when(s3Client.list(S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "")))
+        .thenReturn(List.of(exportEntity.getFileLocation()));
+    // Simulate IOException while the export file is read from S3
+    when(s3Client.read(exportEntity.getFileLocation()))
+        .thenReturn(
+            new InputStream() {
+              @Override
+              public int read() throws IOException {
+                throw new IOException("Connection reset");
+              }
+            });
     // When & Then
     var exportEntities = Collections.singletonList(exportEntity);
     var exception =
         assertThrows(
             S3ExportsUploadException.class,
-            () -> s3ExportsUploader.upload(jobExecution, exportEntities, initialFileName));
-    // The exception message for access denied can vary across operating systems.
-    String message = exception.getMessage().toLowerCase();
-    assertTrue(message.contains("access is denied") || message.contains("permission denied"));
-    // Restore permissions to allow cleanup
-    fullPath.toFile().setReadable(true);
-    // The method under test does not clean up the directory on this specific failure path,
-    // so we manually clean it up to not interfere with other tests.
-    FileUtils.deleteDirectory(fullPath.getParent().toFile());
+            () -> s3ExportsUploader.upload(jobExecution, exportEntities, "io-error-test"));
+    assertEquals("Connection reset", exception.getMessage());
+    verify(s3Client, never()).write(anyString(), any(InputStream.class), anyLong());
+    verify(s3Client, never()).remove(any(String[].class));
   }
 
   @Test
@@ -449,4 +422,63 @@ class S3ExportsUploaderTest {
     assertEquals("S3 write failed", thrownException.getMessage());
     verify(s3Client).write(eq(expectedS3Path), any(InputStream.class));
   }
+
+  private JobExecution jobExecution() {
+    var jobExecution = new JobExecution();
+    jobExecution.setId(UUID.randomUUID());
+    jobExecution.setHrId(200);
+    return jobExecution;
+  }
+
+  private JobExecution jobExecutionWithCompression(OutputCompression.FormatEnum format) {
+    var jobProfileId = UUID.randomUUID();
+    var jobProfile =
+        new JobProfile()
+            .id(jobProfileId)
+            .outputCompression(new OutputCompression().format(format).level(9));
+    when(jobProfileEntityRepository.findById(jobProfileId))
+        .thenReturn(Optional.of(JobProfileEntity.builder().jobProfile(jobProfile).build()));
+    var jobExecution = jobExecution();
+    jobExecution.setJobProfileId(jobProfileId);
+    return jobExecution;
+  }
+
+  private JobExecutionExportFilesEntity exportFile(JobExecution jobExecution, String fileName) {
+    var fileLocation = S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), fileName);
+    return JobExecutionExportFilesEntity.builder().fileLocation(fileLocation).build();
+  }
+
+  private JobExecutionExportFilesEntity storeExport(
+      JobExecution jobExecution, String fileName, String content) {
+    var export = exportFile(jobExecution, fileName);
+    storedFiles.put(export.getFileLocation(), content.getBytes(StandardCharsets.UTF_8));
+    return export;
+  }
+
+  private void mockStorage(JobExecution jobExecution) {
+    when(s3Client.list(S3FilePathUtils.getPathToStoredFiles(jobExecution.getId(), "")))
+        .thenReturn(new ArrayList<>(storedFiles.keySet()));
+    if (!storedFiles.isEmpty()) {
+      when(s3Client.read(anyString()))
+          .thenAnswer(
+              invocation ->
+                  new ByteArrayInputStream(storedFiles.get(invocation.<String>getArgument(0))));
+    }
+  }
+
+  private ByteArrayOutputStream captureUpload() {
+    var uploadedFile = new ByteArrayOutputStream();
+    when(s3Client.write(anyString(), any(InputStream.class), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              invocation.<InputStream>getArgument(1).transferTo(uploadedFile);
+              return "some-path";
+            });
+    return uploadedFile;
+  }
+
+  private Path tempDirOf(JobExecution jobExecution) {
+    return Path.of(
+        S3FilePathUtils.getTempDirForJobExecutionId(tempDir.toString(), jobExecution.getId()));
+  }
 }
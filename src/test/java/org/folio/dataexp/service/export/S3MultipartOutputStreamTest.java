@@ -0,0 +1,122 @@
+package org.folio.dataexp.service.export;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.folio.s3.client.FolioS3Client;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class S3MultipartOutputStreamTest {
+
+  private static final String S3_PATH = "mod-data-export/download/export.zip";
+  private static final String UPLOAD_ID = "upload-id";
+
+  @Mock private FolioS3Client s3Client;
+  @TempDir private Path tempDir;
+
+  @Test
+  @SneakyThrows
+  void shouldUploadContentSmallerThanPartWithSingleWrite() {
+    var uploaded = new ByteArrayOutputStream();
+    when(s3Client.write(eq(S3_PATH), any(InputStream.class), eq(4L)))
+        .thenAnswer(
+            invocation -> {
+              invocation.<InputStream>getArgument(1).transferTo(uploaded);
+              return S3_PATH;
+            });
+    var partFile = tempDir.resolve("export.zip.part");
+
+    try (var outputStream = new S3MultipartOutputStream(s3Client, S3_PATH, partFile, 5)) {
+      outputStream.write("marc".getBytes(UTF_8));
+    }
+
+    assertEquals("marc", uploaded.toString(UTF_8));
+    verify(s3Client, never()).initiateMultipartUpload(anyString());
+    assertFalse(Files.exists(partFile));
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldUploadContentInPartsWhileWriting() {
+    var parts = new ArrayList<String>();
+    when(s3Client.initiateMultipartUpload(S3_PATH)).thenReturn(UPLOAD_ID);
+    when(s3Client.uploadMultipartPart(eq(S3_PATH), eq(UPLOAD_ID), anyInt(), anyString()))
+        .thenAnswer(
+            invocation -> {
+              parts.add(Files.readString(Path.of(invocation.<String>getArgument(3)), UTF_8));
+              return "etag-" + invocation.getArgument(2);
+            });
+    var partFile = tempDir.resolve("export.zip.part");
+
+    try (var outputStream = new S3MultipartOutputStream(s3Client, S3_PATH, partFile, 4)) {
+      outputStream.write("marc".getBytes(UTF_8));
+      outputStream.write('-');
+      outputStream.write("record".getBytes(UTF_8));
+      assertEquals(List.of("marc", "-rec"), parts);
+      // the part in progress is kept in memory
+      assertFalse(Files.exists(partFile));
+    }
+
+    assertEquals(List.of("marc", "-rec", "ord"), parts);
+    verify(s3Client)
+        .completeMultipartUpload(S3_PATH, UPLOAD_ID, List.of("etag-1", "etag-2", "etag-3"));
+    verify(s3Client, never()).write(anyString(), any(InputStream.class), anyLong());
+    assertFalse(Files.exists(partFile));
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldAbortUploadIfPartUploadFails() {
+    when(s3Client.initiateMultipartUpload(S3_PATH)).thenReturn(UPLOAD_ID);
+    when(s3Client.uploadMultipartPart(eq(S3_PATH), eq(UPLOAD_ID), anyInt(), anyString()))
+        .thenThrow(new RuntimeException("S3 is unavailable"));
+    var partFile = tempDir.resolve("export.zip.part");
+    var outputStream = new S3MultipartOutputStream(s3Client, S3_PATH, partFile, 4);
+    var bytes = "marc".getBytes(UTF_8);
+
+    var exception = assertThrows(RuntimeException.class, () -> outputStream.write(bytes));
+    outputStream.close();
+
+    assertEquals("S3 is unavailable", exception.getMessage());
+    verify(s3Client).abortMultipartUpload(S3_PATH, UPLOAD_ID);
+    verify(s3Client, never()).completeMultipartUpload(anyString(), anyString(), any());
+    assertFalse(Files.exists(partFile));
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldNotUploadAbortedContent() {
+    var partFile = tempDir.resolve("export.zip.part");
+    var outputStream = new S3MultipartOutputStream(s3Client, S3_PATH, partFile, 8);
+    outputStream.write("marc".getBytes(UTF_8));
+
+    outputStream.abort();
+    outputStream.close();
+
+    verifyNoInteractions(s3Client);
+    assertFalse(Files.exists(partFile));
+  }
+}
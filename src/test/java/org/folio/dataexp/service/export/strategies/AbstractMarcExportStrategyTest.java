@@ -1,45 +1,61 @@
 package org.folio.dataexp.service.export.strategies;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
 import lombok.Setter;
 import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.dto.JobExecution;
 import org.folio.dataexp.domain.dto.JobExecutionProgress;
 import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.entity.ExportIdEntity;
-import org.folio.dataexp.domain.entity.JobExecutionEntity;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesStatus;
 import org.folio.dataexp.domain.entity.JobProfileEntity;
 import org.folio.dataexp.domain.entity.MappingProfileEntity;
 import org.folio.dataexp.domain.entity.MarcRecordEntity;
-import org.folio.dataexp.exception.export.LocalStorageWriterException;
+import org.folio.dataexp.exception.export.S3ExportsUploadException;
 import org.folio.dataexp.repository.ExportIdEntityRepository;
 import org.folio.dataexp.repository.InstanceEntityRepository;
-import org.folio.dataexp.repository.JobExecutionEntityRepository;
 import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
 import org.folio.dataexp.repository.JobProfileEntityRepository;
 import org.folio.dataexp.repository.MappingProfileEntityRepository;
 import org.folio.dataexp.service.JobExecutionService;
-import org.folio.dataexp.service.export.LocalStorageWriter;
+import org.folio.dataexp.service.export.ExportWriter;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.util.ErrorCode;
+import org.folio.processor.RuleProcessor;
+import org.folio.processor.referencedata.ReferenceDataWrapper;
+import org.folio.processor.rule.DataSource;
+import org.folio.processor.rule.Rule;
+import org.folio.processor.translations.Translation;
+import org.folio.processor.translations.TranslationsFunctionHolder;
 import org.folio.s3.client.FolioS3Client;
+import org.folio.writer.impl.MarcRecordWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -60,9 +76,8 @@ class AbstractMarcExportStrategyTest {
   @Mock private InstanceEntityRepository instanceEntityRepository;
   @Mock private MappingProfileEntityRepository mappingProfileEntityRepository;
   @Mock private JobProfileEntityRepository jobProfileEntityRepository;
-  @Mock private JobExecutionEntityRepository jobExecutionEntityRepository;
   @Mock private JobExecutionService jobExecutionService;
-  @Mock private LocalStorageWriter localStorageWriter;
+  @Mock private ExportWriter outputWriter;
   @Mock private ErrorLogService errorLogService;
   @Spy private JsonToMarcConverter jsonToMarcConverter;
 
@@ -76,7 +91,7 @@ class AbstractMarcExportStrategyTest {
   }
 
   @Test
-  void saveOutputToLocalStorageTest() {
+  void saveOutputTest() {
     var progress = new JobExecutionProgress();
     var jobExecution = new JobExecution().progress(progress).id(UUID.randomUUID());
     var jobProfileEntity = new JobProfileEntity();
@@ -125,16 +140,10 @@ class AbstractMarcExportStrategyTest {
         .thenReturn(jobProfileEntity);
     when(mappingProfileEntityRepository.getReferenceById(jobProfileEntity.getMappingProfileId()))
         .thenReturn(mappingProfileEntity);
-    var jobExecutionEntity = JobExecutionEntity.fromJobExecution(jobExecution);
-    when(jobExecutionEntityRepository.getReferenceById(isA(UUID.class)))
-        .thenReturn(jobExecutionEntity);
+    var listener = new ExportedRecordsListener();
 
     var exportStatistic =
-        exportStrategy.saveOutputToLocalStorage(
-            exportFilesEntity,
-            new ExportRequest(),
-            new ExportedRecordsListener(
-                jobExecutionEntityRepository, 1, jobExecutionEntity.getId()));
+        exportStrategy.saveOutput(exportFilesEntity, new ExportRequest(), listener);
     assertEquals(2, exportStatistic.getExported());
     assertEquals(1, exportStatistic.getDuplicatedSrs());
     assertEquals(0, exportStatistic.getFailed());
@@ -151,12 +160,14 @@ class AbstractMarcExportStrategyTest {
             eq(ErrorCode.ERROR_DUPLICATE_SRS_RECORD.getCode()),
             isA(List.class),
             eq(jobExecution.getId()));
-    verify(jobExecutionEntityRepository, times(2)).save(isA(JobExecutionEntity.class));
-    verify(localStorageWriter, times(2)).write(isA(String.class));
+    assertEquals(2, listener.getExported());
+    // both records are collected in the buffer of the page and appended to the export file at once
+    verify(outputWriter).write(isA(ByteBuffer.class));
+    verify(outputWriter).close();
   }
 
   @Test
-  void saveOutputToLocalStorageWhenMarcJsonInvalidTest() {
+  void saveOutputWhenMarcJsonInvalidTest() {
     var progress = new JobExecutionProgress();
     var jobExecution = new JobExecution().progress(progress).id(UUID.randomUUID());
     var jobProfileEntity = new JobProfileEntity();
@@ -205,13 +216,9 @@ class AbstractMarcExportStrategyTest {
     when(mappingProfileEntityRepository.getReferenceById(jobProfileEntity.getMappingProfileId()))
         .thenReturn(mappingProfileEntity);
 
-    var jobExecutionEntity = JobExecutionEntity.fromJobExecution(jobExecution);
     var exportStatistic =
-        exportStrategy.saveOutputToLocalStorage(
-            exportFilesEntity,
-            new ExportRequest(),
-            new ExportedRecordsListener(
-                jobExecutionEntityRepository, 1, jobExecutionEntity.getId()));
+        exportStrategy.saveOutput(
+            exportFilesEntity, new ExportRequest(), new ExportedRecordsListener());
     assertEquals(0, exportStatistic.getExported());
     assertEquals(0, exportStatistic.getDuplicatedSrs());
     assertEquals(1, exportStatistic.getFailed());
@@ -222,7 +229,7 @@ class AbstractMarcExportStrategyTest {
   }
 
   @Test
-  void saveOutputToLocalStorageWhenLocalStorageCanNotWriteTest() {
+  void saveOutputWhenLocalStorageCanNotWriteTest() {
     var jobExecution = new JobExecution();
     var jobProfileEntity = new JobProfileEntity();
     jobProfileEntity.setId(UUID.randomUUID());
@@ -270,11 +277,11 @@ class AbstractMarcExportStrategyTest {
         .thenReturn(mappingProfileEntity);
     when(exportIdEntityRepository.countExportIds(isA(UUID.class), isA(UUID.class), isA(UUID.class)))
         .thenReturn(1L);
-    doThrow(new LocalStorageWriterException("Can not write")).when(localStorageWriter).close();
+    doThrow(new S3ExportsUploadException("Can not write")).when(outputWriter).close();
 
     var exportStatistic =
-        exportStrategy.saveOutputToLocalStorage(
-            exportFilesEntity, new ExportRequest(), new ExportedRecordsListener(null, 1000, null));
+        exportStrategy.saveOutput(
+            exportFilesEntity, new ExportRequest(), new ExportedRecordsListener());
     assertEquals(0, exportStatistic.getExported());
     assertEquals(0, exportStatistic.getDuplicatedSrs());
     assertEquals(1, exportStatistic.getFailed());
@@ -287,6 +294,142 @@ class AbstractMarcExportStrategyTest {
             exportFilesEntity.getToId());
   }
 
+  @Test
+  void processPagesShouldWritePagesInReadOrderIfLaterPagesFinishFirst() {
+    var strategy = new TestExportStrategy(1);
+    strategy.setProcessSlicesThreadPoolSize(3);
+    var laterPagesDone = new CountDownLatch(2);
+    var finished = Collections.synchronizedList(new ArrayList<String>());
+    var pages =
+        new ArrayDeque<>(
+            List.of(
+                page("first", laterPagesDone::await, finished),
+                page("second", laterPagesDone::countDown, finished),
+                page("third", laterPagesDone::countDown, finished)));
+    var exportFilesEntity =
+        new JobExecutionExportFilesEntity()
+            .withFileLocation("/tmp/location")
+            .withJobExecutionId(UUID.randomUUID());
+    var exportStatistic = new ExportStrategyStatistic(new ExportedRecordsListener());
+
+    strategy.processPages(
+        new ExportJobContext(
+            exportFilesEntity, new ExportRequest(), new MappingProfile(), exportStatistic),
+        pageSize -> pages.poll(),
+        outputWriter);
+
+    assertEquals("first", finished.getLast());
+    assertEquals(3, exportStatistic.getExported());
+    var inOrder = inOrder(outputWriter);
+    inOrder.verify(outputWriter).write(ByteBuffer.wrap("first".getBytes(StandardCharsets.UTF_8)));
+    inOrder.verify(outputWriter).write(ByteBuffer.wrap("second".getBytes(StandardCharsets.UTF_8)));
+    inOrder.verify(outputWriter).write(ByteBuffer.wrap("third".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void processPagesShouldStopReadingPagesIfWritingPageFails() {
+    var strategy = new TestExportStrategy(1);
+    var finished = Collections.synchronizedList(new ArrayList<String>());
+    var exportFilesEntity =
+        new JobExecutionExportFilesEntity()
+            .withFileLocation("/tmp/location")
+            .withJobExecutionId(UUID.randomUUID());
+    var context =
+        new ExportJobContext(
+            exportFilesEntity,
+            new ExportRequest(),
+            new MappingProfile(),
+            new ExportStrategyStatistic(new ExportedRecordsListener()));
+    doThrow(new S3ExportsUploadException("Can not write"))
+        .when(outputWriter)
+        .write(isA(ByteBuffer.class));
+
+    var exception =
+        assertThrows(
+            CompletionException.class,
+            () ->
+                strategy.processPages(
+                    context, pageSize -> page("page", () -> {}, finished), outputWriter));
+
+    assertInstanceOf(S3ExportsUploadException.class, exception.getCause());
+    verify(outputWriter).write(isA(ByteBuffer.class));
+  }
+
+  @Test
+  void processPagesShouldRecordChosenPageSizes() {
+    var strategy = new TestExportStrategy(2);
+    var meterRegistry = new SimpleMeterRegistry();
+    strategy.setMeterRegistry(meterRegistry);
+    strategy.setExportIdsBatchMax(2);
+    var finished = new ArrayList<String>();
+    var pages =
+        new ArrayDeque<>(
+            List.of(page("first", () -> {}, finished), page("second", () -> {}, finished)));
+    var exportFilesEntity =
+        new JobExecutionExportFilesEntity()
+            .withFileLocation("/tmp/location")
+            .withJobExecutionId(UUID.randomUUID());
+
+    strategy.processPages(
+        new ExportJobContext(
+            exportFilesEntity,
+            new ExportRequest(),
+            new MappingProfile(),
+            new ExportStrategyStatistic(new ExportedRecordsListener())),
+        pageSize -> pages.poll(),
+        outputWriter);
+
+    var pageSizes =
+        meterRegistry
+            .get(AbstractExportStrategy.PAGE_SIZE_METRIC)
+            .tag("strategy", TestExportStrategy.class.getSimpleName())
+            .summary();
+    assertEquals(2, pageSizes.count());
+    assertEquals(4, pageSizes.totalAmount());
+  }
+
+  @Test
+  void createAndSaveMarcFromJsonRecordShouldLookUpInstancesOfAllDuplicatesOfPageAtOnce() {
+    var json =
+        """
+        {
+            "leader": "00476cy  a22001574  4500"
+        }""";
+    var first = UUID.fromString("0eaa7eef-9633-4c7e-af09-796315ebc576");
+    var second = UUID.fromString("1f3c9a2e-4b8d-4e6f-9a1c-2d7e5b8f0a34");
+    var marcRecords =
+        List.of(
+            new MarcRecordEntity(
+                UUID.randomUUID(), first, json, "type", "ACTUAL", 'c', false, 0, false),
+            new MarcRecordEntity(
+                UUID.randomUUID(), first, json, "type", "ACTUAL", 'c', false, 0, false),
+            new MarcRecordEntity(
+                UUID.randomUUID(), second, json, "type", "ACTUAL", 'c', false, 0, false),
+            new MarcRecordEntity(
+                UUID.randomUUID(), second, json, "type", "ACTUAL", 'c', false, 0, false));
+    var exportFilesEntity =
+        new JobExecutionExportFilesEntity()
+            .withFileLocation("/tmp/location")
+            .withJobExecutionId(UUID.randomUUID());
+    var exportStatistic = new ExportStrategyStatistic(new ExportedRecordsListener());
+
+    exportStrategy.createAndSaveMarcFromJsonRecord(
+        new HashSet<>(Set.of(first, second)),
+        new ExportJobContext(
+            exportFilesEntity, new ExportRequest(), new MappingProfile(), exportStatistic),
+        new HashSet<>(),
+        marcRecords,
+        outputWriter);
+
+    assertEquals(2, exportStatistic.getDuplicatedSrs());
+    verify(instanceEntityRepository, times(1)).findByIdIn(Set.of(first, second));
+    verify(errorLogService, times(2))
+        .saveGeneralErrorWithMessageValues(
+            eq(ErrorCode.ERROR_DUPLICATE_SRS_RECORD.getCode()),
+            isA(List.class),
+            eq(exportFilesEntity.getJobExecutionId()));
+  }
+
   @Test
   void getAsJsonObjectTest() {
     var jsonAsString = "{'id':'123'}";
@@ -298,10 +441,84 @@ class AbstractMarcExportStrategyTest {
     assertEquals("123", jsonObject.getAsString("id"));
   }
 
+  @Test
+  void getAsJsonObjectShouldReuseParserAfterInvalidJsonTest() {
+    assertTrue(TestExportStrategy.getAsJsonObject("{'id':").isEmpty());
+
+    var opt = TestExportStrategy.getAsJsonObject("{'id':'456','hrid':'in1'}");
+
+    assertTrue(opt.isPresent());
+    assertEquals("456", opt.get().getAsString("id"));
+    assertEquals("in1", opt.get().getAsString("hrid"));
+  }
+
+  @Test
+  void getEntityReaderShouldReadRulesFromParsedEntityTest() {
+    var entity =
+        TestExportStrategy.getAsJsonObject(
+                "{'instance':{'id':'0eb5bfd1-1a23-4b0c-a7c9-b7a1b0c4d5e6','hrid':'in00000001'}}")
+            .orElseThrow();
+    var rule001 = new Rule();
+    rule001.setField("001");
+    var hridDataSource = new DataSource();
+    hridDataSource.setFrom("$.instance.hrid");
+    rule001.setDataSources(List.of(hridDataSource));
+    var rule999 = new Rule();
+    rule999.setField("999");
+    var idDataSource = new DataSource();
+    idDataSource.setFrom("$.instance.id");
+    idDataSource.setSubfield("i");
+    rule999.setDataSources(List.of(idDataSource, indicator("1"), indicator("2")));
+
+    var marc =
+        new RuleProcessor(TranslationsFunctionHolder.SET_VALUE)
+            .process(
+                TestExportStrategy.getEntityReader(entity),
+                new MarcRecordWriter(),
+                mock(ReferenceDataWrapper.class),
+                List.of(rule001, rule999),
+                translationException -> {});
+
+    assertTrue(marc.contains("in00000001"));
+    assertTrue(marc.contains("0eb5bfd1-1a23-4b0c-a7c9-b7a1b0c4d5e6"));
+  }
+
+  private DataSource indicator(String indicator) {
+    var translation = new Translation();
+    translation.setFunction("set_value");
+    translation.setParameters(Map.of("value", "f"));
+    var dataSource = new DataSource();
+    dataSource.setIndicator(indicator);
+    dataSource.setTranslation(translation);
+    return dataSource;
+  }
+
+  private ExportPageSource.Page page(String content, PageStep beforeWrite, List<String> finished) {
+    return new ExportPageSource.Page(
+        1,
+        (context, writer) -> {
+          try {
+            beforeWrite.run();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+          }
+          writer.write(content);
+          context.statistic().incrementExported();
+          finished.add(content);
+        });
+  }
+
+  @FunctionalInterface
+  private interface PageStep {
+    void run() throws InterruptedException;
+  }
+
   class TestExportStrategy extends AbstractMarcExportStrategy {
 
     TestExportStrategy(int exportBatch) {
       super.setExportIdsBatch(exportBatch);
+      super.setProcessSlicesThreadPoolSize(1);
     }
 
     @Setter private List<MarcRecordEntity> marcRecords = new ArrayList<>();
@@ -329,10 +546,14 @@ class AbstractMarcExportStrategyTest {
     }
 
     @Override
-    Optional<ExportIdentifiersForDuplicateError> getIdentifiers(UUID id) {
-      var identifiers = new ExportIdentifiersForDuplicateError();
-      identifiers.setIdentifierHridMessage("hrid123");
-      return Optional.of(identifiers);
+    Map<UUID, ExportIdentifiersForDuplicateError> getIdentifiers(Set<UUID> ids) {
+      var identifiersById = new HashMap<UUID, ExportIdentifiersForDuplicateError>();
+      for (var id : ids) {
+        var identifiers = new ExportIdentifiersForDuplicateError();
+        identifiers.setIdentifierHridMessage("hrid123");
+        identifiersById.put(id, identifiers);
+      }
+      return identifiersById;
     }
 
     @Override
@@ -342,9 +563,8 @@ class AbstractMarcExportStrategyTest {
     }
 
     @Override
-    protected LocalStorageWriter createLocalStorageWriter(
-        JobExecutionExportFilesEntity exportFilesEntity) {
-      return localStorageWriter;
+    protected ExportWriter createOutputWriter(JobExecutionExportFilesEntity exportFilesEntity) {
+      return outputWriter;
     }
 
     @Override
@@ -0,0 +1,64 @@
+package org.folio.dataexp.service.export.strategies;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveBatchSizeTest {
+
+  private static final double LOW_HEAP_USAGE = 0.3;
+  private static final double HIGH_HEAP_USAGE = 0.9;
+
+  @Test
+  void shouldGrowAtMostTwiceForFastPages() {
+    var batchSize = new AdaptiveBatchSize(1000, 100, 10_000, 2000, () -> LOW_HEAP_USAGE);
+
+    batchSize.onPageProcessed(1000, TimeUnit.MILLISECONDS.toNanos(100));
+
+    assertEquals(2000, batchSize.get());
+  }
+
+  @Test
+  void shouldMoveTowardsTargetTime() {
+    var batchSize = new AdaptiveBatchSize(1000, 100, 10_000, 2000, () -> LOW_HEAP_USAGE);
+
+    batchSize.onPageProcessed(1000, TimeUnit.MILLISECONDS.toNanos(2500));
+
+    assertEquals(800, batchSize.get());
+  }
+
+  @Test
+  void shouldStayWithinBounds() {
+    var batchSize = new AdaptiveBatchSize(1000, 600, 1500, 2000, () -> LOW_HEAP_USAGE);
+
+    batchSize.onPageProcessed(1000, TimeUnit.MILLISECONDS.toNanos(10));
+    assertEquals(1500, batchSize.get());
+    batchSize.onPageProcessed(1500, TimeUnit.SECONDS.toNanos(60));
+    assertEquals(750, batchSize.get());
+    batchSize.onPageProcessed(750, TimeUnit.SECONDS.toNanos(60));
+    assertEquals(600, batchSize.get());
+
+    assertEquals(600, batchSize.getSmallest());
+    assertEquals(1500, batchSize.getLargest());
+  }
+
+  @Test
+  void shouldHalveUnderHeapPressure() {
+    var batchSize = new AdaptiveBatchSize(1000, 100, 10_000, 2000, () -> HIGH_HEAP_USAGE);
+
+    batchSize.onPageProcessed(1000, TimeUnit.MILLISECONDS.toNanos(10));
+
+    assertEquals(500, batchSize.get());
+  }
+
+  @Test
+  void shouldAlwaysAllowConfiguredInitialSize() {
+    var batchSize = new AdaptiveBatchSize(1, 100, 10_000, 2000, () -> LOW_HEAP_USAGE);
+
+    batchSize.onPageProcessed(1, TimeUnit.SECONDS.toNanos(10));
+    batchSize.onPageProcessed(0, TimeUnit.SECONDS.toNanos(10));
+
+    assertEquals(1, batchSize.get());
+  }
+}
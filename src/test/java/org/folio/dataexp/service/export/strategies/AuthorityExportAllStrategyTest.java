@@ -1,9 +1,11 @@
 package org.folio.dataexp.service.export.strategies;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.folio.dataexp.util.UuidUtils.MIN_UUID;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -21,7 +23,9 @@ import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 import org.folio.dataexp.domain.entity.MarcRecordEntity;
 import org.folio.dataexp.repository.MarcAuthorityRecordAllRepository;
-import org.folio.dataexp.service.export.LocalStorageWriter;
+import org.folio.dataexp.service.export.ExportWriter;
+import org.folio.dataexp.util.UuidUtils;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -40,7 +44,7 @@ class AuthorityExportAllStrategyTest {
 
   @Mock private MarcAuthorityRecordAllRepository marcAuthorityRecordAllRepository;
 
-  @Mock private LocalStorageWriter localStorageWriter;
+  @Mock private ExportWriter localStorageWriter;
 
   @Mock private ExportStrategyStatistic exportStatistic;
 
@@ -50,7 +54,14 @@ class AuthorityExportAllStrategyTest {
 
   @Captor private ArgumentCaptor<List<MarcRecordEntity>> marcRecordsCaptor;
 
-  @Captor private ArgumentCaptor<Pageable> pageableCaptor;
+  @Captor private ArgumentCaptor<UUID> cursorCaptor;
+
+  @BeforeEach
+  void setUp() {
+    // a single thread exports the pages one after another, at the size of the first page
+    authorityExportAllStrategy.setProcessSlicesThreadPoolSize(1);
+    authorityExportAllStrategy.setExportIdsBatchMax(1);
+  }
 
   @Test
   @TestMate(name = "TestMate-a296f59045cc846a0e9f7b590af4a637")
@@ -70,17 +81,15 @@ class AuthorityExportAllStrategyTest {
     // So it needs to be set manually.
     authorityExportAllStrategy.marcAuthorityRecordAllRepository = marcAuthorityRecordAllRepository;
     when(marcAuthorityRecordAllRepository.findAllWithoutDeleted(
-            any(UUID.class), any(UUID.class), any(Pageable.class)))
+            any(UUID.class), any(UUID.class), any(UUID.class), any(Pageable.class)))
         .thenReturn(slice);
     doNothing()
         .when(authorityExportAllStrategy)
         .createAndSaveMarc(
             anySet(),
             anyList(),
-            any(ExportStrategyStatistic.class),
-            any(MappingProfile.class),
-            any(UUID.class),
-            any(LocalStorageWriter.class));
+            any(ExportJobContext.class),
+            any(ExportWriter.class));
     var exportRequest = new ExportRequest().deletedRecords(false);
     var jobExecutionId = UUID.fromString("a892033a-3366-4b53-af27-1f3b2843511e");
     var fromId = UUID.fromString("00000000-0000-0000-0000-000000000001");
@@ -93,18 +102,17 @@ class AuthorityExportAllStrategyTest {
     var mappingProfile = new MappingProfile();
     // When
     authorityExportAllStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
     // Then
-    verify(marcAuthorityRecordAllRepository).findAllWithoutDeleted(fromId, toId, pageable);
-    verify(marcAuthorityRecordAllRepository, never()).findAllWithDeleted(any(), any(), any());
+    verify(marcAuthorityRecordAllRepository).findAllWithoutDeleted(fromId, toId, MIN_UUID, pageable);
+    verify(marcAuthorityRecordAllRepository, never()).findAllWithDeleted(any(), any(), any(), any());
     verify(authorityExportAllStrategy)
         .createAndSaveMarc(
             exportIdsCaptor.capture(),
             marcRecordsCaptor.capture(),
-            any(ExportStrategyStatistic.class),
-            any(MappingProfile.class),
-            any(UUID.class),
-            any(LocalStorageWriter.class));
+            any(ExportJobContext.class),
+            any(ExportWriter.class));
     Set<UUID> expectedIds =
         marcRecords.stream().map(MarcRecordEntity::getExternalId).collect(Collectors.toSet());
     assertThat(exportIdsCaptor.getValue()).containsExactlyInAnyOrderElementsOf(expectedIds);
@@ -125,27 +133,25 @@ class AuthorityExportAllStrategyTest {
         MarcRecordEntity.builder().id(UUID.randomUUID()).externalId(UUID.randomUUID()).build();
     authorityExportAllStrategy.setExportIdsBatch(1);
     authorityExportAllStrategy.marcAuthorityRecordAllRepository = marcAuthorityRecordAllRepository;
-    var pageable1 = PageRequest.of(0, 1);
-    var pageable2 = PageRequest.of(1, 1);
-    var pageable3 = PageRequest.of(2, 1);
-    Slice<MarcRecordEntity> slice1 = new SliceImpl<>(List.of(marcRecord1), pageable1, true);
-    Slice<MarcRecordEntity> slice2 = new SliceImpl<>(List.of(marcRecord2), pageable2, true);
-    Slice<MarcRecordEntity> slice3 = new SliceImpl<>(List.of(marcRecord3), pageable3, false);
-    when(marcAuthorityRecordAllRepository.findAllWithoutDeleted(fromId, toId, pageable1))
+    var pageable = PageRequest.of(0, 1);
+    Slice<MarcRecordEntity> slice1 = new SliceImpl<>(List.of(marcRecord1), pageable, true);
+    Slice<MarcRecordEntity> slice2 = new SliceImpl<>(List.of(marcRecord2), pageable, true);
+    Slice<MarcRecordEntity> slice3 = new SliceImpl<>(List.of(marcRecord3), pageable, false);
+    var cursor2 = UuidUtils.next(marcRecord1.getId());
+    var cursor3 = UuidUtils.next(marcRecord2.getId());
+    when(marcAuthorityRecordAllRepository.findAllWithoutDeleted(fromId, toId, MIN_UUID, pageable))
         .thenReturn(slice1);
-    when(marcAuthorityRecordAllRepository.findAllWithoutDeleted(fromId, toId, pageable2))
+    when(marcAuthorityRecordAllRepository.findAllWithoutDeleted(fromId, toId, cursor2, pageable))
         .thenReturn(slice2);
-    when(marcAuthorityRecordAllRepository.findAllWithoutDeleted(fromId, toId, pageable3))
+    when(marcAuthorityRecordAllRepository.findAllWithoutDeleted(fromId, toId, cursor3, pageable))
         .thenReturn(slice3);
     doNothing()
         .when(authorityExportAllStrategy)
         .createAndSaveMarc(
             anySet(),
             anyList(),
-            any(ExportStrategyStatistic.class),
-            any(MappingProfile.class),
-            any(UUID.class),
-            any(LocalStorageWriter.class));
+            any(ExportJobContext.class),
+            any(ExportWriter.class));
     var jobExecutionId = UUID.fromString("a892033a-3366-4b53-af27-1f3b2843511e");
     var exportRequest = new ExportRequest().deletedRecords(false);
     var exportFilesEntity =
@@ -156,21 +162,20 @@ class AuthorityExportAllStrategyTest {
     var mappingProfile = new MappingProfile();
     // When
     authorityExportAllStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
     // Then
     verify(marcAuthorityRecordAllRepository, times(3))
-        .findAllWithoutDeleted(any(UUID.class), any(UUID.class), pageableCaptor.capture());
-    verify(marcAuthorityRecordAllRepository, never()).findAllWithDeleted(any(), any(), any());
-    List<Pageable> capturedPageables = pageableCaptor.getAllValues();
-    assertThat(capturedPageables).containsExactly(pageable1, pageable2, pageable3);
+        .findAllWithoutDeleted(
+            any(UUID.class), any(UUID.class), cursorCaptor.capture(), eq(pageable));
+    verify(marcAuthorityRecordAllRepository, never()).findAllWithDeleted(any(), any(), any(), any());
+    assertThat(cursorCaptor.getAllValues()).containsExactly(MIN_UUID, cursor2, cursor3);
     verify(authorityExportAllStrategy, times(3))
         .createAndSaveMarc(
             exportIdsCaptor.capture(),
             marcRecordsCaptor.capture(),
-            any(ExportStrategyStatistic.class),
-            any(MappingProfile.class),
-            any(UUID.class),
-            any(LocalStorageWriter.class));
+            any(ExportJobContext.class),
+            any(ExportWriter.class));
     List<Set<UUID>> allExportIds = exportIdsCaptor.getAllValues();
     assertThat(allExportIds.get(0)).containsExactly(marcRecord1.getExternalId());
     assertThat(allExportIds.get(1)).containsExactly(marcRecord2.getExternalId());
@@ -191,17 +196,15 @@ class AuthorityExportAllStrategyTest {
     Slice<MarcRecordEntity> emptySlice = new SliceImpl<>(Collections.emptyList(), pageable, false);
     authorityExportAllStrategy.setExportIdsBatch(1);
     authorityExportAllStrategy.marcAuthorityRecordAllRepository = marcAuthorityRecordAllRepository;
-    when(marcAuthorityRecordAllRepository.findAllWithoutDeleted(fromId, toId, pageable))
+    when(marcAuthorityRecordAllRepository.findAllWithoutDeleted(fromId, toId, MIN_UUID, pageable))
         .thenReturn(emptySlice);
     doNothing()
         .when(authorityExportAllStrategy)
         .createAndSaveMarc(
             anySet(),
             anyList(),
-            any(ExportStrategyStatistic.class),
-            any(MappingProfile.class),
-            any(UUID.class),
-            any(LocalStorageWriter.class));
+            any(ExportJobContext.class),
+            any(ExportWriter.class));
     var mappingProfile = new MappingProfile();
     var jobExecutionId = UUID.fromString("a892033a-3366-4b53-af27-1f3b2843511e");
     var exportFilesEntity =
@@ -212,18 +215,17 @@ class AuthorityExportAllStrategyTest {
     var exportRequest = new ExportRequest().deletedRecords(false);
     // When
     authorityExportAllStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
     // Then
-    verify(marcAuthorityRecordAllRepository).findAllWithoutDeleted(fromId, toId, pageable);
-    verify(marcAuthorityRecordAllRepository, never()).findAllWithDeleted(any(), any(), any());
+    verify(marcAuthorityRecordAllRepository).findAllWithoutDeleted(fromId, toId, MIN_UUID, pageable);
+    verify(marcAuthorityRecordAllRepository, never()).findAllWithDeleted(any(), any(), any(), any());
     verify(authorityExportAllStrategy)
         .createAndSaveMarc(
             exportIdsCaptor.capture(),
             marcRecordsCaptor.capture(),
-            any(ExportStrategyStatistic.class),
-            any(MappingProfile.class),
-            any(UUID.class),
-            any(LocalStorageWriter.class));
+            any(ExportJobContext.class),
+            any(ExportWriter.class));
     assertThat(exportIdsCaptor.getValue()).isEmpty();
     assertThat(marcRecordsCaptor.getValue()).isEmpty();
   }
@@ -244,17 +246,15 @@ class AuthorityExportAllStrategyTest {
     authorityExportAllStrategy.setExportIdsBatch(1);
     authorityExportAllStrategy.marcAuthorityRecordAllRepository = marcAuthorityRecordAllRepository;
     when(marcAuthorityRecordAllRepository.findAllWithDeleted(
-            any(UUID.class), any(UUID.class), any(Pageable.class)))
+            any(UUID.class), any(UUID.class), any(UUID.class), any(Pageable.class)))
         .thenReturn(slice);
     doNothing()
         .when(authorityExportAllStrategy)
         .createAndSaveMarc(
             anySet(),
             anyList(),
-            any(ExportStrategyStatistic.class),
-            any(MappingProfile.class),
-            any(UUID.class),
-            any(LocalStorageWriter.class));
+            any(ExportJobContext.class),
+            any(ExportWriter.class));
     var exportRequest = new ExportRequest().deletedRecords(true);
     var toId = UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff");
     var fromId = UUID.fromString("00000000-0000-0000-0000-000000000001");
@@ -267,18 +267,17 @@ class AuthorityExportAllStrategyTest {
     var mappingProfile = new MappingProfile();
     // When
     authorityExportAllStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
     // Then
-    verify(marcAuthorityRecordAllRepository).findAllWithDeleted(fromId, toId, pageable);
-    verify(marcAuthorityRecordAllRepository, never()).findAllWithoutDeleted(any(), any(), any());
+    verify(marcAuthorityRecordAllRepository).findAllWithDeleted(fromId, toId, MIN_UUID, pageable);
+    verify(marcAuthorityRecordAllRepository, never()).findAllWithoutDeleted(any(), any(), any(), any());
     verify(authorityExportAllStrategy)
         .createAndSaveMarc(
             exportIdsCaptor.capture(),
             marcRecordsCaptor.capture(),
-            any(ExportStrategyStatistic.class),
-            any(MappingProfile.class),
-            any(UUID.class),
-            any(LocalStorageWriter.class));
+            any(ExportJobContext.class),
+            any(ExportWriter.class));
     Set<UUID> expectedIds =
         marcRecords.stream().map(MarcRecordEntity::getExternalId).collect(Collectors.toSet());
     assertThat(exportIdsCaptor.getValue()).containsExactlyInAnyOrderElementsOf(expectedIds);
@@ -164,7 +164,7 @@ class AuthorityExportStrategyIT extends BaseDataExportInitializerIT {
             new MappingProfile(),
             new ExportRequest(),
             UUID.randomUUID(),
-            new ExportStrategyStatistic(new ExportedRecordsListener(null, 1000, null)));
+            new ExportStrategyStatistic(new ExportedRecordsListener()));
     assertEquals(1, marcRecords.getNotExistIds().size());
     assertEquals(1, marcRecords.getFailedIds().size());
   }
@@ -0,0 +1,142 @@
+package org.folio.dataexp.service.export.strategies;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.folio.dataexp.domain.dto.MappingProfile;
+import org.folio.dataexp.domain.dto.Metadata;
+import org.folio.dataexp.exception.TransformationRuleException;
+import org.folio.dataexp.service.export.strategies.CompiledRulesCache.RulesType;
+import org.folio.processor.rule.Rule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CompiledRulesCacheTest {
+
+  private static final String TENANT_ID = "test_tenant";
+
+  @Mock private RuleFactory ruleFactory;
+
+  private final CompiledRulesCache compiledRulesCache = new CompiledRulesCache();
+
+  @Test
+  void shouldCompileRulesOncePerProfileVersion() throws TransformationRuleException {
+    var mappingProfile = mappingProfile(new Date(1000L));
+    when(ruleFactory.getRules(any(MappingProfile.class)))
+        .thenAnswer(invocation -> new ArrayList<>(List.of(new Rule())));
+
+    var first = getRules(mappingProfile, RulesType.PROFILE);
+    var second = getRules(mappingProfile, RulesType.PROFILE);
+
+    assertThat(second).isSameAs(first).hasSize(1);
+    assertThatThrownBy(() -> first.add(new Rule()))
+        .isInstanceOf(UnsupportedOperationException.class);
+    verify(ruleFactory).getRules(mappingProfile);
+  }
+
+  @Test
+  void shouldRecompileRulesForUpdatedProfileOrAnotherRulesType()
+      throws TransformationRuleException {
+    var mappingProfile = mappingProfile(new Date(1000L));
+    when(ruleFactory.getRules(any(MappingProfile.class))).thenReturn(List.of(new Rule()));
+
+    getRules(mappingProfile, RulesType.PROFILE);
+    getRules(mappingProfile, RulesType.DEFAULT_WITH_HOLDINGS_AND_ITEMS);
+    mappingProfile.setSuppress999ff(true);
+    getRules(mappingProfile, RulesType.PROFILE);
+    mappingProfile.getMetadata().setUpdatedDate(new Date(2000L));
+    getRules(mappingProfile, RulesType.PROFILE);
+
+    verify(ruleFactory, times(4)).getRules(mappingProfile);
+  }
+
+  @Test
+  void shouldNotCacheRulesOfProfileWithoutMetadata() throws TransformationRuleException {
+    var mappingProfile = new MappingProfile().id(UUID.randomUUID());
+    when(ruleFactory.getRules(any(MappingProfile.class))).thenReturn(List.of(new Rule()));
+
+    getRules(mappingProfile, RulesType.PROFILE);
+    getRules(mappingProfile, RulesType.PROFILE);
+
+    verify(ruleFactory, times(2)).getRules(mappingProfile);
+  }
+
+  @Test
+  void shouldRecompileRulesAfterInvalidation() throws TransformationRuleException {
+    var mappingProfile = mappingProfile(new Date(1000L));
+    when(ruleFactory.getRules(any(MappingProfile.class))).thenReturn(List.of(new Rule()));
+
+    getRules(mappingProfile, RulesType.PROFILE);
+    getRules(mappingProfile, RulesType.DEFAULT_WITH_HOLDINGS_AND_ITEMS);
+    compiledRulesCache.invalidate(mappingProfile.getId());
+    getRules(mappingProfile, RulesType.PROFILE);
+    getRules(mappingProfile, RulesType.DEFAULT_WITH_HOLDINGS_AND_ITEMS);
+
+    verify(ruleFactory, times(4)).getRules(mappingProfile);
+  }
+
+  @Test
+  void shouldCompileRulesOncePerTenant() throws TransformationRuleException {
+    var mappingProfile = mappingProfile(new Date(1000L));
+    when(ruleFactory.getRules(any(MappingProfile.class))).thenReturn(List.of(new Rule()));
+
+    getRules(TENANT_ID, mappingProfile, null, RulesType.PROFILE);
+    getRules("another_tenant", mappingProfile, null, RulesType.PROFILE);
+    getRules(TENANT_ID, mappingProfile, null, RulesType.PROFILE);
+
+    verify(ruleFactory, times(2)).getRules(mappingProfile);
+  }
+
+  @Test
+  void shouldRecompileRulesForUpdatedBaseProfile() throws TransformationRuleException {
+    var mappingProfile = mappingProfile(new Date(1000L));
+    var baseMappingProfile = mappingProfile(new Date(1000L));
+    var rulesType = RulesType.DEFAULT_WITH_HOLDINGS_AND_ITEMS;
+    when(ruleFactory.getRules(any(MappingProfile.class))).thenReturn(List.of(new Rule()));
+
+    getRules(TENANT_ID, mappingProfile, baseMappingProfile, rulesType);
+    getRules(TENANT_ID, mappingProfile, baseMappingProfile, rulesType);
+    baseMappingProfile.getMetadata().setUpdatedDate(new Date(2000L));
+    getRules(TENANT_ID, mappingProfile, baseMappingProfile, rulesType);
+    compiledRulesCache.invalidate(baseMappingProfile.getId());
+    getRules(TENANT_ID, mappingProfile, baseMappingProfile, rulesType);
+
+    verify(ruleFactory, times(3)).getRules(mappingProfile);
+  }
+
+  private List<Rule> getRules(MappingProfile mappingProfile, RulesType rulesType)
+      throws TransformationRuleException {
+    return getRules(TENANT_ID, mappingProfile, null, rulesType);
+  }
+
+  private List<Rule> getRules(
+      String tenantId,
+      MappingProfile mappingProfile,
+      MappingProfile baseMappingProfile,
+      RulesType rulesType)
+      throws TransformationRuleException {
+    return compiledRulesCache.get(
+        tenantId,
+        mappingProfile,
+        baseMappingProfile,
+        rulesType,
+        () -> ruleFactory.getRules(mappingProfile));
+  }
+
+  private MappingProfile mappingProfile(Date updatedDate) {
+    return new MappingProfile()
+        .id(UUID.randomUUID())
+        .metadata(new Metadata().createdDate(updatedDate).updatedDate(updatedDate));
+  }
+}
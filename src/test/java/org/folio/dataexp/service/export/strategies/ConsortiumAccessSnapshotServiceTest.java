@@ -0,0 +1,110 @@
+package org.folio.dataexp.service.export.strategies;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.folio.dataexp.service.ConsortiaService;
+import org.folio.dataexp.service.validators.PermissionsValidator;
+import org.folio.spring.FolioExecutionContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ConsortiumAccessSnapshotServiceTest {
+
+  @Mock private ConsortiaService consortiaService;
+  @Mock private PermissionsValidator permissionsValidator;
+  @Mock private UserService userService;
+  @Mock private FolioExecutionContext folioExecutionContext;
+  @InjectMocks private ConsortiumAccessSnapshotService consortiumAccessSnapshotService;
+
+  @Test
+  void openShouldTakeSnapshotOnceForCentralTenant() {
+    var jobExecutionId = UUID.randomUUID();
+    var userId = UUID.randomUUID();
+    when(folioExecutionContext.getTenantId()).thenReturn("central");
+    when(folioExecutionContext.getUserId()).thenReturn(userId);
+    when(consortiaService.getCentralTenantId("central")).thenReturn("central");
+    when(consortiaService.getAffiliatedTenants("central", userId.toString()))
+        .thenReturn(List.of("college"));
+    when(permissionsValidator.isInstanceViewPermissionExists("central")).thenReturn(true);
+    when(permissionsValidator.isInstanceViewPermissionExists("college")).thenReturn(false);
+    when(userService.getUserName("central", userId.toString())).thenReturn("central_admin");
+
+    consortiumAccessSnapshotService.open(jobExecutionId);
+    var snapshot = consortiumAccessSnapshotService.get(jobExecutionId);
+
+    assertTrue(snapshot.isCentralTenant());
+    assertEquals(Set.of("college"), snapshot.affiliatedTenants());
+    assertEquals(Map.of("central", true, "college", false), snapshot.instanceViewPermissions());
+    assertEquals("central_admin", snapshot.userName());
+    assertSame(snapshot, consortiumAccessSnapshotService.get(jobExecutionId));
+    verify(consortiaService, times(1)).getAffiliatedTenants("central", userId.toString());
+  }
+
+  @Test
+  void getShouldTakeLocalSnapshotAgainAfterClose() {
+    var jobExecutionId = UUID.randomUUID();
+    when(folioExecutionContext.getTenantId()).thenReturn("member");
+    when(consortiaService.getCentralTenantId("member")).thenReturn("central");
+
+    var snapshot = consortiumAccessSnapshotService.get(jobExecutionId);
+    consortiumAccessSnapshotService.close(jobExecutionId);
+    consortiumAccessSnapshotService.get(jobExecutionId);
+
+    assertFalse(snapshot.isCentralTenant());
+    assertFalse(snapshot.isAffiliated("central"));
+    assertNull(snapshot.userName());
+    verify(consortiaService, times(2)).getCentralTenantId("member");
+    verify(permissionsValidator, never()).isInstanceViewPermissionExists(anyString());
+  }
+
+  @Test
+  void getShouldTakeSnapshotWithoutAccessIfThereIsNoUser() {
+    var jobExecutionId = UUID.randomUUID();
+    when(folioExecutionContext.getTenantId()).thenReturn("central");
+    when(consortiaService.getCentralTenantId("central")).thenReturn("central");
+
+    var snapshot = consortiumAccessSnapshotService.get(jobExecutionId);
+
+    assertTrue(snapshot.isCentralTenant());
+    assertTrue(snapshot.affiliatedTenants().isEmpty());
+    assertFalse(snapshot.canViewInstances("central"));
+    assertEquals("", snapshot.userName());
+    verify(consortiaService, never()).getAffiliatedTenants(anyString(), anyString());
+    verify(permissionsValidator, never()).isInstanceViewPermissionExists(anyString());
+  }
+
+  @Test
+  void evictIdleShouldDropOnlySnapshotsNotUsedForAnHour() {
+    var jobExecutionId = UUID.randomUUID();
+    when(folioExecutionContext.getTenantId()).thenReturn("member");
+    when(consortiaService.getCentralTenantId("member")).thenReturn("central");
+    consortiumAccessSnapshotService.open(jobExecutionId);
+    var now = System.currentTimeMillis();
+
+    consortiumAccessSnapshotService.evictIdle(now + MINUTES.toMillis(30));
+    consortiumAccessSnapshotService.get(jobExecutionId);
+    consortiumAccessSnapshotService.evictIdle(now + HOURS.toMillis(2));
+    consortiumAccessSnapshotService.get(jobExecutionId);
+
+    verify(consortiaService, times(2)).getCentralTenantId("member");
+  }
+}
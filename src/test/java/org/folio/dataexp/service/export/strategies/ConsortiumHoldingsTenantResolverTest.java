@@ -0,0 +1,138 @@
+package org.folio.dataexp.service.export.strategies;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.folio.dataexp.client.ConsortiumSearchClient;
+import org.folio.dataexp.domain.dto.BatchIds;
+import org.folio.dataexp.domain.dto.BatchIds.IdentifierType;
+import org.folio.dataexp.domain.dto.ConsortiumHolding;
+import org.folio.dataexp.domain.dto.ConsortiumHoldingCollection;
+import org.folio.spring.FolioExecutionContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ConsortiumHoldingsTenantResolverTest {
+
+  @Mock private ConsortiumSearchClient consortiumSearchClient;
+  @Mock private FolioExecutionContext folioExecutionContext;
+  @InjectMocks private ConsortiumHoldingsTenantResolver consortiumHoldingsTenantResolver;
+
+  private final UUID jobExecutionId = UUID.fromString("3f1c9a52-6e0b-4d7a-9c2e-8b5d4a1f0e63");
+
+  @Test
+  void getTenantsShouldSearchOnlyNotResolvedHoldings() {
+    var holdingA = UUID.randomUUID();
+    var holdingB = UUID.randomUUID();
+    when(folioExecutionContext.getTenantId()).thenReturn("central");
+    when(consortiumSearchClient.getHoldingsByIds(
+            new BatchIds(IdentifierType.ID, List.of(holdingA.toString()))))
+        .thenReturn(collectionOf(holding(holdingA, "memberA")));
+    when(consortiumSearchClient.getHoldingsByIds(
+            new BatchIds(IdentifierType.ID, List.of(holdingB.toString()))))
+        .thenReturn(collectionOf(holding(holdingB, "memberB")));
+
+    consortiumHoldingsTenantResolver.getTenants(jobExecutionId, List.of(holdingA));
+    var tenants =
+        consortiumHoldingsTenantResolver.getTenants(jobExecutionId, List.of(holdingA, holdingB));
+
+    assertEquals(Map.of(holdingA, "memberA", holdingB, "memberB"), tenants);
+    verify(consortiumSearchClient, times(2)).getHoldingsByIds(any());
+  }
+
+  @Test
+  void getTenantsShouldNotSearchHoldingsNotFoundAgain() {
+    var holdingId = UUID.randomUUID();
+    when(folioExecutionContext.getTenantId()).thenReturn("central");
+    when(consortiumSearchClient.getHoldingsByIds(any())).thenReturn(collectionOf());
+
+    consortiumHoldingsTenantResolver.getTenants(jobExecutionId, List.of(holdingId));
+    var tenants = consortiumHoldingsTenantResolver.getTenants(jobExecutionId, List.of(holdingId));
+
+    assertEquals(Map.of(), tenants);
+    verify(consortiumSearchClient, times(1)).getHoldingsByIds(any());
+  }
+
+  @Test
+  void getTenantsShouldKeepHoldingsPerJobExecutionAndTenant() {
+    var holdingId = UUID.randomUUID();
+    when(folioExecutionContext.getTenantId()).thenReturn("central", "central", "otherCentral");
+    when(consortiumSearchClient.getHoldingsByIds(any()))
+        .thenReturn(collectionOf(holding(holdingId, "memberA")));
+
+    consortiumHoldingsTenantResolver.getTenants(jobExecutionId, List.of(holdingId));
+    consortiumHoldingsTenantResolver.getTenants(UUID.randomUUID(), List.of(holdingId));
+    consortiumHoldingsTenantResolver.getTenants(jobExecutionId, List.of(holdingId));
+
+    verify(consortiumSearchClient, times(3)).getHoldingsByIds(any());
+  }
+
+  @Test
+  void closeShouldDropHoldingsOfJobExecution() {
+    var holdingId = UUID.randomUUID();
+    when(folioExecutionContext.getTenantId()).thenReturn("central");
+    when(consortiumSearchClient.getHoldingsByIds(any()))
+        .thenReturn(collectionOf(holding(holdingId, "memberA")));
+
+    consortiumHoldingsTenantResolver.getTenants(jobExecutionId, List.of(holdingId));
+    consortiumHoldingsTenantResolver.close(jobExecutionId);
+    var tenants = consortiumHoldingsTenantResolver.getTenants(jobExecutionId, List.of(holdingId));
+
+    assertEquals(Map.of(holdingId, "memberA"), tenants);
+    verify(consortiumSearchClient, times(2)).getHoldingsByIds(any());
+  }
+
+  @Test
+  void evictIdleShouldDropHoldingsNotUsedForLongerThanIdleTime() {
+    var holdingId = UUID.randomUUID();
+    when(folioExecutionContext.getTenantId()).thenReturn("central");
+    when(consortiumSearchClient.getHoldingsByIds(any()))
+        .thenReturn(collectionOf(holding(holdingId, "memberA")));
+
+    consortiumHoldingsTenantResolver.getTenants(jobExecutionId, List.of(holdingId));
+    consortiumHoldingsTenantResolver.evictIdle(System.currentTimeMillis() + HOURS.toMillis(2));
+    consortiumHoldingsTenantResolver.getTenants(jobExecutionId, List.of(holdingId));
+
+    verify(consortiumSearchClient, times(2)).getHoldingsByIds(any());
+  }
+
+  @Test
+  void getHoldingsByInstanceIdsShouldSearchInChunks() {
+    var instanceIds = IntStream.range(0, 501).mapToObj(i -> UUID.randomUUID()).toList();
+    var instanceId = instanceIds.getFirst();
+    var holding = holding(UUID.randomUUID(), "memberA");
+    holding.setInstanceId(instanceId.toString());
+    when(consortiumSearchClient.getHoldingsByIds(any()))
+        .thenReturn(collectionOf(holding), collectionOf());
+
+    var holdings = consortiumHoldingsTenantResolver.getHoldingsByInstanceIds(instanceIds);
+
+    assertEquals(Map.of(instanceId, List.of(holding)), holdings);
+    verify(consortiumSearchClient, times(2)).getHoldingsByIds(any());
+  }
+
+  private ConsortiumHolding holding(UUID id, String tenantId) {
+    var holding = new ConsortiumHolding();
+    holding.setId(id.toString());
+    holding.setTenantId(tenantId);
+    return holding;
+  }
+
+  private ConsortiumHoldingCollection collectionOf(ConsortiumHolding... holdings) {
+    var collection = new ConsortiumHoldingCollection();
+    collection.setHoldings(List.of(holdings));
+    return collection;
+  }
+}
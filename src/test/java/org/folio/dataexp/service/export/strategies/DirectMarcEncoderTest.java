@@ -0,0 +1,111 @@
+package org.folio.dataexp.service.export.strategies;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.List;
+import lombok.SneakyThrows;
+import org.folio.dataexp.domain.dto.MappingProfile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DirectMarcEncoderTest {
+
+  private static final String RECORD =
+      """
+      {
+        "fields": [
+          {"001": "in00000000001"},
+          {"005": "20240101120000.0"},
+          {"245": {
+            "subfields": [{"a": "Müller : "}, {"b": "日本語 𝄞"}],
+            "ind1": "1",
+            "ind2": "0"
+          }},
+          {"500": {"ind1": " ", "ind2": " ", "subfields": [{"a": "Note"}]}},
+          {"999": {"ind1": "f", "ind2": "f", "subfields": [{"i": "instance-id"}]}}
+        ],
+        "leader": "00000cam a2200000 a 4500"
+      }""";
+
+  private final DirectMarcEncoder encoder = new DirectMarcEncoder();
+  private final JsonToMarcConverter converter = new JsonToMarcConverter();
+
+  @Test
+  @SneakyThrows
+  void shouldEncodeRecordLikeMarc4j() {
+    var mappingProfile = new MappingProfile();
+
+    var actual = encoder.encode(RECORD, new MarcSuppressProcessor(mappingProfile));
+
+    assertArrayEquals(encodeWithMarc4j(RECORD, mappingProfile), actual);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldSuppressFieldsLikeMarc4j() {
+    var mappingProfile = new MappingProfile().fieldsSuppression("005, 500").suppress999ff(true);
+
+    var actual = encoder.encode(RECORD, new MarcSuppressProcessor(mappingProfile));
+
+    assertArrayEquals(encodeWithMarc4j(RECORD, mappingProfile), actual);
+    assertThat(new String(actual, UTF_8)).doesNotContain("Note", "instance-id", "2024");
+  }
+
+  @Test
+  void shouldReuseBuffersBetweenRecords() {
+    var suppressProcessor = new MarcSuppressProcessor(new MappingProfile());
+    var first = encoder.encode(RECORD, suppressProcessor);
+
+    var second = encoder.encode(RECORD, suppressProcessor);
+
+    assertArrayEquals(first, second);
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        // 001 is moved in front of other control fields by marc4j
+        "{\"leader\": \"00000cam a2200000 a 4500\", \"fields\": [{\"005\": \"1\"},"
+            + " {\"001\": \"2\"}]}",
+        // control field after data field
+        "{\"leader\": \"00000cam a2200000 a 4500\", \"fields\": [{\"245\": {\"ind1\": \" \","
+            + " \"ind2\": \" \", \"subfields\": []}}, {\"005\": \"1\"}]}",
+        // missing indicator
+        "{\"leader\": \"00000cam a2200000 a 4500\", \"fields\": [{\"245\": {\"ind1\": \" \","
+            + " \"subfields\": []}}]}",
+        // leader with non-numeric indicator count
+        "{\"leader\": \"00000cam a  00000 a 4500\", \"fields\": [{\"001\": \"1\"}]}",
+        // unexpected property
+        "{\"leader\": \"00000cam a2200000 a 4500\", \"fields\": [], \"type\": \"MARC_BIB\"}",
+        // malformed JSON
+        "{\"leader\": \"00000cam a2200000 a 4500\", \"fields\": [",
+      })
+  void shouldNotEncodeUnsupportedRecord(String jsonRecord) {
+    var actual = encoder.encode(jsonRecord, new MarcSuppressProcessor(new MappingProfile()));
+
+    assertThat(actual).isNull();
+  }
+
+  @Test
+  void shouldNotEncodeRecordExceedingFieldLength() {
+    var jsonRecord =
+        "{\"leader\": \"00000cam a2200000 a 4500\", \"fields\": [{\"500\": {\"ind1\": \" \","
+            + " \"ind2\": \" \", \"subfields\": [{\"a\": \""
+            + "a".repeat(10_000)
+            + "\"}]}}]}";
+
+    var actual = encoder.encode(jsonRecord, new MarcSuppressProcessor(new MappingProfile()));
+
+    assertThat(actual).isNull();
+  }
+
+  @SneakyThrows
+  private byte[] encodeWithMarc4j(String jsonRecord, MappingProfile mappingProfile) {
+    return converter
+        .convertJsonRecordToMarcRecord(jsonRecord, List.of(), mappingProfile, true)
+        .toByteArray();
+  }
+}
@@ -1,5 +1,6 @@
 package org.folio.dataexp.service.export.strategies;
 
+import static org.folio.dataexp.util.UuidUtils.MIN_UUID;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
@@ -12,9 +13,10 @@ import static org.mockito.Mockito.when;
 import jakarta.persistence.EntityManager;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import org.folio.dataexp.TestMate;
-import org.folio.dataexp.client.ConsortiumSearchClient;
 import org.folio.dataexp.domain.dto.ExportRequest;
 import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.entity.HoldingsRecordEntity;
@@ -29,20 +31,21 @@ import org.folio.dataexp.repository.ItemEntityRepository;
 import org.folio.dataexp.repository.MarcHoldingsAllRepository;
 import org.folio.dataexp.repository.MarcInstanceRecordRepository;
 import org.folio.dataexp.repository.MarcRecordEntityRepository;
-import org.folio.dataexp.service.ConsortiaService;
-import org.folio.dataexp.service.export.LocalStorageWriter;
+import org.folio.dataexp.service.export.ExportWriter;
 import org.folio.dataexp.service.export.strategies.handlers.RuleHandler;
 import org.folio.dataexp.service.transformationfields.ReferenceDataProvider;
-import org.folio.dataexp.service.validators.PermissionsValidator;
+import org.folio.dataexp.util.UuidUtils;
 import org.folio.processor.RuleProcessor;
 import org.folio.spring.FolioExecutionContext;
 import org.folio.spring.FolioModuleMetadata;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -56,11 +59,12 @@ class HoldingsExportAllStrategyTest {
 
   @Mock private ItemEntityRepository itemEntityRepository;
   @Mock private RuleFactory ruleFactory;
+  @Spy private CompiledRulesCache compiledRulesCache;
   @Mock private RuleProcessor ruleProcessor;
   @Mock private RuleHandler ruleHandler;
   @Mock private ReferenceDataProvider referenceDataProvider;
-  @Mock private ConsortiaService consortiaService;
-  @Mock private ConsortiumSearchClient consortiumSearchClient;
+  @Mock private ConsortiumAccessSnapshotService consortiumAccessSnapshotService;
+  @Mock private ConsortiumHoldingsTenantResolver consortiumHoldingsTenantResolver;
   @Mock private HoldingsRecordEntityTenantRepository holdingsRecordEntityTenantRepository;
   @Mock private MarcInstanceRecordRepository marcInstanceRecordRepository;
   @Mock private InstanceCentralTenantRepository instanceCentralTenantRepository;
@@ -69,18 +73,25 @@ class HoldingsExportAllStrategyTest {
   @Mock private MarcRecordEntityRepository marcRecordEntityRepository;
   @Mock private FolioHoldingsAllRepository folioHoldingsAllRepository;
   @Mock private MarcHoldingsAllRepository marcHoldingsAllRepository;
-  @Mock private UserService userService;
-  @Mock private PermissionsValidator permissionsValidator;
   @Mock private FolioExecutionContext folioExecutionContext;
 
   @InjectMocks private HoldingsExportAllStrategy holdingsExportAllStrategy;
 
   @Mock private EntityManager entityManager;
 
-  @Mock private LocalStorageWriter localStorageWriter;
+  @Mock private ExportWriter localStorageWriter;
 
   @Mock private InstanceEntityRepository instanceEntityRepository;
 
+  @BeforeEach
+  void setUp() {
+    // a single thread exports the pages one after another, at the size of the first page
+    holdingsExportAllStrategy.setProcessSlicesThreadPoolSize(1);
+    holdingsExportAllStrategy.setExportIdsBatchMax(1);
+    when(consortiumAccessSnapshotService.get(any()))
+        .thenReturn(new ConsortiumAccessSnapshot("tenant", "", Set.of(), Map.of(), null));
+  }
+
   @Test
   @TestMate(name = "TestMate-183d7632f74bf8f575592cc3dafd05c5")
   void processSlicesShouldProcessFolioAndDefaultMarcSlicesWhenMappingProfileIsDefault() {
@@ -110,14 +121,14 @@ class HoldingsExportAllStrategyTest {
         .thenReturn(folioSlice);
     var marcSlice = new SliceImpl<>(List.of(marcRecord), PageRequest.of(0, 1), false);
     when(marcHoldingsAllRepository.findMarcHoldingsAllNonDeletedNonSuppressed(
-            eq(fromId), eq(toId), any(Pageable.class)))
+            eq(fromId), eq(toId), eq(MIN_UUID), any(Pageable.class)))
         .thenReturn(marcSlice);
     // Use Spy to isolate processSlices routing from complex transformation logic
     var spyStrategy = org.mockito.Mockito.spy(holdingsExportAllStrategy);
     doNothing().when(spyStrategy).createAndSaveGeneratedMarc(any(), any(), any());
     doNothing()
         .when(spyStrategy)
-        .createAndSaveMarcFromJsonRecord(any(), any(), any(), any(), any(), any(), any());
+        .createAndSaveMarcFromJsonRecord(any(), any(), any(), any(), any());
     var exportStatistic = new ExportStrategyStatistic(null);
     var exportFilesEntity =
         new JobExecutionExportFilesEntity()
@@ -128,19 +139,20 @@ class HoldingsExportAllStrategyTest {
         new ExportRequest().deletedRecords(false).lastExport(false).suppressedFromDiscovery(false);
     // When
     spyStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
     // Then
     verify(folioHoldingsAllRepository)
         .findFolioHoldingsAllNonDeletedNonSuppressed(fromId, toId, PageRequest.of(0, 1));
     verify(marcHoldingsAllRepository)
-        .findMarcHoldingsAllNonDeletedNonSuppressed(fromId, toId, PageRequest.of(0, 1));
+        .findMarcHoldingsAllNonDeletedNonSuppressed(fromId, toId, MIN_UUID, PageRequest.of(0, 1));
     verify(folioHoldingsAllRepository, never())
         .findMarcHoldingsAllNonDeletedCustomHoldingsProfile(any(), any(), any());
     verify(folioHoldingsAllRepository, never()).findFolioHoldingsAllDeleted();
     // entityManager.clear() is called 3 times:
-    // 1. in processFolioSlices
+    // 1. after reading the folio slice
     // 2. in getHoldingsWithInstanceAndItems (called by processFolioHoldings)
-    // 3. in processMarcSlices
+    // 3. after reading the marc slice
     verify(entityManager, times(3)).clear();
   }
 
@@ -185,7 +197,8 @@ class HoldingsExportAllStrategyTest {
         new ExportRequest().deletedRecords(false).lastExport(false).suppressedFromDiscovery(false);
     // When
     spyStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
     // Then
     verify(folioHoldingsAllRepository)
         .findFolioHoldingsAllNonDeletedNonSuppressed(fromId, toId, PageRequest.of(0, 1));
@@ -193,15 +206,14 @@ class HoldingsExportAllStrategyTest {
         .findMarcHoldingsAllNonDeletedNonSuppressedCustomHoldingsProfile(
             fromId, toId, PageRequest.of(0, 1));
     verify(marcHoldingsAllRepository, never())
-        .findMarcHoldingsAllNonDeletedNonSuppressed(any(), any(), any());
+        .findMarcHoldingsAllNonDeletedNonSuppressed(any(), any(), any(), any());
     verify(folioHoldingsAllRepository, never()).findFolioHoldingsAllDeleted();
     // entityManager.clear() is called 4 times:
-    // 1. in processFolioSlices
-    // 2. in getHoldingsWithInstanceAndItems (called by processFolioHoldings inside
-    // processFolioSlices)
-    // 3. in processMarcHoldingsSlices
-    // 4. in getHoldingsWithInstanceAndItems (called by processFolioHoldings inside
-    // processMarcHoldingsSlices)
+    // 1. after reading the folio slice
+    // 2. in getHoldingsWithInstanceAndItems (called by processFolioHoldings for the folio page)
+    // 3. after reading the marc holdings slice
+    // 4. in getHoldingsWithInstanceAndItems (called by processFolioHoldings for the marc holdings
+    // page)
     verify(entityManager, times(4)).clear();
     verify(spyStrategy, times(2)).createAndSaveGeneratedMarc(any(), any(), any());
   }
@@ -228,14 +240,14 @@ class HoldingsExportAllStrategyTest {
             eq(fromId), eq(toId), any(Pageable.class)))
         .thenReturn(emptyFolioSlice);
     when(marcHoldingsAllRepository.findMarcHoldingsAllNonDeletedNonSuppressed(
-            eq(fromId), eq(toId), any(Pageable.class)))
+            eq(fromId), eq(toId), eq(MIN_UUID), any(Pageable.class)))
         .thenReturn(emptyMarcSlice);
     var spyStrategy = org.mockito.Mockito.spy(holdingsExportAllStrategy);
 
     doNothing().when(spyStrategy).createAndSaveGeneratedMarc(any(), any(), any());
     doNothing()
         .when(spyStrategy)
-        .createAndSaveMarcFromJsonRecord(any(), any(), any(), any(), any(), any(), any());
+        .createAndSaveMarcFromJsonRecord(any(), any(), any(), any(), any());
     var exportStatistic = new ExportStrategyStatistic(null);
     var jobExecutionId = UUID.fromString("00000000-0000-0000-0000-000000000001");
     var exportFilesEntity =
@@ -250,7 +262,8 @@ class HoldingsExportAllStrategyTest {
             .suppressedFromDiscovery(false);
     // When
     spyStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
 
     // Then
     if (expectedDeletedCalls > 0) {
@@ -262,15 +275,15 @@ class HoldingsExportAllStrategyTest {
     }
 
     // entityManager.clear() is called:
-    // 1. processFolioSlices (direct call)
-    // 2. getHoldingsWithInstanceAndItems (inside processFolioHoldings called by processFolioSlices)
-    // 3. processMarcSlices (direct call because mappingProfile is default)
+    // 1. after reading the folio slice
+    // 2. getHoldingsWithInstanceAndItems (inside processFolioHoldings for the folio page)
+    // 3. after reading the marc slice (because mappingProfile is default)
     int standardClears = 3;
 
-    // If handleDeleted is called:
-    // 4. handleDeleted (direct call before processFolioHoldings)
+    // If the deleted records are exported:
+    // 4. after reading the deleted folio holdings
     // 5. getHoldingsWithInstanceAndItems (inside processFolioHoldings for deleted folio)
-    // 6. handleDeleted (direct call before processMarcHoldings)
+    // 6. after reading the deleted marc holdings
     int deletedClears = expectedDeletedCalls > 0 ? 3 : 0;
 
     verify(entityManager, times(standardClears + deletedClears)).clear();
@@ -313,7 +326,7 @@ class HoldingsExportAllStrategyTest {
         lenient()
             .when(
                 marcHoldingsAllRepository.findMarcHoldingsAllNonDeleted(
-                    eq(fromId), eq(toId), any(Pageable.class)))
+                    eq(fromId), eq(toId), eq(MIN_UUID), any(Pageable.class)))
             .thenReturn(marcSlice);
       } else {
         lenient()
@@ -332,7 +345,7 @@ class HoldingsExportAllStrategyTest {
         lenient()
             .when(
                 marcHoldingsAllRepository.findMarcHoldingsAllNonDeletedNonSuppressed(
-                    eq(fromId), eq(toId), any(Pageable.class)))
+                    eq(fromId), eq(toId), eq(MIN_UUID), any(Pageable.class)))
             .thenReturn(marcSlice);
       } else {
         lenient()
@@ -347,7 +360,7 @@ class HoldingsExportAllStrategyTest {
     doNothing().when(spyStrategy).createAndSaveGeneratedMarc(any(), any(), any());
     doNothing()
         .when(spyStrategy)
-        .createAndSaveMarcFromJsonRecord(any(), any(), any(), any(), any(), any(), any());
+        .createAndSaveMarcFromJsonRecord(any(), any(), any(), any(), any());
     var exportStatistic = new ExportStrategyStatistic(null);
     var exportRequest =
         new ExportRequest()
@@ -362,7 +375,8 @@ class HoldingsExportAllStrategyTest {
             .withToId(toId);
     // When
     spyStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
     // Then
     if (suppressedFromDiscovery) {
       verify(folioHoldingsAllRepository)
@@ -371,9 +385,9 @@ class HoldingsExportAllStrategyTest {
           .findFolioHoldingsAllNonDeletedNonSuppressed(any(), any(), any());
       if (isDefaultProfile) {
         verify(marcHoldingsAllRepository)
-            .findMarcHoldingsAllNonDeleted(fromId, toId, PageRequest.of(0, 1));
+            .findMarcHoldingsAllNonDeleted(fromId, toId, MIN_UUID, PageRequest.of(0, 1));
         verify(marcHoldingsAllRepository, never())
-            .findMarcHoldingsAllNonDeletedNonSuppressed(any(), any(), any());
+            .findMarcHoldingsAllNonDeletedNonSuppressed(any(), any(), any(), any());
       } else {
         verify(folioHoldingsAllRepository)
             .findMarcHoldingsAllNonDeletedCustomHoldingsProfile(fromId, toId, PageRequest.of(0, 1));
@@ -386,9 +400,10 @@ class HoldingsExportAllStrategyTest {
       verify(folioHoldingsAllRepository, never()).findFolioHoldingsAllDeleted();
       if (isDefaultProfile) {
         verify(marcHoldingsAllRepository)
-            .findMarcHoldingsAllNonDeletedNonSuppressed(fromId, toId, PageRequest.of(0, 1));
+            .findMarcHoldingsAllNonDeletedNonSuppressed(
+                fromId, toId, MIN_UUID, PageRequest.of(0, 1));
         verify(marcHoldingsAllRepository, never())
-            .findMarcHoldingsAllNonDeleted(any(), any(), any());
+            .findMarcHoldingsAllNonDeleted(any(), any(), any(), any());
       } else {
         verify(folioHoldingsAllRepository)
             .findMarcHoldingsAllNonDeletedNonSuppressedCustomHoldingsProfile(
@@ -435,32 +450,34 @@ class HoldingsExportAllStrategyTest {
     holdingsExportAllStrategy.folioExecutionContext = folioExecutionContext;
     holdingsExportAllStrategy.setInstanceEntityRepository(instanceEntityRepository);
     var slice0 = new SliceImpl<>(List.of(h1, h2), PageRequest.of(0, 2), true);
-    var slice1 = new SliceImpl<>(List.of(h3, h4), PageRequest.of(1, 2), true);
-    var slice2 = new SliceImpl<>(List.of(h5), PageRequest.of(2, 2), false);
+    var slice1 = new SliceImpl<>(List.of(h3, h4), PageRequest.of(0, 2), true);
+    var slice2 = new SliceImpl<>(List.of(h5), PageRequest.of(0, 2), false);
     var tenantId = "test-tenant";
     var jobExecutionId = UUID.fromString("00000000-0000-0000-0000-000000000001");
     var fromId = UUID.fromString("00000000-0000-0000-0000-000000000002");
     var toId = UUID.fromString("00000000-0000-0000-0000-000000000003");
+    var cursor1 = UuidUtils.next(h2.getId());
+    var cursor2 = UuidUtils.next(h4.getId());
     when(folioExecutionContext.getTenantId()).thenReturn(tenantId);
     when(folioHoldingsAllRepository.findFolioHoldingsAllNonDeletedNonSuppressed(
             fromId, toId, PageRequest.of(0, 2)))
         .thenReturn(slice0);
     when(folioHoldingsAllRepository.findFolioHoldingsAllNonDeletedNonSuppressed(
-            fromId, toId, PageRequest.of(1, 2)))
+            cursor1, toId, PageRequest.of(0, 2)))
         .thenReturn(slice1);
     when(folioHoldingsAllRepository.findFolioHoldingsAllNonDeletedNonSuppressed(
-            fromId, toId, PageRequest.of(2, 2)))
+            cursor2, toId, PageRequest.of(0, 2)))
         .thenReturn(slice2);
 
     // Stub MARC repository to return empty to isolate Folio slice testing
     when(marcHoldingsAllRepository.findMarcHoldingsAllNonDeletedNonSuppressed(
-            eq(fromId), eq(toId), any(Pageable.class)))
+            eq(fromId), eq(toId), eq(MIN_UUID), any(Pageable.class)))
         .thenReturn(new SliceImpl<>(Collections.emptyList(), PageRequest.of(0, 2), false));
     var spyStrategy = org.mockito.Mockito.spy(holdingsExportAllStrategy);
     doNothing().when(spyStrategy).createAndSaveGeneratedMarc(any(), any(), any());
     doNothing()
         .when(spyStrategy)
-        .createAndSaveMarcFromJsonRecord(any(), any(), any(), any(), any(), any(), any());
+        .createAndSaveMarcFromJsonRecord(any(), any(), any(), any(), any());
 
     var exportStatistic = new ExportStrategyStatistic(null);
     var exportRequest =
@@ -472,21 +489,22 @@ class HoldingsExportAllStrategyTest {
             .withToId(toId);
     // When
     spyStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
     // Then
     verify(folioHoldingsAllRepository)
         .findFolioHoldingsAllNonDeletedNonSuppressed(fromId, toId, PageRequest.of(0, 2));
     verify(folioHoldingsAllRepository)
-        .findFolioHoldingsAllNonDeletedNonSuppressed(fromId, toId, PageRequest.of(1, 2));
+        .findFolioHoldingsAllNonDeletedNonSuppressed(cursor1, toId, PageRequest.of(0, 2));
     verify(folioHoldingsAllRepository)
-        .findFolioHoldingsAllNonDeletedNonSuppressed(fromId, toId, PageRequest.of(2, 2));
+        .findFolioHoldingsAllNonDeletedNonSuppressed(cursor2, toId, PageRequest.of(0, 2));
     verify(spyStrategy, times(3)).createAndSaveGeneratedMarc(any(), any(), any());
 
     // entityManager.clear() is called:
-    // 1. In processFolioSlices loop (3 slices = 3 calls)
+    // 1. After reading each folio slice (3 slices = 3 calls)
     // 2. In getHoldingsWithInstanceAndItems (called by processFolioHoldings for each slice = 3
     // calls)
-    // 3. In processMarcSlices (1 call for initial slice)
+    // 3. After reading the marc slice (1 call for initial slice)
     // Total: 7 calls
     verify(entityManager, times(7)).clear();
   }
@@ -6,6 +6,7 @@ import static org.folio.dataexp.service.export.Constants.INSTANCE_HRID_KEY;
 import static org.folio.dataexp.service.export.Constants.ITEMS_KEY;
 import static org.folio.dataexp.util.ErrorCode.ERROR_HOLDINGS_NO_PERMISSION;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -27,9 +28,7 @@ import java.util.UUID;
 import lombok.SneakyThrows;
 import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
-import org.folio.dataexp.client.ConsortiumSearchClient;
 import org.folio.dataexp.domain.dto.ExportRequest;
-import org.folio.dataexp.domain.dto.Holdings;
 import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.dto.RecordTypes;
 import org.folio.dataexp.domain.entity.HoldingsRecordEntity;
@@ -44,11 +43,9 @@ import org.folio.dataexp.repository.InstanceEntityRepository;
 import org.folio.dataexp.repository.ItemEntityRepository;
 import org.folio.dataexp.repository.MarcInstanceRecordRepository;
 import org.folio.dataexp.repository.MarcRecordEntityRepository;
-import org.folio.dataexp.service.ConsortiaService;
 import org.folio.dataexp.service.export.strategies.handlers.RuleHandler;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.service.transformationfields.ReferenceDataProvider;
-import org.folio.dataexp.service.validators.PermissionsValidator;
 import org.folio.processor.RuleProcessor;
 import org.folio.reader.EntityReader;
 import org.folio.spring.FolioExecutionContext;
@@ -71,21 +68,23 @@ class HoldingsExportStrategyTest {
   @Mock private RuleProcessor ruleProcessor;
   @Mock private ItemEntityRepository itemEntityRepository;
   @Mock private RuleFactory ruleFactory;
+  @Spy private CompiledRulesCache compiledRulesCache;
   @Mock private EntityManager entityManager;
   @Mock private ReferenceDataProvider referenceDataProvider;
   @Mock private ErrorLogService errorLogService;
-  @Mock private ConsortiaService consortiaService;
+  @Mock private ConsortiumAccessSnapshotService consortiumAccessSnapshotService;
   @Mock private FolioExecutionContext folioExecutionContext;
-  @Mock private ConsortiumSearchClient consortiumSearchClient;
+  @Mock private ConsortiumHoldingsTenantResolver consortiumHoldingsTenantResolver;
   @Mock private MarcInstanceRecordRepository marcInstanceRecordRepository;
   @Mock private HoldingsRecordEntityTenantRepository holdingsRecordEntityTenantRepository;
   @Mock private InstanceCentralTenantRepository instanceCentralTenantRepository;
   @Spy private RuleHandler ruleHandler;
-  @Mock private PermissionsValidator permissionsValidator;
-  @Mock private UserService userService;
 
   @InjectMocks private HoldingsExportStrategy holdingsExportStrategy;
 
+  private final ConsortiumAccessSnapshot localTenantAccess =
+      new ConsortiumAccessSnapshot("tenant", "centralTenant", Set.of(), Map.of(), null);
+
   @BeforeEach
   void setUp() {
     holdingsExportStrategy.folioExecutionContext = folioExecutionContext;
@@ -96,7 +95,7 @@ class HoldingsExportStrategyTest {
 
   @Test
   void getMarcRecordsTestIfDefaultMappingProfileTest() {
-    when(consortiaService.getCentralTenantId(any())).thenReturn("centralTenant");
+    when(consortiumAccessSnapshotService.get(any())).thenReturn(localTenantAccess);
     var mappingProfile = new MappingProfile();
     mappingProfile.setDefault(true);
     holdingsExportStrategy.getMarcRecords(
@@ -119,16 +118,16 @@ class HoldingsExportStrategyTest {
   @Test
   void getIdentifierMessageTest() {
     var holding = "{'hrid' : '123'}";
-    var holdingRecordEntity =
-        HoldingsRecordEntity.builder().jsonb(holding).id(UUID.randomUUID()).build();
+    var holdingId = UUID.randomUUID();
+    var holdingRecordEntity = HoldingsRecordEntity.builder().jsonb(holding).id(holdingId).build();
 
     when(holdingsRecordEntityRepository.findByIdIn(anySet()))
         .thenReturn(List.of(holdingRecordEntity));
 
-    var opt = holdingsExportStrategy.getIdentifiers(UUID.randomUUID());
+    var identifiers = holdingsExportStrategy.getIdentifiers(Set.of(holdingId)).get(holdingId);
 
-    assertTrue(opt.isPresent());
-    assertEquals("123", opt.get().getIdentifierHridMessage());
+    assertNotNull(identifiers);
+    assertEquals("123", identifiers.getIdentifierHridMessage());
   }
 
   @Test
@@ -137,6 +136,7 @@ class HoldingsExportStrategyTest {
     var holdingRecordEntity =
         HoldingsRecordEntity.builder().jsonb(holding).id(UUID.randomUUID()).build();
 
+    when(consortiumAccessSnapshotService.get(any())).thenReturn(localTenantAccess);
     when(holdingsRecordEntityRepository.findByIdIn(anySet()))
         .thenReturn(List.of(holdingRecordEntity));
     holdingsExportStrategy.getGeneratedMarc(
@@ -144,7 +144,7 @@ class HoldingsExportStrategyTest {
         new MappingProfile(),
         new ExportRequest(),
         UUID.randomUUID(),
-        new ExportStrategyStatistic(new ExportedRecordsListener(null, 1000, null)));
+        new ExportStrategyStatistic(new ExportedRecordsListener()));
 
     verify(ruleFactory).getRules(isA(MappingProfile.class));
     verify(ruleProcessor)
@@ -158,6 +158,7 @@ class HoldingsExportStrategyTest {
     var holdingRecordEntity =
         HoldingsRecordEntity.builder().jsonb(holding).id(UUID.randomUUID()).build();
 
+    when(consortiumAccessSnapshotService.get(any())).thenReturn(localTenantAccess);
     when(holdingsRecordEntityRepository.findByIdIn(anySet()))
         .thenReturn(List.of(holdingRecordEntity));
     doThrow(new MarcException("marc error"))
@@ -169,7 +170,7 @@ class HoldingsExportStrategyTest {
             new MappingProfile(),
             new ExportRequest(),
             UUID.randomUUID(),
-            new ExportStrategyStatistic(new ExportedRecordsListener(null, 1000, null)));
+            new ExportStrategyStatistic(new ExportedRecordsListener()));
     assertEquals(1, generatedMarcResult.getFailedIds().size());
     var actualErrorMessage = List.of("marc error for holding 0eaa7eef-9633-4c7e-af09-796315ebc576");
     verify(ruleFactory).getRules(isA(MappingProfile.class));
@@ -191,14 +192,17 @@ class HoldingsExportStrategyTest {
     var instanceEntity = InstanceEntity.builder().jsonb(instance).id(instanceId).build();
     var mappingProfile = new MappingProfile();
     mappingProfile.setRecordTypes(List.of(RecordTypes.ITEM));
-    var itemEntity = ItemEntity.builder().id(UUID.randomUUID()).jsonb(item).build();
+    var itemEntity =
+        ItemEntity.builder().id(UUID.randomUUID()).jsonb(item).holdingsRecordId(holdingId).build();
 
     var generatedMarcResult = new GeneratedMarcResult(UUID.randomUUID());
 
+    when(consortiumAccessSnapshotService.get(any())).thenReturn(localTenantAccess);
     when(holdingsRecordEntityRepository.findByIdIn(anySet()))
         .thenReturn(List.of(holdingRecordEntity));
     when(instanceEntityRepository.findByIdIn(anySet())).thenReturn(List.of(instanceEntity));
-    when(itemEntityRepository.findByHoldingsRecordIdIs(holdingId)).thenReturn(List.of(itemEntity));
+    when(itemEntityRepository.findByHoldingsRecordIdIn(Set.of(holdingId)))
+        .thenReturn(List.of(itemEntity));
     doNothing().when(holdingsExportStrategy.entityManager).clear();
 
     var holdingsWithInstanceAndItems =
@@ -218,6 +222,58 @@ class HoldingsExportStrategyTest {
     assertEquals(1, itemJsonArray.size());
   }
 
+  @Test
+  void getHoldingsWithInstanceAndItemsShouldLoadItemsOfAllHoldingsAtOnce() {
+    var instanceId = UUID.randomUUID();
+    var holdingIdA = UUID.randomUUID();
+    var holdingIdB = UUID.randomUUID();
+    var instanceEntity =
+        InstanceEntity.builder()
+            .jsonb("{'id' : '%s', 'hrid' : 'instHrid'}".formatted(instanceId))
+            .id(instanceId)
+            .build();
+    var holdingA =
+        HoldingsRecordEntity.builder()
+            .jsonb("{'id' : '%s'}".formatted(holdingIdA))
+            .id(holdingIdA)
+            .instanceId(instanceId)
+            .build();
+    var holdingB =
+        HoldingsRecordEntity.builder()
+            .jsonb("{'id' : '%s'}".formatted(holdingIdB))
+            .id(holdingIdB)
+            .instanceId(instanceId)
+            .build();
+    var itemA1 =
+        ItemEntity.builder().id(UUID.randomUUID()).jsonb("{}").holdingsRecordId(holdingIdA).build();
+    var itemA2 = itemA1.withId(UUID.randomUUID());
+    var mappingProfile = new MappingProfile();
+    mappingProfile.setRecordTypes(List.of(RecordTypes.ITEM));
+
+    when(consortiumAccessSnapshotService.get(any())).thenReturn(localTenantAccess);
+    when(instanceEntityRepository.findByIdIn(anySet())).thenReturn(List.of(instanceEntity));
+    when(itemEntityRepository.findByHoldingsRecordIdIn(Set.of(holdingIdA, holdingIdB)))
+        .thenReturn(List.of(itemA1, itemA2));
+
+    var holdingsWithInstanceAndItems =
+        holdingsExportStrategy.getHoldingsWithInstanceAndItems(
+            new HashSet<>(Set.of(holdingIdA, holdingIdB)),
+            new GeneratedMarcResult(UUID.randomUUID()),
+            mappingProfile,
+            List.of(holdingA, holdingB),
+            Set.of(instanceId));
+
+    var holdingsA = (JSONArray) holdingsWithInstanceAndItems.get(holdingIdA).get(HOLDINGS_KEY);
+    var holdingsB = (JSONArray) holdingsWithInstanceAndItems.get(holdingIdB).get(HOLDINGS_KEY);
+    var holdingJsonA = (JSONObject) holdingsA.get(0);
+    var holdingJsonB = (JSONObject) holdingsB.get(0);
+    assertEquals("instHrid", holdingJsonA.getAsString(INSTANCE_HRID_KEY));
+    assertEquals("instHrid", holdingJsonB.getAsString(INSTANCE_HRID_KEY));
+    assertEquals(2, ((JSONArray) holdingJsonA.get(ITEMS_KEY)).size());
+    assertTrue(((JSONArray) holdingJsonB.get(ITEMS_KEY)).isEmpty());
+    verify(itemEntityRepository, times(1)).findByHoldingsRecordIdIn(anySet());
+  }
+
   @Test
   void getHoldingsWithInstanceAndItemsIfErrorConvertingHoldingToJsonTest() {
     var jobExecutionId = UUID.randomUUID();
@@ -237,6 +293,7 @@ class HoldingsExportStrategyTest {
 
     var generatedMarcResult = new GeneratedMarcResult(jobExecutionId);
 
+    when(consortiumAccessSnapshotService.get(any())).thenReturn(localTenantAccess);
     when(holdingsRecordEntityRepository.findByIdIn(anySet()))
         .thenReturn(List.of(holdingRecordEntity));
     when(instanceEntityRepository.findByIdIn(anySet())).thenReturn(List.of(instanceEntity));
@@ -257,60 +314,38 @@ class HoldingsExportStrategyTest {
 
   @Test
   void getMarcRecordsTestIfCurrentTenantIsCentral() {
-    var userId = UUID.randomUUID();
-    when(consortiaService.getCentralTenantId("centralTenant")).thenReturn("centralTenant");
+    when(consortiumAccessSnapshotService.get(any())).thenReturn(centralTenantAccess());
     when(folioExecutionContext.getTenantId()).thenReturn("centralTenant");
-    when(folioExecutionContext.getUserId()).thenReturn(userId);
-    when(consortiaService.getAffiliatedTenants("centralTenant", userId.toString()))
-        .thenReturn(List.of("memberA", "memberB"));
-    Holdings holdingsA = new Holdings();
-    holdingsA.setTenantId("memberA");
-    Holdings holdingsB = new Holdings();
-    holdingsB.setTenantId("memberB");
-    Holdings holdingsC = new Holdings();
-    holdingsC.setTenantId("centralTenant");
     var uuidA = UUID.randomUUID();
     var uuidB = UUID.randomUUID();
-    when(consortiumSearchClient.getHoldingsById(uuidA.toString())).thenReturn(holdingsA);
-    when(consortiumSearchClient.getHoldingsById(uuidB.toString())).thenReturn(holdingsB);
     var uuidC = UUID.randomUUID();
-    when(consortiumSearchClient.getHoldingsById(uuidC.toString())).thenReturn(holdingsC);
+    var jobExecutionId = UUID.randomUUID();
+    when(consortiumHoldingsTenantResolver.getTenants(jobExecutionId, Set.of(uuidA, uuidB, uuidC)))
+        .thenReturn(Map.of(uuidA, "memberA", uuidB, "memberB", uuidC, "centralTenant"));
     when(marcInstanceRecordRepository.findByExternalIdIn("centralTenant", Set.of(uuidC)))
         .thenReturn(List.of(new MarcRecordEntity().withExternalId(uuidC)));
     when(marcInstanceRecordRepository.findByExternalIdIn("memberA", Set.of(uuidA)))
         .thenReturn(List.of(new MarcRecordEntity().withExternalId(uuidA)));
     when(marcInstanceRecordRepository.findByExternalIdIn("memberB", Set.of(uuidB)))
         .thenReturn(List.of(new MarcRecordEntity().withExternalId(uuidB)));
-    when(permissionsValidator.checkInstanceViewPermissions(any(String.class))).thenReturn(true);
     var mappingProfile = new MappingProfile();
     mappingProfile.setDefault(true);
     var ids = Set.of(uuidA, uuidB, uuidC);
     var res =
         holdingsExportStrategy.getMarcRecords(
-            ids, mappingProfile, new ExportRequest(), UUID.randomUUID());
+            ids, mappingProfile, new ExportRequest(), jobExecutionId);
     assertThat(res).hasSize(3);
   }
 
   @Test
   void getFolioRecordsTestIfCurrentTenantIsCentral() {
-    when(consortiaService.getCentralTenantId(any())).thenReturn("centralTenant");
+    when(consortiumAccessSnapshotService.get(any())).thenReturn(centralTenantAccess());
     when(folioExecutionContext.getTenantId()).thenReturn("centralTenant");
-    when(folioExecutionContext.getUserId()).thenReturn(UUID.randomUUID());
-    when(consortiaService.getAffiliatedTenants(any(), any()))
-        .thenReturn(List.of("memberA", "memberB"));
-    Holdings holdingsA = new Holdings();
-    holdingsA.setTenantId("memberA");
-    Holdings holdingsB = new Holdings();
-    holdingsB.setTenantId("memberB");
-    Holdings holdingsC = new Holdings();
-    holdingsC.setTenantId("centralTenant");
     var uuidA = UUID.randomUUID();
     var uuidB = UUID.randomUUID();
     var uuidC = UUID.randomUUID();
-    when(consortiumSearchClient.getHoldingsById(uuidA.toString())).thenReturn(holdingsA);
-    when(consortiumSearchClient.getHoldingsById(uuidB.toString())).thenReturn(holdingsB);
-    when(consortiumSearchClient.getHoldingsById(uuidC.toString())).thenReturn(holdingsC);
-    when(permissionsValidator.checkInstanceViewPermissions(any(String.class))).thenReturn(true);
+    when(consortiumHoldingsTenantResolver.getTenants(any(), any()))
+        .thenReturn(Map.of(uuidA, "memberA", uuidB, "memberB", uuidC, "centralTenant"));
     var instId = UUID.randomUUID();
     when(instanceCentralTenantRepository.findInstancesByIdIn("centralTenant", Set.of(instId)))
         .thenReturn(
@@ -360,37 +395,42 @@ class HoldingsExportStrategyTest {
   void getHoldingsWithInstanceAndItems_whenNotEnoughPermissionsTest() {
     var mappingProfile = new MappingProfile();
     mappingProfile.setRecordTypes(List.of(RecordTypes.ITEM));
-    var holdings = new Holdings();
-    holdings.setTenantId("college");
     var jobExecutionId = UUID.randomUUID();
 
     var generatedMarcResult = new GeneratedMarcResult(jobExecutionId);
 
     when(folioExecutionContext.getTenantId()).thenReturn("central");
-    when(consortiaService.getCentralTenantId("central")).thenReturn("central");
-    var userId = UUID.randomUUID();
-    when(folioExecutionContext.getUserId()).thenReturn(userId);
+    when(folioExecutionContext.getUserId()).thenReturn(UUID.randomUUID());
+    when(consortiumAccessSnapshotService.get(jobExecutionId))
+        .thenReturn(
+            new ConsortiumAccessSnapshot(
+                "central",
+                "central",
+                Set.of("college"),
+                Map.of("central", true, "college", false),
+                "central_admin"));
     var holdingId = UUID.fromString("0eaa7eef-9633-4c7e-af09-796315ebc576");
-    when(consortiumSearchClient.getHoldingsById(holdingId.toString())).thenReturn(holdings);
-    when(consortiaService.getAffiliatedTenants("central", userId.toString()))
-        .thenReturn(List.of("college"));
-    when(permissionsValidator.checkInstanceViewPermissions("college")).thenReturn(false);
+    when(consortiumHoldingsTenantResolver.getTenants(any(), any()))
+        .thenReturn(Map.of(holdingId, "college"));
     doNothing().when(holdingsExportStrategy.entityManager).clear();
-    when(userService.getUserName("central", userId.toString())).thenReturn("central_admin");
 
     var holdingsWithInstanceAndItems =
         holdingsExportStrategy.getHoldingsWithInstanceAndItems(
             new HashSet<>(Set.of(holdingId)), generatedMarcResult, mappingProfile, jobExecutionId);
 
     assertEquals(0, holdingsWithInstanceAndItems.size());
-    var msgValues =
-        List.of(
-            holdingId.toString(),
-            userService.getUserName(
-                folioExecutionContext.getTenantId(), folioExecutionContext.getUserId().toString()),
-            "college");
+    var msgValues = List.of(holdingId.toString(), "central_admin", "college");
     verify(errorLogService)
         .saveGeneralErrorWithMessageValues(
             ERROR_HOLDINGS_NO_PERMISSION.getCode(), msgValues, jobExecutionId);
   }
+
+  private ConsortiumAccessSnapshot centralTenantAccess() {
+    return new ConsortiumAccessSnapshot(
+        "centralTenant",
+        "centralTenant",
+        Set.of("memberA", "memberB"),
+        Map.of("centralTenant", true, "memberA", true, "memberB", true),
+        "central_admin");
+  }
 }
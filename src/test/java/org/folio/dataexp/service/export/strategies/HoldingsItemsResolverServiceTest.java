@@ -11,7 +11,6 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
@@ -23,12 +22,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import org.folio.dataexp.TestMate;
-import org.folio.dataexp.client.SearchConsortiumHoldings;
 import org.folio.dataexp.domain.dto.ConsortiumHolding;
 import org.folio.dataexp.domain.dto.ConsortiumHoldingCollection;
 import org.folio.dataexp.domain.dto.MappingProfile;
@@ -39,9 +38,8 @@ import org.folio.dataexp.domain.entity.ItemEntity;
 import org.folio.dataexp.repository.HoldingsRecordEntityRepository;
 import org.folio.dataexp.repository.HoldingsRecordEntityTenantRepository;
 import org.folio.dataexp.repository.ItemEntityTenantRepository;
-import org.folio.dataexp.service.ConsortiaService;
+import org.folio.dataexp.service.export.strategies.HoldingsItemsResolverService.InstanceJson;
 import org.folio.dataexp.service.logs.ErrorLogService;
-import org.folio.dataexp.service.validators.PermissionsValidator;
 import org.folio.dataexp.util.ErrorCode;
 import org.folio.spring.FolioExecutionContext;
 import org.junit.jupiter.api.Test;
@@ -56,18 +54,16 @@ class HoldingsItemsResolverServiceTest {
   @Mock private HoldingsRecordEntityRepository holdingsRecordEntityRepository;
   @Mock private HoldingsRecordEntityTenantRepository holdingsRecordEntityTenantRepository;
   @Mock private ItemEntityTenantRepository itemEntityTenantRepository;
-  @Mock private ConsortiaService consortiaService;
-  @Mock private SearchConsortiumHoldings searchConsortiumHoldings;
+  @Mock private ConsortiumHoldingsTenantResolver consortiumHoldingsTenantResolver;
   @Mock private FolioExecutionContext folioExecutionContext;
-  @Mock private UserService userService;
+  @Mock private ConsortiumAccessSnapshotService consortiumAccessSnapshotService;
   @Mock private ErrorLogService errorLogService;
   @Mock private EntityManager entityManager;
-  @Mock private PermissionsValidator permissionsValidator;
 
   @InjectMocks private HoldingsItemsResolverService holdingsItemsResolverService;
 
   @Test
-  void retrieveHoldingsAndItemsByInstanceIdForLocalTenantTest() {
+  void retrieveHoldingsAndItemsByInstanceIdsForLocalTenantTest() {
     var holding = "{'id' : '0eaa7eef-9633-4c7e-af09-796315ebc576'}";
     var holdingId = UUID.fromString("0eaa7eef-9633-4c7e-af09-796315ebc576");
     var instanceId = UUID.fromString("1eaa1eef-1633-4c7e-af09-796315ebc576");
@@ -78,7 +74,9 @@ class HoldingsItemsResolverServiceTest {
         List.of(RecordTypes.INSTANCE, RecordTypes.HOLDINGS, RecordTypes.ITEM));
 
     when(folioExecutionContext.getTenantId()).thenReturn("localTenant");
-    when(holdingsRecordEntityRepository.findByInstanceIdIs(instanceId))
+    when(consortiumAccessSnapshotService.get(any()))
+        .thenReturn(new ConsortiumAccessSnapshot("localTenant", "", Set.of(), Map.of(), null));
+    when(holdingsRecordEntityRepository.findByInstanceIdIn(Set.of(instanceId)))
         .thenReturn(List.of(holdingRecordEntity));
     var item = "{'barcode' : 'itemBarcode'}";
     var itemEntity =
@@ -90,8 +88,10 @@ class HoldingsItemsResolverServiceTest {
     var instanceJson = new JSONObject();
 
     var instanceHrid = "instHrid";
-    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceId(
-        instanceJson, instanceId, instanceHrid, mappingProfile, UUID.randomUUID());
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(new InstanceJson(instanceJson, instanceId, instanceHrid)),
+        mappingProfile,
+        UUID.randomUUID());
 
     var holdingJson = (JSONObject) ((JSONArray) instanceJson.get(HOLDINGS_KEY)).get(0);
     assertEquals("instHrid", holdingJson.getAsString(INSTANCE_HRID_KEY));
@@ -102,7 +102,7 @@ class HoldingsItemsResolverServiceTest {
   }
 
   @Test
-  void retrieveHoldingsAndItemsByInstanceIdForCentralTenantTest() {
+  void retrieveHoldingsAndItemsByInstanceIdsForCentralTenantTest() {
     var user = new User();
     user.setId(UUID.randomUUID().toString());
     user.setUsername("username");
@@ -142,12 +142,18 @@ class HoldingsItemsResolverServiceTest {
     HashMap<String, Collection<String>> okapiHeaders = new HashMap<>();
     okapiHeaders.put("header", List.of("value"));
 
+    var jobExecutionId = UUID.randomUUID();
     when(folioExecutionContext.getTenantId()).thenReturn("central");
-    when(folioExecutionContext.getUserId()).thenReturn(UUID.fromString(user.getId()));
-    when(consortiaService.isCurrentTenantCentralTenant("central")).thenReturn(true);
-    when(consortiaService.getAffiliatedTenants(isA(String.class), isA(String.class)))
-        .thenReturn(List.of("member1", "member2"));
-    when(searchConsortiumHoldings.getHoldingsById(instanceId)).thenReturn(consortiumHoldings);
+    when(consortiumAccessSnapshotService.get(jobExecutionId))
+        .thenReturn(
+            new ConsortiumAccessSnapshot(
+                "central",
+                "central",
+                Set.of("member1", "member2"),
+                Map.of("central", true, "member1", true, "member2", true),
+                user.getUsername()));
+    when(consortiumHoldingsTenantResolver.getHoldingsByInstanceIds(List.of(instanceId)))
+        .thenReturn(Map.of(instanceId, consortiumHoldings.getHoldings()));
     var holding1 = "{'id' : '0eaa7eef-9633-4c7e-af09-796315ebc576'}";
     var holdingRecordEntity1 =
         HoldingsRecordEntity.builder()
@@ -173,16 +179,15 @@ class HoldingsItemsResolverServiceTest {
         .thenReturn(List.of(itemEntity));
     when(itemEntityTenantRepository.findByHoldingsRecordIdIn("member2", Set.of(holdingId2)))
         .thenReturn(List.of());
-    when(userService.getUserName("central", user.getId())).thenReturn(user.getUsername());
     doNothing().when(entityManager).clear();
-    when(permissionsValidator.isInstanceViewPermissionExists(any(String.class))).thenReturn(true);
 
     var instanceJson = new JSONObject();
 
     var instanceHrid = "instHrid";
-    var jobExecutionId = UUID.randomUUID();
-    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceId(
-        instanceJson, instanceId, instanceHrid, mappingProfile, jobExecutionId);
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(new InstanceJson(instanceJson, instanceId, instanceHrid)),
+        mappingProfile,
+        jobExecutionId);
 
     var holdings = (JSONArray) instanceJson.get(HOLDINGS_KEY);
     assertEquals(2, holdings.size());
@@ -194,7 +199,7 @@ class HoldingsItemsResolverServiceTest {
   }
 
   @Test
-  void retrieveHoldingsAndItemsByInstanceIdForCentralTenant_whenNoPermissionForHoldingTest() {
+  void retrieveHoldingsAndItemsByInstanceIdsForCentralTenant_whenNoPermissionForHoldingTest() {
     var user = new User();
     user.setId(UUID.randomUUID().toString());
     user.setUsername("username");
@@ -225,13 +230,18 @@ class HoldingsItemsResolverServiceTest {
     consortiumHoldings.setHoldings(
         List.of(consortiumHolding1, consortiumHolding2, consortiumHolding3));
 
+    var jobExecutionId = UUID.randomUUID();
     when(folioExecutionContext.getTenantId()).thenReturn("central");
-    when(folioExecutionContext.getUserId()).thenReturn(UUID.fromString(user.getId()));
-    when(consortiaService.isCurrentTenantCentralTenant("central")).thenReturn(true);
-    when(consortiaService.getAffiliatedTenants(isA(String.class), isA(String.class)))
-        .thenReturn(List.of("member1", "member2", "member3"));
-    when(searchConsortiumHoldings.getHoldingsById(instanceId)).thenReturn(consortiumHoldings);
-    when(userService.getUserName("central", user.getId())).thenReturn(user.getUsername());
+    when(consortiumAccessSnapshotService.get(jobExecutionId))
+        .thenReturn(
+            new ConsortiumAccessSnapshot(
+                "central",
+                "central",
+                Set.of("member1", "member2", "member3"),
+                Map.of("central", true, "member1", true, "member2", false, "member3", false),
+                user.getUsername()));
+    when(consortiumHoldingsTenantResolver.getHoldingsByInstanceIds(List.of(instanceId)))
+        .thenReturn(Map.of(instanceId, consortiumHoldings.getHoldings()));
     var holding1 = "{'id' : '0eaa7eef-9633-4c7e-af09-796315ebc576'}";
     var holdingRecordEntity1 =
         HoldingsRecordEntity.builder()
@@ -241,16 +251,14 @@ class HoldingsItemsResolverServiceTest {
             .build();
     when(holdingsRecordEntityTenantRepository.findByIdIn("member1", Set.of(holdingId1)))
         .thenReturn(List.of(holdingRecordEntity1));
-    when(permissionsValidator.isInstanceViewPermissionExists("member1")).thenReturn(true);
-    when(permissionsValidator.isInstanceViewPermissionExists("member2")).thenReturn(false);
-    when(permissionsValidator.isInstanceViewPermissionExists("member3")).thenReturn(false);
 
     var instanceJson = new JSONObject();
 
     var instanceHrid = "instHrid";
-    var jobExecutionId = UUID.randomUUID();
-    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceId(
-        instanceJson, instanceId, instanceHrid, mappingProfile, jobExecutionId);
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(new InstanceJson(instanceJson, instanceId, instanceHrid)),
+        mappingProfile,
+        jobExecutionId);
 
     var holdings = (JSONArray) instanceJson.get(HOLDINGS_KEY);
     assertEquals(1, holdings.size());
@@ -263,7 +271,7 @@ class HoldingsItemsResolverServiceTest {
 
   @Test
   @TestMate(name = "TestMate-62ff2cbbfccf6f13577db8b16a2985d2")
-  void testRetrieveHoldingsAndItemsByInstanceIdWhenNoUpdateNeededShouldExitEarly() {
+  void testRetrieveHoldingsAndItemsByInstanceIdsWhenNoUpdateNeededShouldExitEarly() {
     // Given
     var instanceId = UUID.fromString("00000000-0000-0000-0000-000000000001");
     var jobExecutionId = UUID.fromString("00000000-0000-0000-0000-000000000002");
@@ -272,20 +280,22 @@ class HoldingsItemsResolverServiceTest {
     var mappingProfile = new MappingProfile();
     mappingProfile.setRecordTypes(List.of(RecordTypes.INSTANCE));
     // When
-    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceId(
-        instance, instanceId, instanceHrid, mappingProfile, jobExecutionId);
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(new InstanceJson(instance, instanceId, instanceHrid)),
+        mappingProfile,
+        jobExecutionId);
     // Then
     assertTrue(instance.isEmpty());
     assertTrue(!instance.containsKey(HOLDINGS_KEY));
-    verify(consortiaService, never()).isCurrentTenantCentralTenant(any());
-    verify(holdingsRecordEntityRepository, never()).findByInstanceIdIs(any());
-    verify(searchConsortiumHoldings, never()).getHoldingsById(any());
+    verify(consortiumAccessSnapshotService, never()).get(any());
+    verify(holdingsRecordEntityRepository, never()).findByInstanceIdIn(any());
+    verify(consortiumHoldingsTenantResolver, never()).getHoldingsByInstanceIds(any());
     verify(folioExecutionContext, never()).getTenantId();
   }
 
   @Test
   @TestMate(name = "TestMate-602cbca5e4f75b0695c1319ef775ab32")
-  void testRetrieveHoldingsAndItemsByInstanceIdWhenOnlyHoldingsRequestedShouldNotFetchItems() {
+  void testRetrieveHoldingsAndItemsByInstanceIdsWhenOnlyHoldingsRequestedShouldNotFetchItems() {
     // Given
     var instanceId = UUID.fromString("1eaa1eef-1633-4c7e-af09-796315ebc576");
     var holdingId = UUID.fromString("0eaa7eef-9633-4c7e-af09-796315ebc576");
@@ -304,15 +314,18 @@ class HoldingsItemsResolverServiceTest {
             .build();
     final var instance = new JSONObject();
     when(folioExecutionContext.getTenantId()).thenReturn(tenantId);
-    when(consortiaService.isCurrentTenantCentralTenant(tenantId)).thenReturn(false);
-    when(holdingsRecordEntityRepository.findByInstanceIdIs(instanceId))
+    when(consortiumAccessSnapshotService.get(jobExecutionId))
+        .thenReturn(new ConsortiumAccessSnapshot(tenantId, "", Set.of(), Map.of(), null));
+    when(holdingsRecordEntityRepository.findByInstanceIdIn(Set.of(instanceId)))
         .thenReturn(List.of(holdingRecordEntity));
     doNothing().when(entityManager).clear();
     // When
-    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceId(
-        instance, instanceId, instanceHrid, mappingProfile, jobExecutionId);
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(new InstanceJson(instance, instanceId, instanceHrid)),
+        mappingProfile,
+        jobExecutionId);
     // Then
-    verify(holdingsRecordEntityRepository).findByInstanceIdIs(instanceId);
+    verify(holdingsRecordEntityRepository).findByInstanceIdIn(Set.of(instanceId));
     verify(itemEntityTenantRepository, never()).findByHoldingsRecordIdIn(anyString(), anySet());
     verify(entityManager).clear();
     var holdingsArray = (JSONArray) instance.get(HOLDINGS_KEY);
@@ -328,7 +341,7 @@ class HoldingsItemsResolverServiceTest {
 
   @Test
   @TestMate(name = "TestMate-24384d444f63e9c1e8e166b6387e3e81")
-  void testRetrieveHoldingsAndItemsByInstanceIdWhenJsonIsInvalidShouldSkipRecord() {
+  void testRetrieveHoldingsAndItemsByInstanceIdsWhenJsonIsInvalidShouldSkipRecord() {
     // Given
     var instanceId = UUID.fromString("11111111-1111-1111-1111-111111111111");
     var validHoldingId = UUID.fromString("22222222-2222-2222-2222-222222222222");
@@ -368,15 +381,18 @@ class HoldingsItemsResolverServiceTest {
             .build();
     final var instance = new JSONObject();
     when(folioExecutionContext.getTenantId()).thenReturn(tenantId);
-    when(consortiaService.isCurrentTenantCentralTenant(tenantId)).thenReturn(false);
-    when(holdingsRecordEntityRepository.findByInstanceIdIs(instanceId))
+    when(consortiumAccessSnapshotService.get(jobExecutionId))
+        .thenReturn(new ConsortiumAccessSnapshot(tenantId, "", Set.of(), Map.of(), null));
+    when(holdingsRecordEntityRepository.findByInstanceIdIn(Set.of(instanceId)))
         .thenReturn(List.of(validHolding, malformedHolding));
     when(itemEntityTenantRepository.findByHoldingsRecordIdIn(anyString(), anySet()))
         .thenReturn(List.of(validItem, malformedItem));
     doNothing().when(entityManager).clear();
     // When
-    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceId(
-        instance, instanceId, instanceHrid, mappingProfile, jobExecutionId);
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(new InstanceJson(instance, instanceId, instanceHrid)),
+        mappingProfile,
+        jobExecutionId);
     // Then
     assertTrue(instance.containsKey(HOLDINGS_KEY));
     var holdingsArray = (JSONArray) instance.get(HOLDINGS_KEY);
@@ -389,8 +405,8 @@ class HoldingsItemsResolverServiceTest {
     assertEquals(1, itemsArray.size());
     var actualItem = (JSONObject) itemsArray.get(0);
     assertEquals("ABC", actualItem.getAsString("barcode"));
-    // entityManager.clear() is called once in retrieveHoldingsAndItemsByInstanceIdForLocalTenant
-    // and once in addHoldingsAndItems because RecordTypes.ITEM is present in the mapping profile.
+    // entityManager.clear() is called once after the holdings query and once after the items query
+    // because RecordTypes.ITEM is present in the mapping profile.
     verify(entityManager, atLeastOnce()).clear();
   }
 
@@ -400,7 +416,6 @@ class HoldingsItemsResolverServiceTest {
     // Given
     final var instanceId = UUID.fromString("11111111-1111-1111-1111-111111111111");
     final var jobExecutionId = UUID.fromString("22222222-2222-2222-2222-222222222222");
-    final var userId = UUID.fromString("33333333-3333-3333-3333-333333333333");
     var centralTenantId = "central";
     final var memberTenantId = "member1";
     final var memberHoldingId = UUID.fromString("44444444-4444-4444-4444-444444444444");
@@ -425,21 +440,27 @@ class HoldingsItemsResolverServiceTest {
             .jsonb("{\"id\":\"" + memberHoldingId + "\"}")
             .build();
     when(folioExecutionContext.getTenantId()).thenReturn(centralTenantId);
-    when(folioExecutionContext.getUserId()).thenReturn(userId);
-    when(consortiaService.isCurrentTenantCentralTenant(centralTenantId)).thenReturn(true);
-    when(consortiaService.getAffiliatedTenants(centralTenantId, userId.toString()))
-        .thenReturn(List.of(memberTenantId));
-    when(searchConsortiumHoldings.getHoldingsById(instanceId)).thenReturn(consortiumHoldings);
-    when(permissionsValidator.isInstanceViewPermissionExists(memberTenantId)).thenReturn(true);
+    when(consortiumAccessSnapshotService.get(jobExecutionId))
+        .thenReturn(
+            new ConsortiumAccessSnapshot(
+                centralTenantId,
+                centralTenantId,
+                Set.of(memberTenantId),
+                Map.of(centralTenantId, true, memberTenantId, true),
+                "username"));
+    when(consortiumHoldingsTenantResolver.getHoldingsByInstanceIds(List.of(instanceId)))
+        .thenReturn(Map.of(instanceId, consortiumHoldings.getHoldings()));
     when(holdingsRecordEntityTenantRepository.findByIdIn(eq(memberTenantId), anySet()))
         .thenReturn(List.of(memberHoldingEntity));
     doNothing().when(entityManager).clear();
     final var instance = new JSONObject();
     // When
-    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceId(
-        instance, instanceId, instanceHrid, mappingProfile, jobExecutionId);
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(new InstanceJson(instance, instanceId, instanceHrid)),
+        mappingProfile,
+        jobExecutionId);
     // Then
-    verify(searchConsortiumHoldings).getHoldingsById(instanceId);
+    verify(consortiumHoldingsTenantResolver).getHoldingsByInstanceIds(List.of(instanceId));
     verify(holdingsRecordEntityTenantRepository).findByIdIn(eq(memberTenantId), anySet());
     verify(holdingsRecordEntityTenantRepository, never()).findByIdIn(eq(centralTenantId), anySet());
     verify(entityManager).clear();
@@ -453,7 +474,7 @@ class HoldingsItemsResolverServiceTest {
 
   @Test
   @TestMate(name = "TestMate-16c9a9a5d7b3f00a00cddd54e56ffe59")
-  void testRetrieveHoldingsAndItemsByInstanceIdWhenHoldingsAlreadyExistInJsonShouldAppend() {
+  void testRetrieveHoldingsAndItemsByInstanceIdsWhenHoldingsAlreadyExistInJsonShouldAppend() {
     // Given
     final var instanceId = UUID.fromString("1eaa1eef-1633-4c7e-af09-796315ebc576");
     final var jobExecutionId = UUID.fromString("c0ffee00-0000-0000-0000-000000000000");
@@ -482,13 +503,16 @@ class HoldingsItemsResolverServiceTest {
             .jsonb("{\"id\":\"" + holdingId2 + "\"}")
             .build();
     when(folioExecutionContext.getTenantId()).thenReturn(tenantId);
-    when(consortiaService.isCurrentTenantCentralTenant(tenantId)).thenReturn(false);
-    when(holdingsRecordEntityRepository.findByInstanceIdIs(instanceId))
+    when(consortiumAccessSnapshotService.get(jobExecutionId))
+        .thenReturn(new ConsortiumAccessSnapshot(tenantId, "", Set.of(), Map.of(), null));
+    when(holdingsRecordEntityRepository.findByInstanceIdIn(Set.of(instanceId)))
         .thenReturn(List.of(holdingEntity1, holdingEntity2));
     doNothing().when(entityManager).clear();
     // When
-    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceId(
-        instanceJson, instanceId, instanceHrid, mappingProfile, jobExecutionId);
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(new InstanceJson(instanceJson, instanceId, instanceHrid)),
+        mappingProfile,
+        jobExecutionId);
     // Then
     assertTrue(instanceJson.containsKey(HOLDINGS_KEY));
     var finalHoldingsArray = (JSONArray) instanceJson.get(HOLDINGS_KEY);
@@ -507,7 +531,7 @@ class HoldingsItemsResolverServiceTest {
 
   @Test
   @TestMate(name = "TestMate-80ffa7f1cdabfc5cc08fc23bddf12a6")
-  void testRetrieveHoldingsAndItemsByInstanceIdWhenNoHoldingsFoundShouldNotAddKey() {
+  void testRetrieveHoldingsAndItemsByInstanceIdsWhenNoHoldingsFoundShouldNotAddKey() {
     // Given
     final var instanceId = UUID.fromString("00000000-0000-0000-0000-000000000001");
     final var jobExecutionId = UUID.fromString("00000000-0000-0000-0000-000000000002");
@@ -517,18 +541,181 @@ class HoldingsItemsResolverServiceTest {
     var mappingProfile = new MappingProfile();
     mappingProfile.setRecordTypes(List.of(RecordTypes.HOLDINGS));
     when(folioExecutionContext.getTenantId()).thenReturn(tenantId);
-    when(consortiaService.isCurrentTenantCentralTenant(tenantId)).thenReturn(false);
-    when(holdingsRecordEntityRepository.findByInstanceIdIs(instanceId))
+    when(consortiumAccessSnapshotService.get(jobExecutionId))
+        .thenReturn(new ConsortiumAccessSnapshot(tenantId, "", Set.of(), Map.of(), null));
+    when(holdingsRecordEntityRepository.findByInstanceIdIn(Set.of(instanceId)))
         .thenReturn(Collections.emptyList());
     doNothing().when(entityManager).clear();
     // When
-    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceId(
-        instance, instanceId, instanceHrid, mappingProfile, jobExecutionId);
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(new InstanceJson(instance, instanceId, instanceHrid)),
+        mappingProfile,
+        jobExecutionId);
     // Then
     assertTrue(instance.isEmpty());
-    verify(holdingsRecordEntityRepository).findByInstanceIdIs(instanceId);
+    verify(holdingsRecordEntityRepository).findByInstanceIdIn(Set.of(instanceId));
     verify(entityManager).clear();
     verify(itemEntityTenantRepository, never()).findByHoldingsRecordIdIn(anyString(), anySet());
-    verify(searchConsortiumHoldings, never()).getHoldingsById(instanceId);
+    verify(consortiumHoldingsTenantResolver, never()).getHoldingsByInstanceIds(any());
+  }
+
+  @Test
+  void retrieveHoldingsAndItemsByInstanceIdsForLocalTenantShouldQueryOncePerPage() {
+    // Given
+    var instanceId1 = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    var instanceId2 = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    var instanceId3 = UUID.fromString("00000000-0000-0000-0000-000000000003");
+    var holdingId1 = UUID.fromString("00000000-0000-0000-0000-000000000011");
+    var holdingId2 = UUID.fromString("00000000-0000-0000-0000-000000000012");
+    var tenantId = "test-tenant";
+    var mappingProfile = new MappingProfile();
+    mappingProfile.setRecordTypes(List.of(RecordTypes.HOLDINGS, RecordTypes.ITEM));
+    var holding1 =
+        HoldingsRecordEntity.builder()
+            .id(holdingId1)
+            .instanceId(instanceId1)
+            .jsonb("{'id' : '" + holdingId1 + "'}")
+            .build();
+    var holding2 =
+        HoldingsRecordEntity.builder()
+            .id(holdingId2)
+            .instanceId(instanceId2)
+            .jsonb("{'id' : '" + holdingId2 + "'}")
+            .build();
+    var item1 =
+        ItemEntity.builder()
+            .id(UUID.randomUUID())
+            .holdingsRecordId(holdingId1)
+            .jsonb("{'barcode' : 'item1'}")
+            .build();
+    var item2 =
+        ItemEntity.builder()
+            .id(UUID.randomUUID())
+            .holdingsRecordId(holdingId1)
+            .jsonb("{'barcode' : 'item2'}")
+            .build();
+    when(folioExecutionContext.getTenantId()).thenReturn(tenantId);
+    when(consortiumAccessSnapshotService.get(any()))
+        .thenReturn(new ConsortiumAccessSnapshot(tenantId, "", Set.of(), Map.of(), null));
+    when(holdingsRecordEntityRepository.findByInstanceIdIn(
+            Set.of(instanceId1, instanceId2, instanceId3)))
+        .thenReturn(List.of(holding1, holding2));
+    when(itemEntityTenantRepository.findByHoldingsRecordIdIn(
+            tenantId, Set.of(holdingId1, holdingId2)))
+        .thenReturn(List.of(item1, item2));
+    var instance1 = new InstanceJson(new JSONObject(), instanceId1, "hrid1");
+    var instance2 = new InstanceJson(new JSONObject(), instanceId2, "hrid2");
+    var instance3 = new InstanceJson(new JSONObject(), instanceId3, "hrid3");
+    // When
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(instance1, instance2, instance3), mappingProfile, UUID.randomUUID());
+    // Then
+    verify(holdingsRecordEntityRepository).findByInstanceIdIn(anySet());
+    verify(itemEntityTenantRepository).findByHoldingsRecordIdIn(anyString(), anySet());
+    var holdings1 = (JSONArray) instance1.json().get(HOLDINGS_KEY);
+    assertEquals(1, holdings1.size());
+    var holdingJson1 = (JSONObject) holdings1.get(0);
+    assertEquals("hrid1", holdingJson1.getAsString(INSTANCE_HRID_KEY));
+    assertEquals(2, ((JSONArray) holdingJson1.get(ITEMS_KEY)).size());
+    var holdings2 = (JSONArray) instance2.json().get(HOLDINGS_KEY);
+    assertEquals(1, holdings2.size());
+    var holdingJson2 = (JSONObject) holdings2.get(0);
+    assertEquals("hrid2", holdingJson2.getAsString(INSTANCE_HRID_KEY));
+    assertTrue(((JSONArray) holdingJson2.get(ITEMS_KEY)).isEmpty());
+    assertTrue(instance3.json().isEmpty());
+  }
+
+  @Test
+  void retrieveHoldingsAndItemsByInstanceIdsForCentralTenantShouldQueryOncePerTenant() {
+    // Given
+    var instanceId1 = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    var instanceId2 = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    var holdingId1 = UUID.fromString("00000000-0000-0000-0000-000000000011");
+    var holdingId2 = UUID.fromString("00000000-0000-0000-0000-000000000012");
+    var jobExecutionId = UUID.randomUUID();
+    var mappingProfile = new MappingProfile();
+    mappingProfile.setRecordTypes(List.of(RecordTypes.HOLDINGS, RecordTypes.ITEM));
+    var consortiumHolding1 = new ConsortiumHolding();
+    consortiumHolding1.setInstanceId(instanceId1.toString());
+    consortiumHolding1.setId(holdingId1.toString());
+    consortiumHolding1.setTenantId("member1");
+    var consortiumHolding2 = new ConsortiumHolding();
+    consortiumHolding2.setInstanceId(instanceId2.toString());
+    consortiumHolding2.setId(holdingId2.toString());
+    consortiumHolding2.setTenantId("member1");
+    var holding1 =
+        HoldingsRecordEntity.builder()
+            .id(holdingId1)
+            .instanceId(instanceId1)
+            .jsonb("{'id' : '" + holdingId1 + "'}")
+            .build();
+    var holding2 =
+        HoldingsRecordEntity.builder()
+            .id(holdingId2)
+            .instanceId(instanceId2)
+            .jsonb("{'id' : '" + holdingId2 + "'}")
+            .build();
+    var item =
+        ItemEntity.builder()
+            .id(UUID.randomUUID())
+            .holdingsRecordId(holdingId2)
+            .jsonb("{'barcode' : 'item'}")
+            .build();
+    when(folioExecutionContext.getTenantId()).thenReturn("central");
+    when(consortiumAccessSnapshotService.get(jobExecutionId))
+        .thenReturn(
+            new ConsortiumAccessSnapshot(
+                "central",
+                "central",
+                Set.of("member1"),
+                Map.of("central", true, "member1", true),
+                "username"));
+    when(consortiumHoldingsTenantResolver.getHoldingsByInstanceIds(
+            List.of(instanceId1, instanceId2)))
+        .thenReturn(
+            Map.of(
+                instanceId1,
+                List.of(consortiumHolding1),
+                instanceId2,
+                List.of(consortiumHolding2)));
+    when(holdingsRecordEntityTenantRepository.findByIdIn("member1", Set.of(holdingId1, holdingId2)))
+        .thenReturn(List.of(holding1, holding2));
+    when(itemEntityTenantRepository.findByHoldingsRecordIdIn(
+            "member1", Set.of(holdingId1, holdingId2)))
+        .thenReturn(List.of(item));
+    var instance1 = new InstanceJson(new JSONObject(), instanceId1, "hrid1");
+    var instance2 = new InstanceJson(new JSONObject(), instanceId2, "hrid2");
+    // When
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(instance1, instance2), mappingProfile, jobExecutionId);
+    // Then
+    verify(holdingsRecordEntityTenantRepository).findByIdIn(anyString(), anySet());
+    verify(itemEntityTenantRepository).findByHoldingsRecordIdIn(anyString(), anySet());
+    var holdings1 = (JSONArray) instance1.json().get(HOLDINGS_KEY);
+    assertEquals(1, holdings1.size());
+    var holdingJson1 = (JSONObject) holdings1.getFirst();
+    assertEquals(holdingId1.toString(), holdingJson1.getAsString(ID_KEY));
+    assertEquals("hrid1", holdingJson1.getAsString(INSTANCE_HRID_KEY));
+    assertTrue(((JSONArray) holdingJson1.get(ITEMS_KEY)).isEmpty());
+    var holdings2 = (JSONArray) instance2.json().get(HOLDINGS_KEY);
+    assertEquals(1, holdings2.size());
+    var holdingJson2 = (JSONObject) holdings2.getFirst();
+    assertEquals(holdingId2.toString(), holdingJson2.getAsString(ID_KEY));
+    assertEquals("hrid2", holdingJson2.getAsString(INSTANCE_HRID_KEY));
+    assertEquals(1, ((JSONArray) holdingJson2.get(ITEMS_KEY)).size());
+  }
+
+  @Test
+  void retrieveHoldingsAndItemsByInstanceIdsShouldSkipWhenProfileHasNoHoldingsOrItems() {
+    var mappingProfile = new MappingProfile();
+    mappingProfile.setRecordTypes(List.of(RecordTypes.INSTANCE));
+    var instance = new InstanceJson(new JSONObject(), UUID.randomUUID(), "hrid");
+
+    holdingsItemsResolverService.retrieveHoldingsAndItemsByInstanceIds(
+        List.of(instance), mappingProfile, UUID.randomUUID());
+
+    assertTrue(instance.json().isEmpty());
+    verify(holdingsRecordEntityRepository, never()).findByInstanceIdIn(anySet());
+    verify(itemEntityTenantRepository, never()).findByHoldingsRecordIdIn(anyString(), anySet());
   }
 }
@@ -6,8 +6,9 @@ import static org.folio.dataexp.service.export.Constants.DELETED_KEY;
 import static org.folio.dataexp.service.export.Constants.INSTANCE_KEY;
 import static org.folio.dataexp.util.ErrorCode.ERROR_DELETED_TOO_LONG_INSTANCE;
 import static org.folio.dataexp.util.ErrorCode.ERROR_MESSAGE_JSON_CANNOT_BE_CONVERTED_TO_MARC;
+import static org.folio.dataexp.util.UuidUtils.MIN_UUID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.eq;
@@ -20,6 +21,8 @@ import static org.mockito.Mockito.when;
 
 import jakarta.persistence.EntityManager;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -28,23 +31,19 @@ import net.minidev.json.JSONObject;
 import org.apache.maven.shared.utils.StringUtils;
 import org.folio.dataexp.TestMate;
 import org.folio.dataexp.domain.dto.ExportRequest;
-import org.folio.dataexp.domain.dto.JobExecution;
-import org.folio.dataexp.domain.dto.JobExecutionProgress;
 import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.dto.RecordTypes;
 import org.folio.dataexp.domain.entity.AuditInstanceEntity;
 import org.folio.dataexp.domain.entity.InstanceEntity;
-import org.folio.dataexp.domain.entity.JobExecutionEntity;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 import org.folio.dataexp.domain.entity.MarcRecordEntity;
 import org.folio.dataexp.repository.AuditInstanceEntityRepository;
 import org.folio.dataexp.repository.FolioInstanceAllRepository;
 import org.folio.dataexp.repository.InstanceEntityRepository;
-import org.folio.dataexp.repository.JobExecutionEntityRepository;
 import org.folio.dataexp.repository.MarcInstanceAllRepository;
 import org.folio.dataexp.repository.MarcInstanceRecordRepository;
 import org.folio.dataexp.service.ConsortiaService;
-import org.folio.dataexp.service.export.LocalStorageWriter;
+import org.folio.dataexp.service.export.ExportWriter;
 import org.folio.dataexp.service.export.strategies.handlers.RuleHandler;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.service.transformationfields.ReferenceDataProvider;
@@ -58,6 +57,7 @@ import org.mapstruct.ap.internal.util.Collections;
 import org.marc4j.MarcException;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Slice;
@@ -69,15 +69,15 @@ class InstancesExportAllStrategyTest {
 
   @Mock private AuditInstanceEntityRepository auditInstanceEntityRepository;
   @Mock private InstanceEntityRepository instanceEntityRepository;
-  @Mock private JobExecutionEntityRepository jobExecutionEntityRepository;
   @Mock private ErrorLogService errorLogService;
-  @Mock private LocalStorageWriter localStorageWriter;
+  @Mock private ExportWriter localStorageWriter;
   @Mock private HoldingsItemsResolverService holdingsItemsResolver;
   @Mock private JsonToMarcConverter jsonToMarcConverter;
   @Mock private FolioExecutionContext folioExecutionContext;
   @Mock private ConsortiaService consortiaService;
   @Mock private ReferenceDataProvider referenceDataProvider;
   @Mock private RuleFactory ruleFactory;
+  @Spy private CompiledRulesCache compiledRulesCache;
   @Mock private RuleHandler ruleHandler;
   @Mock private RuleProcessor ruleProcessor;
   @Mock private MarcInstanceRecordRepository marcInstanceRecordRepository;
@@ -92,29 +92,31 @@ class InstancesExportAllStrategyTest {
 
   @BeforeEach
   void setUp() {
+    instancesExportAllStrategy.setProcessSlicesThreadPoolSize(1);
     instancesExportAllStrategy.folioExecutionContext = folioExecutionContext;
     instancesExportAllStrategy.setInstanceEntityRepository(instanceEntityRepository);
   }
 
   @Test
   void getIdentifierMessageTest() {
+    var instanceId = UUID.randomUUID();
     var auditInstanceEntity =
-        AuditInstanceEntity.builder().id(UUID.randomUUID()).hrid("123").title("title").build();
+        AuditInstanceEntity.builder().id(instanceId).hrid("123").title("title").build();
 
     when(instanceEntityRepository.findByIdIn(anySet())).thenReturn(List.of());
     when(auditInstanceEntityRepository.findByIdIn(anySet()))
         .thenReturn(List.of(auditInstanceEntity));
 
-    var opt = instancesExportAllStrategy.getIdentifiers(UUID.randomUUID());
+    var identifiers = instancesExportAllStrategy.getIdentifiers(Set.of(instanceId)).get(instanceId);
 
-    assertTrue(opt.isPresent());
-    assertEquals("Instance with HRID : 123", opt.get().getIdentifierHridMessage());
+    assertNotNull(identifiers);
+    assertEquals("Instance with HRID : 123", identifiers.getIdentifierHridMessage());
 
     assertEquals(
         auditInstanceEntity.getId().toString(),
-        opt.get().getAssociatedJsonObject().getAsString("id"));
-    assertEquals("title", opt.get().getAssociatedJsonObject().getAsString("title"));
-    assertEquals("123", opt.get().getAssociatedJsonObject().getAsString("hrid"));
+        identifiers.getAssociatedJsonObject().getAsString("id"));
+    assertEquals("title", identifiers.getAssociatedJsonObject().getAsString("title"));
+    assertEquals("123", identifiers.getAssociatedJsonObject().getAsString("hrid"));
   }
 
   @Test
@@ -123,12 +125,12 @@ class InstancesExportAllStrategyTest {
     when(instanceEntityRepository.findByIdIn(anySet())).thenReturn(List.of());
     when(auditInstanceEntityRepository.findByIdIn(anySet())).thenReturn(List.of());
 
-    var opt = instancesExportAllStrategy.getIdentifiers(instanceId);
+    var identifiers = instancesExportAllStrategy.getIdentifiers(Set.of(instanceId)).get(instanceId);
 
-    assertTrue(opt.isPresent());
+    assertNotNull(identifiers);
     assertEquals(
         "Instance with ID : b9d26945-9757-4855-ae6e-fd5d2f7d778e",
-        opt.get().getIdentifierHridMessage());
+        identifiers.getIdentifierHridMessage());
   }
 
   @Test
@@ -167,23 +169,17 @@ class InstancesExportAllStrategyTest {
     ReflectionTestUtils.setField(
         instancesExportAllStrategy, "jsonToMarcConverter", jsonToMarcConverter);
 
+    var instanceId = UUID.fromString("1eaa1eef-1633-4c7e-af09-796315ebc576");
     var auditInstanceEntity =
-        AuditInstanceEntity.builder().id(UUID.randomUUID()).hrid("123").title("title").build();
+        AuditInstanceEntity.builder().id(instanceId).hrid("123").title("title").build();
     var jobExecutionId = UUID.randomUUID();
-    var instanceId = UUID.fromString("1eaa1eef-1633-4c7e-af09-796315ebc576");
 
     when(instanceEntityRepository.findByIdIn(anySet())).thenReturn(List.of());
-    when(jobExecutionEntityRepository.getReferenceById(jobExecutionId))
-        .thenReturn(
-            new JobExecutionEntity()
-                .withJobExecution(new JobExecution().progress(new JobExecutionProgress())));
     when(auditInstanceEntityRepository.findByIdIn(anySet()))
         .thenReturn(List.of(auditInstanceEntity));
 
     var externalIds = Collections.asSet(instanceId);
-    var statistic =
-        new ExportStrategyStatistic(
-            new ExportedRecordsListener(jobExecutionEntityRepository, 1, jobExecutionId));
+    var statistic = new ExportStrategyStatistic(new ExportedRecordsListener());
     var marcRecordDuplicate =
         MarcRecordEntity.builder().externalId(instanceId).id(UUID.randomUUID()).build();
     var marcRecord =
@@ -192,11 +188,15 @@ class InstancesExportAllStrategyTest {
             .id(UUID.randomUUID())
             .deleted(true)
             .build();
+    var context =
+        new ExportJobContext(
+            new JobExecutionExportFilesEntity().withJobExecutionId(jobExecutionId),
+            new ExportRequest(),
+            new MappingProfile(),
+            statistic);
     instancesExportAllStrategy.createAndSaveMarcFromJsonRecord(
         externalIds,
-        statistic,
-        new MappingProfile(),
-        jobExecutionId,
+        context,
         Set.of(instanceId),
         List.of(marcRecord, marcRecordDuplicate),
         localStorageWriter);
@@ -340,16 +340,18 @@ class InstancesExportAllStrategyTest {
             .build();
     // When
     instancesExportAllStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
     // Then
     verify(folioInstanceAllRepository)
         .findFolioInstanceAllNonDeletedSuppressed(eq(fromId), eq(toId), any(PageRequest.class));
     verify(folioInstanceAllRepository)
         .findMarcInstanceAllNonDeletedCustomInstanceProfile(
             eq(fromId), eq(toId), any(PageRequest.class));
-    verify(marcInstanceAllRepository, never()).findMarcInstanceAllNonDeleted(any(), any(), any());
     verify(marcInstanceAllRepository, never())
-        .findMarcInstanceAllNonDeletedNonSuppressed(any(), any(), any());
+        .findMarcInstanceAllNonDeleted(any(), any(), any(), any());
+    verify(marcInstanceAllRepository, never())
+        .findMarcInstanceAllNonDeletedNonSuppressed(any(), any(), any(), any());
     verify(entityManager, atLeastOnce()).clear();
   }
 
@@ -399,12 +401,12 @@ class InstancesExportAllStrategyTest {
             eq(fromId), eq(toId), any(PageRequest.class)))
         .thenReturn(new SliceImpl<>(List.of()));
     when(marcInstanceAllRepository.findMarcInstanceAllNonDeleted(
-            eq(fromId), eq(toId), any(PageRequest.class)))
+            eq(fromId), eq(toId), eq(MIN_UUID), any(PageRequest.class)))
         .thenReturn(new SliceImpl<>(List.of()));
     when(marcInstanceAllRepository.findMarcInstanceAllDeleted())
         .thenReturn(List.of(deletedMarcRecord));
     when(jsonToMarcConverter.convertJsonRecordToMarcRecord(any(), any(), any()))
-        .thenReturn("marc-content");
+        .thenReturn("marc-content".getBytes(StandardCharsets.UTF_8));
     when(consortiaService.getCentralTenantId(any())).thenReturn("central");
 
     var exportStatistic = new ExportStrategyStatistic(mock(ExportedRecordsListener.class));
@@ -417,16 +419,19 @@ class InstancesExportAllStrategyTest {
 
     // When
     instancesExportAllStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
 
     // Then
     verify(folioInstanceAllRepository)
         .findFolioInstanceAll(eq(fromId), eq(toId), any(PageRequest.class));
     verify(marcInstanceAllRepository)
-        .findMarcInstanceAllNonDeleted(eq(fromId), eq(toId), any(PageRequest.class));
+        .findMarcInstanceAllNonDeleted(
+            eq(fromId), eq(toId), eq(MIN_UUID), any(PageRequest.class));
     verify(marcInstanceAllRepository).findMarcInstanceAllDeleted();
     verify(entityManager, atLeastOnce()).clear();
-    verify(localStorageWriter).write("marc-content");
+    verify(localStorageWriter)
+        .write(ByteBuffer.wrap("marc-content".getBytes(StandardCharsets.UTF_8)));
 
     assertThat(deletedMarcRecord.isDeleted()).isTrue();
   }
@@ -483,7 +488,7 @@ class InstancesExportAllStrategyTest {
             eq(fromId), eq(toId), any(PageRequest.class)))
         .thenReturn(new SliceImpl<>(List.of()));
     when(marcInstanceAllRepository.findMarcInstanceAllNonDeleted(
-            eq(fromId), eq(toId), any(PageRequest.class)))
+            eq(fromId), eq(toId), eq(MIN_UUID), any(PageRequest.class)))
         .thenReturn(new SliceImpl<>(List.of()));
     when(marcInstanceAllRepository.findMarcInstanceAllDeleted())
         .thenReturn(List.of(deletedMarcRecord));
@@ -504,13 +509,15 @@ class InstancesExportAllStrategyTest {
 
     // When
     instancesExportAllStrategy.processSlices(
-        exportFilesEntity, exportStatistic, mappingProfile, exportRequest, localStorageWriter);
+        new ExportJobContext(exportFilesEntity, exportRequest, mappingProfile, exportStatistic),
+        localStorageWriter);
 
     // Then
     verify(folioInstanceAllRepository)
         .findFolioInstanceAll(eq(fromId), eq(toId), any(PageRequest.class));
     verify(marcInstanceAllRepository)
-        .findMarcInstanceAllNonDeleted(eq(fromId), eq(toId), any(PageRequest.class));
+        .findMarcInstanceAllNonDeleted(
+            eq(fromId), eq(toId), eq(MIN_UUID), any(PageRequest.class));
     verify(marcInstanceAllRepository).findMarcInstanceAllDeleted();
     verify(entityManager, atLeastOnce()).clear();
     verify(jsonToMarcConverter, never()).convertJsonRecordToMarcRecord(any(), any(), any());
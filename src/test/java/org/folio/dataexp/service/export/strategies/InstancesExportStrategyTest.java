@@ -18,6 +18,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doNothing;
@@ -59,6 +60,7 @@ import org.folio.dataexp.repository.MappingProfileEntityRepository;
 import org.folio.dataexp.repository.MarcInstanceRecordRepository;
 import org.folio.dataexp.repository.MarcRecordEntityRepository;
 import org.folio.dataexp.service.ConsortiaService;
+import org.folio.dataexp.service.export.strategies.HoldingsItemsResolverService.InstanceJson;
 import org.folio.dataexp.service.export.strategies.handlers.RuleHandler;
 import org.folio.dataexp.service.logs.ErrorLogService;
 import org.folio.dataexp.service.transformationfields.ReferenceDataProvider;
@@ -94,6 +96,7 @@ class InstancesExportStrategyTest {
   @Mock private InstanceWithHridEntityRepository instanceWithHridEntityRepository;
   @Mock private RuleProcessor ruleProcessor;
   @Mock private RuleFactory ruleFactory;
+  @Spy private CompiledRulesCache compiledRulesCache;
   @Mock private ReferenceDataProvider referenceDataProvider;
   @Mock private HoldingsRecordEntityRepository holdingsRecordEntityRepository;
   @Mock private ItemEntityRepository itemEntityRepository;
@@ -175,19 +178,19 @@ class InstancesExportStrategyTest {
   @Test
   void getIdentifierMessageTest() {
     var instance = "{'id' : 'uuid', 'title' : 'title', 'hrid' : '123'}";
-    var instanceRecordEntity =
-        InstanceEntity.builder().jsonb(instance).id(UUID.randomUUID()).build();
+    var instanceId = UUID.randomUUID();
+    var instanceRecordEntity = InstanceEntity.builder().jsonb(instance).id(instanceId).build();
 
     when(instanceEntityRepository.findByIdIn(anySet())).thenReturn(List.of(instanceRecordEntity));
 
-    var opt = instancesExportStrategy.getIdentifiers(UUID.randomUUID());
+    var identifiers = instancesExportStrategy.getIdentifiers(Set.of(instanceId)).get(instanceId);
 
-    assertTrue(opt.isPresent());
-    assertEquals("Instance with HRID: 123", opt.get().getIdentifierHridMessage());
+    assertNotNull(identifiers);
+    assertEquals("Instance with HRID: 123", identifiers.getIdentifierHridMessage());
 
-    assertEquals("uuid", opt.get().getAssociatedJsonObject().getAsString("id"));
-    assertEquals("title", opt.get().getAssociatedJsonObject().getAsString("title"));
-    assertEquals("123", opt.get().getAssociatedJsonObject().getAsString("hrid"));
+    assertEquals("uuid", identifiers.getAssociatedJsonObject().getAsString("id"));
+    assertEquals("title", identifiers.getAssociatedJsonObject().getAsString("title"));
+    assertEquals("123", identifiers.getAssociatedJsonObject().getAsString("hrid"));
   }
 
   @Test
@@ -196,12 +199,31 @@ class InstancesExportStrategyTest {
 
     when(instanceEntityRepository.findByIdIn(anySet())).thenReturn(List.of());
 
-    var opt = instancesExportStrategy.getIdentifiers(instanceId);
+    var identifiers = instancesExportStrategy.getIdentifiers(Set.of(instanceId)).get(instanceId);
 
-    assertTrue(opt.isPresent());
+    assertNotNull(identifiers);
     assertEquals(
         "Instance with ID : b9d26945-9757-4855-ae6e-fd5d2f7d778e",
-        opt.get().getIdentifierHridMessage());
+        identifiers.getIdentifierHridMessage());
+  }
+
+  @Test
+  void getIdentifiersShouldLookUpAllInstancesAtOnce() {
+    var foundId = UUID.randomUUID();
+    var notFoundId = UUID.fromString("b9d26945-9757-4855-ae6e-fd5d2f7d778e");
+    var instance = "{'id' : '" + foundId + "', 'title' : 'title', 'hrid' : '123'}";
+    var instanceRecordEntity = InstanceEntity.builder().jsonb(instance).id(foundId).build();
+
+    when(instanceEntityRepository.findByIdIn(Set.of(foundId, notFoundId)))
+        .thenReturn(List.of(instanceRecordEntity));
+
+    var identifiers = instancesExportStrategy.getIdentifiers(Set.of(foundId, notFoundId));
+
+    assertEquals("Instance with HRID: 123", identifiers.get(foundId).getIdentifierHridMessage());
+    assertEquals(
+        "Instance with ID : b9d26945-9757-4855-ae6e-fd5d2f7d778e",
+        identifiers.get(notFoundId).getIdentifierHridMessage());
+    verify(instanceEntityRepository).findByIdIn(anySet());
   }
 
   @Test
@@ -236,7 +258,7 @@ class InstancesExportStrategyTest {
         mappingProfile,
         new ExportRequest(),
         UUID.randomUUID(),
-        new ExportStrategyStatistic(new ExportedRecordsListener(null, 1000, null)));
+        new ExportStrategyStatistic(new ExportedRecordsListener()));
 
     verify(ruleFactory).getRules(mappingProfileArgumentCaptor.capture());
 
@@ -288,7 +310,7 @@ class InstancesExportStrategyTest {
             mappingProfile,
             new ExportRequest(),
             UUID.randomUUID(),
-            new ExportStrategyStatistic(new ExportedRecordsListener(null, 1000, null)));
+            new ExportStrategyStatistic(new ExportedRecordsListener()));
     assertEquals(1, generatedMarcResult.getFailedIds().size());
     verify(ruleFactory).getRules(mappingProfileArgumentCaptor.capture());
     verify(ruleProcessor)
@@ -326,10 +348,8 @@ class InstancesExportStrategyTest {
             new HashSet<>(Set.of(instanceId, notExistId)), generatedMarcResult, mappingProfile);
 
     verify(holdingsItemsResolverService)
-        .retrieveHoldingsAndItemsByInstanceId(
-            isA(JSONObject.class),
-            eq(instanceId),
-            isA(String.class),
+        .retrieveHoldingsAndItemsByInstanceIds(
+            argThat(instances -> containsInstance(instances, instanceId)),
             isA(MappingProfile.class),
             isA(UUID.class));
 
@@ -371,10 +391,8 @@ class InstancesExportStrategyTest {
             new HashSet<>(Set.of(instanceId, notExistId)), generatedMarcResult, mappingProfile);
 
     verify(holdingsItemsResolverService)
-        .retrieveHoldingsAndItemsByInstanceId(
-            isA(JSONObject.class),
-            eq(instanceId),
-            isA(String.class),
+        .retrieveHoldingsAndItemsByInstanceIds(
+            argThat(instances -> containsInstance(instances, instanceId)),
             isA(MappingProfile.class),
             isA(UUID.class));
     assertEquals(2, instancesWithHoldingsAndItems.size());
@@ -435,10 +453,8 @@ class InstancesExportStrategyTest {
         .thenReturn(true);
     doNothing()
         .when(holdingsItemsResolverService)
-        .retrieveHoldingsAndItemsByInstanceId(
-            isA(JSONObject.class),
-            eq(instanceId),
-            isA(String.class),
+        .retrieveHoldingsAndItemsByInstanceIds(
+            argThat(instances -> containsInstance(instances, instanceId)),
             isA(MappingProfile.class),
             isA(UUID.class));
     when(ruleProcessor.processFields(any(), any(), any(), anyList(), any()))
@@ -449,10 +465,8 @@ class InstancesExportStrategyTest {
             List.of(marcRecord), mappingProfile, UUID.randomUUID());
 
     verify(holdingsItemsResolverService)
-        .retrieveHoldingsAndItemsByInstanceId(
-            isA(JSONObject.class),
-            eq(instanceId),
-            isA(String.class),
+        .retrieveHoldingsAndItemsByInstanceIds(
+            argThat(instances -> containsInstance(instances, instanceId)),
             isA(MappingProfile.class),
             isA(UUID.class));
     assertNotNull(marcFieldsByExternalId);
@@ -869,15 +883,18 @@ class InstancesExportStrategyTest {
     when(instanceEntityRepository.findByIdIn(Set.of(instanceId)))
         .thenReturn(List.of(instanceEntity));
     // When
-    var opt = instancesExportStrategy.getIdentifiers(instanceId);
+    var identifiers = instancesExportStrategy.getIdentifiers(Set.of(instanceId)).get(instanceId);
     // Then
-    assertTrue(opt.isPresent());
-    var exportIdentifiers = opt.get();
-    assertThat(exportIdentifiers.getIdentifierHridMessage()).isEqualTo("Instance with HRID: null");
-    var associatedJson = exportIdentifiers.getAssociatedJsonObject();
+    assertNotNull(identifiers);
+    assertThat(identifiers.getIdentifierHridMessage()).isEqualTo("Instance with HRID: null");
+    var associatedJson = identifiers.getAssociatedJsonObject();
     assertThat(associatedJson.getAsString(ErrorLogService.ID)).isEqualTo(instanceId.toString());
     assertThat(associatedJson.get(ErrorLogService.HRID)).isNull();
     assertThat(associatedJson.get(ErrorLogService.TITLE)).isNull();
     verify(instanceEntityRepository).findByIdIn(Set.of(instanceId));
   }
+
+  private static boolean containsInstance(List<InstanceJson> instances, UUID instanceId) {
+    return instances.stream().anyMatch(instance -> instance.instanceId().equals(instanceId));
+  }
 }
@@ -2,6 +2,7 @@ package org.folio.dataexp.service.export.strategies;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import lombok.SneakyThrows;
 import org.folio.dataexp.domain.dto.MappingProfile;
@@ -29,6 +30,6 @@ class JsonToMarcConverterTest {
         "00067cy  a22000494  4500001001400000tag000300014\u001Eho00000000009\u001Eab\u001E\u001D";
     var actual =
         convertor.convertJsonRecordToMarcRecord(json, List.of(variableField), new MappingProfile());
-    assertEquals(expected, actual);
+    assertEquals(expected, new String(actual, StandardCharsets.UTF_8));
   }
 }
@@ -1,6 +1,8 @@
 package org.folio.dataexp.service.export.strategies.ld;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
@@ -8,16 +10,13 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
-import java.io.StringReader;
-import java.nio.file.Path;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletionException;
 import java.util.stream.IntStream;
 import lombok.Builder;
 import lombok.Setter;
@@ -28,21 +27,21 @@ import org.folio.dataexp.domain.dto.JobExecutionProgress;
 import org.folio.dataexp.domain.dto.LinkedDataResource;
 import org.folio.dataexp.domain.dto.MappingProfile;
 import org.folio.dataexp.domain.entity.ExportIdEntity;
-import org.folio.dataexp.domain.entity.JobExecutionEntity;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesEntity;
 import org.folio.dataexp.domain.entity.JobExecutionExportFilesStatus;
 import org.folio.dataexp.domain.entity.JobProfileEntity;
 import org.folio.dataexp.domain.entity.MappingProfileEntity;
-import org.folio.dataexp.exception.export.LocalStorageWriterException;
+import org.folio.dataexp.exception.export.S3ExportsUploadException;
 import org.folio.dataexp.repository.ExportIdEntityRepository;
-import org.folio.dataexp.repository.JobExecutionEntityRepository;
 import org.folio.dataexp.repository.JobExecutionExportFilesEntityRepository;
 import org.folio.dataexp.repository.JobProfileEntityRepository;
 import org.folio.dataexp.repository.MappingProfileEntityRepository;
 import org.folio.dataexp.service.JobExecutionService;
-import org.folio.dataexp.service.export.LocalStorageWriter;
+import org.folio.dataexp.service.export.ByteArrayExportWriter;
+import org.folio.dataexp.service.export.ExportWriter;
 import org.folio.dataexp.service.export.strategies.ExportedRecordsListener;
 import org.folio.dataexp.service.logs.ErrorLogService;
+import org.folio.dataexp.util.UuidUtils;
 import org.folio.s3.client.FolioS3Client;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -64,9 +63,8 @@ class AbstractLinkedDataExportStrategyTest {
   @Mock private ExportIdEntityRepository exportIdEntityRepository;
   @Mock private MappingProfileEntityRepository mappingProfileEntityRepository;
   @Mock private JobProfileEntityRepository jobProfileEntityRepository;
-  @Mock private JobExecutionEntityRepository jobExecutionEntityRepository;
   @Mock private JobExecutionService jobExecutionService;
-  @Mock private LocalStorageWriter localStorageWriter;
+  @Mock private ExportWriter outputWriter;
   @Mock private ErrorLogService errorLogService;
   @Mock private LinkedDataConverter linkedDataConverter;
 
@@ -82,7 +80,6 @@ class AbstractLinkedDataExportStrategyTest {
   private static class TestPreparation {
     UUID exportId;
     JobExecutionExportFilesEntity exportFilesEntity;
-    JobExecutionEntity jobExecutionEntity;
   }
 
   private List<LinkedDataResource> generateLinkedData(int count) {
@@ -99,7 +96,7 @@ class AbstractLinkedDataExportStrategyTest {
     return linkedDataResources;
   }
 
-  private TestPreparation prepare(int count, boolean include, boolean updateJob) {
+  private TestPreparation prepare(int count, boolean include) {
     var jobProfileEntity = new JobProfileEntity();
     var jobExecution =
         new JobExecution().progress(new JobExecutionProgress()).id(UUID.randomUUID());
@@ -129,32 +126,23 @@ class AbstractLinkedDataExportStrategyTest {
             .withFromId(fromId)
             .withToId(toId)
             .withStatus(JobExecutionExportFilesStatus.ACTIVE);
-    var resourceIndex = new AtomicInteger(0);
-    linkedDataResources.stream()
-        .map(LinkedDataResource::getInventoryId)
-        .map(
-            id -> {
-              return new ExportIdEntity()
-                  .withJobExecutionId(exportFilesEntity.getJobExecutionId())
-                  .withId(resourceIndex.get())
-                  .withInstanceId(UUID.fromString(id));
-            })
-        .map(
-            entity -> {
-              return new SliceImpl<>(
-                  List.of(entity),
-                  PageRequest.of(resourceIndex.get(), 1),
-                  resourceIndex.get() + 1 != linkedDataResources.size());
-            })
-        .forEach(
-            slice -> {
-              when(exportIdEntityRepository.getExportIds(
-                      jobExecution.getId(),
-                      fromId,
-                      toId,
-                      PageRequest.of(resourceIndex.getAndIncrement(), 1)))
-                  .thenReturn(slice);
-            });
+    // Pages are fetched by keyset: each request starts right after the last instance id seen
+    var cursor = fromId;
+    for (var index = 0; index < linkedDataResources.size(); index++) {
+      var instanceId = UUID.fromString(linkedDataResources.get(index).getInventoryId());
+      var entity =
+          new ExportIdEntity()
+              .withJobExecutionId(exportFilesEntity.getJobExecutionId())
+              .withId(index)
+              .withInstanceId(instanceId);
+      var slice =
+          new SliceImpl<>(
+              List.of(entity), PageRequest.of(0, 1), index + 1 != linkedDataResources.size());
+      when(exportIdEntityRepository.getExportIds(
+              jobExecution.getId(), cursor, toId, PageRequest.of(0, 1)))
+          .thenReturn(slice);
+      cursor = UuidUtils.next(instanceId);
+    }
 
     when(jobExecutionService.getById(exportFilesEntity.getJobExecutionId()))
         .thenReturn(jobExecution);
@@ -162,11 +150,6 @@ class AbstractLinkedDataExportStrategyTest {
         .thenReturn(jobProfileEntity);
     when(mappingProfileEntityRepository.getReferenceById(jobProfileEntity.getMappingProfileId()))
         .thenReturn(mappingProfileEntity);
-    var jobExecutionEntity = JobExecutionEntity.fromJobExecution(jobExecution);
-    if (include && updateJob) {
-      when(jobExecutionEntityRepository.getReferenceById(isA(UUID.class)))
-          .thenReturn(jobExecutionEntity);
-    }
 
     UUID exportId = null;
     if (count == 1) {
@@ -176,34 +159,29 @@ class AbstractLinkedDataExportStrategyTest {
     return TestPreparation.builder()
         .exportId(exportId)
         .exportFilesEntity(exportFilesEntity)
-        .jobExecutionEntity(jobExecutionEntity)
         .build();
   }
 
   @SneakyThrows
   @Test
-  void saveOutputToLocalStorageWhenLocalStorageCannotWriteTest() {
+  void saveOutputWhenOutputCannotBeUploadedTest() {
     var output = new ByteArrayOutputStream(2);
     output.write("{}".getBytes());
 
     when(exportIdEntityRepository.countExportIds(isA(UUID.class), isA(UUID.class), isA(UUID.class)))
         .thenReturn(1L);
     when(linkedDataConverter.convertLdJsonToBibframe2Rdf(isA(String.class))).thenReturn(output);
-    doThrow(new LocalStorageWriterException("Cannot write")).when(localStorageWriter).close();
+    doThrow(new S3ExportsUploadException("Cannot write")).when(outputWriter).close();
 
-    var preparation = prepare(1, true, true);
+    var preparation = prepare(1, true);
     var exportStatistic =
-        exportStrategy.saveOutputToLocalStorage(
-            preparation.exportFilesEntity,
-            new ExportRequest(),
-            new ExportedRecordsListener(
-                jobExecutionEntityRepository, 1, preparation.jobExecutionEntity.getId()));
+        exportStrategy.saveOutput(
+            preparation.exportFilesEntity, new ExportRequest(), new ExportedRecordsListener());
 
     assertEquals(0, exportStatistic.getExported());
     assertEquals(0, exportStatistic.getDuplicatedSrs());
     assertEquals(1, exportStatistic.getFailed());
     assertEquals(JobExecutionExportFilesStatus.ACTIVE, preparation.exportFilesEntity.getStatus());
-    verify(jobExecutionEntityRepository, times(1)).save(isA(JobExecutionEntity.class));
     verify(exportIdEntityRepository)
         .countExportIds(
             preparation.exportFilesEntity.getJobExecutionId(),
@@ -213,73 +191,82 @@ class AbstractLinkedDataExportStrategyTest {
 
   @SneakyThrows
   @Test
-  void saveOutputToLocalStorageWhenNoResults() {
-    var preparation = prepare(1, false, false);
+  void saveOutputWhenNoResults() {
+    var preparation = prepare(1, false);
     var exportStatistic =
-        exportStrategy.saveOutputToLocalStorage(
-            preparation.exportFilesEntity,
-            new ExportRequest(),
-            new ExportedRecordsListener(
-                jobExecutionEntityRepository, 1, preparation.jobExecutionEntity.getId()));
+        exportStrategy.saveOutput(
+            preparation.exportFilesEntity, new ExportRequest(), new ExportedRecordsListener());
 
     assertEquals(0, exportStatistic.getExported());
     assertEquals(0, exportStatistic.getDuplicatedSrs());
     assertEquals(0, exportStatistic.getFailed());
     assertEquals(List.of(preparation.exportId), exportStatistic.getNotExistIds());
     assertEquals(JobExecutionExportFilesStatus.ACTIVE, preparation.exportFilesEntity.getStatus());
-    verify(localStorageWriter, never()).write(isA(String.class));
+    verify(outputWriter, never()).write(isA(ByteBuffer.class));
   }
 
   @SneakyThrows
   @Test
-  void saveOutputToLocalStorageConvertErrorTest() {
+  void saveOutputConvertErrorTest() {
     doThrow(JacksonException.class)
         .when(linkedDataConverter)
         .convertLdJsonToBibframe2Rdf(isA(String.class));
 
-    var preparation = prepare(1, true, false);
+    var preparation = prepare(1, true);
+    var listener = new ExportedRecordsListener();
     var exportStatistic =
-        exportStrategy.saveOutputToLocalStorage(
-            preparation.exportFilesEntity,
-            new ExportRequest(),
-            new ExportedRecordsListener(
-                jobExecutionEntityRepository, 1, preparation.jobExecutionEntity.getId()));
+        exportStrategy.saveOutput(preparation.exportFilesEntity, new ExportRequest(), listener);
 
     assertEquals(0, exportStatistic.getExported());
     assertEquals(0, exportStatistic.getDuplicatedSrs());
     assertEquals(1, exportStatistic.getFailed());
     assertEquals(JobExecutionExportFilesStatus.ACTIVE, preparation.exportFilesEntity.getStatus());
     verify(errorLogService, times(1)).saveGeneralError(isA(String.class), isA(UUID.class));
-    verify(jobExecutionEntityRepository, never()).save(isA(JobExecutionEntity.class));
-    verify(localStorageWriter, never()).write(isA(String.class));
+    assertEquals(0, listener.getExported());
+    verify(outputWriter, never()).write(isA(ByteBuffer.class));
   }
 
   // Simulate a batch size of one with one batch handled per thread
   @SneakyThrows
   @ParameterizedTest
   @ValueSource(ints = {1, 2, 3, 10, 15, 100})
-  void saveOutputToLocalStorageMultithreaded(int threads) {
+  void saveOutputMultithreaded(int threads) {
     var output = new ByteArrayOutputStream(2);
     output.write("{}".getBytes());
     when(linkedDataConverter.convertLdJsonToBibframe2Rdf(isA(String.class))).thenReturn(output);
-    when(localStorageWriter.getReader())
-        .thenReturn(Optional.of(new BufferedReader(new StringReader("{}"))));
-    when(localStorageWriter.getPath()).thenReturn(Path.of("/tmp/irrelevant"));
 
-    var preparation = prepare(threads, true, true);
+    var preparation = prepare(threads, true);
+    var listener = new ExportedRecordsListener();
     var exportStatistic =
-        exportStrategy.saveOutputToLocalStorage(
-            preparation.exportFilesEntity,
-            new ExportRequest(),
-            new ExportedRecordsListener(
-                jobExecutionEntityRepository, 1, preparation.jobExecutionEntity.getId()));
+        exportStrategy.saveOutput(preparation.exportFilesEntity, new ExportRequest(), listener);
     assertEquals(threads, exportStatistic.getExported());
     assertEquals(0, exportStatistic.getDuplicatedSrs());
     assertEquals(0, exportStatistic.getFailed());
 
     assertEquals(JobExecutionExportFilesStatus.ACTIVE, preparation.exportFilesEntity.getStatus());
-    verify(jobExecutionEntityRepository, times(threads)).save(isA(JobExecutionEntity.class));
-    verify(localStorageWriter, times(threads + 1)).write(isA(String.class));
+    assertEquals(threads, listener.getExported());
+    // every page is collected in its own buffer and appended to the export file at once
+    verify(outputWriter, times(threads)).write(isA(ByteBuffer.class));
+    verify(outputWriter).close();
+  }
+
+  @SneakyThrows
+  @Test
+  void saveOutputShouldFailWithoutBlockingIfPageFails() {
+    var output = new ByteArrayOutputStream(2);
+    output.write("{}".getBytes());
+    when(linkedDataConverter.convertLdJsonToBibframe2Rdf(isA(String.class))).thenReturn(output);
+    var preparation = prepare(2, true);
+    ((LdTestExportStrategy) exportStrategy).setFailingPages(true);
+    var exportRequest = new ExportRequest();
+    var listener = new ExportedRecordsListener();
+
+    assertThrows(
+        CompletionException.class,
+        () -> exportStrategy.saveOutput(preparation.exportFilesEntity, exportRequest, listener));
+    verify(outputWriter, never()).write(any(ByteBuffer.class));
+    verify(outputWriter).abort();
+    verify(outputWriter, never()).close();
   }
 
   class LdTestExportStrategy extends AbstractLinkedDataExportStrategy {
@@ -289,11 +276,19 @@ class AbstractLinkedDataExportStrategyTest {
     }
 
     @Setter private List<LinkedDataResource> linkedDataResources = new ArrayList<>();
+    @Setter private boolean failingPages;
+
+    @Override
+    protected ExportWriter createOutputWriter(JobExecutionExportFilesEntity exportFilesEntity) {
+      return outputWriter;
+    }
 
     @Override
-    protected LocalStorageWriter createLocalStorageWriter(
-        JobExecutionExportFilesEntity exportFilesEntity, Integer pageNumber) {
-      return localStorageWriter;
+    protected ByteArrayExportWriter createPageWriter() {
+      if (failingPages) {
+        throw new IllegalStateException("No page buffer");
+      }
+      return super.createPageWriter();
     }
 
     @Override
@@ -0,0 +1,113 @@
+package org.folio.dataexp.service.logs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import org.folio.spring.FolioExecutionContext;
+import org.folio.spring.FolioModuleMetadata;
+import org.folio.spring.integration.XOkapiHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@ExtendWith(MockitoExtension.class)
+class ErrorLogBatchWriterTest {
+
+  private static final String USER_ID = "b890b134-736f-4e5a-8351-9c608f3a3a59";
+
+  @Mock private JdbcTemplate jdbcTemplate;
+  @Mock private FolioExecutionContext folioExecutionContext;
+  @Mock private FolioModuleMetadata folioModuleMetadata;
+  @Mock private ThreadPoolTaskScheduler errorLogFlushScheduler;
+  @InjectMocks private ErrorLogBatchWriter errorLogBatchWriter;
+
+  @Captor private ArgumentCaptor<List<Object[]>> batchCaptor;
+  @Captor private ArgumentCaptor<Runnable> flushCaptor;
+
+  private final UUID jobExecutionId = UUID.fromString("a890b134-736f-4e5a-8351-9c608f3a3a58");
+  private final UUID jobProfileId = UUID.fromString("c890b134-736f-4e5a-8351-9c608f3a3a50");
+
+  @BeforeEach
+  void setUp() {
+    errorLogBatchWriter.setBatchSize(2);
+  }
+
+  @Test
+  void writeShouldReturnFalseIfJobIsNotOpen() {
+    var errorLogId = UUID.randomUUID();
+
+    assertFalse(errorLogBatchWriter.write(errorLogId, "{}", new Date(), USER_ID, jobExecutionId));
+
+    assertFalse(errorLogBatchWriter.isOpen(jobExecutionId));
+    verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+  }
+
+  @Test
+  void closeShouldInsertBufferedErrorLogsWithJobProfile() {
+    openJob();
+    var errorLogId = UUID.randomUUID();
+
+    assertTrue(errorLogBatchWriter.write(errorLogId, "{}", new Date(), USER_ID, jobExecutionId));
+    verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    errorLogBatchWriter.close(jobExecutionId);
+
+    verify(jdbcTemplate).batchUpdate(anyString(), batchCaptor.capture());
+    var row = batchCaptor.getValue().getFirst();
+    assertThat(row).hasSize(6).contains(errorLogId, "{}", USER_ID, jobExecutionId, jobProfileId);
+    assertFalse(errorLogBatchWriter.isOpen(jobExecutionId));
+  }
+
+  @Test
+  void writeShouldFlushInBackgroundWhenBatchIsFull() {
+    openJob();
+
+    errorLogBatchWriter.write(UUID.randomUUID(), "{}", new Date(), USER_ID, jobExecutionId);
+    errorLogBatchWriter.write(UUID.randomUUID(), "{}", new Date(), USER_ID, jobExecutionId);
+
+    verify(errorLogFlushScheduler).execute(flushCaptor.capture());
+    flushCaptor.getValue().run();
+    verify(jdbcTemplate).batchUpdate(anyString(), batchCaptor.capture());
+    assertThat(batchCaptor.getValue()).hasSize(2);
+  }
+
+  @Test
+  void flushFailureShouldNotBePropagated() {
+    openJob();
+    when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+        .thenThrow(new DataAccessResourceFailureException("connection lost"));
+    errorLogBatchWriter.write(UUID.randomUUID(), "{}", new Date(), USER_ID, jobExecutionId);
+
+    assertDoesNotThrow(() -> errorLogBatchWriter.close(jobExecutionId));
+  }
+
+  private void openJob() {
+    var headers = new HashMap<String, Collection<String>>();
+    headers.put(XOkapiHeaders.TENANT, List.of("diku"));
+    when(folioExecutionContext.getTenantId()).thenReturn("diku");
+    when(folioExecutionContext.getOkapiHeaders()).thenReturn(headers);
+    when(folioExecutionContext.getAllHeaders()).thenReturn(headers);
+    errorLogBatchWriter.open(jobExecutionId, jobProfileId);
+    verify(errorLogFlushScheduler).scheduleWithFixedDelay(any(Runnable.class), any());
+  }
+}
@@ -69,6 +69,7 @@ class ErrorLogServiceTest {
   @Mock private ObjectMapper objectMapper;
   @Mock private JobExecutionService jobExecutionService;
   @Mock private JobProfileService jobProfileService;
+  @Mock private ErrorLogBatchWriter errorLogBatchWriter;
   @InjectMocks private ErrorLogService errorLogService;
 
   @Captor private ArgumentCaptor<OffsetRequest> offsetRequestCaptor;
@@ -126,6 +127,43 @@ class ErrorLogServiceTest {
             isA(UUID.class), any(), isA(java.util.Date.class), isA(String.class), any(), any());
   }
 
+  @Test
+  @SneakyThrows
+  void saveShouldBufferErrorLogOfOpenJob() {
+    var jobExecutionId = UUID.randomUUID();
+    var userId = UUID.randomUUID();
+    var errorLog = new ErrorLog().jobExecutionId(jobExecutionId);
+    when(folioExecutionContext.getUserId()).thenReturn(userId);
+    when(objectMapper.writeValueAsString(errorLog)).thenReturn("{}");
+    when(errorLogBatchWriter.write(
+            isA(UUID.class), eq("{}"), isA(Date.class), eq(userId.toString()), eq(jobExecutionId)))
+        .thenReturn(true);
+
+    errorLogService.save(errorLog);
+
+    verify(errorLogEntityCqlRepository, never())
+        .insertIfNotExists(any(), any(), any(), any(), any(), any());
+    verify(jobExecutionService, never()).getById(any(UUID.class));
+  }
+
+  @Test
+  void beginBatchShouldResolveJobProfileOnce() {
+    var jobExecutionId = UUID.randomUUID();
+    var jobProfileId = UUID.randomUUID();
+    when(errorLogBatchWriter.isOpen(jobExecutionId)).thenReturn(false, true);
+    when(jobExecutionService.getById(jobExecutionId))
+        .thenReturn(new JobExecution().id(jobExecutionId).jobProfileId(jobProfileId));
+    when(jobProfileService.jobProfileExists(jobProfileId)).thenReturn(true);
+
+    errorLogService.beginBatch(jobExecutionId);
+    errorLogService.beginBatch(jobExecutionId);
+    errorLogService.completeBatch(jobExecutionId);
+
+    verify(errorLogBatchWriter).open(jobExecutionId, jobProfileId);
+    verify(jobExecutionService).getById(jobExecutionId);
+    verify(errorLogBatchWriter).close(jobExecutionId);
+  }
+
   @Test
   void deleteByIdTest() {
     errorLogService.deleteById(UUID.randomUUID());
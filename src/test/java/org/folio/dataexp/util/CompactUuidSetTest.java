@@ -0,0 +1,66 @@
+package org.folio.dataexp.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class CompactUuidSetTest {
+
+  @Test
+  void addTest() {
+    var set = new CompactUuidSet();
+    var uuid = UUID.fromString("7aadccbf-63a1-4c66-bb3a-83365649236c");
+
+    assertTrue(set.add(uuid));
+    assertFalse(set.add(UUID.fromString(uuid.toString())));
+    assertTrue(set.contains(uuid));
+    assertFalse(set.contains(UuidUtils.next(uuid)));
+    assertEquals(1, set.size());
+  }
+
+  @Test
+  void addNilUuidTest() {
+    var set = new CompactUuidSet();
+
+    assertFalse(set.contains(UuidUtils.MIN_UUID));
+    assertTrue(set.add(UuidUtils.MIN_UUID));
+    assertFalse(set.add(UuidUtils.MIN_UUID));
+    assertTrue(set.contains(UuidUtils.MIN_UUID));
+    assertEquals(1, set.size());
+  }
+
+  @Test
+  void addWithResizeTest() {
+    var set = new CompactUuidSet();
+    var expected = new HashSet<UUID>();
+    var sequential = UuidUtils.MIN_UUID;
+    for (int i = 0; i < 10_000; i++) {
+      var random = UUID.randomUUID();
+      sequential = UuidUtils.next(sequential);
+      assertEquals(expected.add(random), set.add(random));
+      assertEquals(expected.add(sequential), set.add(sequential));
+    }
+
+    assertEquals(expected.size(), set.size());
+    expected.forEach(uuid -> assertTrue(set.contains(uuid)));
+    assertFalse(set.add(sequential));
+  }
+
+  @Test
+  void clearTest() {
+    var set = new CompactUuidSet(5_000);
+    var uuid = UUID.randomUUID();
+    set.add(uuid);
+    set.add(UuidUtils.MIN_UUID);
+
+    set.clear();
+
+    assertEquals(0, set.size());
+    assertFalse(set.contains(uuid));
+    assertFalse(set.contains(UuidUtils.MIN_UUID));
+  }
+}
@@ -0,0 +1,35 @@
+package org.folio.dataexp.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class UuidUtilsTest {
+
+  @Test
+  void nextTest() {
+    assertEquals(
+        UUID.fromString("7aadccbf-63a1-4c66-bb3a-83365649236d"),
+        UuidUtils.next(UUID.fromString("7aadccbf-63a1-4c66-bb3a-83365649236c")));
+    assertEquals(
+        UUID.fromString("00000000-0000-0000-0000-000000000001"),
+        UuidUtils.next(UuidUtils.MIN_UUID));
+  }
+
+  @Test
+  void nextWithCarryTest() {
+    assertEquals(
+        UUID.fromString("7aadccbf-63a1-4c67-0000-000000000000"),
+        UuidUtils.next(UUID.fromString("7aadccbf-63a1-4c66-ffff-ffffffffffff")));
+    assertEquals(
+        UUID.fromString("7aadccbf-63a1-4c66-8000-000000000000"),
+        UuidUtils.next(UUID.fromString("7aadccbf-63a1-4c66-7fff-ffffffffffff")));
+  }
+
+  @Test
+  void nextOfMaxUuidTest() {
+    assertThrows(IllegalArgumentException.class, () -> UuidUtils.next(UuidUtils.MAX_UUID));
+  }
+}